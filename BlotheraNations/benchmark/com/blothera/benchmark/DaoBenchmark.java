@@ -0,0 +1,190 @@
+package com.blothera.benchmark;
+
+import com.blothera.NationPlugin;
+import com.blothera.database.Database;
+import com.blothera.database.LecternRegistry;
+import com.blothera.database.NationDAOs.NationDAO;
+import com.blothera.database.TownDAOs.TownClaimDAO;
+import com.blothera.database.TownDAOs.TownDAO;
+import com.blothera.database.TownDAOs.TownLecternDAO;
+import com.blothera.database.TownDAOs.TownMemberDAO;
+import com.blothera.database.TownDAOs.TownMetadataCache;
+import com.blothera.database.WarDAOs.WarAlliesDAO;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmarks of the real DAO methods against a synthetic {@code blothera.db}.
+ * <p>
+ * The database is built once per trial from {@link SyntheticDatabase}, and the in-memory caches
+ * some DAOs answer from are loaded the same way the plugin loads them at startup.
+ * Each invocation looks up the next key from a fixed list, so every run does the same work.
+ * <p>
+ * {@link NationPlugin} cannot be constructed outside a server, a Mockito stub stands in for it
+ * and hands out the database, the config and a logger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    @Param("50")
+    public int nations;
+
+    @Param("5")
+    public int townsPerNation;
+
+    @Param("10")
+    public int membersPerTown;
+
+    @Param("50")
+    public int claimsPerTown;
+
+    @Param("2")
+    public int lecternsPerTown;
+
+    @Param("10")
+    public int wars;
+
+    @Param("5")
+    public int battlesPerWar;
+
+    private Path directory;
+    private Connection connection;
+    private SyntheticDatabase data;
+
+    private TownDAO townDAO;
+    private TownMemberDAO townMemberDAO;
+    private TownLecternDAO townLecternDAO;
+    private NationDAO nationDAO;
+    private WarAlliesDAO warAlliesDAO;
+
+    private String[] townUuids;
+    private String[] memberUuids;
+    private String[] memberTownUuids;
+    private String[] nationNames;
+    private String[] warringNationUuids;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("blothera-benchmark");
+        Logger logger = Logger.getLogger("BlotheraBenchmark");
+        logger.setLevel(java.util.logging.Level.WARNING);
+
+        Database database = mock(Database.class);
+        NationPlugin plugin = mock(NationPlugin.class);
+        when(plugin.getLogger()).thenReturn(logger);
+        when(plugin.getDataFolder()).thenReturn(directory.toFile());
+        when(plugin.getConfig()).thenReturn(new YamlConfiguration());
+        when(plugin.getDatabase()).thenReturn(database);
+
+        Path file = directory.resolve("blothera.db");
+        data = SyntheticDatabase.create(plugin, file, new SyntheticDatabase.Sizes(
+                nations, townsPerNation, membersPerTown, claimsPerTown, lecternsPerTown, wars, battlesPerWar));
+        connection = SyntheticDatabase.open(file);
+
+        TownMetadataCache metadataCache = new TownMetadataCache(plugin, connection);
+        LecternRegistry lecternRegistry = new LecternRegistry(plugin, connection);
+        TownClaimDAO townClaimDAO = new TownClaimDAO(plugin, connection);
+        metadataCache.load();
+        lecternRegistry.load();
+        townClaimDAO.cacheClaims(connection);
+        lecternRegistry.rebuildTownIndex(townClaimDAO);
+        when(database.getTownMetadataCache()).thenReturn(metadataCache);
+        when(database.getLecternRegistry()).thenReturn(lecternRegistry);
+        when(database.getTownClaimDAO()).thenReturn(townClaimDAO);
+
+        townDAO = new TownDAO(plugin, connection);
+        townMemberDAO = new TownMemberDAO(plugin, connection);
+        townLecternDAO = new TownLecternDAO(plugin, connection);
+        nationDAO = new NationDAO(plugin, connection);
+        warAlliesDAO = new WarAlliesDAO(plugin, connection);
+
+        townUuids = toArray(data.getTownUuids());
+        memberUuids = toArray(data.getMemberUuids());
+        memberTownUuids = toArray(data.getMemberTownUuids());
+        nationNames = toArray(data.getNationNames());
+        warringNationUuids = toArray(data.getWarringNationUuids());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public String townDAOGetTownName() {
+        return townDAO.getTownName(next(townUuids));
+    }
+
+    @Benchmark
+    public boolean townMemberDAOIsMemberOfTown() {
+        int i = nextIndex(memberUuids.length);
+        return townMemberDAO.isMemberOfTown(memberUuids[i], memberTownUuids[i]);
+    }
+
+    @Benchmark
+    public boolean townLecternDAOTownHasLectern() {
+        return townLecternDAO.townHasLectern(next(townUuids));
+    }
+
+    @Benchmark
+    public String nationDAOGetNationUUIDByName() {
+        return nationDAO.getNationUUIDByName(next(nationNames));
+    }
+
+    @Benchmark
+    public int warAlliesDAOGetOngoingWarIdByNation() {
+        return warAlliesDAO.getOngoingWarIdByNation(next(warringNationUuids));
+    }
+
+    private String next(String[] keys) {
+        return keys[nextIndex(keys.length)];
+    }
+
+    private int nextIndex(int length) {
+        int index = cursor++ % length;
+        if (cursor == Integer.MAX_VALUE) cursor = 0;
+        return index;
+    }
+
+    private static String[] toArray(List<String> values) {
+        if (values.isEmpty()) throw new IllegalStateException("The synthetic database is empty, raise the sizes");
+        return values.toArray(String[]::new);
+    }
+}
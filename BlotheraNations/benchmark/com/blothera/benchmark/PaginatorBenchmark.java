@@ -0,0 +1,184 @@
+package com.blothera.benchmark;
+
+import com.blothera.book.BookPaginator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.blothera.util.NationConstants.*;
+
+/**
+ * Benchmarks of book pagination, comparing {@link BookPaginator} with the word-splitting
+ * paginator {@code BookHandler} used before it, which is kept here as {@link #legacyPaginate(String)}.
+ * <p>
+ * The input is shaped like a town info book: a bold header followed by one line per member,
+ * with a blank line every ten members. Member names come from a fixed seed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaginatorBenchmark {
+
+    private static final long SEED = 0x5EED_B107L;
+
+    @Param({"200", "2000"})
+    public int members;
+
+    private List<String> lines;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        lines = new ArrayList<>(members + members / 10 + 2);
+        lines.add("§lMembers of the Town of Benchmark§r");
+        lines.add("");
+        for (int i = 0; i < members; i++) {
+            lines.add(" - " + name(random) + (i == 0 ? " (Leader)" : ""));
+            if (i % 10 == 9) lines.add("");
+        }
+        text = String.join("\n", lines);
+    }
+
+    @Benchmark
+    public List<String> legacyPaginateString() {
+        return legacyPaginate(text);
+    }
+
+    @Benchmark
+    public List<String> legacyPaginateLines() {
+        return legacyPaginate(String.join("\n", lines));
+    }
+
+    @Benchmark
+    public List<String> paginatorPaginateString() {
+        return BookPaginator.paginate(text);
+    }
+
+    @Benchmark
+    public List<String> paginatorPaginateLines() {
+        BookPaginator paginator = new BookPaginator();
+        for (String line : lines) {
+            if (paginator.isFull()) break;
+            paginator.append(line);
+        }
+        return paginator.finish();
+    }
+
+    private static String name(Random random) {
+        int length = 3 + random.nextInt(14);
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                name.append((char) ('a' + random.nextInt(26)));
+            } else if (kind < 8) {
+                name.append((char) ('A' + random.nextInt(26)));
+            } else if (kind < 9) {
+                name.append((char) ('0' + random.nextInt(10)));
+            } else {
+                name.append('_');
+            }
+        }
+        return name.toString();
+    }
+
+    private static List<String> legacyPaginate(String raw) {
+        List<String> pages = new ArrayList<>();
+        List<String> currentLines = new ArrayList<>();
+
+        for (String paragraph : raw.split("\n")) {
+            StringBuilder line = new StringBuilder();
+            int lineWidth = 0;
+
+            if (paragraph.isBlank()) {
+                if (currentLines.size() < MAX_LINES_PER_PAGE) {
+                    currentLines.add("");
+                } else {
+                    pages.add(String.join("\n", currentLines));
+                    currentLines.clear();
+                }
+                continue;
+            }
+
+            for (String word : paragraph.split(" ")) {
+                int wordWidth = legacyPixelWidth(word + " ");
+                if (lineWidth + wordWidth > MAX_LINE_WIDTH) {
+                    String builtLine = line.toString().stripTrailing();
+                    if (currentLines.size() >= MAX_LINES_PER_PAGE) {
+                        pages.add(String.join("\n", currentLines));
+                        currentLines.clear();
+                    }
+                    currentLines.add(builtLine);
+                    line = new StringBuilder();
+                    lineWidth = 0;
+                }
+
+                line.append(word).append(" ");
+                lineWidth += wordWidth;
+            }
+
+            if (!line.isEmpty()) {
+                if (currentLines.size() >= MAX_LINES_PER_PAGE) {
+                    pages.add(String.join("\n", currentLines));
+                    currentLines.clear();
+                }
+                currentLines.add(line.toString().stripTrailing());
+            }
+        }
+
+        while (!currentLines.isEmpty() && currentLines.getFirst().isBlank()) {
+            currentLines.removeFirst();
+        }
+        if (!currentLines.isEmpty()) {
+            pages.add(String.join("\n", currentLines));
+        }
+        return pages;
+    }
+
+    private static int legacyPixelWidth(String line) {
+        int width = 0;
+        boolean skipNext = false;
+        boolean bold = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (skipNext) {
+                skipNext = false;
+                switch (c) {
+                    case 'l' -> bold = true;
+                    case 'r' -> bold = false;
+                }
+                continue;
+            }
+            if (c == '§') {
+                skipNext = true;
+                continue;
+            }
+
+            int charWidth = CHARACTER_WIDTHS.getOrDefault(c, 6);
+            if (bold && c != ' ') {
+                charWidth += 1;
+            }
+            width += charWidth;
+        }
+        return width;
+    }
+}
@@ -0,0 +1,266 @@
+package com.blothera.benchmark;
+
+import com.blothera.NationPlugin;
+import com.blothera.database.Database;
+import com.blothera.database.SchemaMigrator;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Builds a {@code blothera.db} filled with synthetic nations, towns, members, claims, lecterns,
+ * wars and battles, using the plugin's real schema and migrations.
+ * <p>
+ * All ids come from a fixed seed, so the same sizes always produce the same database,
+ * and benchmark results can be compared across commits.
+ */
+public final class SyntheticDatabase {
+
+    private static final long SEED = 0x5EED_B107L;
+    private static final String WORLD = "world";
+    private static final int TOWN_SPACING_CHUNKS = 64;
+
+    private final List<String> nationUuids = new ArrayList<>();
+    private final List<String> nationNames = new ArrayList<>();
+    private final List<String> townUuids = new ArrayList<>();
+    private final List<String> memberUuids = new ArrayList<>();
+    private final List<String> memberTownUuids = new ArrayList<>();
+    private final List<String> warringNationUuids = new ArrayList<>();
+
+    private SyntheticDatabase() {
+    }
+
+    /**
+     * Creates and fills the database file. Existing rows are not removed, pass a new file.
+     *
+     * @param plugin The stub plugin, used for the migrator's logging.
+     * @param file   The database file to create.
+     * @param sizes  How many rows of each kind to create.
+     * @return The ids of the created rows, to draw benchmark keys from.
+     * @throws SQLException if the database cannot be built.
+     */
+    public static SyntheticDatabase create(NationPlugin plugin, Path file, Sizes sizes) throws SQLException {
+        SyntheticDatabase data = new SyntheticDatabase();
+        try (Connection connection = open(file)) {
+            Database.createTables(connection);
+            new SchemaMigrator(plugin, connection).migrate();
+
+            connection.setAutoCommit(false);
+            data.fill(connection, sizes, new Random(SEED));
+            connection.commit();
+            connection.setAutoCommit(true);
+
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("ANALYZE;");
+                stmt.execute("PRAGMA wal_checkpoint(TRUNCATE);");
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Opens a connection configured like the plugin's main connection.
+     *
+     * @param file The database file.
+     * @return The connection.
+     * @throws SQLException if the connection cannot be opened.
+     */
+    public static Connection open(Path file) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+        try (Statement pragma = connection.createStatement()) {
+            pragma.execute("PRAGMA foreign_keys = ON;");
+            pragma.execute("PRAGMA journal_mode = WAL;");
+            pragma.execute("PRAGMA busy_timeout = 5000;");
+        }
+        return connection;
+    }
+
+    private void fill(Connection connection, Sizes sizes, Random random) throws SQLException {
+        try (PreparedStatement nation = connection.prepareStatement(
+                "INSERT INTO nations (uuid, name, leader_uuid) VALUES (?, ?, ?)");
+             PreparedStatement nationMember = connection.prepareStatement(
+                     "INSERT INTO nation_members (uuid, nation_uuid) VALUES (?, ?)");
+             PreparedStatement town = connection.prepareStatement(
+                     "INSERT INTO towns (uuid, nation_uuid, name, is_capital, leader_uuid) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement townMember = connection.prepareStatement(
+                     "INSERT INTO town_members (player_uuid, town_uuid) VALUES (?, ?)");
+             PreparedStatement claim = connection.prepareStatement(
+                     "INSERT INTO town_claims (town_uuid, world, chunk_x, chunk_z) VALUES (?, ?, ?, ?)");
+             PreparedStatement lectern = connection.prepareStatement(
+                     "INSERT INTO town_lecterns (world, x, y, z) VALUES (?, ?, ?, ?)")) {
+
+            int townIndex = 0;
+            for (int n = 0; n < sizes.nations(); n++) {
+                String nationUuid = uuid(random);
+                String nationName = "Nation " + n;
+                List<String> nationMembers = new ArrayList<>();
+
+                for (int t = 0; t < sizes.townsPerNation(); t++, townIndex++) {
+                    String townUuid = uuid(random);
+                    List<String> members = new ArrayList<>();
+                    for (int m = 0; m < Math.max(1, sizes.membersPerTown()); m++) {
+                        members.add(uuid(random));
+                    }
+
+                    town.setString(1, townUuid);
+                    town.setString(2, nationUuid);
+                    town.setString(3, "Town " + townIndex);
+                    town.setInt(4, t == 0 ? 1 : 0);
+                    town.setString(5, members.getFirst());
+                    town.addBatch();
+
+                    for (String member : members) {
+                        townMember.setString(1, member);
+                        townMember.setString(2, townUuid);
+                        townMember.addBatch();
+                        memberUuids.add(member);
+                        memberTownUuids.add(townUuid);
+                    }
+                    nationMembers.addAll(members);
+
+                    // Towns sit on a grid, each claiming a square block of chunks from its grid corner
+                    int baseX = (townIndex % 256) * TOWN_SPACING_CHUNKS;
+                    int baseZ = (townIndex / 256) * TOWN_SPACING_CHUNKS;
+                    int side = (int) Math.ceil(Math.sqrt(sizes.claimsPerTown()));
+                    for (int c = 0; c < sizes.claimsPerTown(); c++) {
+                        claim.setString(1, townUuid);
+                        claim.setString(2, WORLD);
+                        claim.setInt(3, baseX + c % side);
+                        claim.setInt(4, baseZ + c / side);
+                        claim.addBatch();
+                    }
+                    for (int l = 0; l < sizes.lecternsPerTown(); l++) {
+                        lectern.setString(1, WORLD);
+                        lectern.setInt(2, (baseX + l % Math.max(1, side)) * 16 + 8);
+                        lectern.setInt(3, 64 + l / Math.max(1, side));
+                        lectern.setInt(4, baseZ * 16 + 8);
+                        lectern.addBatch();
+                    }
+                    townUuids.add(townUuid);
+                }
+
+                nation.setString(1, nationUuid);
+                nation.setString(2, nationName);
+                nation.setString(3, nationMembers.isEmpty() ? uuid(random) : nationMembers.getFirst());
+                nation.addBatch();
+                for (String member : nationMembers) {
+                    nationMember.setString(1, member);
+                    nationMember.setString(2, nationUuid);
+                    nationMember.addBatch();
+                }
+                nationUuids.add(nationUuid);
+                nationNames.add(nationName);
+            }
+
+            nation.executeBatch();
+            nationMember.executeBatch();
+            town.executeBatch();
+            townMember.executeBatch();
+            claim.executeBatch();
+            lectern.executeBatch();
+        }
+        fillWars(connection, sizes, random);
+    }
+
+    /**
+     * Each war is fought between two neighbouring nations, with a third nation allied to the attacker.
+     */
+    private void fillWars(Connection connection, Sizes sizes, Random random) throws SQLException {
+        int wars = Math.min(sizes.wars(), nationUuids.size() / 3);
+        try (PreparedStatement relation = connection.prepareStatement(
+                "INSERT INTO diplomatic_relations (nation_a, nation_b, relation_type) VALUES (?, ?, 'WAR')");
+             PreparedStatement war = connection.prepareStatement(
+                     "INSERT INTO wars (id, relation_id, attacker_nation_uuid, defender_nation_uuid, casus_belli, total_battles) " +
+                             "VALUES (?, (SELECT id FROM diplomatic_relations WHERE nation_a = ? AND nation_b = ?), ?, ?, 'Benchmark', ?)");
+             PreparedStatement ally = connection.prepareStatement(
+                     "INSERT INTO war_allies (war_id, ally_nation_uuid, side, accepted) VALUES (?, ?, ?, 1)");
+             PreparedStatement battle = connection.prepareStatement(
+                     "INSERT INTO war_battles (war_id, scheduled_date, slot, location) VALUES (?, DATE('now', ?), ?, ?)")) {
+
+            for (int w = 0; w < wars; w++) {
+                String attacker = nationUuids.get(3 * w);
+                String defender = nationUuids.get(3 * w + 1);
+                String attackerAlly = nationUuids.get(3 * w + 2);
+                int id = w + 1;
+
+                relation.setString(1, attacker);
+                relation.setString(2, defender);
+                relation.executeUpdate();
+
+                war.setInt(1, id);
+                war.setString(2, attacker);
+                war.setString(3, defender);
+                war.setString(4, attacker);
+                war.setString(5, defender);
+                war.setInt(6, sizes.battlesPerWar());
+                war.executeUpdate();
+
+                for (String[] side : List.of(new String[]{attacker, "attacker"}, new String[]{defender, "defender"},
+                        new String[]{attackerAlly, "attacker"})) {
+                    ally.setInt(1, id);
+                    ally.setString(2, side[0]);
+                    ally.setString(3, side[1]);
+                    ally.addBatch();
+                    warringNationUuids.add(side[0]);
+                }
+                for (int b = 0; b < sizes.battlesPerWar(); b++) {
+                    battle.setInt(1, id);
+                    battle.setString(2, "+" + (b + 1) + " day");
+                    battle.setString(3, random.nextBoolean() ? "EVENING" : "AFTERNOON");
+                    battle.setString(4, WORLD + ",0,64,0");
+                    battle.addBatch();
+                }
+            }
+            ally.executeBatch();
+            battle.executeBatch();
+        }
+    }
+
+    private static String uuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    public List<String> getNationNames() {
+        return nationNames;
+    }
+
+    public List<String> getTownUuids() {
+        return townUuids;
+    }
+
+    /**
+     * @return Every member, index-aligned with {@link #getMemberTownUuids()}.
+     */
+    public List<String> getMemberUuids() {
+        return memberUuids;
+    }
+
+    /**
+     * @return The town of every member, index-aligned with {@link #getMemberUuids()}.
+     */
+    public List<String> getMemberTownUuids() {
+        return memberTownUuids;
+    }
+
+    /**
+     * @return Every nation taking part in a war, including allies.
+     */
+    public List<String> getWarringNationUuids() {
+        return warringNationUuids;
+    }
+
+    /**
+     * How many rows of each kind to create.
+     */
+    public record Sizes(int nations, int townsPerNation, int membersPerTown, int claimsPerTown,
+                        int lecternsPerTown, int wars, int battlesPerWar) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.blothera.book;
+
+import com.blothera.database.LecternType;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.inventory.meta.BookMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.List;
+import java.util.Locale;
+
+import static com.blothera.util.NationConstants.*;
+
+/**
+ * A book placed on a lectern, parsed once by the {@link BookRegistry} before it is routed to a handler.
+ * <p>
+ * The pages are serialized to plain text here, so handlers never touch the {@link BookMeta} components.
+ *
+ * @param title                The title, stripped and lower-cased, as used for routing.
+ * @param pages                The plain text of every page.
+ * @param author               The author of the book, or null if it has none.
+ * @param lecternTypes         The {@link LecternType} mask of the lectern the book was placed on.
+ * @param deliveryType         The delivery type stored in the book, or null if it is not a delivery book.
+ * @param requestingEntityUuid The requesting nation or town stored in a delivery book, or null.
+ * @param targetEntityUuid     The target nation or town stored in a delivery book, or null.
+ */
+public record BookCommand(String title, List<String> pages, String author, int lecternTypes,
+                          String deliveryType, String requestingEntityUuid, String targetEntityUuid) {
+
+    /**
+     * Parses a book.
+     *
+     * @param meta         The book metadata.
+     * @param lecternTypes The {@link LecternType} mask of the lectern.
+     * @return The parsed book.
+     */
+    public static BookCommand parse(BookMeta meta, int lecternTypes) {
+        PlainTextComponentSerializer serializer = PlainTextComponentSerializer.plainText();
+        List<String> pages = meta.pages().stream().map(serializer::serialize).toList();
+        PersistentDataContainer data = meta.getPersistentDataContainer();
+        return new BookCommand(
+                normalizeTitle(meta.getTitle()),
+                pages,
+                meta.hasAuthor() ? meta.getAuthor() : null,
+                lecternTypes,
+                data.get(DELIVERY_TYPE_KEY, PersistentDataType.STRING),
+                data.get(REQUESTING_ENTITY_KEY, PersistentDataType.STRING),
+                data.get(TARGET_ENTITY_KEY, PersistentDataType.STRING)
+        );
+    }
+
+    /**
+     * Normalizes a title the way handler titles are matched: stripped and lower-cased.
+     *
+     * @param title The title, may be null.
+     * @return The normalized title, or null if the title is null or blank.
+     */
+    public static String normalizeTitle(String title) {
+        if (title == null || title.isBlank()) return null;
+        return title.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return The number of pages in the book.
+     */
+    public int pageCount() {
+        return pages.size();
+    }
+
+    /**
+     * @param page The page number, starting at 1 like {@link BookMeta#page(int)}.
+     * @return The plain text of the page.
+     */
+    public String page(int page) {
+        return pages.get(page - 1);
+    }
+
+    /**
+     * @return The trimmed first line of the first page, or an empty string if the book has no pages.
+     */
+    public String firstLine() {
+        if (pages.isEmpty()) return "";
+        return pages.get(0).split("\n")[0].trim();
+    }
+
+    /**
+     * @return true if the book carries the delivery keys of a delivery book.
+     */
+    public boolean isDelivery() {
+        return deliveryType != null;
+    }
+
+    /**
+     * @param type The type of lectern.
+     * @return true if the book was placed on a lectern of that type.
+     */
+    public boolean isOn(LecternType type) {
+        return type.in(lecternTypes);
+    }
+}
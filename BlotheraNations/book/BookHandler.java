@@ -1,6 +1,7 @@
 package com.blothera.book;
 
 import com.blothera.NationPlugin;
+import com.blothera.database.LecternType;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -12,7 +13,6 @@ import org.bukkit.inventory.LecternInventory;
 import org.bukkit.inventory.meta.BookMeta;
 import org.bukkit.persistence.PersistentDataType;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static com.blothera.util.NationConstants.*;
@@ -30,14 +30,32 @@ public abstract class BookHandler {
     }
 
     /**
-     * Checks if this handler should handle the command based on the book's metadata
-     * and the lectern block it is placed on.
+     * Implement this method to specify which book titles this handler will react to.
+     * Titles are matched ignoring case, and each title may only be used by one handler per lectern type.
+     * <p>
+     * You should use or add constants, found in NationConstants.java.
      *
-     * @param meta         The BookMeta of the book.
-     * @param lecternBlock The Block representing the lectern.
+     * @return a list of titles this handler will react to.
+     */
+    protected abstract List<String> getAcceptedTitles();
+
+    /**
+     * Implement this method to specify which type of lectern the book must be placed on.
+     *
+     * @return The type of lectern, or null if the book works on any lectern.
+     */
+    protected abstract LecternType getLecternType();
+
+    /**
+     * Checks if this handler accepts a book which the {@link BookRegistry} routed to it
+     * by its title and lectern type. Handlers which need more than that override this method.
+     *
+     * @param command The parsed book.
      * @return true if this handler should handle the command, false otherwise.
      */
-    public abstract boolean shouldHandleBook(BookMeta meta, Block lecternBlock);
+    public boolean shouldHandleBook(BookCommand command) {
+        return true;
+    }
 
     /**
      * Handles the command associated with the book when it is placed on the lectern.
@@ -45,11 +63,24 @@ public abstract class BookHandler {
      *
      * @param player       The player who placed the book on the lectern.
      * @param lecternBlock The Block representing the lectern.
-     * @param meta         The BookMeta of the book.
+     * @param command      The parsed book.
      * @return A BookResult indicating the outcome of handling the command.
      */
-    public abstract BookResult handleBook(Player player, Block lecternBlock, BookMeta meta);
+    public abstract BookResult handleBook(Player player, Block lecternBlock, BookCommand command);
 
+    /**
+     * Runs a command through the {@link BookPipeline}, so its database work happens off the server thread.
+     * The result book is sent once the command finished, on a later tick.
+     *
+     * @param stages       The phases of the command, usually the handler itself.
+     * @param player       The player who placed the book on the lectern.
+     * @param lecternBlock The Block representing the lectern.
+     * @param command      The parsed book.
+     * @return ERROR_BOOK if the command was rejected straight away, otherwise QUEUED.
+     */
+    protected <S, P> BookResult runPipeline(PipelinedBook<S, P> stages, Player player, Block lecternBlock, BookCommand command) {
+        return BookRegistry.getPipeline().run(this, stages, player, lecternBlock, command);
+    }
 
     /**
      * Sends a book to the player and places it on the lectern.
@@ -220,17 +251,17 @@ public abstract class BookHandler {
     }
 
     /**
-     * Resolves the author of a book, preferring the book's metadata if available,
+     * Resolves the author of a book, preferring the placed book's author if it has one,
      * then checking the lectern's book, and finally falling back to the player's name.
      *
-     * @param meta         The BookMeta of the book, may be null.
+     * @param command      The parsed book, may be null.
      * @param lecternBlock The lectern block where the book is placed.
      * @param fallback     The player to use as a fallback for the author.
      * @return The resolved author name.
      */
-    protected String resolveAuthor(BookMeta meta, Block lecternBlock, Player fallback) {
-        if (meta != null && meta.hasAuthor()) {
-            return meta.getAuthor();
+    protected String resolveAuthor(BookCommand command, Block lecternBlock, Player fallback) {
+        if (command != null && command.author() != null) {
+            return command.author();
         }
         String lecternAuthor = getLecternBookAuthor(lecternBlock);
 
@@ -248,121 +279,26 @@ public abstract class BookHandler {
      * This method handles word wrapping and ensures that no page exceeds the maximum line width.
      *
      * @param raw The raw string to paginate.
-     * @return A list of strings, each representing a page of the book.
+     * @return A list of strings, each representing a page of the book, at most {@value BookPaginator#MAX_PAGES}.
      */
     protected List<String> paginateString(String raw) {
-        List<String> pages = new ArrayList<>();
-        List<String> currentLines = new ArrayList<>();
-
-        for (String paragraph : raw.split("\n")) {
-            StringBuilder line = new StringBuilder();
-            int lineWidth = 0;
-
-            // If paragraph is completely blank, treat it as a blank line
-            if (paragraph.isBlank()) {
-                if (currentLines.size() < MAX_LINES_PER_PAGE) {
-                    currentLines.add("");
-                } else {
-                    // Flush page, but skip the blank line at top
-                    pages.add(String.join("\n", currentLines));
-                    currentLines.clear();
-                }
-                continue;
-            }
-
-            for (String word : paragraph.split(" ")) {
-                int wordWidth = getPixelWidth(word + " ");
-                if (lineWidth + wordWidth > MAX_LINE_WIDTH) {
-                    String builtLine = line.toString().stripTrailing();
-
-                    // Don't start a new page with a blank line
-                    if (currentLines.size() >= MAX_LINES_PER_PAGE) {
-                        pages.add(String.join("\n", currentLines));
-                        currentLines.clear();
-                    }
-
-                    currentLines.add(builtLine);
-                    line = new StringBuilder();
-                    lineWidth = 0;
-                }
-
-                line.append(word).append(" ");
-                lineWidth += wordWidth;
-            }
-
-            if (!line.isEmpty()) {
-                if (currentLines.size() >= MAX_LINES_PER_PAGE) {
-                    pages.add(String.join("\n", currentLines));
-                    currentLines.clear();
-                }
-                currentLines.add(line.toString().stripTrailing());
-            }
-        }
-
-        // Final flush, removing leading blank line if needed
-        while (!currentLines.isEmpty() && currentLines.getFirst().isBlank()) {
-            currentLines.removeFirst();
-        }
-
-        if (!currentLines.isEmpty()) {
-            pages.add(String.join("\n", currentLines));
-        }
-
-        return pages;
+        return BookPaginator.paginate(raw);
     }
 
-
     /**
      * Paginate a list of strings into multiple pages based on the maximum line width and number of lines.
-     * This method handles word wrapping and ensures that no page exceeds the maximum line width.
+     * The lines are streamed into the pages, and lines past the last page of the book are not measured.
      *
      * @param lines The list of strings to paginate.
-     * @return A list of strings, each representing a page of the book.
+     * @return A list of strings, each representing a page of the book, at most {@value BookPaginator#MAX_PAGES}.
      */
     protected List<String> paginateLines(List<String> lines) {
-        return paginateString(String.join("\n", lines));
-    }
-
-    /**
-     * Calculates the pixel width of a line of text, considering formatting codes and character widths.
-     * This method supports basic formatting like bold and resets formatting codes.
-     *
-     * @param line The line of text to measure.
-     * @return The pixel width of the line.
-     */
-    private int getPixelWidth(String line) {
-        int width = 0;
-        boolean skipNext = false;
-        boolean bold = false;
-
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-
-            if (skipNext) {
-                // Handle formatting codes like §l, §r, etc.
-                skipNext = false;
-                switch (c) {
-                    case 'l' -> bold = true;  // Enable bold
-                    case 'r' -> bold = false; // Reset formatting
-                    // Add more cases if needed (e.g., §o for italic, etc.)
-                }
-                continue;
-            }
-
-            if (c == '§') {
-                skipNext = true;
-                continue;
-            }
-
-            int charWidth = CHARACTER_WIDTHS.getOrDefault(c, 6);
-            if (bold && c != ' ') {
-                charWidth += 1;
-            }
-
-            width += charWidth;
+        BookPaginator paginator = new BookPaginator();
+        for (String line : lines) {
+            if (paginator.isFull()) break;
+            paginator.append(line);
         }
-
-        return width;
+        return paginator.finish();
     }
 
     /**
@@ -0,0 +1,212 @@
+package com.blothera.book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.blothera.util.NationConstants.*;
+
+/**
+ * Lays text out on the pages of a written book in a single pass over its characters.
+ * <p>
+ * Text is appended line by line, and each line is word-wrapped at {@code MAX_LINE_WIDTH} pixels
+ * and written straight into the page being filled, so neither words nor lines are copied into strings
+ * of their own. Glyph widths come from tables built once from {@code CHARACTER_WIDTHS}, with a second
+ * table for bold text. Formatting codes take no space, {@code §l} turns bold on until the end of the
+ * line, and {@code §r} or a colour code turns it off again, like the client does.
+ * <p>
+ * A written book holds at most {@value #MAX_PAGES} pages. Once they are filled the paginator ignores
+ * everything appended after, and callers which produce long lists can check {@link #isFull()} to stop early.
+ * <p>
+ * Blank lines are only written once a line with text follows, so trailing blank lines never make it
+ * into the book, and no page but the first starts with a blank line left over from the page before.
+ */
+public final class BookPaginator {
+
+    /**
+     * The number of pages of a written book.
+     */
+    public static final int MAX_PAGES = 100;
+
+    private static final int DEFAULT_WIDTH = 6;
+    private static final byte[] WIDTHS = buildWidthTable(false);
+    private static final byte[] BOLD_WIDTHS = buildWidthTable(true);
+
+    private final List<String> pages = new ArrayList<>();
+    private final StringBuilder page = new StringBuilder(256);
+    private int lineCount;
+    private int lineStart = -1;
+    private int lineWidth;
+    private int pendingBlankLines;
+    private boolean full;
+
+    /**
+     * Paginates a text in one go.
+     *
+     * @param text The text, with lines separated by newlines.
+     * @return The pages.
+     */
+    public static List<String> paginate(CharSequence text) {
+        return new BookPaginator().append(text).finish();
+    }
+
+    /**
+     * Appends text, which may span several lines separated by newlines.
+     * Each call starts a new line.
+     *
+     * @param text The text to append.
+     * @return This paginator.
+     */
+    public BookPaginator append(CharSequence text) {
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length && !full; i++) {
+            if (text.charAt(i) == '\n') {
+                appendLine(text, start, i);
+                start = i + 1;
+            }
+        }
+        if (!full) appendLine(text, start, length);
+        return this;
+    }
+
+    /**
+     * @return true once {@value #MAX_PAGES} pages are filled and further text is ignored.
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Flushes the last page.
+     *
+     * @return The pages, at most {@value #MAX_PAGES}.
+     */
+    public List<String> finish() {
+        if (!full) {
+            endLine();
+            // The last page never starts with a blank line
+            while (lineCount > 1 && page.charAt(0) == '\n') {
+                page.deleteCharAt(0);
+                lineCount--;
+            }
+            if (lineCount == 1 && page.isEmpty()) lineCount = 0;
+            if (lineCount > 0) flushPage();
+        }
+        pendingBlankLines = 0;
+        return pages;
+    }
+
+    private void appendLine(CharSequence text, int from, int to) {
+        while (to > from && text.charAt(to - 1) == ' ') to--;
+        if (isBlank(text, from, to)) {
+            pendingBlankLines++;
+            return;
+        }
+        writePendingBlankLines();
+
+        boolean bold = false;
+        int i = from;
+        while (i < to && !full) {
+            int wordStart = i;
+            int width = 0;
+            while (i < to) {
+                char c = text.charAt(i);
+                if (c == ' ') break;
+                if (c == '§' && i + 1 < to && text.charAt(i + 1) != ' ') {
+                    char code = Character.toLowerCase(text.charAt(i + 1));
+                    if (code == 'l') {
+                        bold = true;
+                    } else if (code == 'r' || Character.digit(code, 16) >= 0) {
+                        bold = false;
+                    }
+                    i += 2;
+                    continue;
+                }
+                width += glyphWidth(c, bold);
+                i++;
+            }
+            int wordEnd = i;
+            if (i < to) i++;
+            width += WIDTHS[' '];
+
+            if (lineStart >= 0 && lineWidth + width > MAX_LINE_WIDTH) endLine();
+            if (lineStart < 0 && !startLine()) return;
+            page.append(text, wordStart, wordEnd).append(' ');
+            lineWidth += width;
+        }
+        endLine();
+    }
+
+    private boolean startLine() {
+        if (lineCount >= MAX_LINES_PER_PAGE) flushPage();
+        if (full) return false;
+        if (lineCount > 0) page.append('\n');
+        lineStart = page.length();
+        lineWidth = 0;
+        lineCount++;
+        return true;
+    }
+
+    private void endLine() {
+        if (lineStart < 0) return;
+        int end = page.length();
+        while (end > lineStart && Character.isWhitespace(page.charAt(end - 1))) end--;
+        page.setLength(end);
+        lineStart = -1;
+    }
+
+    private void writePendingBlankLines() {
+        for (; pendingBlankLines > 0 && !full; pendingBlankLines--) {
+            if (lineCount < MAX_LINES_PER_PAGE) {
+                if (lineCount > 0) page.append('\n');
+                lineCount++;
+            } else {
+                // Blank lines which do not fit are dropped, the next page starts with the text that follows
+                flushPage();
+                break;
+            }
+        }
+        pendingBlankLines = 0;
+    }
+
+    private void flushPage() {
+        pages.add(page.toString());
+        page.setLength(0);
+        lineCount = 0;
+        if (pages.size() >= MAX_PAGES) full = true;
+    }
+
+    private static boolean isBlank(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static int glyphWidth(char c, boolean bold) {
+        byte[] widths = bold ? BOLD_WIDTHS : WIDTHS;
+        if (c < widths.length) return widths[c];
+        return bold ? DEFAULT_WIDTH + 1 : DEFAULT_WIDTH;
+    }
+
+    /**
+     * Copies {@code CHARACTER_WIDTHS} into an array indexed by character, up to the highest character it lists.
+     * Bold glyphs are one pixel wider, except for spaces.
+     */
+    private static byte[] buildWidthTable(boolean bold) {
+        int size = 128;
+        for (char c : CHARACTER_WIDTHS.keySet()) {
+            size = Math.max(size, c + 1);
+        }
+        byte[] widths = new byte[size];
+        Arrays.fill(widths, (byte) DEFAULT_WIDTH);
+        CHARACTER_WIDTHS.forEach((c, width) -> widths[c] = width.byteValue());
+        if (bold) {
+            for (int c = 0; c < size; c++) {
+                if (c != ' ') widths[c]++;
+            }
+        }
+        return widths;
+    }
+}
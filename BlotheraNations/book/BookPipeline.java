@@ -0,0 +1,144 @@
+package com.blothera.book;
+
+import com.blothera.NationPlugin;
+import com.blothera.database.AsyncDatabase;
+import com.blothera.database.Database;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs {@link PipelinedBook} commands in three phases:
+ * <ol>
+ *     <li>the snapshot phase captures the world state on the server thread,</li>
+ *     <li>validation runs on a reader thread and the changes are persisted on the writer thread,</li>
+ *     <li>the apply phase updates the world and caches and sends the book on the server thread.</li>
+ * </ol>
+ * Conflicts between commands are detected optimistically with {@link EntityVersions}.
+ * A command which lost a race is started over from the snapshot phase, up to {@value #MAX_ATTEMPTS} times.
+ */
+public class BookPipeline {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final NationPlugin plugin;
+    private final EntityVersions versions = new EntityVersions();
+
+    public BookPipeline(NationPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts a command. Must be called on the server thread.
+     *
+     * @param handler      The handler the command belongs to, used for error books.
+     * @param stages       The phases of the command.
+     * @param player       The player who placed the book.
+     * @param lecternBlock The lectern the book was placed on.
+     * @param command      The parsed book.
+     * @return ERROR_BOOK if the snapshot phase rejected the command, otherwise QUEUED.
+     */
+    <S, P> BookResult run(BookHandler handler, PipelinedBook<S, P> stages, Player player, Block lecternBlock, BookCommand command) {
+        return attempt(handler, stages, player, lecternBlock, command, 1);
+    }
+
+    private <S, P> BookResult attempt(BookHandler handler, PipelinedBook<S, P> stages, Player player, Block lecternBlock,
+                                      BookCommand command, int attempt) {
+        EntityVersions.ReadSet reads = versions.newReadSet();
+        S snapshot;
+        try {
+            snapshot = stages.snapshot(player, lecternBlock, command, reads);
+        } catch (BookRejection e) {
+            return handler.sendErrorBook(lecternBlock, player, e.getMessage());
+        }
+
+        AsyncDatabase async = plugin.getDatabase().getAsync();
+        async.read(db -> stages.validate(snapshot, db, reads))
+                .thenCompose(plan -> async.write(db -> {
+                    if (!versions.tryCommit(reads)) return null;
+                    try {
+                        return new Committed<>(persist(handler, stages, snapshot, plan, db));
+                    } catch (RuntimeException e) {
+                        versions.settle(reads);
+                        throw e;
+                    }
+                }))
+                .whenCompleteAsync((committed, error) -> {
+                    if (error != null) {
+                        reject(handler, player, lecternBlock, error);
+                    } else if (committed == null) {
+                        if (attempt < MAX_ATTEMPTS) {
+                            attempt(handler, stages, player, lecternBlock, command, attempt + 1).playSound(lecternBlock);
+                        } else {
+                            handler.sendErrorBook(lecternBlock, player,
+                                    "Another decree touching the same lands was sealed at this very moment. Place the book again.")
+                                    .playSound(lecternBlock);
+                        }
+                    } else {
+                        try {
+                            stages.apply(snapshot, committed.plan(), player, lecternBlock).playSound(lecternBlock);
+                        } catch (RuntimeException e) {
+                            reject(handler, player, lecternBlock, e);
+                        } finally {
+                            versions.settle(reads);
+                        }
+                    }
+                }, async.mainThread());
+        return BookResult.QUEUED;
+    }
+
+    /**
+     * Runs the persist phase in a single transaction, so a command is either written in full or not at all.
+     */
+    private <S, P> P persist(BookHandler handler, PipelinedBook<S, P> stages, S snapshot, P plan, Database db) {
+        Connection connection = db.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            P persisted = stages.persist(snapshot, plan, db);
+            connection.commit();
+            return persisted;
+        } catch (SQLException e) {
+            rollback(connection);
+            plugin.getLogger().warning("Failed to persist " + handler.getClass().getSimpleName() + ": " + e.getMessage());
+            throw new BookRejection("The records could not be sealed, nothing was changed. Place the book again.");
+        } catch (RuntimeException e) {
+            rollback(connection);
+            throw e;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Failed to reset auto-commit: " + e.getMessage());
+            }
+        }
+    }
+
+    private void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Rollback failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends the error book for a failed phase. Rejections carry their own message, anything else is logged.
+     */
+    private void reject(BookHandler handler, Player player, Block lecternBlock, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message;
+        if (cause instanceof BookRejection rejection) {
+            message = rejection.getMessage();
+        } else {
+            plugin.getLogger().warning("Failed to run " + handler.getClass().getSimpleName() + ": " + cause);
+            message = "Something went wrong while handling this book. Contact an admin.";
+        }
+        handler.sendErrorBook(lecternBlock, player, message).playSound(lecternBlock);
+    }
+
+    private record Committed<P>(P plan) {
+    }
+}
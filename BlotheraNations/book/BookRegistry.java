@@ -9,6 +9,9 @@ import com.blothera.book.handler.commandbook.nation.TransferNationLeaderHandler;
 import com.blothera.book.handler.commandbook.town.*;
 import com.blothera.book.handler.deliverybook.create.*;
 import com.blothera.book.handler.deliverybook.place.*;
+import com.blothera.book.handler.infobook.InfoBookCache;
+import com.blothera.book.handler.infobook.admin.HandlerProfileHandler;
+import com.blothera.book.handler.infobook.admin.SqlMetricsHandler;
 import com.blothera.book.handler.infobook.diplomacy.DiplomacyHelpHandler;
 import com.blothera.book.handler.infobook.diplomacy.DiplomacyInfoBookHandler;
 import com.blothera.book.handler.infobook.diplomacy.ViewDiplomacyRequestsHandler;
@@ -19,18 +22,41 @@ import com.blothera.book.handler.infobook.player.WhoAmIHandler;
 import com.blothera.book.handler.infobook.town.TownHelpHandler;
 import com.blothera.book.handler.infobook.town.TownInfoBookHandler;
 import com.blothera.book.handler.infobook.town.ViewJoinRequestsHandler;
+import com.blothera.database.LecternType;
+import com.blothera.listener.book.InfoBookCacheListener;
+import com.blothera.profiler.HandlerProfiler;
+import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.meta.BookMeta;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Routes books placed on lecterns to their handler.
+ * <p>
+ * Every handler is registered under each of its titles together with its lectern type, so a book is
+ * routed with one hash lookup per type of the lectern it was placed on, plus one for handlers which
+ * accept any lectern. The book is only parsed into a {@link BookCommand} once its title matched a route.
+ */
 public class BookRegistry {
 
-    private static final List<BookHandler> handlers = new ArrayList<>();
+    private static final Map<Route, BookHandler> routes = new HashMap<>();
+    private static final Set<String> titles = new HashSet<>();
+    private static NationPlugin plugin;
+    private static BookPipeline pipeline;
+    private static InfoBookCache infoBookCache;
 
     public BookRegistry(NationPlugin plugin) {
+        BookRegistry.plugin = plugin;
+        BookRegistry.pipeline = new BookPipeline(plugin);
+        BookRegistry.infoBookCache = new InfoBookCache(plugin);
+        Bukkit.getPluginManager().registerEvents(new InfoBookCacheListener(infoBookCache), plugin);
+        routes.clear();
+        titles.clear();
 
         register(new ViewJoinRequestsHandler(plugin));
         register(new TownInfoBookHandler(plugin));
@@ -76,17 +102,31 @@ public class BookRegistry {
         register(new RequestJoinWarPlaceHandler(plugin));
         register(new RequestJoinWarCreateHandler(plugin));
         register(new WarInfoBookHandler(plugin));
+        register(new SqlMetricsHandler(plugin));
+        register(new HandlerProfileHandler(plugin));
+
+        // Listeners are registered by the plugin during enable, the profiler wraps them a tick later
+        HandlerProfiler.install(plugin);
     }
 
 
     /**
-     * Registers a book handler to the registry.
+     * Registers a book handler under each of its titles and its lectern type.
+     * A title which is already routed for that lectern type keeps its first handler.
      *
      * @param handler The BookHandler to register.
      */
     private void register(BookHandler handler) {
-        if (!handlers.contains(handler)) {
-            handlers.add(handler);
+        LecternType type = handler.getLecternType();
+        for (String title : handler.getAcceptedTitles()) {
+            String normalized = BookCommand.normalizeTitle(title);
+            BookHandler existing = routes.putIfAbsent(new Route(normalized, type), handler);
+            if (existing != null && existing != handler) {
+                plugin.getLogger().warning("Book title '" + title + "' of " + handler.getClass().getSimpleName()
+                        + " is already handled by " + existing.getClass().getSimpleName() + ", ignoring it.");
+                continue;
+            }
+            titles.add(normalized);
         }
     }
 
@@ -99,25 +139,65 @@ public class BookRegistry {
      * @return A BookResult indicating the outcome of the handling.
      */
     public static BookResult handle(Player player, Block lecternBlock, BookMeta meta) {
-        for (BookHandler handler : handlers) {
-
-            boolean shouldHandle = handler.shouldHandleBook(meta, lecternBlock);
+        String title = BookCommand.normalizeTitle(meta.getTitle());
+        if (title == null || !titles.contains(title)) {
+            return BookResult.NOT_HANDLED;
+        }
 
-            if (!shouldHandle) {
-                continue; // skip handlers that don't match the book or lectern
-            }
+        int lecternTypes = plugin.getDatabase().getLecternRegistry().getTypes(lecternBlock);
+        BookHandler handler = route(title, lecternTypes);
+        if (handler == null) {
+            return BookResult.NOT_HANDLED;
+        }
 
-            BookResult result = handler.handleBook(player, lecternBlock, meta);
+        BookCommand command = BookCommand.parse(meta, lecternTypes);
+        if (!handler.shouldHandleBook(command)) {
+            return BookResult.NOT_HANDLED;
+        }
 
-            if (result == BookResult.ERROR_BOOK) {
-                return BookResult.ERROR_BOOK;
-            } else if (result == BookResult.HANDLED_BOOK) {
-                return BookResult.HANDLED_BOOK;
-            }
+        if (HandlerProfiler.isEnabled()) {
+            long start = System.nanoTime();
+            BookResult result = handler.handleBook(player, lecternBlock, command);
+            HandlerProfiler.probe(handler.getClass().getSimpleName() + ".handleBook").record(System.nanoTime() - start);
+            return result;
         }
-        return BookResult.NOT_HANDLED;
+        return handler.handleBook(player, lecternBlock, command);
+    }
+
+    /**
+     * @return The cache of rendered info books, shared by the info book handlers.
+     */
+    public static InfoBookCache getInfoBookCache() {
+        return infoBookCache;
     }
-}
 
+    /**
+     * @return The pipeline which runs the {@link PipelinedBook} handlers.
+     */
+    static BookPipeline getPipeline() {
+        return pipeline;
+    }
 
+    /**
+     * Finds the handler of a title, trying the types of the lectern before the handlers which accept any lectern.
+     *
+     * @param title        The normalized title.
+     * @param lecternTypes The {@link LecternType} mask of the lectern.
+     * @return The handler, or null if no handler accepts the title on this lectern.
+     */
+    private static BookHandler route(String title, int lecternTypes) {
+        for (LecternType type : LecternType.values()) {
+            if (!type.in(lecternTypes)) continue;
+            BookHandler handler = routes.get(new Route(title, type));
+            if (handler != null) return handler;
+        }
+        return routes.get(new Route(title, null));
+    }
 
+    /**
+     * @param title The normalized title.
+     * @param type  The lectern type, or null for any lectern.
+     */
+    private record Route(String title, LecternType type) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.blothera.book;
+
+/**
+ * Thrown by a phase of a {@link PipelinedBook}, or while rendering an info book, to stop the command
+ * and send an error book with the message.
+ */
+public class BookRejection extends RuntimeException {
+
+    public BookRejection(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -1,16 +1,34 @@
 package com.blothera.book;
 
+import org.bukkit.Sound;
+import org.bukkit.block.Block;
+
 /**
  * Enum representing the result of handling a book command.
  * <p>
  * HANDLED_AND_KEEP indicates that the command was handled successfully and the book should be kept.
  * NOT_HANDLED indicates that the command was not handled and the book should work as vanilla.
+ * QUEUED indicates that the command was accepted by the {@link BookPipeline}, which finishes it on a later tick.
  */
 public enum BookResult {
     HANDLED_BOOK,
     ERROR_BOOK,
-    NOT_HANDLED
-}
-
-
+    NOT_HANDLED,
+    QUEUED;
 
+    /**
+     * Plays the sound for this result at the lectern. Only handled and error books have a sound.
+     *
+     * @param lecternBlock The lectern block the book was placed on.
+     */
+    public void playSound(Block lecternBlock) {
+        Sound sound = switch (this) {
+            case HANDLED_BOOK -> Sound.ENTITY_VILLAGER_WORK_CARTOGRAPHER;
+            case ERROR_BOOK -> Sound.ENTITY_VILLAGER_NO;
+            default -> null;
+        };
+        if (sound != null) {
+            lecternBlock.getWorld().playSound(lecternBlock.getLocation(), sound, 1.0f, 1.0f);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.blothera.book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Version counters of the towns, nations, players, names and map regions which pipelined
+ * book commands depend on, used by the {@link BookPipeline} for optimistic conflict detection.
+ * <p>
+ * A command tracks every entity before it reads it, which records the entity's current version
+ * in the command's {@link ReadSet}. On the writer thread the command only commits if none of
+ * those versions changed in the meantime, and committing marks every tracked entity as changed.
+ * Two commands racing on the same town therefore cannot both commit: the second one is retried
+ * and validated again against the state the first one left behind.
+ * <p>
+ * A version is odd from the moment a command commits until its apply phase has run on the server
+ * thread, since the in-memory caches only catch up then. A command which read an odd version
+ * never commits, because it may have seen the database and the caches out of step.
+ * <p>
+ * Versions are kept in a fixed table of {@value #STRIPES} stripes rather than per entity, so the table never
+ * grows however many entities the server sees, and a command which is abandoned halfway leaves nothing behind.
+ * Entities whose keys fall on the same stripe share a version. A collision can only make a command
+ * retry without need, never let two conflicting commands both commit.
+ * <p>
+ * Only pipelined commands take part. Handlers which still write on the server thread are not tracked.
+ */
+public final class EntityVersions {
+
+    /**
+     * Width of a region in blocks, matching the cells of the town spatial index.
+     */
+    private static final int REGION_SIZE = 512;
+
+    /**
+     * Number of version stripes, a power of two.
+     */
+    private static final int STRIPES = 4096;
+
+    private final long[] versions = new long[STRIPES];
+
+    /**
+     * @return A new, empty read set for one attempt of a command.
+     */
+    public ReadSet newReadSet() {
+        return new ReadSet();
+    }
+
+    public static String town(String townUuid) {
+        return "town:" + townUuid;
+    }
+
+    public static String nation(String nationUuid) {
+        return "nation:" + nationUuid;
+    }
+
+    public static String player(String playerUuid) {
+        return "player:" + playerUuid;
+    }
+
+    public static String townName(String townName) {
+        return "town-name:" + townName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Lists the regions overlapping a square around a point. Two commands whose squares
+     * contain each other's point always share a region.
+     *
+     * @param world  The name of the world.
+     * @param x      The block X coordinate of the point.
+     * @param z      The block Z coordinate of the point.
+     * @param radius Half the width of the square, in blocks.
+     * @return The keys of the regions.
+     */
+    public static List<String> regions(String world, double x, double z, double radius) {
+        int minX = Math.floorDiv((int) Math.floor(x - radius), REGION_SIZE);
+        int maxX = Math.floorDiv((int) Math.floor(x + radius), REGION_SIZE);
+        int minZ = Math.floorDiv((int) Math.floor(z - radius), REGION_SIZE);
+        int maxZ = Math.floorDiv((int) Math.floor(z + radius), REGION_SIZE);
+
+        List<String> keys = new ArrayList<>((maxX - minX + 1) * (maxZ - minZ + 1));
+        for (int rx = minX; rx <= maxX; rx++) {
+            for (int rz = minZ; rz <= maxZ; rz++) {
+                keys.add("region:" + world + ":" + rx + ":" + rz);
+            }
+        }
+        return keys;
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private synchronized long current(int stripe) {
+        return versions[stripe];
+    }
+
+    /**
+     * Commits a command if every entity it tracked is unchanged and settled,
+     * and marks them as changed by this command.
+     *
+     * @param reads The entities the command tracked.
+     * @return true if the command may persist its changes, false if it conflicts with another command.
+     */
+    synchronized boolean tryCommit(ReadSet reads) {
+        for (Map.Entry<Integer, Long> entry : reads.seen.entrySet()) {
+            long version = entry.getValue();
+            if ((version & 1) != 0 || version != versions[entry.getKey()]) {
+                return false;
+            }
+        }
+        for (int stripe : reads.seen.keySet()) {
+            versions[stripe]++;
+        }
+        return true;
+    }
+
+    /**
+     * Marks the entities of a committed command as settled, once the caches have caught up with it.
+     *
+     * @param reads The entities the command tracked.
+     */
+    synchronized void settle(ReadSet reads) {
+        for (int stripe : reads.seen.keySet()) {
+            versions[stripe]++;
+        }
+    }
+
+    /**
+     * The entities one attempt of a command depends on, by the stripe of each entity with the version
+     * it had when it was first tracked. Entities sharing a stripe are recorded once, so committing and
+     * settling move every stripe by exactly one.
+     * The phases of a command use it one after another, never at the same time.
+     */
+    public final class ReadSet {
+
+        private final Map<Integer, Long> seen = new LinkedHashMap<>();
+
+        private ReadSet() {
+        }
+
+        /**
+         * Tracks an entity. Must be called before the entity is read.
+         *
+         * @param key The key of the entity.
+         */
+        public void track(String key) {
+            seen.computeIfAbsent(stripe(key), EntityVersions.this::current);
+        }
+
+        /**
+         * Tracks several entities. Must be called before the entities are read.
+         *
+         * @param keys The keys of the entities.
+         */
+        public void track(Collection<String> keys) {
+            keys.forEach(this::track);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.blothera.book;
+
+import com.blothera.database.Database;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.sql.SQLException;
+
+/**
+ * A book command split into phases, so its database work runs off the server thread.
+ * Handlers implement this and hand themselves to {@link BookHandler#runPipeline}.
+ * <p>
+ * Any phase may throw a {@link BookRejection} to stop the command with an error book.
+ * Every entity a phase reads must be tracked in the read set first, see {@link EntityVersions}.
+ *
+ * @param <S> The world state captured on the server thread.
+ * @param <P> The changes decided by validation.
+ */
+public interface PipelinedBook<S, P> {
+
+    /**
+     * Captures the world state the command needs: the lectern, nearby blocks and their contents,
+     * the player and anything from the in-memory caches which are only safe on the server thread.
+     * Runs on the server thread, so it should not query the database.
+     *
+     * @param player       The player who placed the book.
+     * @param lecternBlock The lectern the book was placed on.
+     * @param command      The parsed book.
+     * @param reads        The read set to track entities in.
+     * @return The captured state, which must not be changed by the later phases.
+     */
+    S snapshot(Player player, Block lecternBlock, BookCommand command, EntityVersions.ReadSet reads);
+
+    /**
+     * Runs the validation queries and decides what to change. Runs on a reader thread against a
+     * read-only view of the database, and may run more than once if the command conflicts with another.
+     *
+     * @param snapshot The state captured on the server thread.
+     * @param db       A read-only view of the database.
+     * @param reads    The read set to track entities in.
+     * @return The changes to persist.
+     */
+    P validate(S snapshot, Database db, EntityVersions.ReadSet reads);
+
+    /**
+     * Writes the changes. Runs on the writer thread, only once no other command changed
+     * the tracked entities since they were read.
+     * <p>
+     * The phase runs in a single transaction on the writer's connection, so it must use the throwing DAO methods
+     * which neither log failures nor touch the caches. If it throws, nothing it wrote is kept and the command is rejected.
+     *
+     * @param snapshot The state captured on the server thread.
+     * @param plan     The changes decided by validation.
+     * @param db       The writer's database.
+     * @return The plan to apply, which may carry what was written.
+     * @throws SQLException if a write failed, which rolls back the transaction.
+     */
+    P persist(S snapshot, P plan, Database db) throws SQLException;
+
+    /**
+     * Updates the world and the in-memory caches, calls events and sends the resulting book.
+     * Runs on the server thread once the changes are persisted. If it rejects the command,
+     * it must undo what {@link #persist} wrote first.
+     *
+     * @param snapshot     The state captured on the server thread.
+     * @param plan         The persisted plan.
+     * @param player       The player who placed the book.
+     * @param lecternBlock The lectern the book was placed on.
+     * @return The result of the command.
+     */
+    BookResult apply(S snapshot, P plan, Player player, Block lecternBlock);
+}
@@ -1,13 +1,11 @@
 package com.blothera.book.handler.commandbook;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookHandler;
 import com.blothera.book.BookResult;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
-
-import java.util.List;
 
 /**
  * Base handler for command books which execute an action immediately
@@ -19,27 +17,6 @@ public abstract class CommandBookHandler extends BookHandler {
         super(plugin);
     }
 
-    @Override
-    public boolean shouldHandleBook(BookMeta meta, Block lecternBlock) {
-        if (meta.getTitle() == null || !meta.hasTitle()) {
-            return false;
-        }
-        String title = meta.getTitle();
-        boolean matches = getAcceptedTitles().stream()
-                .anyMatch(t -> t.equalsIgnoreCase(title));
-        return matches && isCorrectLectern(lecternBlock);
-    }
-
-    /**
-     * @return the list of book titles this handler responds to.
-     */
-    protected abstract List<String> getAcceptedTitles();
-
-    /**
-     * Checks if the given lectern is valid for the command.
-     */
-    protected abstract boolean isCorrectLectern(Block lecternBlock);
-
     /**
      * Execute the command associated with the book.
      * This method should contain the logic for what happens
@@ -47,10 +24,10 @@ public abstract class CommandBookHandler extends BookHandler {
      *
      * @param player       the player who placed the book
      * @param lecternBlock the lectern block where the book was placed
-     * @param meta         the book metadata
+     * @param command      the parsed book
      * @return a BookResult indicating the outcome of the command execution
      */
-    protected abstract BookResult execute(Player player, Block lecternBlock, BookMeta meta);
+    protected abstract BookResult execute(Player player, Block lecternBlock, BookCommand command);
 
     /**
      * Handles the command book when placed on a lectern.
@@ -58,7 +35,7 @@ public abstract class CommandBookHandler extends BookHandler {
      *
      * @param player       the player who placed the book
      * @param lecternBlock the lectern block where the book was placed
-     * @param meta         the book metadata
+     * @param command      the parsed book
      * @return a BookResult indicating the outcome of the command execution
      */
     /**
@@ -69,20 +46,20 @@ public abstract class CommandBookHandler extends BookHandler {
      * @return {@code null} if validation passes, otherwise a {@link BookResult}
      * describing the failure.
      */
-    protected BookResult validate(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult validate(Player player, Block lecternBlock, BookCommand command) {
         return null;
     }
 
     @Override
-    public BookResult handleBook(Player player, Block lecternBlock, BookMeta meta) {
+    public BookResult handleBook(Player player, Block lecternBlock, BookCommand command) {
         
-        BookResult validation = validate(player, lecternBlock, meta);
+        BookResult validation = validate(player, lecternBlock, command);
 
         if (validation != null) {
             return validation;
         }
 
-        return execute(player, lecternBlock, meta);
+        return execute(player, lecternBlock, command);
     }
 
 }
@@ -1,21 +1,20 @@
 package com.blothera.book.handler.commandbook.diplomacy;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
 import com.blothera.database.DiplomacyDAOs.DiplomacyDAO;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.event.diplomacy.AllianceFormedEvent;
 import org.bukkit.Bukkit;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -24,7 +23,6 @@ import static com.blothera.util.NationConstants.ALLIANCE_RELATION;
 
 public class AcceptAllyHandler extends CommandBookHandler {
 
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
     private final NationMemberDAO nationMemberDAO;
     private final NationDAO nationDAO;
     private final TownDAO townDAO;
@@ -34,7 +32,6 @@ public class AcceptAllyHandler extends CommandBookHandler {
 
     public AcceptAllyHandler(NationPlugin plugin) {
         super(plugin);
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
 
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
@@ -51,13 +48,13 @@ public class AcceptAllyHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult validate(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult validate(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "The book must not be empty.\n\nWrite the name of the nation on the first line of the book.");
         }
@@ -85,10 +82,10 @@ public class AcceptAllyHandler extends CommandBookHandler {
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String playerNationUuid = nationMemberDAO.getNationUuid(player.getUniqueId().toString());
 
-        String targetNationName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String targetNationName = command.firstLine();
         if (targetNationName.isEmpty()) {
             return sendErrorBook(lecternBlock, player,
                     "You must provide the name of the nation you want to ally with.\n\nWrite the nation's name on the first line of the book.");
@@ -1,20 +1,19 @@
 package com.blothera.book.handler.commandbook.diplomacy;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.database.WarDAOs.WarAlliesDAO;
 import com.blothera.database.WarDAOs.WarDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -22,7 +21,6 @@ import static com.blothera.util.NationConstants.REQUEST_JOIN_WAR_DELIVERY_TYPE;
 
 public class AcceptJoinWarHandler extends CommandBookHandler {
 
-    private final DiplomacyLecternDAO lecternDAO;
     private final NationDAO nationDAO;
     private final NationMemberDAO memberDAO;
     private final TownDAO townDAO;
@@ -33,7 +31,6 @@ public class AcceptJoinWarHandler extends CommandBookHandler {
 
     public AcceptJoinWarHandler(NationPlugin plugin) {
         super(plugin);
-        this.lecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.memberDAO = plugin.getDatabase().getNationMemberDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
@@ -49,12 +46,12 @@ public class AcceptJoinWarHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return lecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult validate(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult validate(Player player, Block lecternBlock, BookCommand command) {
         String uuid = player.getUniqueId().toString();
         String nationUuid = memberDAO.getNationUuid(uuid);
         if (nationUuid == null) {
@@ -76,8 +73,8 @@ public class AcceptJoinWarHandler extends CommandBookHandler {
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        String targetNationName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        String targetNationName = command.firstLine();
         if (targetNationName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "Target nation name is required on the first line.");
         }
@@ -1,21 +1,20 @@
 package com.blothera.book.handler.commandbook.diplomacy;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
 import com.blothera.database.DiplomacyDAOs.DiplomacyDAO;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.event.diplomacy.PeaceEstablishedEvent;
 import org.bukkit.Bukkit;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -23,7 +22,6 @@ import static com.blothera.util.NationConstants.*;
 
 public class AcceptPeaceHandler extends CommandBookHandler {
 
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
     private final NationDAO nationDAO;
     private final NationMemberDAO nationMemberDAO;
     private final TownDAO townDAO;
@@ -33,7 +31,6 @@ public class AcceptPeaceHandler extends CommandBookHandler {
 
     public AcceptPeaceHandler(NationPlugin plugin) {
         super(plugin);
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
@@ -48,13 +45,13 @@ public class AcceptPeaceHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult validate(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult validate(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "Book must contain the name of the nation you're accepting peace with.");
         }
@@ -82,11 +79,11 @@ public class AcceptPeaceHandler extends CommandBookHandler {
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String sourceNationUuid = nationMemberDAO.getNationUuid(player.getUniqueId().toString());
         String sourceNationName = nationDAO.getNationName(sourceNationUuid);
 
-        String targetNationName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String targetNationName = command.firstLine();
         if (targetNationName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "Target nation name cannot be empty.");
         }
@@ -1,18 +1,17 @@
 package com.blothera.book.handler.commandbook.diplomacy;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -20,7 +19,6 @@ import static com.blothera.util.NationConstants.REQUEST_JOIN_WAR_DELIVERY_TYPE;
 
 public class DenyJoinWarHandler extends CommandBookHandler {
 
-    private final DiplomacyLecternDAO lecternDAO;
     private final NationDAO nationDAO;
     private final NationMemberDAO memberDAO;
     private final TownDAO townDAO;
@@ -29,7 +27,6 @@ public class DenyJoinWarHandler extends CommandBookHandler {
 
     public DenyJoinWarHandler(NationPlugin plugin) {
         super(plugin);
-        this.lecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.memberDAO = plugin.getDatabase().getNationMemberDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
@@ -43,12 +40,12 @@ public class DenyJoinWarHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return lecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult validate(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult validate(Player player, Block lecternBlock, BookCommand command) {
         String uuid = player.getUniqueId().toString();
         String nationUuid = memberDAO.getNationUuid(uuid);
         if (nationUuid == null) {
@@ -70,11 +67,11 @@ public class DenyJoinWarHandler extends CommandBookHandler {
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String selfNationUuid = memberDAO.getNationUuid(player.getUniqueId().toString());
         String sourceNationName = nationDAO.getNationName(selfNationUuid);
 
-        String targetNationName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String targetNationName = command.firstLine();
         if (targetNationName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "You must specify a nation name.");
         }
@@ -1,20 +1,19 @@
 package com.blothera.book.handler.commandbook.diplomacy;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.event.diplomacy.PeaceRequestDeniedEvent;
 import org.bukkit.Bukkit;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -23,7 +22,6 @@ import static com.blothera.util.NationConstants.PEACE_RELATION;
 
 public class DenyPeaceHandler extends CommandBookHandler {
 
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
     private final NationDAO nationDAO;
     private final NationMemberDAO nationMemberDAO;
     private final TownDAO townDAO;
@@ -32,7 +30,6 @@ public class DenyPeaceHandler extends CommandBookHandler {
 
     public DenyPeaceHandler(NationPlugin plugin) {
         super(plugin);
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
@@ -46,13 +43,13 @@ public class DenyPeaceHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult validate(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult validate(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "Book must contain the name of the nation to deny.");
         }
@@ -79,7 +76,7 @@ public class DenyPeaceHandler extends CommandBookHandler {
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String sourceNationUuid = nationMemberDAO.getNationUuid(player.getUniqueId().toString());
         String sourceNationName = nationDAO.getNationName(sourceNationUuid);
         if (sourceNationName == null) {
@@ -87,7 +84,7 @@ public class DenyPeaceHandler extends CommandBookHandler {
         }
 
 
-        String targetNationName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String targetNationName = command.firstLine();
         if (targetNationName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "Target nation name cannot be empty.");
         }
@@ -1,8 +1,10 @@
 package com.blothera.book.handler.commandbook.nation;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
@@ -10,7 +12,6 @@ import com.blothera.database.TownDAOs.TownDAO;
 import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 import com.blothera.event.nation.NationMemberLeaveEvent;
 
 import java.util.List;
@@ -39,12 +40,12 @@ public class LeaveNationHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return true;
+    protected LecternType getLecternType() {
+        return null;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String playerUuid = player.getUniqueId().toString();
         String nationUuid = nationMemberDAO.getNationUuid(playerUuid);
 
@@ -1,11 +1,12 @@
 package com.blothera.book.handler.commandbook.nation;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookHandler;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
-import com.blothera.database.NationDAOs.NationLecternDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.event.nation.NationFormationEvent;
 import com.blothera.event.town.BanditCheckEvent;
@@ -14,7 +15,6 @@ import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -22,13 +22,11 @@ import static com.blothera.util.NationConstants.*;
 
 public class NationFormationHandler extends CommandBookHandler {
 
-    private final NationLecternDAO nationLecternDAO;
     private final NationDAO nationDAO;
     private final NationMemberDAO nationMemberDAO;
 
     public NationFormationHandler(NationPlugin plugin) {
         super(plugin);
-        this.nationLecternDAO = plugin.getDatabase().getNationLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
     }
@@ -44,19 +42,19 @@ public class NationFormationHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return nationLecternDAO.isNationLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.NATION;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         BanditCheckEvent checkEvent = new BanditCheckEvent(player);
         Bukkit.getPluginManager().callEvent(checkEvent);
         if (checkEvent.isCancelled()) {
             return sendErrorBook(lecternBlock, player, checkEvent.getCancelReason());
         }
 
-        if (meta.getPageCount() < 1) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "The land does not recognize silence. Name your Nation.");
         }
 
@@ -74,7 +72,7 @@ public class NationFormationHandler extends CommandBookHandler {
             return sendErrorBook(lecternBlock, player, "You already belong to a Nation. The land will not be fooled.");
         }
 
-        String nationName = meta.getPage(1).split("\n")[0].trim();
+        String nationName = command.firstLine();
 
         if (nationName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "The land does not recognize silence. Name your Nation.");
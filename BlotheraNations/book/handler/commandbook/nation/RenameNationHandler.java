@@ -1,17 +1,16 @@
 package com.blothera.book.handler.commandbook.nation;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
-import com.blothera.database.NationDAOs.NationLecternDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 import com.blothera.event.nation.NationRenamedEvent;
 import java.util.List;
 
@@ -22,14 +21,12 @@ public class RenameNationHandler extends CommandBookHandler {
     private final NationDAO nationDAO;
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
-    private final NationLecternDAO nationLecternDAO;
 
     public RenameNationHandler(NationPlugin plugin) {
         super(plugin);
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
-        this.nationLecternDAO = plugin.getDatabase().getNationLecternDAO();
 
     }
 
@@ -39,17 +36,17 @@ public class RenameNationHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return nationLecternDAO.isNationLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.NATION;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "You must write the new name on the first page.");
         }
-        String newName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String newName = command.firstLine();
         if (newName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "Nation name cannot be empty.");
         }
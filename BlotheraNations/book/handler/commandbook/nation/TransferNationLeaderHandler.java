@@ -1,18 +1,17 @@
 package com.blothera.book.handler.commandbook.nation;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
-import com.blothera.database.NationDAOs.NationLecternDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.event.nation.NationLeaderChangedEvent;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 import java.util.List;
 
 import static com.blothera.util.NationConstants.TRANSFER_NATION_LEADERSHIP_COMMAND;
@@ -21,14 +20,13 @@ public class TransferNationLeaderHandler extends CommandBookHandler {
 
     private final NationDAO nationDAO;
     private final NationMemberDAO nationMemberDAO;
-    private final NationLecternDAO nationLecternDAO;
+    private final PlayerNameDirectory playerNames;
 
     public TransferNationLeaderHandler(NationPlugin plugin) {
         super(plugin);
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
-        this.nationLecternDAO = plugin.getDatabase().getNationLecternDAO();
-
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -37,27 +35,26 @@ public class TransferNationLeaderHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return nationLecternDAO.isNationLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.NATION;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "Enter a player name on the first line.");
         }
-        String playerName = extractName(meta);
+        String playerName = extractName(command);
         if (playerName == null) {
             return sendErrorBook(lecternBlock, player, "Enter a player name on the first line.");
         }
 
-        OfflinePlayer target = Bukkit.getOfflinePlayer(playerName);
-        if (target.getName() == null && !target.isOnline()) {
+        String targetUuid = playerNames.getUuid(playerName);
+        if (targetUuid == null) {
             return sendErrorBook(lecternBlock, player, "Player '" + playerName + "' does not exist.");
         }
 
         String senderUuid = player.getUniqueId().toString();
-        String targetUuid = target.getUniqueId().toString();
 
         String nationUuid = nationMemberDAO.getNationUuid(senderUuid);
         if (nationUuid == null) {
@@ -98,9 +95,9 @@ public class TransferNationLeaderHandler extends CommandBookHandler {
 
     }
 
-    private String extractName(BookMeta meta) {
-        if (meta.getPageCount() < 1) return null;
-        String raw = PlainTextComponentSerializer.plainText().serialize(meta.page(1));
+    private String extractName(BookCommand command) {
+        if (command.pageCount() < 1) return null;
+        String raw = command.page(1);
         return raw.split("\n")[0].trim();
     }
 }
@@ -1,18 +1,18 @@
 package com.blothera.book.handler.commandbook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.*;
 import com.blothera.event.town.TownJoinRequestAcceptedEvent;
 import org.bukkit.Bukkit;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 import java.util.List;
 
 import static com.blothera.util.NationConstants.ACCEPT_JOIN_COMMAND;
@@ -26,7 +26,7 @@ public class AcceptJoinRequestHandler extends CommandBookHandler {
     private final NationMemberDAO nationMemberDAO;
     private final TownJoinRequestDAO joinRequestDAO;
     private final TownMemberDAO townMemberDAO;
-    private final TownLecternDAO townLecternDAO;
+    private final PlayerNameDirectory playerNames;
 
     public AcceptJoinRequestHandler(NationPlugin plugin) {
         super(plugin);
@@ -36,7 +36,7 @@ public class AcceptJoinRequestHandler extends CommandBookHandler {
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
         this.joinRequestDAO = plugin.getDatabase().getJoinRequestDAO();
         this.townMemberDAO = plugin.getDatabase().getTownMemberDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -45,26 +45,25 @@ public class AcceptJoinRequestHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "Book must contain the player name.");
         }
-        String targetPlayerName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String targetPlayerName = command.firstLine();
         if (targetPlayerName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "Book must contain the player name.");
         }
 
-        OfflinePlayer targetPlayer = Bukkit.getOfflinePlayer(targetPlayerName);
-        if (!targetPlayer.hasPlayedBefore() && !targetPlayer.isOnline()) {
+        String targetPlayerUuid = playerNames.getUuid(targetPlayerName);
+        if (targetPlayerUuid == null) {
             return sendErrorBook(lecternBlock, player, "That player does not exist.");
         }
 
-        String targetPlayerUuid = targetPlayer.getUniqueId().toString();
         String townUuid = townClaimDAO.getTownUuidAtLectern(lecternBlock);
         if (townUuid == null || !joinRequestDAO.hasRequestToSpecificTown(targetPlayerUuid, townUuid)) {
             return sendErrorBook(lecternBlock, player, "No join request found for this player to your town.");
@@ -1,19 +1,18 @@
 package com.blothera.book.handler.commandbook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.database.TownDAOs.TownJoinRequestDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
 import com.blothera.event.town.TownJoinRequestDeniedEvent;
 import org.bukkit.Bukkit;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 import java.util.List;
 
 import static com.blothera.util.NationConstants.DENY_JOIN_COMMAND;
@@ -24,14 +23,14 @@ public class DenyJoinRequestHandler extends CommandBookHandler {
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
     private final TownJoinRequestDAO joinRequestDAO;
-    private final TownLecternDAO townLecternDAO;
+    private final PlayerNameDirectory playerNames;
 
     public DenyJoinRequestHandler(NationPlugin plugin) {
         super(plugin);
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.joinRequestDAO = plugin.getDatabase().getJoinRequestDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -40,26 +39,25 @@ public class DenyJoinRequestHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "Book must contain the player name.");
         }
-        String targetName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String targetName = command.firstLine();
         if (targetName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "Book must contain the player name.");
         }
 
-        OfflinePlayer targetPlayer = Bukkit.getOfflinePlayer(targetName);
-        if (!targetPlayer.hasPlayedBefore() && !targetPlayer.isOnline()) {
+        String targetPlayerUuid = playerNames.getUuid(targetName);
+        if (targetPlayerUuid == null) {
             return sendErrorBook(lecternBlock, player, "That player does not exist.");
         }
 
-        String targetPlayerUuid = targetPlayer.getUniqueId().toString();
         String townUuid = townClaimDAO.getTownUuidAtLectern(lecternBlock);
         if (townUuid == null || !joinRequestDAO.hasRequestToSpecificTown(targetPlayerUuid, townUuid)) {
             return sendErrorBook(lecternBlock, player, "No join request found for this player to your town.");
@@ -1,16 +1,15 @@
 package com.blothera.book.handler.commandbook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -23,13 +22,11 @@ public class DisbandTownHandler extends CommandBookHandler {
 
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
-    private final TownLecternDAO townLecternDAO;
 
     public DisbandTownHandler(NationPlugin plugin) {
         super(plugin);
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
     }
 
     @Override
@@ -38,19 +35,19 @@ public class DisbandTownHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
 
-        if (meta.getPageCount() < 1) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "You must write the town name.");
         }
 
-        String townName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String townName = command.firstLine();
         if (townName.isEmpty()) {
             return sendErrorBook(lecternBlock, player,
                     "Town name is missing.");
@@ -1,19 +1,18 @@
 package com.blothera.book.handler.commandbook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
 import com.blothera.database.TownDAOs.TownMemberDAO;
 import com.blothera.event.town.TownMemberExileEvent;
 import org.bukkit.Bukkit;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -25,15 +24,15 @@ public class ExileFromTownHandler extends CommandBookHandler {
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
     private final TownMemberDAO townMemberDAO;
-    private final TownLecternDAO townLecternDAO;
+    private final PlayerNameDirectory playerNames;
 
     public ExileFromTownHandler(NationPlugin plugin) {
         super(plugin);
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.townMemberDAO = plugin.getDatabase().getTownMemberDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
 
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -42,31 +41,29 @@ public class ExileFromTownHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "Book must contain the player name.");
         }
 
         String targetName;
         try {
-            String pageText = PlainTextComponentSerializer.plainText().serialize(meta.page(1));
+            String pageText = command.page(1);
             targetName = pageText.split("\n")[0].trim();
         } catch (Exception e) {
             return sendErrorBook(lecternBlock, player, "Could not parse book.");
         }
 
-        OfflinePlayer target = Bukkit.getOfflinePlayer(targetName);
-        if (target.getName() == null && !target.isOnline()) {
+        String targetUuid = playerNames.getUuid(targetName);
+        if (targetUuid == null) {
             return sendErrorBook(lecternBlock, player, "That player does not exist.");
         }
 
-        String targetUuid = target.getUniqueId().toString();
-
         // Get the town tied to the lectern
         String townUuid = townClaimDAO.getTownIdAt(
                 lecternBlock.getWorld().getName(),
@@ -1,19 +1,18 @@
 package com.blothera.book.handler.commandbook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
 import com.blothera.event.town.TownExpandedEvent;
 import org.bukkit.Bukkit;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.block.Block;
 import org.bukkit.block.Chest;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -26,13 +25,11 @@ public class ExpandTownHandler extends CommandBookHandler {
 
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
-    private final TownLecternDAO townLecternDAO;
 
     public ExpandTownHandler(NationPlugin plugin) {
         super(plugin);
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
 
     }
 
@@ -42,17 +39,17 @@ public class ExpandTownHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "You must write the name of the town.");
         }
 
-        String townName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String townName = command.firstLine();
         if (townName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "Town name missing.");
         }
@@ -127,10 +124,8 @@ public class ExpandTownHandler extends CommandBookHandler {
         deductEmeralds(inv, emeraldCost);
 
         // Claim new chunks
-        for (int[] coords : toClaim) {
-            townClaimDAO.claimChunk(townUuid, world, coords[0], coords[1]);
-        }
-        Bukkit.getPluginManager().callEvent(new TownExpandedEvent(townUuid, playerUuid, toClaim.size(), lecternBlock.getLocation()));
+        int claimed = townClaimDAO.claimChunks(townUuid, world, toClaim);
+        Bukkit.getPluginManager().callEvent(new TownExpandedEvent(townUuid, playerUuid, claimed, lecternBlock.getLocation()));
 
         int newWidth = 2 * nextRadius + 1;
         return sendSuccessBook(lecternBlock, player,
@@ -1,16 +1,16 @@
 package com.blothera.book.handler.commandbook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
 import com.blothera.database.TownDAOs.TownDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
 import com.blothera.database.TownDAOs.TownMemberDAO;
 import com.blothera.event.town.TownMemberLeaveEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 import java.util.List;
 
 import static com.blothera.util.NationConstants.LEAVE_TOWN_COMMAND;
@@ -18,13 +18,11 @@ import static com.blothera.util.NationConstants.LEAVE_TOWN_COMMAND;
 public class LeaveTownHandler extends CommandBookHandler {
 
     private final TownDAO townDAO;
-    private final TownLecternDAO townLecternDAO;
     private final TownMemberDAO townMemberDAO;
 
     public LeaveTownHandler(NationPlugin plugin) {
         super(plugin);
         this.townDAO = plugin.getDatabase().getTownDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
         this.townMemberDAO = plugin.getDatabase().getTownMemberDAO();
     }
 
@@ -34,12 +32,12 @@ public class LeaveTownHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String playerUuid = player.getUniqueId().toString();
 
         // Get town UUID at this lectern
@@ -1,20 +1,19 @@
 package com.blothera.book.handler.commandbook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
 import com.blothera.database.TownDAOs.TownMemberDAO;
 import com.blothera.event.town.TownTaxPaidEvent;
 import org.bukkit.Bukkit;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.block.Block;
 import org.bukkit.block.Chest;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -24,14 +23,12 @@ import static com.blothera.util.NationConstants.*;
 
 public class PayTaxHandler extends CommandBookHandler {
 
-    private final TownLecternDAO townLecternDAO;
     private final TownDAO townDAO;
     private final TownClaimDAO townClaimDAO;
     private final TownMemberDAO townMemberDAO;
 
     public PayTaxHandler(NationPlugin plugin) {
         super(plugin);
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townMemberDAO = plugin.getDatabase().getTownMemberDAO();
@@ -43,17 +40,17 @@ public class PayTaxHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "You must write the town name on the first line.");
         }
 
-        String townName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String townName = command.firstLine();
         if (townName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "Town name missing.");
         }
@@ -99,7 +96,8 @@ public class PayTaxHandler extends CommandBookHandler {
                 ? lastPaid.plusDays(BASE_DAYS_FOR_TAX)
                 : java.time.LocalDate.now().plusDays(BASE_DAYS_FOR_TAX);
         townDAO.setTaxPaidUntil(townUuid, newDate.toString());
-        townDAO.setDormant(townUuid, false);
+        // Paying only lifts dormancy if the town also has the lecterns it needs
+        townDAO.refreshDormancy(townUuid);
         Bukkit.getPluginManager().callEvent(new TownTaxPaidEvent(townUuid, playerUuid, BASE_TAX_EMERALDS, lecternBlock.getLocation()));
 
         return sendSuccessBook(lecternBlock, player,
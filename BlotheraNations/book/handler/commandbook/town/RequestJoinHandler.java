@@ -1,17 +1,17 @@
 package com.blothera.book.handler.commandbook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.*;
 import com.blothera.event.town.BanditCheckEvent;
 import com.blothera.event.town.TownJoinRequestEvent;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -24,7 +24,6 @@ public class RequestJoinHandler extends CommandBookHandler {
     private final TownDAO townDAO;
     private final NationMemberDAO nationMemberDAO;
     private final TownJoinRequestDAO joinRequestDAO;
-    private final TownLecternDAO townLecternDAO;
     private final TownMemberDAO townMemberDAO;
 
     public RequestJoinHandler(NationPlugin plugin) {
@@ -33,7 +32,6 @@ public class RequestJoinHandler extends CommandBookHandler {
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
         this.joinRequestDAO = plugin.getDatabase().getJoinRequestDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
         this.townMemberDAO = plugin.getDatabase().getTownMemberDAO();
 
     }
@@ -44,19 +42,19 @@ public class RequestJoinHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String playerUuid = player.getUniqueId().toString();
 
-        if (meta.getPageCount() < 1) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "You must write the name of the town.");
         }
 
-        String townName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String townName = command.firstLine();
         if (townName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "You must write the name of the town.");
         }
@@ -1,24 +1,26 @@
 package com.blothera.book.handler.commandbook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
+import com.blothera.book.BookRejection;
+import com.blothera.book.EntityVersions;
+import com.blothera.book.PipelinedBook;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
-import com.blothera.database.NationDAOs.NationDAO;
-import com.blothera.database.NationDAOs.NationLecternDAO;
-import com.blothera.database.NationDAOs.NationMemberDAO;
+import com.blothera.claim.TownSpatialIndex;
+import com.blothera.database.Database;
+import com.blothera.database.LecternType;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
-import com.blothera.database.TownDAOs.TownMemberDAO;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.bukkit.block.Chest;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.meta.BookMeta;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,28 +28,21 @@ import static com.blothera.util.NationConstants.*;
 
 import com.blothera.event.town.TownFormationEvent;
 
-public class TownFormationHandler extends CommandBookHandler {
+/**
+ * Founds a town at the lectern. Runs through the {@link com.blothera.book.BookPipeline}, so the
+ * validation queries and the inserts happen off the server thread, and two towns founded at the
+ * same time in the same area cannot both pass the distance checks.
+ */
+public class TownFormationHandler extends CommandBookHandler
+        implements PipelinedBook<TownFormationHandler.Snapshot, TownFormationHandler.Plan> {
 
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
-    private final NationMemberDAO nationMemberDAO;
-    private final TownMemberDAO townMemberDAO;
-    private final TownLecternDAO townLecternDAO;
-    private final NationLecternDAO nationLecternDAO;
-    private final NationDAO nationDao;
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
 
     public TownFormationHandler(NationPlugin plugin) {
         super(plugin);
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
-        this.townMemberDAO = plugin.getDatabase().getTownMemberDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
-        this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
-        this.nationLecternDAO = plugin.getDatabase().getNationLecternDAO();
-        this.nationDao = plugin.getDatabase().getNationDAO();
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
-
     }
 
     @Override
@@ -56,55 +51,46 @@ public class TownFormationHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
-            return sendErrorBook(lecternBlock, player, "This book is empty.\n" +
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        return runPipeline(this, player, lecternBlock, command);
+    }
+
+    /**
+     * Checks the name, the coffer and the distance to spawn, and looks up the towns around the lectern,
+     * since the spatial index may only be read on the server thread.
+     */
+    @Override
+    public Snapshot snapshot(Player player, Block lecternBlock, BookCommand command, EntityVersions.ReadSet reads) {
+        if (command.pageCount() < 1) {
+            throw new BookRejection("This book is empty.\n" +
                     "Speak the name of the Town you wish to found.");
         }
 
-        String townName = meta.getPage(1).split("\n")[0].trim();
+        String townName = command.firstLine();
         if (townName.isEmpty()) {
-            return sendErrorBook(lecternBlock, player, "Speak the town's name, for silence is forgotten.");
+            throw new BookRejection("Speak the town's name, for silence is forgotten.");
         }
         if (townName.length() < 3) {
-            return sendErrorBook(lecternBlock, player, townName + " is too short.");
+            throw new BookRejection(townName + " is too short.");
         }
         if (townName.length() > 24) {
-            return sendErrorBook(lecternBlock, player, townName + " is too long.");
+            throw new BookRejection(townName + " is too long.");
         }
         if (!isValidName(townName) && !player.isOp()) {
-            return sendErrorBook(lecternBlock, player, "The name '" + townName + "' is rejected by the land.");
-        }
-        if (townDAO.townExists(townName)) {
-            return sendErrorBook(lecternBlock, player, "This name is already bound to land.");
-        }
-
-        String playerUuid = player.getUniqueId().toString();
-        String nationUuid = nationMemberDAO.getNationUuid(playerUuid);
-        if (nationUuid == null) {
-            return sendErrorBook(lecternBlock, player, "Only members of a Nation may found a Town.");
-        }
-
-        if (townDAO.isTownLeader(playerUuid)) {
-            return sendErrorBook(lecternBlock, player, "You already lead a Town. You must relinquish it before founding another.");
-        }
-
-        if (getAdjacentChest(lecternBlock) == null) {
-            return sendErrorBook(lecternBlock, player, "The ritual requires a chest beside the Lectern.");
+            throw new BookRejection("The name '" + townName + "' is rejected by the land.");
         }
 
-        if (!townDAO.nationHasAnyTowns(nationUuid) && !hasNearbyNationLectern(lecternBlock)) {
-            return sendErrorBook(lecternBlock, player, "The Capital Town must rise close to a Nation Lectern.");
-        }
-
-        if (!townDAO.nationHasAnyTowns(nationUuid) && !hasNearByDiplomacyLectern(lecternBlock)) {
-            return sendErrorBook(lecternBlock, player, "The Capital Town must rise close to a Diplomacy Lectern.");
+        Block chestBlock = getAdjacentChest(lecternBlock);
+        if (chestBlock == null) {
+            throw new BookRejection("The ritual requires a chest beside the Lectern.");
         }
+        Chest coffer = chestBlock.getState() instanceof Chest chest ? chest : null;
+        int emeralds = coffer != null ? countEmeralds(coffer.getInventory()) : 0;
 
         Location newTownLoc = lecternBlock.getLocation();
         String worldString = newTownLoc.getWorld().getName();
@@ -113,209 +99,214 @@ public class TownFormationHandler extends CommandBookHandler {
         Location spawnLoc = newTownLoc.getWorld().getSpawnLocation();
 
         if (newTownLoc.distance(spawnLoc) < MIN_BLOCKS_TO_SPAWN && !player.isOp()) {
-            return sendErrorBook(lecternBlock, player, "You must found your town farther than " + MIN_BLOCKS_TO_SPAWN + " blocks from spawn.");
+            throw new BookRejection("You must found your town farther than " + MIN_BLOCKS_TO_SPAWN + " blocks from spawn.");
         }
 
-        // 2. Too close to any town (regardless of nation, including for the capital)
-        for (String otherTownUuid : townDAO.getAllTownUuids()) {
-            // Skip if town is from the same nation
-            String otherTownNation = nationDao.getNationUuidByTownUuid(otherTownUuid);
-            if (nationUuid.equals(otherTownNation)) continue;
-
-            List<int[]> claims = townClaimDAO.getClaims(otherTownUuid);
-            if (claims.isEmpty()) continue;
-
-            Location center = getTownCenter(worldString, claims);
-            double dist = center.distance(newTownLoc);
-            if (center.getWorld().equals(newTownLoc.getWorld()) && dist < MIN_BLOCKS_FROM_FOREIGN_TOWN) {
-                String name = townDAO.getTownName(otherTownUuid);
-                return sendErrorBook(lecternBlock, player,
-                        "Too close to another town's heart.\n\n" +
-                                "§o" + name + "§r is too close.\n" +
-                                "You must be at least " + MIN_BLOCKS_FROM_FOREIGN_TOWN + " blocks from a foreign town.");
-            }
+        String playerUuid = player.getUniqueId().toString();
+        double x = newTownLoc.getX(), z = newTownLoc.getZ();
+        double radius = Math.max(MIN_BLOCKS_FROM_FOREIGN_TOWN, MAX_BLOCKS_FROM_OWN_TOWN);
+        reads.track(EntityVersions.player(playerUuid));
+        reads.track(EntityVersions.townName(townName));
+        reads.track(EntityVersions.regions(worldString, x, z, radius));
+
+        return new Snapshot(townName, playerUuid, player.getName(), worldString, x, z,
+                getSurroundingChunks(lecternBlock), townClaimDAO.getTownsWithin(worldString, x, z, radius, townUuid -> true),
+                coffer != null, emeralds);
+    }
+
+    @Override
+    public Plan validate(Snapshot snapshot, Database db, EntityVersions.ReadSet reads) {
+        // The DAOs of the read view, the fields belong to the server thread
+        TownDAO townDAO = db.getTownDAO();
+        TownClaimDAO townClaimDAO = db.getTownClaimDAO();
+        String townName = snapshot.townName();
+        double x = snapshot.x(), z = snapshot.z();
+
+        if (townDAO.townExists(townName)) {
+            throw new BookRejection("This name is already bound to land.");
         }
 
-        // 3. Distance checks relative to your own nation’s towns (only applies if nation already has towns)
-        if (townDAO.nationHasAnyTowns(nationUuid)) {
-            List<String> nationTowns = townDAO.getTownsByNationUuid(nationUuid);
-            boolean tooClose = false, tooFar = true;
+        String nationUuid = db.getNationMemberDAO().getNationUuid(snapshot.playerUuid());
+        if (nationUuid == null) {
+            throw new BookRejection("Only members of a Nation may found a Town.");
+        }
+        reads.track(EntityVersions.nation(nationUuid));
 
-            int minDistSq = MIN_BLOCKS_FROM_OWN_TOWN * MIN_BLOCKS_FROM_OWN_TOWN;
-            int maxDistSq = MAX_BLOCKS_FROM_OWN_TOWN * MAX_BLOCKS_FROM_OWN_TOWN;
+        if (townDAO.isTownLeader(snapshot.playerUuid())) {
+            throw new BookRejection("You already lead a Town. You must relinquish it before founding another.");
+        }
+
+        boolean isCapital = !townDAO.nationHasAnyTowns(nationUuid);
+        if (isCapital && db.getNationLecternDAO().getChunksWithLecterns(snapshot.world(), snapshot.chunks()).isEmpty()) {
+            throw new BookRejection("The Capital Town must rise close to a Nation Lectern.");
+        }
 
-            for (String townUuid : nationTowns) {
-                List<int[]> claims = townClaimDAO.getClaims(townUuid);
-                if (claims.isEmpty()) continue;
+        if (isCapital && db.getDiplomacyLecternDAO().getChunksWithLecterns(snapshot.world(), snapshot.chunks()).isEmpty()) {
+            throw new BookRejection("The Capital Town must rise close to a Diplomacy Lectern.");
+        }
 
-                Location center = getTownCenter(worldString, claims);
-                double distSquared = center.distanceSquared(newTownLoc);
-                if (distSquared < minDistSq) tooClose = true;
-                if (distSquared <= maxDistSq) tooFar = false;
+        // 2. Too close to any town (regardless of nation, including for the capital)
+        TownSpatialIndex.TownPosition foreignTown = snapshot.nearbyTowns().stream()
+                .filter(town -> !townClaimDAO.isTownOfNation(town.townUuid(), nationUuid))
+                .findFirst().orElse(null);
+        if (foreignTown != null && isCloserThan(foreignTown, x, z, MIN_BLOCKS_FROM_FOREIGN_TOWN)) {
+            String name = townDAO.getTownName(foreignTown.townUuid());
+            throw new BookRejection("Too close to another town's heart.\n\n" +
+                    "§o" + name + "§r is too close.\n" +
+                    "You must be at least " + MIN_BLOCKS_FROM_FOREIGN_TOWN + " blocks from a foreign town.");
+        }
 
+        // 3. Distance checks relative to your own nation’s towns (only applies if nation already has towns)
+        if (!isCapital) {
+            String capitalTownUuid = db.getNationDAO().getCapitalTownUuid(nationUuid);
+            TownSpatialIndex.TownPosition capitalCenter = townClaimDAO.queryTownCenter(capitalTownUuid);
+            if (capitalCenter == null) {
+                throw new BookRejection("Your nation's capital has no claims. Contact an admin.");
             }
-            if (townDAO.nationHasAnyTowns(nationUuid)) {
-                String capitalTownUuid = nationDao.getCapitalTownUuid(nationUuid);
-                List<int[]> capitalClaims = townClaimDAO.getClaims(capitalTownUuid);
-                if (capitalClaims.isEmpty()) {
-                    return sendErrorBook(lecternBlock, player, "Your nation's capital has no claims. Contact an admin.");
-                }
-
-                Location capitalCenter = getTownCenter(worldString, capitalClaims);
-                double dist = capitalCenter.distance(newTownLoc);
-
-                int capitalRadius = townDAO.getCapitalRadius(nationUuid);
-
-                if (dist > capitalRadius) {
-                    return sendErrorBook(lecternBlock, player,
-                            "Too far from your nation's capital.\n\n" +
-                                    "§o" + townDAO.getTownName(capitalTownUuid) + "§r is too far away away.\n" +
-                                    "The current administration range from your capital is " + capitalRadius + " blocks." +
-                                    "\n" +
-                                    "This distance increases by " + ADDITIONAL_BLOCK_RADIUS_PER_TOWN_BLOCKS + " with every new town.");
-                }
+
+            int capitalRadius = townDAO.getCapitalRadius(nationUuid);
+            if (!capitalCenter.world().equals(snapshot.world())
+                    || capitalCenter.distanceSquared(x, z) > (double) capitalRadius * capitalRadius) {
+                throw new BookRejection("Too far from your nation's capital.\n\n" +
+                        "§o" + townDAO.getTownName(capitalTownUuid) + "§r is too far away away.\n" +
+                        "The current administration range from your capital is " + capitalRadius + " blocks." +
+                        "\n" +
+                        "This distance increases by " + ADDITIONAL_BLOCK_RADIUS_PER_TOWN_BLOCKS + " with every new town.");
             }
 
-            if (tooClose || tooFar) {
-                for (String townUuid : nationTowns) {
-                    List<int[]> claims = townClaimDAO.getClaims(townUuid);
-                    if (claims.isEmpty()) continue;
-
-                    Location center = getTownCenter(worldString, claims);
-                    double dist = center.distance(newTownLoc);
-                    String name = townDAO.getTownName(townUuid);
-
-                    if (tooClose && dist < MIN_BLOCKS_FROM_OWN_TOWN) {
-                        return sendErrorBook(lecternBlock, player,
-                                "Too close to your nation's existing town.\n\n" +
-                                        "§o" + name + "§r is too close.\n" +
-                                        "Minimum spacing is " + MIN_BLOCKS_FROM_OWN_TOWN + " blocks in between towns.");
-                    }
-
-                    if (tooFar && dist <= MAX_BLOCKS_FROM_OWN_TOWN) {
-                        tooFar = false; // another town is actually within range
-                        break;
-                    }
-                }
-
-                if (tooFar) {
-                    return sendErrorBook(lecternBlock, player,
-                            "Too far from your nation's existing towns.\n" +
-                                    "Towns must be within " + MAX_BLOCKS_FROM_OWN_TOWN + " blocks of an existing town.");
-                }
+            // Nearest first, so the closest town decides both checks
+            List<TownSpatialIndex.TownPosition> nearbyTowns = snapshot.nearbyTowns().stream()
+                    .filter(town -> town.distanceSquared(x, z) <= (double) MAX_BLOCKS_FROM_OWN_TOWN * MAX_BLOCKS_FROM_OWN_TOWN)
+                    .filter(town -> townClaimDAO.isTownOfNation(town.townUuid(), nationUuid))
+                    .toList();
+            if (!nearbyTowns.isEmpty() && isCloserThan(nearbyTowns.getFirst(), x, z, MIN_BLOCKS_FROM_OWN_TOWN)) {
+                String name = townDAO.getTownName(nearbyTowns.getFirst().townUuid());
+                throw new BookRejection("Too close to your nation's existing town.\n\n" +
+                        "§o" + name + "§r is too close.\n" +
+                        "Minimum spacing is " + MIN_BLOCKS_FROM_OWN_TOWN + " blocks in between towns.");
             }
 
+            if (nearbyTowns.isEmpty()) {
+                throw new BookRejection("Too far from your nation's existing towns.\n" +
+                        "Towns must be within " + MAX_BLOCKS_FROM_OWN_TOWN + " blocks of an existing town.");
+            }
         }
 
         townName = townDAO.getCanonicalTownName(townName);
         if (townName == null) {
-            return sendErrorBook(lecternBlock, player, "Invalid town name. Contact an admin for assistance.");
+            throw new BookRejection("Invalid town name. Contact an admin for assistance.");
         }
 
-        boolean isCapital = !townDAO.nationHasAnyTowns(nationUuid);
+        int foundingCost = 0;
         if (!isCapital) {
-            Block chestBlock = getAdjacentChest(lecternBlock);
-            if (!(chestBlock != null && chestBlock.getState() instanceof Chest coffer)) {
-                return sendErrorBook(lecternBlock, player, "A chest with emeralds must be beside the Lectern.");
+            if (!snapshot.hasCoffer()) {
+                throw new BookRejection("A chest with emeralds must be beside the Lectern.");
             }
 
             int townCount = townDAO.getTownsByNationUuid(nationUuid).size();
-            int foundingCost = 9 + (townCount - 1) * 3;
-
-            Inventory inv = coffer.getInventory();
-            int emeralds = countEmeralds(inv);
+            foundingCost = 9 + (townCount - 1) * 3;
 
-            if (emeralds < foundingCost) {
-                return sendErrorBook(lecternBlock, player,
-                        "Insufficient emeralds to found a new town.\n\n" +
-                                "§oRequired:§r " + foundingCost + " emeralds\n" +
-                                "§oAvailable:§r " + emeralds + "\n\n" +
-                                "The cost grows with each new town in your nation.");
+            if (snapshot.emeralds() < foundingCost) {
+                throw new BookRejection(insufficientEmeralds(foundingCost, snapshot.emeralds()));
             }
-
-            deductEmeralds(inv, foundingCost);
         }
 
-        String townUuid = UUID.randomUUID().toString();
+        return new Plan(UUID.randomUUID().toString(), nationUuid, townName, isCapital, foundingCost, List.of());
+    }
+
+    @Override
+    public Plan persist(Snapshot snapshot, Plan plan, Database db) throws SQLException {
+        db.getTownDAO().insertTown(plan.townUuid(), plan.nationUuid(), plan.townName(), plan.capital(), snapshot.playerUuid());
+        db.getTownMemberDAO().insertMember(snapshot.playerUuid(), plan.townUuid());
+        List<int[]> claimed = db.getTownClaimDAO().insertClaimBatch(plan.townUuid(), snapshot.world(), snapshot.chunks());
+        return plan.withClaimed(claimed);
+    }
 
-        townDAO.createTown(townUuid, nationUuid, townName, isCapital, playerUuid);
-        townMemberDAO.addMember(playerUuid, townUuid);
-        initTownChunks(lecternBlock, townUuid);
+    /**
+     * Takes the founding cost from the coffer, which may have been emptied while the town was being persisted.
+     * In that case the town is removed again.
+     */
+    @Override
+    public BookResult apply(Snapshot snapshot, Plan plan, Player player, Block lecternBlock) {
+        if (!plan.capital()) {
+            Block chestBlock = getAdjacentChest(lecternBlock);
+            Inventory inv = chestBlock != null && chestBlock.getState() instanceof Chest coffer ? coffer.getInventory() : null;
+            int emeralds = inv != null ? countEmeralds(inv) : 0;
+            if (emeralds < plan.foundingCost()) {
+                townDAO.removeTown(plan.townUuid());
+                throw new BookRejection(insufficientEmeralds(plan.foundingCost(), emeralds));
+            }
+            deductEmeralds(inv, plan.foundingCost());
+        }
 
+        plugin.getDatabase().getTownMetadataCache().refresh(plan.townUuid());
+        plugin.getDatabase().getClaimPermissionEngine().onMemberAdded(snapshot.playerUuid(), plan.townUuid());
+        townClaimDAO.addClaimsToCache(plan.townUuid(), snapshot.world(), plan.claimed());
 
-        Bukkit.getPluginManager().callEvent(new TownFormationEvent(townUuid, townName, nationUuid, playerUuid, isCapital, lecternBlock.getLocation()));
+        Bukkit.getPluginManager().callEvent(new TownFormationEvent(plan.townUuid(), plan.townName(), plan.nationUuid(),
+                snapshot.playerUuid(), plan.capital(), lecternBlock.getLocation()));
 
         return sendSuccessBook(lecternBlock, player,
                 "Proclamation of Town",
                 "§lNew Town§r" +
                         "\n" +
-                        townName +
+                        plan.townName() +
                         "\n" +
                         getDate() +
                         "\n\n" +
-                        "§o" + player.getName() + "§r founded the town of §o" + townName + "§r." +
+                        "§o" + snapshot.playerName() + "§r founded the town of §o" + plan.townName() + "§r." +
                         "\n\n" +
                         "From these humble borders shall rise stone, story, and sovereignty.",
-                townName);
+                plan.townName());
     }
 
-    private void initTownChunks(Block lecternBlock, String townUuid) {
-        if (townUuid == null) return;
-        String world = lecternBlock.getWorld().getName();
-        int baseX = lecternBlock.getChunk().getX();
-        int baseZ = lecternBlock.getChunk().getZ();
-
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dz = -1; dz <= 1; dz++) {
-                int chunkX = baseX + dx;
-                int chunkZ = baseZ + dz;
-                townClaimDAO.claimChunk(townUuid, world, chunkX, chunkZ);
-
-            }
-        }
+    private static String insufficientEmeralds(int foundingCost, int emeralds) {
+        return "Insufficient emeralds to found a new town.\n\n" +
+                "§oRequired:§r " + foundingCost + " emeralds\n" +
+                "§oAvailable:§r " + emeralds + "\n\n" +
+                "The cost grows with each new town in your nation.";
     }
 
-    private Location getTownCenter(String world, List<int[]> claims) {
-        int totalX = 0, totalZ = 0;
-
-        for (int[] claim : claims) {
-            totalX += claim[0];
-            totalZ += claim[1];
-        }
-
-        int avgX = totalX / claims.size();
-        int avgZ = totalZ / claims.size();
-
-        return new Location(Bukkit.getWorld(world), avgX * 16 + 8, 64, avgZ * 16 + 8);
+    /**
+     * Town centres are compared on the horizontal plane, so the height of the lectern does not matter.
+     */
+    private static boolean isCloserThan(TownSpatialIndex.TownPosition town, double x, double z, double distance) {
+        return town.distanceSquared(x, z) < distance * distance;
     }
 
-    private boolean hasNearbyNationLectern(Block lecternBlock) {
+    /**
+     * @return The 3x3 chunks centred on the lectern's chunk, each as {chunkX, chunkZ}.
+     */
+    private List<int[]> getSurroundingChunks(Block lecternBlock) {
         int baseX = lecternBlock.getChunk().getX();
         int baseZ = lecternBlock.getChunk().getZ();
-        String world = lecternBlock.getWorld().getName();
 
+        List<int[]> chunks = new ArrayList<>(9);
         for (int dx = -1; dx <= 1; dx++) {
             for (int dz = -1; dz <= 1; dz++) {
-                if (nationLecternDAO.hasLecternInChunk(world, baseX + dx, baseZ + dz)) {
-                    return true;
-                }
+                chunks.add(new int[]{baseX + dx, baseZ + dz});
             }
         }
-        return false;
+        return chunks;
     }
 
-    private boolean hasNearByDiplomacyLectern(Block lecternBlock) {
-        int baseX = lecternBlock.getChunk().getX();
-        int baseZ = lecternBlock.getChunk().getZ();
-        String world = lecternBlock.getWorld().getName();
+    /**
+     * @param nearbyTowns Every town within the largest distance checked, nearest first.
+     * @param emeralds    The emeralds in the coffer when the book was placed.
+     */
+    public record Snapshot(String townName, String playerUuid, String playerName, String world,
+                           double x, double z, List<int[]> chunks, List<TownSpatialIndex.TownPosition> nearbyTowns,
+                           boolean hasCoffer, int emeralds) {
+    }
 
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dz = -1; dz <= 1; dz++) {
-                if (diplomacyLecternDAO.hasLecternInChunk(world, baseX + dx, baseZ + dz)) {
-                    return true;
-                }
-            }
+    /**
+     * @param claimed The chunks which were claimed, once persisted.
+     */
+    public record Plan(String townUuid, String nationUuid, String townName, boolean capital, int foundingCost,
+                       List<int[]> claimed) {
+
+        Plan withClaimed(List<int[]> claimed) {
+            return new Plan(townUuid, nationUuid, townName, capital, foundingCost, claimed);
         }
-        return false;
     }
 }
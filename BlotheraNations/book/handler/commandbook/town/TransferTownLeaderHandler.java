@@ -1,17 +1,17 @@
 package com.blothera.book.handler.commandbook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.database.TownDAOs.TownMemberDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 import com.blothera.event.town.TownLeaderChangedEvent;
 import java.util.List;
 
@@ -22,12 +22,14 @@ public class TransferTownLeaderHandler extends CommandBookHandler {
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
     private final TownMemberDAO townMemberDAO;
+    private final PlayerNameDirectory playerNames;
 
     public TransferTownLeaderHandler(NationPlugin plugin) {
         super(plugin);
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.townMemberDAO = plugin.getDatabase().getTownMemberDAO();
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -36,24 +38,24 @@ public class TransferTownLeaderHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return lecternBlock != null && lecternBlock.getType().name().endsWith("LECTERN");
+    protected LecternType getLecternType() {
+        return null;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "The book is empty. Write the new leader's name on the first line.");
         }
-        String page = PlainTextComponentSerializer.plainText().serialize(meta.page(1));
+        String page = command.page(1);
         String targetName = page.split("\n")[0].trim();
 
         if (targetName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "The new leader's name cannot be empty. Write it on the first line.");
         }
 
-        OfflinePlayer target = Bukkit.getOfflinePlayer(targetName);
-        if (target.getName() == null && !target.isOnline()) {
+        String targetUuid = playerNames.getUuid(targetName);
+        if (targetUuid == null) {
             return sendErrorBook(lecternBlock, player, "This person is not known to the land.");
         }
 
@@ -76,7 +78,6 @@ public class TransferTownLeaderHandler extends CommandBookHandler {
             return sendErrorBook(lecternBlock, player, "Only the town leader may transfer leadership. You are not the leader of this town.");
         }
 
-        String targetUuid = target.getUniqueId().toString();
         if (playerUuid.equals(targetUuid)) {
             return sendErrorBook(lecternBlock, player, "The land will not be fooled! You cannot transfer leadership to yourself.");
         }
@@ -1,15 +1,14 @@
 package com.blothera.book.handler.commandbook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
 import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.database.TownDAOs.TownJoinRequestDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 import java.util.List;
 
 import static com.blothera.util.NationConstants.*;
@@ -18,13 +17,11 @@ public class WithdrawJoinRequestHandler extends CommandBookHandler {
 
     private final TownJoinRequestDAO joinRequestDAO;
     private final TownDAO townDAO;
-    private final TownLecternDAO townLecternDAO;
 
     public WithdrawJoinRequestHandler(NationPlugin plugin) {
         super(plugin);
         this.joinRequestDAO = plugin.getDatabase().getJoinRequestDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
     }
 
     @Override
@@ -33,17 +30,17 @@ public class WithdrawJoinRequestHandler extends CommandBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "You must write the name of the town.");
         }
         String playerUuid = player.getUniqueId().toString();
-        String townName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String townName = command.firstLine();
         if (townName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "You must specify the town name.");
         }
@@ -1,6 +1,7 @@
 package com.blothera.book.handler.deliverybook;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import org.bukkit.block.Block;
@@ -8,8 +9,6 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.meta.BookMeta;
 import org.bukkit.persistence.PersistentDataType;
 
-import java.util.List;
-
 import static com.blothera.util.NationConstants.*;
 
 /**
@@ -22,40 +21,10 @@ public abstract class DeliveryBookCreateHandler extends CommandBookHandler {
         super(plugin);
     }
 
-    /**
-     * Checks if the book is valid for this handler.
-     * Validates the book title and checks if it matches the accepted titles.
-     * Also checks if the lectern is of the correct type.
-     *
-     * @param meta         book metadata
-     * @param lecternBlock lectern block where the book is placed
-     * @return true if the book should be handled by this handler
-     */
-    @Override
-    public boolean shouldHandleBook(BookMeta meta, Block lecternBlock) {
-        if (meta.getTitle() == null || !meta.hasTitle()) {
-            return false;
-        }
-        String title = meta.getTitle();
-        boolean matches = getAcceptedTitles().stream()
-                .anyMatch(t -> t.equalsIgnoreCase(title));
-        return matches && isCorrectLectern(lecternBlock);
-    }
-
-    /**
-     * @return titles that trigger this creation handler.
-     */
-    protected abstract List<String> getAcceptedTitles();
-
-    /**
-     * Checks if the lectern is correct for creating this delivery book.
-     */
-    protected abstract boolean isCorrectLectern(Block lecternBlock);
-
     /**
      * Perform the creation logic when validation passes.
      */
-    protected abstract BookResult execute(Player player, Block lecternBlock, BookMeta meta);
+    protected abstract BookResult execute(Player player, Block lecternBlock, BookCommand command);
 
 
     /**
@@ -1,18 +1,13 @@
 package com.blothera.book.handler.deliverybook;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.commandbook.CommandBookHandler;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
-import org.bukkit.persistence.PersistentDataType;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
-
-import static com.blothera.util.NationConstants.*;
-
 /**
  * Base handler for delivery book placement. These handlers handle the logic
  * when a delivery book is placed on a lectern, executing the request contained
@@ -25,81 +20,55 @@ public abstract class DeliveryBookPlaceHandler extends CommandBookHandler {
     }
 
     /**
-     * Checks if the book is valid for this handler.
-     * Validates the book title, checks if it matches the accepted titles,
-     * and ensures the lectern is of the correct type.
+     * Only books carrying the delivery keys written by the matching
+     * {@link DeliveryBookCreateHandler} are delivered.
      *
-     * @param meta         book metadata
-     * @param lecternBlock lectern block where the book is placed
-     * @return true if the book should be handled by this handler
+     * @param command the parsed book
+     * @return true if the book is a delivery book
      */
     @Override
-    public boolean shouldHandleBook(BookMeta meta, Block lecternBlock) {
-        if (!super.shouldHandleBook(meta, lecternBlock)) {
-            return false;
-        }
-
-        return meta.getPersistentDataContainer().has(DELIVERY_TYPE_KEY, PersistentDataType.STRING);
+    public boolean shouldHandleBook(BookCommand command) {
+        return command.isDelivery();
     }
 
-    /**
-     * @return titles that trigger this delivery book handler.
-     */
-    protected abstract List<String> getAcceptedTitles();
-
-    /**
-     * Checks that the lectern is of the proper type.
-     * This is used to ensure that the book is placed on the lectern.
-     */
-    protected abstract boolean isCorrectLectern(Block lecternBlock);
-
     /**
      * Execute the delivery request when validation succeeds.
      */
-    protected abstract BookResult execute(Player player, Block lecternBlock, BookMeta meta);
+    protected abstract BookResult execute(Player player, Block lecternBlock, BookCommand command);
 
     /**
-     * Retrieves the requesting entity from the book metadata.
+     * Retrieves the requesting entity from the delivery keys of the book.
      * Typically used to identify which nation or town made the request contained in the book.
      *
-     * @param meta the book metadata
+     * @param command the parsed book
      * @return the UUID of the requesting entity, or null if not set
      */
     @Nullable
-    protected String getRequestingEntityUuid(BookMeta meta) {
-        return meta.getPersistentDataContainer().get(
-                REQUESTING_ENTITY_KEY,
-                PersistentDataType.STRING
-        );
+    protected String getRequestingEntityUuid(BookCommand command) {
+        return command.requestingEntityUuid();
     }
 
     /**
-     * Retrieves the target entity from the book metadata.
+     * Retrieves the target entity from the delivery keys of the book.
      * This is used to identify the entity that the delivery request is directed towards.
      *
-     * @param meta the book metadata
+     * @param command the parsed book
      * @return the UUID of the target entity, or null if not set
      */
     @Nullable
-    protected String getTargetEntityUuid(BookMeta meta) {
-        return meta.getPersistentDataContainer().get(
-                TARGET_ENTITY_KEY,
-                PersistentDataType.STRING
-        );
+    protected String getTargetEntityUuid(BookCommand command) {
+        return command.targetEntityUuid();
     }
 
     /**
-     * Retrieves the request type from the book metadata.
+     * Retrieves the request type from the delivery keys of the book.
      * This is used to determine what kind of delivery request is being made.
      *
-     * @param meta the book metadata
+     * @param command the parsed book
      * @return the request type as a string, or null if not set
      */
     @Nullable
-    protected String getRequestType(BookMeta meta) {
-        return meta.getPersistentDataContainer().get(
-                DELIVERY_TYPE_KEY,
-                PersistentDataType.STRING
-        );
+    protected String getRequestType(BookCommand command) {
+        return command.deliveryType();
     }
 }
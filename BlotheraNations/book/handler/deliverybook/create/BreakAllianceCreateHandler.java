@@ -1,15 +1,15 @@
 package com.blothera.book.handler.deliverybook.create;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.deliverybook.DeliveryBookCreateHandler;
 import com.blothera.database.DiplomacyDAOs.DiplomacyDAO;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -23,7 +23,6 @@ import static com.blothera.util.NationConstants.*;
 
 public class BreakAllianceCreateHandler extends DeliveryBookCreateHandler {
 
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
     private final NationDAO nationDAO;
     private final NationMemberDAO nationMemberDAO;
     private final TownDAO townDAO;
@@ -33,7 +32,6 @@ public class BreakAllianceCreateHandler extends DeliveryBookCreateHandler {
 
     public BreakAllianceCreateHandler(NationPlugin plugin) {
         super(plugin);
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
@@ -48,12 +46,12 @@ public class BreakAllianceCreateHandler extends DeliveryBookCreateHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String playerUuid = player.getUniqueId().toString();
         String playerNationUuid = nationMemberDAO.getNationUuid(playerUuid);
 
@@ -88,13 +86,13 @@ public class BreakAllianceCreateHandler extends DeliveryBookCreateHandler {
         }
 
         // Check if book actually contains anything
-        if (meta.getPageCount() < 1) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "Book must contain the name of the nation to break alliance with. Write the name on the first line of the book.");
         }
 
         // Check if target nation name is provided
-        String targetNationName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String targetNationName = command.firstLine();
         if (targetNationName.isEmpty()) {
             return sendErrorBook(lecternBlock, player,
                     "You must provide a nation name. Write the nation's name on the first line of the book.");
@@ -1,15 +1,15 @@
 package com.blothera.book.handler.deliverybook.create;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.deliverybook.DeliveryBookCreateHandler;
 import com.blothera.database.DiplomacyDAOs.DiplomacyDAO;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -27,7 +27,6 @@ public class DeclareWarCreateHandler extends DeliveryBookCreateHandler {
     private final NationMemberDAO nationMemberDAO;
     private final TownDAO townDAO;
     private final TownClaimDAO townClaimDAO;
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
     private final DiplomacyDAO diplomacyDAO;
 
     public DeclareWarCreateHandler(NationPlugin plugin) {
@@ -36,7 +35,6 @@ public class DeclareWarCreateHandler extends DeliveryBookCreateHandler {
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.diplomacyDAO = plugin.getDatabase().getDiplomacyDAO();
     }
 
@@ -46,12 +44,12 @@ public class DeclareWarCreateHandler extends DeliveryBookCreateHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String playerUuid = player.getUniqueId().toString();
         String sourceNationUuid = nationMemberDAO.getNationUuid(playerUuid);
 
@@ -80,11 +78,11 @@ public class DeclareWarCreateHandler extends DeliveryBookCreateHandler {
                     "This diplomacy lectern is not within your nation's claimed territory.");
         }
 
-        if (meta.getPageCount() < 1) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "Book must contain the name of the nation you want to declare war on.");
         }
 
-        String targetNationName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String targetNationName = command.firstLine();
         if (targetNationName.isEmpty()) {
             return sendErrorBook(lecternBlock, player,
                     "Target nation name cannot be empty. Write it on the first line of the book.");
@@ -1,14 +1,14 @@
 package com.blothera.book.handler.deliverybook.create;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.deliverybook.DeliveryBookCreateHandler;
 import com.blothera.book.BookResult;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -33,7 +33,6 @@ public class RelocateCapitalCreateHandler extends DeliveryBookCreateHandler {
     private final TownDAO townDAO;
     private final TownClaimDAO townClaimDAO;
     private final NationMemberDAO nationMemberDAO;
-    private final TownLecternDAO townLecternDAO;
 
     public RelocateCapitalCreateHandler(NationPlugin plugin) {
         super(plugin);
@@ -41,7 +40,6 @@ public class RelocateCapitalCreateHandler extends DeliveryBookCreateHandler {
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
     }
 
     @Override
@@ -54,12 +52,12 @@ public class RelocateCapitalCreateHandler extends DeliveryBookCreateHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
 
         String playerUuid = player.getUniqueId().toString();
         String nationUuid = nationMemberDAO.getNationUuid(playerUuid);
@@ -89,12 +87,12 @@ public class RelocateCapitalCreateHandler extends DeliveryBookCreateHandler {
                     "Could not retrieve current capital town canonical name. Contact an admin.");
         }
 
-        if (meta.getPageCount() < 1) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "You must write the name of the new capital town.");
         }
 
-        String targetTownName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String targetTownName = command.firstLine();
         if (targetTownName.isEmpty()) {
             return sendErrorBook(lecternBlock, player,
                     "Town name cannot be empty.");
@@ -1,16 +1,16 @@
 package com.blothera.book.handler.deliverybook.create;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.deliverybook.DeliveryBookCreateHandler;
 import com.blothera.database.DiplomacyDAOs.DiplomacyDAO;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -25,7 +25,6 @@ import static com.blothera.util.NationConstants.*;
 public class RequestAllyCreateHandler extends DeliveryBookCreateHandler {
 
     private final NationDAO nationDAO;
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
     private final DiplomacyDAO diplomacyDAO;
     private final NationMemberDAO nationMemberDAO;
     private final DiplomacyRequestsDAO diplomacyRequestsDAO;
@@ -36,7 +35,6 @@ public class RequestAllyCreateHandler extends DeliveryBookCreateHandler {
     public RequestAllyCreateHandler(NationPlugin plugin) {
         super(plugin);
         this.nationDAO = plugin.getDatabase().getNationDAO();
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.diplomacyDAO = plugin.getDatabase().getDiplomacyDAO();
         this.diplomacyRequestsDAO = plugin.getDatabase().getDiplomacyRequestsDAO();
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
@@ -56,12 +54,12 @@ public class RequestAllyCreateHandler extends DeliveryBookCreateHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String playerUuid = player.getUniqueId().toString();
         String playerNationUuid = nationMemberDAO.getNationUuid(playerUuid);
 
@@ -90,12 +88,12 @@ public class RequestAllyCreateHandler extends DeliveryBookCreateHandler {
         }
 
         // Check if the book has the required persistent data
-        if (meta.getPageCount() < 1) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "Book must contain the target nation name. Write it on the first line of the book.");
         }
 
         // Get target nation name from the first page
-        String targetNationName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String targetNationName = command.firstLine();
         if (targetNationName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "Target nation name cannot be empty. Write it on the first line of the book.");
         }
@@ -1,15 +1,16 @@
 package com.blothera.book.handler.deliverybook.create;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.deliverybook.DeliveryBookCreateHandler;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.database.WarDAOs.WarDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -47,13 +48,12 @@ public class RequestJoinWarCreateHandler extends DeliveryBookCreateHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        // Can reuse diplomacy lectern check if applicable
-        return plugin.getDatabase().getDiplomacyLecternDAO().isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String playerUuid = player.getUniqueId().toString();
         String playerNationUuid = nationMemberDAO.getNationUuid(playerUuid);
         if (playerNationUuid == null) {
@@ -72,11 +72,11 @@ public class RequestJoinWarCreateHandler extends DeliveryBookCreateHandler {
             return sendErrorBook(lecternBlock, player, "This lectern is not inside a town owned by your nation.");
         }
 
-        if (meta.getPageCount() < 1) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "Book must contain the target nation name. Write it on the first line.");
         }
 
-        String targetNationName = PlainTextComponentSerializer.plainText().serialize(meta.page(1)).split("\n")[0].trim();
+        String targetNationName = command.firstLine();
         if (targetNationName.isEmpty()) {
             return sendErrorBook(lecternBlock, player, "Target nation name cannot be empty.");
         }
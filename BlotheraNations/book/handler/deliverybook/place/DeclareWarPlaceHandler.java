@@ -1,47 +1,43 @@
 package com.blothera.book.handler.deliverybook.place;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
+import com.blothera.book.BookRejection;
 import com.blothera.book.BookResult;
+import com.blothera.book.EntityVersions;
+import com.blothera.book.PipelinedBook;
 import com.blothera.book.handler.deliverybook.DeliveryBookPlaceHandler;
+import com.blothera.database.Database;
 import com.blothera.database.DiplomacyDAOs.DiplomacyDAO;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
-import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
-import com.blothera.database.NationDAOs.NationMemberDAO;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.TownClaimDAO;
-import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.event.diplomacy.WarDeclaredEvent;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
+import java.sql.SQLException;
 import java.util.List;
-import java.util.UUID;
 
 import static com.blothera.util.NationConstants.*;
 
-public class DeclareWarPlaceHandler extends DeliveryBookPlaceHandler {
+/**
+ * Declares war when the declaration is delivered to a lectern of the target nation.
+ * Runs through the {@link com.blothera.book.BookPipeline}, so two declarations or an alliance
+ * between the same nations cannot both pass validation.
+ */
+public class DeclareWarPlaceHandler extends DeliveryBookPlaceHandler
+        implements PipelinedBook<DeclareWarPlaceHandler.Snapshot, DeclareWarPlaceHandler.Plan> {
 
-    private final NationDAO nationDAO;
-    private final NationMemberDAO nationMemberDAO;
-    private final TownDAO townDAO;
     private final TownClaimDAO townClaimDAO;
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
-    private final DiplomacyDAO diplomacyDAO;
-    private final DiplomacyRequestsDAO diplomacyRequestsDAO;
+    private final PlayerNameDirectory playerNames;
 
     public DeclareWarPlaceHandler(NationPlugin plugin) {
         super(plugin);
-        this.nationDAO = plugin.getDatabase().getNationDAO();
-        this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
-        this.townDAO = plugin.getDatabase().getTownDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
-        this.diplomacyDAO = plugin.getDatabase().getDiplomacyDAO();
-        this.diplomacyRequestsDAO = plugin.getDatabase().getDiplomacyRequestsDAO();
-
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -50,110 +46,145 @@ public class DeclareWarPlaceHandler extends DeliveryBookPlaceHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        return runPipeline(this, player, lecternBlock, command);
+    }
 
-        String requestType = getRequestType(meta);
+    @Override
+    public Snapshot snapshot(Player player, Block lecternBlock, BookCommand command, EntityVersions.ReadSet reads) {
+        String requestType = getRequestType(command);
         if (requestType == null || !requestType.equals(DECLARE_WAR_DELIVERY_TYPE)) {
-            return sendErrorBook(lecternBlock, player, "Invalid war declaration book.");
+            throw new BookRejection("Invalid war declaration book.");
         }
 
-        String sourceNationUuid = getRequestingEntityUuid(meta);
+        String sourceNationUuid = getRequestingEntityUuid(command);
         if (sourceNationUuid == null) {
-            return sendErrorBook(lecternBlock, player, "Missing declaring nation metadata.");
+            throw new BookRejection("Missing declaring nation metadata.");
         }
 
-        String sourceNationName = nationDAO.getNationName(sourceNationUuid);
-        if (sourceNationName == null) {
-            return sendErrorBook(lecternBlock, player, "Your nation does not exist or has been deleted. Contact an admin.");
+        String targetNationUuid = getTargetEntityUuid(command);
+        if (targetNationUuid == null) {
+            throw new BookRejection("Target nation no longer exists.");
         }
 
-        String targetNationUuid = getTargetEntityUuid(meta);
-        if (targetNationUuid == null) {
-            return sendErrorBook(lecternBlock, player, "Target nation no longer exists.");
+        String bookAuthor = command.author(); // name from the book
+        if (bookAuthor == null) {
+            throw new BookRejection("This book has no author.");
+        }
+
+        if (sourceNationUuid.equals(targetNationUuid)) {
+            throw new BookRejection("You cannot declare war on your own nation.");
+        }
+
+        String playerUuid = player.getUniqueId().toString();
+        reads.track(EntityVersions.nation(sourceNationUuid));
+        reads.track(EntityVersions.nation(targetNationUuid));
+        reads.track(EntityVersions.player(playerUuid));
+
+        return new Snapshot(sourceNationUuid, targetNationUuid, bookAuthor, playerUuid,
+                townClaimDAO.getTownUuidAtLectern(lecternBlock));
+    }
+
+    @Override
+    public Plan validate(Snapshot snapshot, Database db, EntityVersions.ReadSet reads) {
+        NationDAO nationDAO = db.getNationDAO();
+        DiplomacyDAO diplomacyDAO = db.getDiplomacyDAO();
+        String sourceNationUuid = snapshot.sourceNationUuid();
+        String targetNationUuid = snapshot.targetNationUuid();
+
+        String sourceNationName = nationDAO.getNationName(sourceNationUuid);
+        if (sourceNationName == null) {
+            throw new BookRejection("Your nation does not exist or has been deleted. Contact an admin.");
         }
 
         String targetNationName = nationDAO.getNationName(targetNationUuid);
         if (targetNationName == null) {
-            return sendErrorBook(lecternBlock, player, "Target nation name could not be retrieved.");
+            throw new BookRejection("Target nation name could not be retrieved.");
         }
 
-        String playerUuid = player.getUniqueId().toString();
-        String playerNationUuid = nationMemberDAO.getNationUuid(playerUuid);
+        String playerNationUuid = db.getNationMemberDAO().getNationUuid(snapshot.playerUuid());
         if (playerNationUuid == null || !playerNationUuid.equals(sourceNationUuid)) {
-            return sendErrorBook(lecternBlock, player, "Only members of the declaring nation may place this book.");
+            throw new BookRejection("Only members of the declaring nation may place this book.");
         }
 
         // Check that the author is the current nation leader
         String currentLeaderUuidStr = nationDAO.getLeaderUuid(sourceNationUuid);
         if (currentLeaderUuidStr == null) {
-            return sendErrorBook(lecternBlock, player, "Could not determine the current nation leader.");
-        }
-
-        String bookAuthor = meta.getAuthor(); // name from the book
-        if (bookAuthor == null) {
-            return sendErrorBook(lecternBlock, player, "This book has no author.");
+            throw new BookRejection("Could not determine the current nation leader.");
         }
 
-        OfflinePlayer authorOffline = Bukkit.getOfflinePlayer(bookAuthor);
-        String authorUUID = authorOffline.getUniqueId().toString();
+        String authorUuid = playerNames.getUuid(db.getConnection(), snapshot.bookAuthor());
 
-        if (!authorUUID.equals(currentLeaderUuidStr)) {
-            String leaderName = Bukkit.getOfflinePlayer(UUID.fromString(currentLeaderUuidStr)).getName();
+        if (!currentLeaderUuidStr.equals(authorUuid)) {
+            String leaderName = playerNames.getName(db.getConnection(), currentLeaderUuidStr);
             if (leaderName == null) leaderName = currentLeaderUuidStr; // fallback
 
-            return sendErrorBook(lecternBlock, player, "This book must be signed by the current nation leader (" + leaderName + ").");
+            throw new BookRejection("This book must be signed by the current nation leader (" + leaderName + ").");
         }
 
         if (diplomacyDAO.hasRelation(sourceNationUuid, targetNationUuid, ALLIANCE_RELATION)) {
-            return sendErrorBook(lecternBlock, player, "You are currently allied with " + targetNationName + ". You must break the alliance first.");
+            throw new BookRejection("You are currently allied with " + targetNationName + ". You must break the alliance first.");
         }
 
         if (diplomacyDAO.hasRelation(sourceNationUuid, targetNationUuid, WAR_RELATION)) {
-            return sendErrorBook(lecternBlock, player, "War is already declared between your nations.");
+            throw new BookRejection("War is already declared between your nations.");
         }
 
         // Check if the lectern is inside the target nation's claimed territory
-        boolean isTargetLectern = townDAO
-                .getTownsByNationUuid(targetNationUuid)
-                .stream()
-                .anyMatch(townUuid -> townClaimDAO.isLecternInTownChunk(townUuid, lecternBlock));
-
-        if (!isTargetLectern) {
-            return sendErrorBook(lecternBlock, player, "This lectern is not inside " + targetNationName + "'s claimed territory.");
+        String lecternTownUuid = snapshot.lecternTownUuid();
+        if (lecternTownUuid == null || !targetNationUuid.equals(db.getTownDAO().getNationUuidFromTownUuid(lecternTownUuid))) {
+            throw new BookRejection("This lectern is not inside " + targetNationName + "'s claimed territory.");
         }
 
-        if (sourceNationUuid.equals(targetNationUuid)) {
-            return sendErrorBook(lecternBlock, player, "You cannot declare war on your own nation.");
-        }
-        int sourceWarId = plugin.getDatabase().getWarDAO().getOngoingWarIdByNation(sourceNationUuid);
-        int targetWarId = plugin.getDatabase().getWarDAO().getOngoingWarIdByNation(targetNationUuid);
+        int sourceWarId = db.getWarDAO().getOngoingWarIdByNation(sourceNationUuid);
+        int targetWarId = db.getWarDAO().getOngoingWarIdByNation(targetNationUuid);
         if (sourceWarId != -1 || targetWarId != -1) {
-            return sendErrorBook(lecternBlock, player,
-                    "Either your nation or " + targetNationName + " is already involved in another war.\n" +
-                            "Only one war at a time is allowed per nation.");
+            throw new BookRejection("Either your nation or " + targetNationName + " is already involved in another war.\n" +
+                    "Only one war at a time is allowed per nation.");
         }
 
-        diplomacyRequestsDAO.deleteAllRequests(sourceNationUuid, targetNationUuid);
-        diplomacyDAO.createRelation(sourceNationUuid, targetNationUuid, WAR_RELATION);
-        Bukkit.getPluginManager().callEvent(new WarDeclaredEvent(sourceNationUuid, targetNationUuid, lecternBlock.getLocation()));
+        return new Plan(sourceNationName, targetNationName);
+    }
+
+    @Override
+    public Plan persist(Snapshot snapshot, Plan plan, Database db) throws SQLException {
+        db.getDiplomacyRequestsDAO().deleteRequestsBetween(snapshot.sourceNationUuid(), snapshot.targetNationUuid());
+        db.getDiplomacyDAO().insertRelation(snapshot.sourceNationUuid(), snapshot.targetNationUuid(), WAR_RELATION);
+        return plan;
+    }
+
+    @Override
+    public BookResult apply(Snapshot snapshot, Plan plan, Player player, Block lecternBlock) {
+        Bukkit.getPluginManager().callEvent(new WarDeclaredEvent(snapshot.sourceNationUuid(), snapshot.targetNationUuid(),
+                lecternBlock.getLocation()));
 
         return sendSuccessBook(lecternBlock, player,
                 "War Declared",
                 "§lWar Declared§r" +
                         "\n" +
-                        targetNationName +
+                        plan.targetNationName() +
                         "\n" +
                         getDate() +
                         "\n\n" +
-                        "A formal declaration has been made against §o" + targetNationName + "§r." +
+                        "A formal declaration has been made against §o" + plan.targetNationName() + "§r." +
                         "\n\n" +
                         "From this day forth, your nations are at war.",
-                sourceNationName
+                plan.sourceNationName()
         );
     }
+
+    /**
+     * @param lecternTownUuid The town whose claim the lectern stands in, or null.
+     */
+    public record Snapshot(String sourceNationUuid, String targetNationUuid, String bookAuthor, String playerUuid,
+                           String lecternTownUuid) {
+    }
+
+    public record Plan(String sourceNationName, String targetNationName) {
+    }
 }
@@ -1,22 +1,21 @@
 package com.blothera.book.handler.deliverybook.place;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.deliverybook.DeliveryBookPlaceHandler;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
 import com.blothera.event.nation.NationCapitalTransferEvent;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
-import java.util.UUID;
 
 import static com.blothera.util.NationConstants.CAPITAL_RELOCATION_DELIVERY;
 import static com.blothera.util.NationConstants.RELOCATE_CAPITAL_DELIVERY_TYPE;
@@ -33,7 +32,7 @@ public class RelocateCapitalPlaceHandler extends DeliveryBookPlaceHandler {
     private final TownDAO townDAO;
     private final TownClaimDAO townClaimDAO;
     private final NationMemberDAO nationMemberDAO;
-    private final TownLecternDAO townLecternDAO;
+    private final PlayerNameDirectory playerNames;
 
     public RelocateCapitalPlaceHandler(NationPlugin plugin) {
         super(plugin);
@@ -41,7 +40,7 @@ public class RelocateCapitalPlaceHandler extends DeliveryBookPlaceHandler {
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -50,19 +49,19 @@ public class RelocateCapitalPlaceHandler extends DeliveryBookPlaceHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
 
-        String requestType = getRequestType(meta);
+        String requestType = getRequestType(command);
         if (requestType == null || !requestType.equals(RELOCATE_CAPITAL_DELIVERY_TYPE)) {
             return sendErrorBook(lecternBlock, player, "Invalid capital relocation book.");
         }
 
-        String targetTownUuid = getTargetEntityUuid(meta);
+        String targetTownUuid = getTargetEntityUuid(command);
         if (targetTownUuid == null) {
             return sendErrorBook(lecternBlock, player, "The target town does not exist.");
         }
@@ -72,7 +71,7 @@ public class RelocateCapitalPlaceHandler extends DeliveryBookPlaceHandler {
             return sendErrorBook(lecternBlock, player, "Could not retrieve target town name.");
         }
 
-        String nationUuid = getRequestingEntityUuid(meta);
+        String nationUuid = getRequestingEntityUuid(command);
 
         if (nationUuid == null) {
             return sendErrorBook(lecternBlock, player, "Missing nation data on book.");
@@ -95,16 +94,15 @@ public class RelocateCapitalPlaceHandler extends DeliveryBookPlaceHandler {
             return sendErrorBook(lecternBlock, player, "Could not determine the current nation leader.");
         }
 
-        String bookAuthor = meta.getAuthor(); // name from the book
+        String bookAuthor = command.author(); // name from the book
         if (bookAuthor == null) {
             return sendErrorBook(lecternBlock, player, "This book has no author.");
         }
 
-        OfflinePlayer authorOffline = Bukkit.getOfflinePlayer(bookAuthor);
-        String authorUUID = authorOffline.getUniqueId().toString();
+        String authorUuid = playerNames.getUuid(bookAuthor);
 
-        if (!authorUUID.equals(currentLeaderUuidStr)) {
-            String leaderName = Bukkit.getOfflinePlayer(UUID.fromString(currentLeaderUuidStr)).getName();
+        if (!currentLeaderUuidStr.equals(authorUuid)) {
+            String leaderName = playerNames.getName(currentLeaderUuidStr);
             if (leaderName == null) leaderName = currentLeaderUuidStr; // fallback
 
             return sendErrorBook(lecternBlock, player, "This book must be signed by the current nation leader (" + leaderName + ").");
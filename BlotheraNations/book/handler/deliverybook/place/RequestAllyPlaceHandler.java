@@ -1,45 +1,42 @@
 package com.blothera.book.handler.deliverybook.place;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
+import com.blothera.book.BookRejection;
 import com.blothera.book.BookResult;
+import com.blothera.book.EntityVersions;
+import com.blothera.book.PipelinedBook;
 import com.blothera.book.handler.deliverybook.DeliveryBookPlaceHandler;
+import com.blothera.database.Database;
 import com.blothera.database.DiplomacyDAOs.DiplomacyDAO;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
-import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
-import com.blothera.database.NationDAOs.NationMemberDAO;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.TownClaimDAO;
-import com.blothera.database.TownDAOs.TownDAO;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
+import java.sql.SQLException;
 import java.util.List;
-import java.util.UUID;
 
 import static com.blothera.util.NationConstants.*;
 
-public class RequestAllyPlaceHandler extends DeliveryBookPlaceHandler {
+/**
+ * Sends an alliance request, or forms the alliance if the target nation already asked for one,
+ * when the request is delivered to a lectern of the target nation.
+ * Runs through the {@link com.blothera.book.BookPipeline}, so two requests crossing each other
+ * or a war declared at the same moment cannot both pass validation.
+ */
+public class RequestAllyPlaceHandler extends DeliveryBookPlaceHandler
+        implements PipelinedBook<RequestAllyPlaceHandler.Snapshot, RequestAllyPlaceHandler.Plan> {
 
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
-    private final NationDAO nationDAO;
     private final TownClaimDAO townClaimDAO;
-    private final TownDAO townDAO;
-    private final DiplomacyRequestsDAO diplomacyRequestsDAO;
-    private final DiplomacyDAO diplomacyDAO;
-    private final NationMemberDAO nationMemberDAO;
+    private final PlayerNameDirectory playerNames;
 
     public RequestAllyPlaceHandler(NationPlugin plugin) {
         super(plugin);
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
-        this.nationDAO = plugin.getDatabase().getNationDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
-        this.townDAO = plugin.getDatabase().getTownDAO();
-        this.diplomacyRequestsDAO = plugin.getDatabase().getDiplomacyRequestsDAO();
-        this.diplomacyDAO = plugin.getDatabase().getDiplomacyDAO();
-        this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -49,122 +46,146 @@ public class RequestAllyPlaceHandler extends DeliveryBookPlaceHandler {
 
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        return runPipeline(this, player, lecternBlock, command);
+    }
 
-        String requestType = getRequestType(meta);
+    @Override
+    public Snapshot snapshot(Player player, Block lecternBlock, BookCommand command, EntityVersions.ReadSet reads) {
+        String requestType = getRequestType(command);
         if (requestType == null || !requestType.equals(ALLIANCE_REQUEST_DELIVERY_TYPE)) {
-            return sendErrorBook(lecternBlock, player, "Invalid alliance book format.");
+            throw new BookRejection("Invalid alliance book format.");
         }
 
-        String targetNationUuid = getTargetEntityUuid(meta);
+        String targetNationUuid = getTargetEntityUuid(command);
         if (targetNationUuid == null) {
-            return sendErrorBook(lecternBlock, player, "Target nation no longer exists.");
+            throw new BookRejection("Target nation no longer exists.");
         }
 
-        String targetNationName = nationDAO.getNationName(targetNationUuid);
-        if (targetNationName == null) {
-            return sendErrorBook(lecternBlock, player, "Target nation name could not be determined.");
+        String storedSourceUuid = getRequestingEntityUuid(command);
+        if (storedSourceUuid == null) {
+            throw new BookRejection("Alliance book missing source nation tag. Please report this.");
         }
 
-        boolean lecternValid = townDAO
-                .getTownsByNationUuid(targetNationUuid)
-                .stream()
-                .anyMatch(townUuid -> townClaimDAO.isLecternInTownChunk(townUuid, lecternBlock));
-
-        if (!lecternValid) {
-            return sendErrorBook(lecternBlock, player, "This lectern is not in the territory of " + targetNationName + ".");
+        String bookAuthor = command.author(); // name from the book
+        if (bookAuthor == null) {
+            throw new BookRejection("This book has no author.");
         }
 
         String senderUuid = player.getUniqueId().toString();
-        String senderNationUuid = nationMemberDAO.getNationUuid(senderUuid);
-        if (senderNationUuid == null) {
-            return sendErrorBook(lecternBlock, player, "You are not part of a nation.");
+        reads.track(EntityVersions.nation(storedSourceUuid));
+        reads.track(EntityVersions.nation(targetNationUuid));
+        reads.track(EntityVersions.player(senderUuid));
+
+        return new Snapshot(storedSourceUuid, targetNationUuid, bookAuthor, senderUuid, player.getName(),
+                townClaimDAO.getTownUuidAtLectern(lecternBlock));
+    }
+
+    @Override
+    public Plan validate(Snapshot snapshot, Database db, EntityVersions.ReadSet reads) {
+        NationDAO nationDAO = db.getNationDAO();
+        DiplomacyDAO diplomacyDAO = db.getDiplomacyDAO();
+        String targetNationUuid = snapshot.targetNationUuid();
+        String storedSourceUuid = snapshot.storedSourceUuid();
+
+        String targetNationName = nationDAO.getNationName(targetNationUuid);
+        if (targetNationName == null) {
+            throw new BookRejection("Target nation name could not be determined.");
         }
 
-        String storedSourceUuid = getRequestingEntityUuid(meta);
-        if (storedSourceUuid == null) {
-            return sendErrorBook(lecternBlock, player, "Alliance book missing source nation tag. Please report this.");
+        String lecternTownUuid = snapshot.lecternTownUuid();
+        if (lecternTownUuid == null || !targetNationUuid.equals(db.getTownDAO().getNationUuidFromTownUuid(lecternTownUuid))) {
+            throw new BookRejection("This lectern is not in the territory of " + targetNationName + ".");
+        }
+
+        String senderNationUuid = db.getNationMemberDAO().getNationUuid(snapshot.senderUuid());
+        if (senderNationUuid == null) {
+            throw new BookRejection("You are not part of a nation.");
         }
 
         // Check that the author is the current nation leader
         String currentLeaderUuidStr = nationDAO.getLeaderUuid(storedSourceUuid);
         if (currentLeaderUuidStr == null) {
-            return sendErrorBook(lecternBlock, player, "Could not determine the current nation leader.");
+            throw new BookRejection("Could not determine the current nation leader.");
         }
 
-        String bookAuthor = meta.getAuthor(); // name from the book
-        if (bookAuthor == null) {
-            return sendErrorBook(lecternBlock, player, "This book has no author.");
-        }
+        String authorUuid = playerNames.getUuid(db.getConnection(), snapshot.bookAuthor());
 
-        OfflinePlayer authorOffline = Bukkit.getOfflinePlayer(bookAuthor);
-        String authorUUID = authorOffline.getUniqueId().toString();
-
-        if (!authorUUID.equals(currentLeaderUuidStr)) {
-            String leaderName = Bukkit.getOfflinePlayer(UUID.fromString(currentLeaderUuidStr)).getName();
+        if (!currentLeaderUuidStr.equals(authorUuid)) {
+            String leaderName = playerNames.getName(db.getConnection(), currentLeaderUuidStr);
             if (leaderName == null) leaderName = currentLeaderUuidStr; // fallback
 
-            return sendErrorBook(lecternBlock, player, "This book must be signed by the current nation leader (" + leaderName + ").");
+            throw new BookRejection("This book must be signed by the current nation leader (" + leaderName + ").");
         }
 
         if (diplomacyDAO.hasRelation(senderNationUuid, targetNationUuid, ALLIANCE_RELATION)) {
-            return sendErrorBook(lecternBlock, player, "You are already allied with " + targetNationName + ".");
+            throw new BookRejection("You are already allied with " + targetNationName + ".");
         }
 
         if (!storedSourceUuid.equals(senderNationUuid)) {
-            return sendErrorBook(lecternBlock, player, "This alliance book does not belong to your nation.");
+            throw new BookRejection("This alliance book does not belong to your nation.");
         }
 
         if (senderNationUuid.equals(targetNationUuid)) {
-            return sendErrorBook(lecternBlock, player, "You cannot send a request to your own nation.");
+            throw new BookRejection("You cannot send a request to your own nation.");
         }
 
         if (diplomacyDAO.hasRelation(senderNationUuid, targetNationUuid, WAR_RELATION)) {
-            return sendErrorBook(lecternBlock, player, "You are currently at war with " + targetNationName + ". End the war before forming an alliance.");
+            throw new BookRejection("You are currently at war with " + targetNationName + ". End the war before forming an alliance.");
         }
 
-        int senderWarId = plugin.getDatabase().getWarDAO().getOngoingWarIdByNation(senderNationUuid);
-        int targetWarId = plugin.getDatabase().getWarDAO().getOngoingWarIdByNation(targetNationUuid);
+        int senderWarId = db.getWarDAO().getOngoingWarIdByNation(senderNationUuid);
+        int targetWarId = db.getWarDAO().getOngoingWarIdByNation(targetNationUuid);
         if (senderWarId != -1 && senderWarId == targetWarId) {
-            var war = plugin.getDatabase().getWarDAO().getWarById(senderWarId);
+            var war = db.getWarDAO().getWarById(senderWarId);
             if (war != null) {
                 String enemyLeaderUuid = targetNationUuid.equals(war.attackerNationUuid())
                         ? war.defenderNationUuid()
                         : war.attackerNationUuid();
 
                 if (enemyLeaderUuid.equals(senderNationUuid)) {
-                    return sendErrorBook(lecternBlock, player,
-                            "You are part of a war against " + targetNationName + ". An alliance cannot be formed.");
+                    throw new BookRejection("You are part of a war against " + targetNationName + ". An alliance cannot be formed.");
                 }
             }
         }
         String sourceNationName = nationDAO.getNationName(senderNationUuid);
 
-        boolean reciprocalExists = diplomacyRequestsDAO.hasPendingRequestBetween(targetNationUuid, senderNationUuid, ALLIANCE_RELATION);
-        if (reciprocalExists) {
-            diplomacyDAO.createRelation(senderNationUuid, targetNationUuid, ALLIANCE_RELATION);
+        boolean reciprocalExists = db.getDiplomacyRequestsDAO().hasPendingRequestBetween(targetNationUuid, senderNationUuid, ALLIANCE_RELATION);
+        return new Plan(sourceNationName, targetNationName, reciprocalExists);
+    }
+
+    @Override
+    public Plan persist(Snapshot snapshot, Plan plan, Database db) throws SQLException {
+        if (plan.reciprocalExists()) {
+            db.getDiplomacyDAO().insertRelation(snapshot.storedSourceUuid(), snapshot.targetNationUuid(), ALLIANCE_RELATION);
+        } else {
+            db.getDiplomacyRequestsDAO().insertRequest(snapshot.storedSourceUuid(), snapshot.targetNationUuid(), ALLIANCE_RELATION);
+        }
+        return plan;
+    }
+
+    @Override
+    public BookResult apply(Snapshot snapshot, Plan plan, Player player, Block lecternBlock) {
+        if (plan.reciprocalExists()) {
             return sendSuccessBook(lecternBlock, player,
                     "Alliance Formed",
                     "§lAlliance Forged§r" +
                             "\n" +
                             getDate() +
                             "\n\n" +
-                            "An existing request from §o" + targetNationName + "§r was discovered in the records." +
+                            "An existing request from §o" + plan.targetNationName() + "§r was discovered in the records." +
                             "\n\n" +
                             "With quills laid down and intentions clear, your nations are now bound in mutual alliance.",
-                    sourceNationName
+                    plan.sourceNationName()
             );
         }
 
-
-        diplomacyRequestsDAO.createRequest(senderNationUuid, targetNationUuid, ALLIANCE_RELATION);
-
-        plugin.getNationLogger().log(player.getName() + " from " + sourceNationName + " has sent an alliance request to " + targetNationName);
+        plugin.getNationLogger().log(snapshot.senderName() + " from " + plan.sourceNationName() + " has sent an alliance request to " + plan.targetNationName());
 
         return sendSuccessBook(lecternBlock, player,
                 "Alliance Request Sent",
@@ -172,10 +193,24 @@ public class RequestAllyPlaceHandler extends DeliveryBookPlaceHandler {
                         "\n" +
                         getDate() +
                         "\n\n" +
-                        "An official request for alliance has been dispatched to §o" + targetNationName + "§r." +
+                        "An official request for alliance has been dispatched to §o" + plan.targetNationName() + "§r." +
                         "\n\n" +
                         "Their leader must review the proposal and decide whether to unite in friendship.",
-                sourceNationName
+                plan.sourceNationName()
         );
     }
+
+    /**
+     * @param storedSourceUuid The requesting nation stored in the book.
+     * @param lecternTownUuid  The town whose claim the lectern stands in, or null.
+     */
+    public record Snapshot(String storedSourceUuid, String targetNationUuid, String bookAuthor, String senderUuid,
+                           String senderName, String lecternTownUuid) {
+    }
+
+    /**
+     * @param reciprocalExists true if the target nation already requested an alliance, which forms it straight away.
+     */
+    public record Plan(String sourceNationName, String targetNationName, boolean reciprocalExists) {
+    }
 }
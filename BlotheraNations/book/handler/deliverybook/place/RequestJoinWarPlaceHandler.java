@@ -1,24 +1,22 @@
 package com.blothera.book.handler.deliverybook.place;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.deliverybook.DeliveryBookPlaceHandler;
 import com.blothera.database.DiplomacyDAOs.DiplomacyDAO;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.database.WarDAOs.WarDAO;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
-import java.util.UUID;
 
 import static com.blothera.util.NationConstants.ALLIANCE_RELATION;
 import static com.blothera.util.NationConstants.REQUEST_JOIN_WAR_DELIVERY_TYPE;
@@ -26,7 +24,6 @@ import static com.blothera.util.NationConstants.REQUEST_JOIN_WAR_DELIVERY_TYPE;
 public class RequestJoinWarPlaceHandler extends DeliveryBookPlaceHandler {
 
     private final NationPlugin plugin;
-    private final DiplomacyLecternDAO lecternDAO;
     private final NationDAO nationDAO;
     private final NationMemberDAO memberDAO;
     private final TownDAO townDAO;
@@ -34,11 +31,11 @@ public class RequestJoinWarPlaceHandler extends DeliveryBookPlaceHandler {
     private final DiplomacyDAO diplomacyDAO;
     private final DiplomacyRequestsDAO requestsDAO;
     private final WarDAO warDAO;
+    private final PlayerNameDirectory playerNames;
 
     public RequestJoinWarPlaceHandler(NationPlugin plugin) {
         super(plugin);
         this.plugin = plugin;
-        this.lecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.memberDAO = plugin.getDatabase().getNationMemberDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
@@ -46,6 +43,7 @@ public class RequestJoinWarPlaceHandler extends DeliveryBookPlaceHandler {
         this.diplomacyDAO = plugin.getDatabase().getDiplomacyDAO();
         this.requestsDAO = plugin.getDatabase().getDiplomacyRequestsDAO();
         this.warDAO = plugin.getDatabase().getWarDAO();
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -54,19 +52,19 @@ public class RequestJoinWarPlaceHandler extends DeliveryBookPlaceHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return lecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        String requestType = getRequestType(meta);
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        String requestType = getRequestType(command);
         if (!REQUEST_JOIN_WAR_DELIVERY_TYPE.equals(requestType)) {
             return sendErrorBook(lecternBlock, player, "Invalid join war request format.");
         }
 
-        String senderNationUuid = getRequestingEntityUuid(meta);
-        String targetNationUuid = getTargetEntityUuid(meta);
+        String senderNationUuid = getRequestingEntityUuid(command);
+        String targetNationUuid = getTargetEntityUuid(command);
 
         if (senderNationUuid == null || targetNationUuid == null) {
             return sendErrorBook(lecternBlock, player, "Missing nation information in this book.");
@@ -78,16 +76,15 @@ public class RequestJoinWarPlaceHandler extends DeliveryBookPlaceHandler {
             return sendErrorBook(lecternBlock, player, "Could not determine the current nation leader.");
         }
 
-        String bookAuthor = meta.getAuthor(); // name from the book
+        String bookAuthor = command.author(); // name from the book
         if (bookAuthor == null) {
             return sendErrorBook(lecternBlock, player, "This book has no author.");
         }
 
-        OfflinePlayer authorOffline = Bukkit.getOfflinePlayer(bookAuthor);
-        String authorUUID = authorOffline.getUniqueId().toString();
+        String authorUuid = playerNames.getUuid(bookAuthor);
 
-        if (!authorUUID.equals(currentLeaderUuidStr)) {
-            String leaderName = Bukkit.getOfflinePlayer(UUID.fromString(currentLeaderUuidStr)).getName();
+        if (!currentLeaderUuidStr.equals(authorUuid)) {
+            String leaderName = playerNames.getName(currentLeaderUuidStr);
             if (leaderName == null) leaderName = currentLeaderUuidStr; // fallback
 
             return sendErrorBook(lecternBlock, player, "This book must be signed by the current nation leader (" + leaderName + ").");
@@ -1,45 +1,43 @@
 package com.blothera.book.handler.deliverybook.place;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.deliverybook.DeliveryBookPlaceHandler;
 import com.blothera.database.DiplomacyDAOs.DiplomacyDAO;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.NationDAOs.NationMemberDAO;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
-import java.util.UUID;
 
 import static com.blothera.util.NationConstants.*;
 
 public class RequestPeacePlaceHandler extends DeliveryBookPlaceHandler {
 
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
     private final NationDAO nationDAO;
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
     private final DiplomacyRequestsDAO diplomacyRequestsDAO;
     private final DiplomacyDAO diplomacyDAO;
     private final NationMemberDAO nationMemberDAO;
+    private final PlayerNameDirectory playerNames;
 
     public RequestPeacePlaceHandler(NationPlugin plugin) {
         super(plugin);
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.diplomacyRequestsDAO = plugin.getDatabase().getDiplomacyRequestsDAO();
         this.diplomacyDAO = plugin.getDatabase().getDiplomacyDAO();
         this.nationMemberDAO = plugin.getDatabase().getNationMemberDAO();
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -48,26 +46,26 @@ public class RequestPeacePlaceHandler extends DeliveryBookPlaceHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
 
-        String requestType = getRequestType(meta);
+        String requestType = getRequestType(command);
         if (requestType == null || !requestType.equals(PEACE_REQUEST_DELIVERY_TYPE)) {
             return sendErrorBook(lecternBlock, player,
                     "Invalid metadata: delivery type. Contact an admin.");
         }
 
-        String targetNationUuid = getTargetEntityUuid(meta);
+        String targetNationUuid = getTargetEntityUuid(command);
         if (targetNationUuid == null) {
             return sendErrorBook(lecternBlock, player,
                     "Invalid metadata: target nation. Contact an admin.");
         }
 
-        String sourceNationUuid = getRequestingEntityUuid(meta);
+        String sourceNationUuid = getRequestingEntityUuid(command);
         if (sourceNationUuid == null) {
             return sendErrorBook(lecternBlock, player,
                     "Invalid metadata: source nation. Contact an admin.");
@@ -105,16 +103,15 @@ public class RequestPeacePlaceHandler extends DeliveryBookPlaceHandler {
             return sendErrorBook(lecternBlock, player, "Could not determine the current nation leader.");
         }
 
-        String bookAuthor = meta.getAuthor(); // name from the book
+        String bookAuthor = command.author(); // name from the book
         if (bookAuthor == null) {
             return sendErrorBook(lecternBlock, player, "This book has no author.");
         }
 
-        OfflinePlayer authorOffline = Bukkit.getOfflinePlayer(bookAuthor);
-        String authorUUID = authorOffline.getUniqueId().toString();
+        String authorUuid = playerNames.getUuid(bookAuthor);
 
-        if (!authorUUID.equals(currentLeaderUuidStr)) {
-            String leaderName = Bukkit.getOfflinePlayer(UUID.fromString(currentLeaderUuidStr)).getName();
+        if (!currentLeaderUuidStr.equals(authorUuid)) {
+            String leaderName = playerNames.getName(currentLeaderUuidStr);
             if (leaderName == null) leaderName = currentLeaderUuidStr; // fallback
 
             return sendErrorBook(lecternBlock, player, "This book must be signed by the current nation leader (" + leaderName + ").");
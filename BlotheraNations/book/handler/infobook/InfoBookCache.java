@@ -0,0 +1,144 @@
+package com.blothera.book.handler.infobook;
+
+import com.blothera.NationPlugin;
+import com.blothera.database.TownDAOs.TownMetadataCache;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the rendered pages of info books, keyed by book type, entity id and entity version.
+ * <p>
+ * Every town and nation has a version, which the {@link com.blothera.listener.book.InfoBookCacheListener}
+ * bumps whenever a domain event changes it. A change to a town also bumps its nation, since nation books
+ * list their towns. A rendered book is only served for the version it was rendered at, so a book is
+ * rebuilt the first time it is read after a change, and costs a map lookup until the next one.
+ * <p>
+ * Books show the current date, so entries also expire at midnight. Some changes, like lecterns placed or
+ * broken and battles being scheduled, do not fire an event. Entries therefore expire after
+ * {@value #DEFAULT_TTL_SECONDS} seconds as well, which is set with {@value #TTL_OPTION}. A value of 0
+ * turns the cache off.
+ * <p>
+ * The cache is not thread-safe, and only used on the server thread.
+ */
+public final class InfoBookCache {
+
+    /**
+     * Entity whose version is part of every diplomacy and war book, as those books show the names of other nations.
+     */
+    public static final String ALL_NATIONS = "*";
+
+    private static final String TTL_OPTION = "info-books.cache-seconds";
+    private static final int DEFAULT_TTL_SECONDS = 300;
+    private static final int MAX_ENTRIES = 512;
+
+    public enum BookType {
+        TOWN,
+        NATION,
+        DIPLOMACY,
+        WAR
+    }
+
+    private final NationPlugin plugin;
+    private final long ttlNanos;
+    private final Map<String, Long> versions = new HashMap<>();
+    private final Map<RenderKey, Rendered> rendered = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RenderKey, Rendered> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public InfoBookCache(NationPlugin plugin) {
+        this.plugin = plugin;
+        this.ttlNanos = plugin.getConfig().getInt(TTL_OPTION, DEFAULT_TTL_SECONDS) * 1_000_000_000L;
+    }
+
+    /**
+     * @param entityId The UUID of a town or nation, or {@link #ALL_NATIONS}.
+     * @return The current version of the entity.
+     */
+    public long getVersion(String entityId) {
+        return versions.getOrDefault(entityId, 0L);
+    }
+
+    /**
+     * @param townUuid The UUID of the town.
+     * @return The version of a town book, which changes with the town and with its nation.
+     */
+    public long getTownVersion(String townUuid) {
+        TownMetadataCache.TownMetadata town = plugin.getDatabase().getTownMetadataCache().get(townUuid);
+        long nationVersion = town != null && town.nationUuid() != null ? getVersion(town.nationUuid()) : 0L;
+        return getVersion(townUuid) + nationVersion;
+    }
+
+    /**
+     * Marks a town as changed, together with its nation.
+     *
+     * @param townUuid The UUID of the town.
+     */
+    public void bumpTown(String townUuid) {
+        TownMetadataCache.TownMetadata town = plugin.getDatabase().getTownMetadataCache().get(townUuid);
+        bumpTown(townUuid, town != null ? town.nationUuid() : null);
+    }
+
+    /**
+     * Marks a town as changed, together with its nation. Used once the town has left the metadata cache.
+     *
+     * @param townUuid   The UUID of the town.
+     * @param nationUuid The UUID of the town's nation, may be null.
+     */
+    public void bumpTown(String townUuid, String nationUuid) {
+        bump(townUuid);
+        if (nationUuid != null) bump(nationUuid);
+    }
+
+    /**
+     * Marks an entity as changed, so books rendered from it are rebuilt.
+     *
+     * @param entityId The UUID of a town or nation, or {@link #ALL_NATIONS}.
+     */
+    public void bump(String entityId) {
+        if (entityId == null) return;
+        versions.merge(entityId, 1L, Long::sum);
+    }
+
+    /**
+     * Returns the rendered pages of a book, rendering them if they are missing, stale or expired.
+     *
+     * @param type     The type of book.
+     * @param entityId The entity the book is about.
+     * @param version  The version of the entity, see {@link #getVersion} and {@link #getTownVersion}.
+     * @param renderer Renders the pages, or returns null if the book cannot be rendered.
+     * @return The pages, or null if the renderer returned null, which is not cached.
+     */
+    public List<String> getOrRender(BookType type, String entityId, long version, Supplier<List<String>> renderer) {
+        if (ttlNanos <= 0) return renderer.get();
+
+        RenderKey key = new RenderKey(type, entityId, version);
+        long now = System.nanoTime();
+        long today = LocalDate.now().toEpochDay();
+        Rendered cached = rendered.get(key);
+        if (cached != null && cached.day() == today && now - cached.renderedAt() < ttlNanos) {
+            return cached.pages();
+        }
+
+        List<String> pages = renderer.get();
+        if (pages == null) {
+            rendered.remove(key);
+            return null;
+        }
+        rendered.put(key, new Rendered(List.copyOf(pages), today, now));
+        return pages;
+    }
+
+    private record RenderKey(BookType type, String entityId, long version) {
+    }
+
+    private record Rendered(List<String> pages, long day, long renderedAt) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.blothera.book.handler.infobook.admin;
+
+import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
+import com.blothera.book.BookResult;
+import com.blothera.book.handler.infobook.InfoBookHandler;
+import com.blothera.database.LecternType;
+import com.blothera.profiler.HandlerProfiler;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Operator-only book which shows the tick time used by each event handler and book handler.
+ * The first page can hold "start" or "stop" to toggle the profiler, or "csv" to export the recorded windows.
+ */
+public class HandlerProfileHandler extends InfoBookHandler {
+
+    public static final String HANDLER_PROFILE_COMMAND = "Handler Profile";
+    private static final int HANDLERS_IN_BOOK = 8;
+
+    public HandlerProfileHandler(NationPlugin plugin) {
+        super(plugin);
+    }
+
+    @Override
+    protected List<String> getAcceptedTitles() {
+        return List.of(HANDLER_PROFILE_COMMAND);
+    }
+
+    @Override
+    protected LecternType getLecternType() {
+        return null;
+    }
+
+    @Override
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (!player.isOp()) {
+            return sendErrorBook(lecternBlock, player, "Only operators can read the handler profile.");
+        }
+
+        String option = command.pageCount() > 0 ? command.page(1).strip().toLowerCase() : "";
+        StringBuilder book = new StringBuilder();
+        book.append("§lHandler Profile§r\n")
+                .append(getDate()).append("\n\n");
+
+        switch (option) {
+            case "start" -> HandlerProfiler.setEnabled(true);
+            case "stop" -> HandlerProfiler.setEnabled(false);
+            case "csv" -> {
+                Path file = HandlerProfiler.exportCsv(plugin);
+                book.append("Exported to ").append(file.getFileName()).append("\n\n");
+            }
+            default -> {
+            }
+        }
+        book.append("Profiler is ").append(HandlerProfiler.isEnabled() ? "§lrunning§r" : "§lstopped§r")
+                .append(", windows of ").append(HandlerProfiler.WINDOW_TICKS).append(" ticks.\n\n");
+
+        List<HandlerProfiler.Window> windows = HandlerProfiler.getWindows();
+        if (windows.isEmpty()) {
+            book.append("No windows recorded yet. Write 'start' on the first page to start the profiler.\n");
+            return sendSuccessBook(lecternBlock, player, HANDLER_PROFILE_COMMAND, paginateString(book.toString()), "Handler Profile");
+        }
+
+        HandlerProfiler.Window last = windows.getLast();
+        book.append("§lLast window§r\n");
+        for (HandlerProfiler.HandlerWindow handler : last.handlers().subList(0, Math.min(HANDLERS_IN_BOOK, last.handlers().size()))) {
+            book.append(handler.name()).append("\n")
+                    .append(handler.calls()).append(" calls, ")
+                    .append(handler.totalNanos() / 1000).append("us, p99 ")
+                    .append(handler.p99Nanos() / 1000).append("us, max ")
+                    .append(handler.maxNanos() / 1000).append("us\n\n");
+        }
+
+        book.append("§lWorst per window§r\n");
+        for (HandlerProfiler.Window window : windows) {
+            book.append(window.end().toLocalTime()).append(" ")
+                    .append(window.worst() != null ? window.worst() : "idle").append("\n");
+        }
+
+        return sendSuccessBook(lecternBlock, player, HANDLER_PROFILE_COMMAND, paginateString(book.toString()), "Handler Profile");
+    }
+}
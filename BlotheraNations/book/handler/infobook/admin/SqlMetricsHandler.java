@@ -0,0 +1,75 @@
+package com.blothera.book.handler.infobook.admin;
+
+import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
+import com.blothera.book.BookResult;
+import com.blothera.book.handler.infobook.InfoBookHandler;
+import com.blothera.database.LecternType;
+import com.blothera.database.metrics.QueryMetrics;
+import com.blothera.database.metrics.StatementStats;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Operator-only book which dumps the SQL metrics to the console and a file,
+ * and shows the costliest statements in the book itself.
+ * Writing "reset" on the first page clears the counters after the dump.
+ */
+public class SqlMetricsHandler extends InfoBookHandler {
+
+    public static final String SQL_METRICS_COMMAND = "SQL Metrics";
+    private static final int STATEMENTS_IN_BOOK = 10;
+
+    public SqlMetricsHandler(NationPlugin plugin) {
+        super(plugin);
+    }
+
+    @Override
+    protected List<String> getAcceptedTitles() {
+        return List.of(SQL_METRICS_COMMAND);
+    }
+
+    @Override
+    protected LecternType getLecternType() {
+        return null;
+    }
+
+    @Override
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (!player.isOp()) {
+            return sendErrorBook(lecternBlock, player, "Only operators can read the SQL metrics.");
+        }
+        QueryMetrics metrics = plugin.getDatabase().getQueryMetrics();
+        if (metrics == null) {
+            return sendErrorBook(lecternBlock, player, "SQL metrics are turned off in the config.");
+        }
+
+        Path file = metrics.dump();
+        StringBuilder book = new StringBuilder();
+        book.append("§lSQL Metrics§r\n")
+                .append(getDate()).append("\n\n")
+                .append("§lServer thread§r\n")
+                .append("Last tick: ").append(metrics.getLastTickCalls()).append(" calls\n")
+                .append(String.format("Average: %.2f calls\n", metrics.getAverageTickCalls()))
+                .append("Max: ").append(metrics.getMaxTickCalls()).append(" calls\n\n")
+                .append("Full report: ").append(file.getFileName()).append("\n\n");
+
+        List<StatementStats> statements = metrics.getStatements();
+        for (StatementStats stats : statements.subList(0, Math.min(STATEMENTS_IN_BOOK, statements.size()))) {
+            book.append("§l").append(stats.getTotalNanos() / 1_000_000).append("ms§r, ")
+                    .append(stats.getCalls()).append(" calls, p99 ")
+                    .append(stats.getPercentileMicros(0.99)).append("us\n")
+                    .append(QueryMetrics.abbreviate(stats.getSql())).append("\n\n");
+        }
+
+        if (command.pageCount() > 0 && command.page(1).strip().equalsIgnoreCase("reset")) {
+            metrics.reset();
+            book.append("§oCounters were reset.§r\n");
+        }
+
+        return sendSuccessBook(lecternBlock, player, SQL_METRICS_COMMAND, paginateString(book.toString()), "SQL Metrics");
+    }
+}
@@ -1,12 +1,12 @@
 package com.blothera.book.handler.infobook.diplomacy;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.infobook.InfoBookHandler;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
+import com.blothera.database.LecternType;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -14,11 +14,9 @@ import static com.blothera.util.NationConstants.*;
 
 public class DiplomacyHelpHandler extends InfoBookHandler {
 
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
 
     public DiplomacyHelpHandler(NationPlugin plugin) {
         super(plugin);
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
     }
 
     @Override
@@ -27,13 +25,13 @@ public class DiplomacyHelpHandler extends InfoBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
 
     @Override
-    public BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    public BookResult execute(Player player, Block lecternBlock, BookCommand command) {
 
         String helpText = "§lDiplomacy§r" +
                 "\n" +
@@ -97,7 +95,7 @@ public class DiplomacyHelpHandler extends InfoBookHandler {
                 "Report any issues to the server staff.\n";
 
         List<String> pages = paginateString(helpText);
-        String author = resolveAuthor(meta, lecternBlock, player);
+        String author = resolveAuthor(command, lecternBlock, player);
 
         return sendSuccessBook(lecternBlock, player, DIPLOMACY_HELP_COMMAND, pages, "Diplomacy Help", author);
     }
@@ -1,16 +1,17 @@
 package com.blothera.book.handler.infobook.diplomacy;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
+import com.blothera.book.BookRegistry;
 import com.blothera.book.BookResult;
+import com.blothera.book.handler.infobook.InfoBookCache;
 import com.blothera.book.handler.infobook.InfoBookHandler;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -20,17 +21,17 @@ import static com.blothera.util.NationConstants.*;
 
 public class DiplomacyInfoBookHandler extends InfoBookHandler {
 
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
     private final NationDAO nationDAO;
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
+    private final InfoBookCache infoBookCache;
 
     public DiplomacyInfoBookHandler(NationPlugin plugin) {
         super(plugin);
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
+        this.infoBookCache = BookRegistry.getInfoBookCache();
     }
 
     @Override
@@ -39,20 +40,20 @@ public class DiplomacyInfoBookHandler extends InfoBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    public BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    public BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "This Information book is missing a valid nation name.");
         }
 
         String page;
         try {
-            page = PlainTextComponentSerializer.plainText().serialize(meta.page(1));
+            page = command.page(1);
         } catch (Exception e) {
             return sendErrorBook(lecternBlock, player,
                     "Failed to read Information book. Contact an admin.");
@@ -88,18 +89,19 @@ public class DiplomacyInfoBookHandler extends InfoBookHandler {
                     "This lectern is not inside " + canonicalNationName + "'s claimed territory.");
         }
 
-        String originalAuthor = resolveAuthor(meta, lecternBlock, player);
-        return generateBook(player, lecternBlock, canonicalNationName, originalAuthor);
+        String originalAuthor = resolveAuthor(command, lecternBlock, player);
+        long version = infoBookCache.getVersion(nationUuid) + infoBookCache.getVersion(InfoBookCache.ALL_NATIONS);
+        List<String> pages = infoBookCache.getOrRender(InfoBookCache.BookType.DIPLOMACY, nationUuid, version,
+                () -> renderDiplomacyInfo(nationUuid, canonicalNationName));
+        return sendSuccessBook(lecternBlock, player, DIPLOMACY_INFO_COMMAND, pages, canonicalNationName, originalAuthor);
     }
 
-    private BookResult generateBook(Player player, Block lecternBlock, String nationName, String author) {
+    /**
+     * @return The pages of the nation's diplomacy book.
+     */
+    private List<String> renderDiplomacyInfo(String nationUuid, String nationName) {
         StringBuilder bookContents = new StringBuilder();
         try {
-            String nationUuid = nationDAO.getNationUUIDByName(nationName);
-            if (nationUuid == null) {
-                return sendErrorBook(lecternBlock, player, "Nation '" + nationName + "' not found.");
-            }
-
             bookContents.append("§l" + DIPLOMACY_HEADER + "§r\n")
                     .append(nationName)
                     .append("\n")
@@ -142,7 +144,6 @@ public class DiplomacyInfoBookHandler extends InfoBookHandler {
             bookContents.append("Error loading diplomacy info. Contact an admin.");
         }
 
-        List<String> pages = paginateString(bookContents.toString());
-        return sendSuccessBook(lecternBlock, player, DIPLOMACY_INFO_COMMAND, pages, nationName, author);
+        return paginateString(bookContents.toString());
     }
 }
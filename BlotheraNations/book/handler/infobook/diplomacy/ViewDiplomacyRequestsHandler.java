@@ -1,18 +1,17 @@
 package com.blothera.book.handler.infobook.diplomacy;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.infobook.InfoBookHandler;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO.DiplomacyRequest;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,7 +20,6 @@ import static com.blothera.util.NationConstants.*;
 
 public class ViewDiplomacyRequestsHandler extends InfoBookHandler {
 
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
     private final NationDAO nationDAO;
     private final TownDAO townDAO;
     private final TownClaimDAO townClaimDAO;
@@ -29,7 +27,6 @@ public class ViewDiplomacyRequestsHandler extends InfoBookHandler {
 
     public ViewDiplomacyRequestsHandler(NationPlugin plugin) {
         super(plugin);
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
@@ -43,20 +40,20 @@ public class ViewDiplomacyRequestsHandler extends InfoBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    public BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    public BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "You must write the name of your nation on the first page.");
         }
 
         String pageText;
         try {
-            pageText = PlainTextComponentSerializer.plainText().serialize(meta.page(1));
+            pageText = command.page(1);
         } catch (Exception e) {
             return sendErrorBook(lecternBlock, player,
                     "Failed to parse book. Make sure it contains a nation name.");
@@ -97,7 +94,7 @@ public class ViewDiplomacyRequestsHandler extends InfoBookHandler {
                     "This lectern is not within your nation's territory.");
         }
 
-        String originalAuthor = resolveAuthor(meta, lecternBlock, player);
+        String originalAuthor = resolveAuthor(command, lecternBlock, player);
         return rewriteRequestBook(lecternBlock, player, canonicalNationName, nationUuid, originalAuthor);
     }
 
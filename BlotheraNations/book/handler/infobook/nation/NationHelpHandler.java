@@ -1,12 +1,12 @@
 package com.blothera.book.handler.infobook.nation;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.handler.infobook.InfoBookHandler;
 import com.blothera.book.BookResult;
-import com.blothera.database.NationDAOs.NationLecternDAO;
+import com.blothera.database.LecternType;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -14,11 +14,9 @@ import static com.blothera.util.NationConstants.*;
 
 public class NationHelpHandler extends InfoBookHandler {
 
-    private final NationLecternDAO nationLecternDAO;
 
     public NationHelpHandler(NationPlugin plugin) {
         super(plugin);
-        this.nationLecternDAO = plugin.getDatabase().getNationLecternDAO();
     }
 
     @Override
@@ -31,13 +29,13 @@ public class NationHelpHandler extends InfoBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return nationLecternDAO.isNationLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.NATION;
     }
 
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
 
         String helpText = "§lNation Scrapbook§r" +
                 "\n" +
@@ -107,7 +105,7 @@ public class NationHelpHandler extends InfoBookHandler {
 
         List<String> pages = paginateString(helpText);
 
-        String originalAuthor = resolveAuthor(meta, lecternBlock, player);
+        String originalAuthor = resolveAuthor(command, lecternBlock, player);
         return sendSuccessBook(lecternBlock, player, NATION_HELP_COMMAND, pages, "Nation Help", originalAuthor);
     }
 }
@@ -1,37 +1,42 @@
 package com.blothera.book.handler.infobook.nation;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
+import com.blothera.book.BookRegistry;
 import com.blothera.book.BookResult;
+import com.blothera.book.handler.infobook.InfoBookCache;
 import com.blothera.book.handler.infobook.InfoBookHandler;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
-import com.blothera.database.NationDAOs.NationLecternDAO;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
-import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static com.blothera.util.NationConstants.*;
 
 public class NationInfoBookHandler extends InfoBookHandler {
 
-    private final NationLecternDAO nationLecternDAO;
     private final NationDAO nationDAO;
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
+    private final InfoBookCache infoBookCache;
+    private final PlayerNameDirectory playerNames;
 
     public NationInfoBookHandler(NationPlugin plugin) {
         super(plugin);
-        this.nationLecternDAO = plugin.getDatabase().getNationLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
+        this.infoBookCache = BookRegistry.getInfoBookCache();
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -40,20 +45,20 @@ public class NationInfoBookHandler extends InfoBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return nationLecternDAO.isNationLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.NATION;
     }
 
     @Override
-    public BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    public BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "This Information book is missing a valid nation name.");
         }
 
         String firstPage;
         try {
-            firstPage = PlainTextComponentSerializer.plainText().serialize(meta.page(1));
+            firstPage = command.page(1);
         } catch (Exception e) {
             return sendErrorBook(lecternBlock, player,
                     "Failed to read Information book. Contact an admin.");
@@ -87,19 +92,27 @@ public class NationInfoBookHandler extends InfoBookHandler {
                     "Nation '" + nationName + "' not found.");
         }
 
-        String originalAuthor = resolveAuthor(meta, lecternBlock, player);
-        return rewriteNationInfoBook(lecternBlock, player, canonicalNationName, originalAuthor);
+        String originalAuthor = resolveAuthor(command, lecternBlock, player);
+        List<String> pages = infoBookCache.getOrRender(InfoBookCache.BookType.NATION, nationUuid,
+                infoBookCache.getVersion(nationUuid), () -> renderNationInfo(nationUuid));
+        if (pages == null) {
+            return sendErrorBook(lecternBlock, player, "Nation '" + canonicalNationName + "' not found.");
+        }
+        return sendSuccessBook(lecternBlock, player, NATION_INFO_COMMAND, pages, canonicalNationName, originalAuthor);
     }
 
-    private BookResult rewriteNationInfoBook(Block lecternBlock, Player player, String nationName, String author) {
+    /**
+     * @return The pages of the nation's info book, or null if the nation does not exist.
+     */
+    private List<String> renderNationInfo(String nationUuid) {
         StringBuilder bookContents = new StringBuilder();
 
         try (PreparedStatement stmt = plugin.getDatabase().getConnection().prepareStatement(
-                "SELECT * FROM nations WHERE LOWER(name) = LOWER(?)")) {
-            stmt.setString(1, nationName.toLowerCase());
+                "SELECT * FROM nations WHERE uuid = ?")) {
+            stmt.setString(1, nationUuid);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (!rs.next()) {
-                    return sendErrorBook(lecternBlock, player, "Nation '" + nationName + "' not found.");
+                    return null;
                 } else {
                     bookContents.append("§l" + NATION_HEADER + "§r\n")
                             .append(rs.getString("name")).append("\n")
@@ -109,12 +122,12 @@ public class NationInfoBookHandler extends InfoBookHandler {
                             .append(formatDate((rs.getString("founded_at"))))
                             .append("\n")
                             .append("\n§lAdmin Range§r\n")
-                            .append(townDAO.getCapitalRadius(nationDAO.getNationUUIDByName(nationName))).append(" blocks\n");
+                            .append(townDAO.getCapitalRadius(nationUuid)).append(" blocks\n");
                     bookContents.append("\n§lTowns§r\n");
 
                     try (PreparedStatement townStmt = plugin.getDatabase().getConnection().prepareStatement(
                             "SELECT name, is_capital, is_dormant FROM towns WHERE nation_uuid = ?")) {
-                        townStmt.setString(1, rs.getString("uuid"));
+                        townStmt.setString(1, nationUuid);
                         try (ResultSet towns = townStmt.executeQuery()) {
                             boolean foundTown = false;
                             while (towns.next()) {
@@ -142,29 +155,30 @@ public class NationInfoBookHandler extends InfoBookHandler {
                         bookContents.append("Error loading nation data. Contact an admin. \n");
                     }
                     bookContents.append("\n§lMembers§r\n");
-                    String nationUuid = rs.getString("uuid");
                     String leaderUuid = rs.getString("leader_uuid");
                     try (PreparedStatement memberStmt = plugin.getDatabase().getConnection().prepareStatement(
                             "SELECT uuid FROM nation_members WHERE nation_uuid = ?")) {
                         memberStmt.setString(1, nationUuid);
+                        List<String> memberUuids = new ArrayList<>();
                         try (ResultSet members = memberStmt.executeQuery()) {
-                            boolean membersFound = false;
                             while (members.next()) {
-                                String uuid = members.getString("uuid");
-                                String name = Bukkit.getOfflinePlayer(java.util.UUID.fromString(uuid)).getName();
-                                bookContents.append(" - ")
-                                        .append(name != null ? name : "Unknown");
-                                membersFound = true;
-
-                                if (leaderUuid != null && leaderUuid.equals(uuid)) {
-                                    bookContents.append(" (Leader)");
-                                }
-
-                                bookContents.append("\n");
+                                memberUuids.add(members.getString("uuid"));
                             }
-                            if (!membersFound) {
-                                bookContents.append("Error: Failed to load members. Report this to an admin.\n");
+                        }
+                        Map<String, String> names = playerNames.resolveNames(memberUuids);
+                        for (String uuid : memberUuids) {
+                            String name = names.get(uuid);
+                            bookContents.append(" - ")
+                                    .append(name != null ? name : "Unknown");
+
+                            if (leaderUuid != null && leaderUuid.equals(uuid)) {
+                                bookContents.append(" (Leader)");
                             }
+
+                            bookContents.append("\n");
+                        }
+                        if (memberUuids.isEmpty()) {
+                            bookContents.append("Error: Failed to load members. Report this to an admin.\n");
                         }
                     } catch (Exception e) {
                         plugin.getLogger().warning("Failed to load nation members: " + e.getMessage());
@@ -178,7 +192,6 @@ public class NationInfoBookHandler extends InfoBookHandler {
             bookContents.append("Error loading nation data. Contact an admin.");
         }
 
-        List<String> pages = paginateString(String.valueOf(bookContents));
-        return sendSuccessBook(lecternBlock, player, NATION_INFO_COMMAND, pages, nationName, author);
+        return paginateString(String.valueOf(bookContents));
     }
 }
@@ -1,11 +1,12 @@
 package com.blothera.book.handler.infobook.player;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.infobook.InfoBookHandler;
+import com.blothera.database.LecternType;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -26,12 +27,12 @@ public class WhoAmIHandler extends InfoBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return true;
+    protected LecternType getLecternType() {
+        return null;
     }
 
     @Override
-    protected BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    protected BookResult execute(Player player, Block lecternBlock, BookCommand command) {
         String playerName = player.getName();
         String playerUuid = player.getUniqueId().toString();
 
@@ -1,12 +1,12 @@
 package com.blothera.book.handler.infobook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.infobook.InfoBookHandler;
-import com.blothera.database.TownDAOs.TownLecternDAO;
+import com.blothera.database.LecternType;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.List;
 
@@ -14,11 +14,9 @@ import static com.blothera.util.NationConstants.*;
 
 public class TownHelpHandler extends InfoBookHandler {
 
-    private final TownLecternDAO townLecternDAO;
 
     public TownHelpHandler(NationPlugin plugin) {
         super(plugin);
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
     }
 
     @Override
@@ -27,13 +25,13 @@ public class TownHelpHandler extends InfoBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
 
     @Override
-    public BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
+    public BookResult execute(Player player, Block lecternBlock, BookCommand command) {
 
         String bookText = "§lTown Scrapbook§r" +
                 "\n" +
@@ -127,7 +125,7 @@ public class TownHelpHandler extends InfoBookHandler {
                 "Report any issues to the server staff.\n";
 
         List<String> pages = paginateString(bookText);
-        String originalAuthor = resolveAuthor(meta, lecternBlock, player);
+        String originalAuthor = resolveAuthor(command, lecternBlock, player);
 
         return sendSuccessBook(lecternBlock, player, TOWN_HELP_COMMAND, pages, "Town Help", originalAuthor);
     }
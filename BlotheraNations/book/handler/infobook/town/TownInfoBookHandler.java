@@ -1,16 +1,17 @@
 package com.blothera.book.handler.infobook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
+import com.blothera.book.BookRegistry;
 import com.blothera.book.BookResult;
+import com.blothera.book.handler.infobook.InfoBookCache;
 import com.blothera.book.handler.infobook.InfoBookHandler;
+import com.blothera.database.LecternType;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
-import org.bukkit.Bukkit;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -20,15 +21,17 @@ import static com.blothera.util.NationConstants.*;
 
 public class TownInfoBookHandler extends InfoBookHandler {
 
-    private final TownLecternDAO townLecternDAO;
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
+    private final InfoBookCache infoBookCache;
+    private final PlayerNameDirectory playerNames;
 
     public TownInfoBookHandler(NationPlugin plugin) {
         super(plugin);
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
+        this.infoBookCache = BookRegistry.getInfoBookCache();
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -37,20 +40,20 @@ public class TownInfoBookHandler extends InfoBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    public BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    public BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "To view town information, write the town name on the first line of the book.");
         }
 
         String firstPage;
         try {
-            firstPage = PlainTextComponentSerializer.plainText().serialize(meta.page(1));
+            firstPage = command.page(1);
         } catch (Exception e) {
             return sendErrorBook(lecternBlock, player,
                     "Failed to read Information book. Contact an admin.");
@@ -77,25 +80,32 @@ public class TownInfoBookHandler extends InfoBookHandler {
         }
 
         String canonicalName = townDAO.getCanonicalTownName(townName);
-        String originalAuthor = resolveAuthor(meta, lecternBlock, player);
+        String originalAuthor = resolveAuthor(command, lecternBlock, player);
 
-        return updateTownInfoBook(lecternBlock, player, canonicalName, originalAuthor);
+        List<String> pages = infoBookCache.getOrRender(InfoBookCache.BookType.TOWN, townUuid,
+                infoBookCache.getTownVersion(townUuid), () -> renderTownInfo(townUuid));
+        if (pages == null) {
+            return sendErrorBook(lecternBlock, player, "Town '" + canonicalName + "' not found.");
+        }
+        return sendSuccessBook(lecternBlock, player, TOWN_INFO_COMMAND, pages, canonicalName, originalAuthor);
     }
 
-    private BookResult updateTownInfoBook(Block lecternBlock, Player player, String townName, String author) {
+    /**
+     * @return The pages of the town's info book, or null if the town does not exist.
+     */
+    private List<String> renderTownInfo(String townUuid) {
         StringBuilder bookContents = new StringBuilder();
         try (PreparedStatement stmt = plugin.getDatabase().getConnection().prepareStatement(
                 "SELECT t.uuid, t.name, t.founded_at, t.nation_uuid, t.is_capital, t.leader_uuid, " +
                         "t.tax_paid_until, t.is_dormant, n.name AS nation_name " +
-                        "FROM towns t LEFT JOIN nations n ON t.nation_uuid = n.uuid WHERE LOWER(t.name) = LOWER(?)"
+                        "FROM towns t LEFT JOIN nations n ON t.nation_uuid = n.uuid WHERE t.uuid = ?"
         )) {
-            stmt.setString(1, townName);
+            stmt.setString(1, townUuid);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (!rs.next()) {
-                    return sendErrorBook(lecternBlock, player, "Town '" + townName + "' not found.");
+                    return null;
                 }
 
-                String townUuid = rs.getString("uuid");
                 int claimCount = townClaimDAO.getNumberOfClaims(townUuid);
 
                 String townActualName = rs.getString("name");
@@ -103,14 +113,14 @@ public class TownInfoBookHandler extends InfoBookHandler {
                 String leaderUuid = rs.getString("leader_uuid");
                 String taxPaidUntil = rs.getString("tax_paid_until");
                 boolean dormant = rs.getInt("is_dormant") == 1;
-                boolean hasTownLectern = plugin.getDatabase().getTownLecternDAO().townHasLectern(townUuid, townClaimDAO);
+                boolean hasTownLectern = plugin.getDatabase().getTownLecternDAO().townHasLectern(townUuid);
                 boolean isCapital = rs.getInt("is_capital") == 1;
                 boolean hasNationLectern = true;
                 boolean hasDiplomacyLectern = true;
 
                 if (isCapital) {
-                    hasNationLectern = plugin.getDatabase().getNationLecternDAO().townHasLectern(townUuid, townClaimDAO);
-                    hasDiplomacyLectern = plugin.getDatabase().getDiplomacyLecternDAO().townHasLectern(townUuid, townClaimDAO);
+                    hasNationLectern = plugin.getDatabase().getNationLecternDAO().townHasLectern(townUuid);
+                    hasDiplomacyLectern = plugin.getDatabase().getDiplomacyLecternDAO().townHasLectern(townUuid);
                 }
 
                 boolean hasRequiredLecterns = isCapital
@@ -173,21 +183,23 @@ public class TownInfoBookHandler extends InfoBookHandler {
                 try (PreparedStatement memberStmt = plugin.getDatabase().getConnection().prepareStatement(
                         "SELECT player_uuid FROM town_members WHERE town_uuid = ?")) {
                     memberStmt.setString(1, townUuid);
+                    List<String> memberUuids = new ArrayList<>();
                     try (ResultSet members = memberStmt.executeQuery()) {
-                        boolean found = false;
                         while (members.next()) {
-                            found = true;
-                            String uuid = members.getString("player_uuid");
-                            String name = Bukkit.getOfflinePlayer(UUID.fromString(uuid)).getName();
-                            bookContents.append(" - ").append(name != null ? name : "Unknown");
-                            if (uuid.equals(leaderUuid)) {
-                                bookContents.append(" (Leader)");
-                            }
-                            bookContents.append("\n");
+                            memberUuids.add(members.getString("player_uuid"));
                         }
-                        if (!found) {
-                            bookContents.append("Error: No members found. Report this to an admin.\n");
+                    }
+                    Map<String, String> names = playerNames.resolveNames(memberUuids);
+                    for (String uuid : memberUuids) {
+                        String name = names.get(uuid);
+                        bookContents.append(" - ").append(name != null ? name : "Unknown");
+                        if (uuid.equals(leaderUuid)) {
+                            bookContents.append(" (Leader)");
                         }
+                        bookContents.append("\n");
+                    }
+                    if (memberUuids.isEmpty()) {
+                        bookContents.append("Error: No members found. Report this to an admin.\n");
                     }
                 } catch (Exception e) {
                     plugin.getLogger().warning("Failed to load town members: " + e.getMessage());
@@ -200,7 +212,6 @@ public class TownInfoBookHandler extends InfoBookHandler {
             bookContents.append("Error loading town data. Contact an admin.");
         }
 
-        List<String> pages = paginateString(bookContents.toString());
-        return sendSuccessBook(lecternBlock, player, TOWN_INFO_COMMAND, pages, townName, author);
+        return paginateString(bookContents.toString());
     }
 }
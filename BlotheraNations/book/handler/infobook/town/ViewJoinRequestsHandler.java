@@ -1,22 +1,20 @@
 package com.blothera.book.handler.infobook.town;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
 import com.blothera.book.BookResult;
 import com.blothera.book.handler.infobook.InfoBookHandler;
+import com.blothera.database.LecternType;
+import com.blothera.database.PlayerNameDirectory;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.database.TownDAOs.TownJoinRequestDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 import static com.blothera.util.NationConstants.*;
 
@@ -24,15 +22,15 @@ public class ViewJoinRequestsHandler extends InfoBookHandler {
 
     private final TownClaimDAO townClaimDAO;
     private final TownDAO townDAO;
-    private final TownLecternDAO townLecternDAO;
     private final TownJoinRequestDAO joinRequestDAO;
+    private final PlayerNameDirectory playerNames;
 
     public ViewJoinRequestsHandler(NationPlugin plugin) {
         super(plugin);
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
         this.joinRequestDAO = plugin.getDatabase().getJoinRequestDAO();
+        this.playerNames = plugin.getDatabase().getPlayerNameDirectory();
     }
 
     @Override
@@ -41,20 +39,20 @@ public class ViewJoinRequestsHandler extends InfoBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return townLecternDAO.isTownLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.TOWN;
     }
 
     @Override
-    public BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    public BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player,
                     "To view join requests, write the town name on the first page on the first line.");
         }
 
         String pageText;
         try {
-            pageText = PlainTextComponentSerializer.plainText().serialize(meta.page(1));
+            pageText = command.page(1);
         } catch (Exception e) {
             return sendErrorBook(lecternBlock, player,
                     "Failed to parse book. Contact an admin.");
@@ -82,7 +80,7 @@ public class ViewJoinRequestsHandler extends InfoBookHandler {
                     "This lectern is not within the borders of " + canonicalTownName + ".");
         }
 
-        String originalAuthor = resolveAuthor(meta, lecternBlock, player);
+        String originalAuthor = resolveAuthor(command, lecternBlock, player);
         return rewriteRequestBook(lecternBlock, player, canonicalTownName, originalAuthor);
     }
 
@@ -103,11 +101,11 @@ public class ViewJoinRequestsHandler extends InfoBookHandler {
         if (joinRequests.isEmpty()) {
             bookContents.add("§oNo pending join requests.");
         } else {
+            Map<String, String> resolved = playerNames.resolveNames(joinRequests);
             List<String> names = new ArrayList<>();
             for (String uuid : joinRequests) {
-                OfflinePlayer target = Bukkit.getOfflinePlayer(UUID.fromString(uuid));
-                String name = target.getName() != null ? target.getName() : "Error: Player not found";
-                names.add(name);
+                String name = resolved.get(uuid);
+                names.add(name != null ? name : "Error: Player not found");
             }
 
             for (String name : names) {
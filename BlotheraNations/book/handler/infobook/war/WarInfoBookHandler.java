@@ -1,9 +1,13 @@
 package com.blothera.book.handler.infobook.diplomacy;
 
 import com.blothera.NationPlugin;
+import com.blothera.book.BookCommand;
+import com.blothera.book.BookRegistry;
+import com.blothera.book.BookRejection;
 import com.blothera.book.BookResult;
+import com.blothera.book.handler.infobook.InfoBookCache;
 import com.blothera.book.handler.infobook.InfoBookHandler;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
+import com.blothera.database.LecternType;
 import com.blothera.database.NationDAOs.NationDAO;
 import com.blothera.database.TownDAOs.TownClaimDAO;
 import com.blothera.database.TownDAOs.TownDAO;
@@ -11,34 +15,32 @@ import com.blothera.database.WarDAOs.WarAlliesDAO;
 import com.blothera.database.WarDAOs.WarBattleDAO;
 import com.blothera.database.WarDAOs.WarBattleDAO.WarBattle;
 import com.blothera.database.WarDAOs.WarDAO;
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class WarInfoBookHandler extends InfoBookHandler {
 
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
     private final NationDAO nationDAO;
     private final TownDAO townDAO;
     private final TownClaimDAO townClaimDAO;
     private final WarDAO warDAO;
     private final WarAlliesDAO warAlliesDAO;
     private final WarBattleDAO warBattleDAO;
+    private final InfoBookCache infoBookCache;
 
     public WarInfoBookHandler(NationPlugin plugin) {
         super(plugin);
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.nationDAO = plugin.getDatabase().getNationDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
         this.warDAO = plugin.getDatabase().getWarDAO();
         this.warAlliesDAO = plugin.getDatabase().getWarAlliesDAO();
         this.warBattleDAO = plugin.getDatabase().getWarBattleDAO();
+        this.infoBookCache = BookRegistry.getInfoBookCache();
     }
 
     @Override
@@ -47,19 +49,19 @@ public class WarInfoBookHandler extends InfoBookHandler {
     }
 
     @Override
-    protected boolean isCorrectLectern(Block lecternBlock) {
-        return diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
+    protected LecternType getLecternType() {
+        return LecternType.DIPLOMACY;
     }
 
     @Override
-    public BookResult execute(Player player, Block lecternBlock, BookMeta meta) {
-        if (meta.getPageCount() < 1) {
+    public BookResult execute(Player player, Block lecternBlock, BookCommand command) {
+        if (command.pageCount() < 1) {
             return sendErrorBook(lecternBlock, player, "You must write your nation name on the first page.");
         }
 
         String pageText;
         try {
-            pageText = PlainTextComponentSerializer.plainText().serialize(meta.page(1));
+            pageText = command.page(1);
         } catch (Exception e) {
             return sendErrorBook(lecternBlock, player, "Failed to parse book.");
         }
@@ -83,22 +85,33 @@ public class WarInfoBookHandler extends InfoBookHandler {
             return sendErrorBook(lecternBlock, player, "This lectern is not inside " + nationName + "'s territory.");
         }
 
-        String originalAuthor = resolveAuthor(meta, lecternBlock, player);
+        String originalAuthor = resolveAuthor(command, lecternBlock, player);
 
         String cononicalNationName = nationDAO.getNationName(nationUuid);
         if (cononicalNationName == null) {
             return sendErrorBook(lecternBlock, player, "Error retrieving nation name for UUID: " + nationUuid + ", please contact an admin.");
         }
         
-        int warId = warDAO.getOngoingWarIdByNation(nationUuid);
-        if (warId == -1) {
-            return generateNoWarBook(lecternBlock, player, cononicalNationName, originalAuthor);
+        // Battle distances are measured from the lectern's town, so each town of the nation has its own book
+        String townUuid = townClaimDAO.getTownUuidAtLectern(lecternBlock);
+        long version = infoBookCache.getVersion(nationUuid) + infoBookCache.getVersion(InfoBookCache.ALL_NATIONS);
+        List<String> pages;
+        try {
+            pages = infoBookCache.getOrRender(InfoBookCache.BookType.WAR, nationUuid + ":" + townUuid, version, () -> {
+                int warId = warDAO.getOngoingWarIdByNation(nationUuid);
+                if (warId == -1) {
+                    return renderNoWarBook(cononicalNationName);
+                }
+                return renderWarBook(warId, cononicalNationName, townUuid);
+            });
+        } catch (BookRejection e) {
+            return sendErrorBook(lecternBlock, player, e.getMessage());
         }
 
-        return generateWarBook(lecternBlock, player, warId, cononicalNationName, originalAuthor);
+        return sendSuccessBook(lecternBlock, player, "War Info", pages, cononicalNationName, originalAuthor);
     }
 
-    private BookResult generateNoWarBook(Block lecternBlock, Player player, String nationName, String author) {
+    private List<String> renderNoWarBook(String nationName) {
         List<String> book = new ArrayList<>();
         book.add("§lWar Info§r");
         book.add(nationName);
@@ -106,11 +119,13 @@ public class WarInfoBookHandler extends InfoBookHandler {
         book.add("");
         book.add("§oThis nation is not currently involved in any wars.§r");
 
-        List<String> pages = paginateLines(book);
-        return sendSuccessBook(lecternBlock, player, "War Info", pages, nationName, author);
+        return paginateLines(book);
     }
 
-    private BookResult generateWarBook(Block lecternBlock, Player player, int warId, String nationName, String author) {
+    /**
+     * Renders the war book. Problems with the war's data reject the book instead, and are not cached.
+     */
+    private List<String> renderWarBook(int warId, String nationName, String townUuid) {
         List<String> book = new ArrayList<>();
         book.add("§lWar Info§r");
         book.add(nationName);
@@ -119,7 +134,7 @@ public class WarInfoBookHandler extends InfoBookHandler {
 
         WarDAO.War war = warDAO.getWarById(warId);
         if (war == null) {
-            return sendErrorBook(lecternBlock, player, "War data not found.");
+            throw new BookRejection("War data not found.");
         }
 
         String attackerName = nationDAO.getNationName(war.attackerNationUuid());
@@ -158,18 +173,13 @@ public class WarInfoBookHandler extends InfoBookHandler {
         if (battles.isEmpty()) {
             book.add(" §oNo scheduled battles.");
         } else {
-            String townUuid = townDAO.getTownsByNationUuid(nationDAO.getNationUUIDByName(nationName)).stream()
-                    .filter(id -> townClaimDAO.isLecternInTownChunk(id, lecternBlock))
-                    .findFirst()
-                    .orElse(null);
-
             if (townUuid == null) {
-                return sendErrorBook(lecternBlock, player, "Could not determine the town this lectern belongs to.");
+                throw new BookRejection("Could not determine the town this lectern belongs to.");
             }
 
             Location townCenter = townClaimDAO.getFirstClaimCenterLocation(townUuid);
             if (townCenter == null) {
-                return sendErrorBook(lecternBlock, player, "Could not resolve town center location.");
+                throw new BookRejection("Could not resolve town center location.");
             }
 
             for (WarBattle battle : battles) {
@@ -200,7 +210,6 @@ public class WarInfoBookHandler extends InfoBookHandler {
             }
         }
 
-        List<String> pages = paginateLines(book);
-        return sendSuccessBook(lecternBlock, player, "War Info", pages, nationName, author);
+        return paginateLines(book);
     }
 }
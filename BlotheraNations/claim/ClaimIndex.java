@@ -0,0 +1,485 @@
+package com.blothera.claim;
+
+import com.blothera.util.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact in-memory index of which town owns each claimed chunk.
+ * <p>
+ * Each world holds a {@link LongIntHashMap} from the packed chunk key to a small town id,
+ * and towns are interned to those ids through a side table. A claim therefore costs a
+ * {@code long} and an {@code int} in a flat array rather than a boxed key, a map entry and
+ * its own copy of the town's UUID. {@link #getTownAt(String, int, int)} does not allocate,
+ * which keeps it cheap on the movement and block protection paths.
+ * <p>
+ * Each world also keeps a {@link RegionOccupancy} bitmap of its claimed chunks. Lookups check
+ * it first, so unclaimed land, where most events happen, never probes the map of claims.
+ * <p>
+ * Every town id also has a {@link TownClaims} holding the town's own claims as packed keys,
+ * along with its bounding box and coordinate sums. Per-town queries therefore only touch
+ * that town's claims, and its bounds and centroid are available in constant time.
+ * <p>
+ * The centre of every town is also kept in a {@link TownSpatialIndex}, which is moved
+ * whenever the town's claims change, so distance queries between towns never go stale.
+ * <p>
+ * Ids are released once a town has no claims left, and reused by later towns.
+ * The index is not thread-safe, like the claim cache it replaces.
+ */
+public class ClaimIndex {
+
+    static final int NO_TOWN = -1;
+
+    private final Map<String, WorldClaims> worlds = new HashMap<>();
+    private final Map<String, Integer> idsByTown = new HashMap<>();
+    private final TownSpatialIndex spatialIndex = new TownSpatialIndex();
+    private String[] townsById = new String[16];
+    private TownClaims[] claimsById = new TownClaims[16];
+    private int[] freeIds = new int[16];
+    private int freeIdCount;
+    private int nextId;
+    private int size;
+
+    /**
+     * Packs chunk coordinates into a single long, the same way as {@code TownClaimDAO.getChunkKey}.
+     */
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return (((long) chunkX) << 32) | (chunkZ & 0xffffffffL);
+    }
+
+    /**
+     * Retrieves the town owning a chunk.
+     *
+     * @param world  The name of the world.
+     * @param chunkX The X coordinate of the chunk.
+     * @param chunkZ The Z coordinate of the chunk.
+     * @return The UUID of the owning town, or null if the chunk is not claimed.
+     */
+    public String getTownAt(String world, int chunkX, int chunkZ) {
+        WorldClaims claims = worlds.get(world);
+        if (claims == null || !claims.occupancy.isClaimed(chunkX, chunkZ)) return null;
+        int id = claims.owners.get(chunkKey(chunkX, chunkZ));
+        return id == NO_TOWN ? null : townsById[id];
+    }
+
+    /**
+     * Checks if a chunk is claimed using only the occupancy bitmap of its world.
+     *
+     * @param world  The name of the world.
+     * @param chunkX The X coordinate of the chunk.
+     * @param chunkZ The Z coordinate of the chunk.
+     * @return true if the chunk is claimed, false otherwise.
+     */
+    public boolean isClaimed(String world, int chunkX, int chunkZ) {
+        WorldClaims claims = worlds.get(world);
+        return claims != null && claims.occupancy.isClaimed(chunkX, chunkZ);
+    }
+
+    /**
+     * Records a claim, replacing any previous owner of the chunk.
+     *
+     * @param world    The name of the world.
+     * @param chunkX   The X coordinate of the chunk.
+     * @param chunkZ   The Z coordinate of the chunk.
+     * @param townUuid The UUID of the town claiming the chunk.
+     */
+    public void put(String world, int chunkX, int chunkZ, String townUuid) {
+        int id = intern(townUuid);
+        long key = chunkKey(chunkX, chunkZ);
+        WorldClaims claims = worlds.computeIfAbsent(world, k -> new WorldClaims());
+        int previous = claims.owners.put(key, id);
+        if (previous == id) return;
+
+        claims.occupancy.set(chunkX, chunkZ);
+        claimsById[id].add(world, key);
+        updatePosition(id);
+        if (previous == NO_TOWN) {
+            size++;
+        } else {
+            claimsById[previous].remove(world, key);
+            updatePosition(previous);
+            releaseIfEmpty(previous);
+        }
+    }
+
+    /**
+     * Removes a single claim.
+     *
+     * @param world  The name of the world.
+     * @param chunkX The X coordinate of the chunk.
+     * @param chunkZ The Z coordinate of the chunk.
+     */
+    public void remove(String world, int chunkX, int chunkZ) {
+        WorldClaims claims = worlds.get(world);
+        if (claims == null) return;
+        long key = chunkKey(chunkX, chunkZ);
+        int previous = claims.owners.remove(key);
+        if (previous == NO_TOWN) return;
+        claims.occupancy.clear(chunkX, chunkZ);
+        size--;
+        claimsById[previous].remove(world, key);
+        updatePosition(previous);
+        releaseIfEmpty(previous);
+    }
+
+    /**
+     * Removes every claim of a town and releases its id.
+     *
+     * @param townUuid The UUID of the town.
+     */
+    public void removeTown(String townUuid) {
+        Integer id = idsByTown.get(townUuid);
+        if (id == null) return;
+
+        TownClaims town = claimsById[id];
+        for (int i = 0; i < town.size; i++) {
+            long key = town.keys[i];
+            WorldClaims claims = worlds.get(town.worlds[i]);
+            claims.owners.remove(key);
+            claims.occupancy.clear((int) (key >> 32), (int) key);
+        }
+        size -= town.size;
+        town.clear();
+        updatePosition(id);
+        releaseIfEmpty(id);
+    }
+
+    /**
+     * Retrieves every claim of a town.
+     *
+     * @param townUuid The UUID of the town.
+     * @return The claimed chunks, each an int array of chunkX and chunkZ.
+     */
+    public List<int[]> getClaims(String townUuid) {
+        TownClaims town = getTownClaims(townUuid);
+        if (town == null) return new ArrayList<>();
+
+        List<int[]> result = new ArrayList<>(town.size);
+        for (int i = 0; i < town.size; i++) {
+            long key = town.keys[i];
+            result.add(new int[]{(int) (key >> 32), (int) key});
+        }
+        return result;
+    }
+
+    /**
+     * @param townUuid The UUID of the town.
+     * @return The number of chunks the town has claimed.
+     */
+    public int getClaimCount(String townUuid) {
+        TownClaims town = getTownClaims(townUuid);
+        return town == null ? 0 : town.size;
+    }
+
+    /**
+     * Retrieves the claims of a town, along with their bounding box and centroid.
+     * The returned object is live and must not be modified or kept across changes to the index.
+     *
+     * @param townUuid The UUID of the town.
+     * @return The town's claims, or null if the town has none.
+     */
+    public TownClaims getTownClaims(String townUuid) {
+        Integer id = idsByTown.get(townUuid);
+        return id == null ? null : claimsById[id];
+    }
+
+    /**
+     * @return The index of town centres, kept in step with the claims in this index.
+     */
+    public TownSpatialIndex getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    /**
+     * Calls the consumer for every claim in every world.
+     *
+     * @param consumer The consumer receiving each claim.
+     */
+    public void forEach(ClaimConsumer consumer) {
+        for (Map.Entry<String, WorldClaims> entry : worlds.entrySet()) {
+            String world = entry.getKey();
+            entry.getValue().owners.forEach((key, id) -> consumer.accept(world, (int) (key >> 32), (int) key, townsById[id]));
+        }
+    }
+
+    /**
+     * @return The total number of claims in every world.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of towns which currently hold an id.
+     */
+    public int getTownCount() {
+        return idsByTown.size();
+    }
+
+    /**
+     * Removes every claim and town id.
+     */
+    public void clear() {
+        worlds.clear();
+        idsByTown.clear();
+        Arrays.fill(townsById, null);
+        Arrays.fill(claimsById, null);
+        spatialIndex.clear();
+        freeIdCount = 0;
+        nextId = 0;
+        size = 0;
+    }
+
+    /**
+     * Replaces the contents of this index with a snapshot read by {@link ClaimIndexFile}.
+     * The per-world owner tables are taken over as they are, everything else is derived from them
+     * in a single pass, without hashing any claim again.
+     *
+     * @param towns  The UUID of the town holding each id, null for unused ids.
+     * @param owners The table of owners of each world, mapping chunk keys to town ids.
+     * @throws IllegalArgumentException if a table refers to an unused town id.
+     */
+    void restore(String[] towns, Map<String, LongIntHashMap> owners) {
+        clear();
+        townsById = Arrays.copyOf(townsById, Math.max(townsById.length, towns.length));
+        claimsById = Arrays.copyOf(claimsById, townsById.length);
+        freeIds = Arrays.copyOf(freeIds, Math.max(freeIds.length, towns.length));
+        nextId = towns.length;
+        for (int id = towns.length - 1; id >= 0; id--) {
+            if (towns[id] == null) {
+                freeIds[freeIdCount++] = id;
+                continue;
+            }
+            townsById[id] = towns[id];
+            claimsById[id] = new TownClaims();
+            idsByTown.put(towns[id], id);
+        }
+
+        for (Map.Entry<String, LongIntHashMap> entry : owners.entrySet()) {
+            String world = entry.getKey();
+            WorldClaims claims = new WorldClaims(entry.getValue());
+            worlds.put(world, claims);
+            claims.owners.forEach((key, id) -> {
+                if (id < 0 || id >= towns.length || townsById[id] == null) {
+                    throw new IllegalArgumentException("Claim in " + world + " refers to unknown town id " + id);
+                }
+                claimsById[id].add(world, key);
+                claims.occupancy.set((int) (key >> 32), (int) key);
+                size++;
+            });
+        }
+
+        for (int id = 0; id < towns.length; id++) {
+            if (townsById[id] == null) continue;
+            updatePosition(id);
+            releaseIfEmpty(id);
+        }
+    }
+
+    /**
+     * @return One more than the highest town id in use, the length of the id table to snapshot.
+     */
+    int getIdLimit() {
+        return nextId;
+    }
+
+    /**
+     * @param id A town id below {@link #getIdLimit()}.
+     * @return The UUID of the town holding the id, or null if the id is unused.
+     */
+    String getTownById(int id) {
+        return townsById[id];
+    }
+
+    /**
+     * @return The table of owners of each world, for {@link ClaimIndexFile} to write out. Must not be modified.
+     */
+    Map<String, LongIntHashMap> getOwnersByWorld() {
+        Map<String, LongIntHashMap> owners = new HashMap<>();
+        worlds.forEach((world, claims) -> owners.put(world, claims.owners));
+        return owners;
+    }
+
+    private int intern(String townUuid) {
+        Integer existing = idsByTown.get(townUuid);
+        if (existing != null) return existing;
+
+        int id = freeIdCount > 0 ? freeIds[--freeIdCount] : nextId++;
+        if (id >= townsById.length) {
+            townsById = Arrays.copyOf(townsById, townsById.length * 2);
+            claimsById = Arrays.copyOf(claimsById, claimsById.length * 2);
+        }
+        townsById[id] = townUuid;
+        claimsById[id] = new TownClaims();
+        idsByTown.put(townUuid, id);
+        return id;
+    }
+
+    /**
+     * Moves a town's entry in the spatial index to the block at the middle of its centroid chunk.
+     */
+    private void updatePosition(int id) {
+        TownClaims town = claimsById[id];
+        if (town.size == 0) {
+            spatialIndex.remove(townsById[id]);
+        } else {
+            spatialIndex.update(townsById[id], town.getWorld(),
+                    town.getCenterChunkX() * 16 + 8, town.getCenterChunkZ() * 16 + 8);
+        }
+    }
+
+    private void releaseIfEmpty(int id) {
+        if (claimsById[id].size > 0) return;
+
+        idsByTown.remove(townsById[id]);
+        townsById[id] = null;
+        claimsById[id] = null;
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+        }
+        freeIds[freeIdCount++] = id;
+    }
+
+    /**
+     * The claims of a single town, stored as packed chunk keys with the world of each,
+     * together with the town's bounding box and the sums needed for its centroid.
+     */
+    public static final class TownClaims {
+        private long[] keys = new long[9];
+        private String[] worlds = new String[9];
+        private int size;
+        private long sumX;
+        private long sumZ;
+        private int minX;
+        private int minZ;
+        private int maxX;
+        private int maxZ;
+
+        /**
+         * @return The number of claimed chunks.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return The name of the world of the town's first claim.
+         */
+        public String getWorld() {
+            return worlds[0];
+        }
+
+        public int getMinChunkX() {
+            return minX;
+        }
+
+        public int getMinChunkZ() {
+            return minZ;
+        }
+
+        public int getMaxChunkX() {
+            return maxX;
+        }
+
+        public int getMaxChunkZ() {
+            return maxZ;
+        }
+
+        /**
+         * @return The average chunk X of the town's claims, rounded toward zero.
+         */
+        public int getCenterChunkX() {
+            return (int) (sumX / size);
+        }
+
+        /**
+         * @return The average chunk Z of the town's claims, rounded toward zero.
+         */
+        public int getCenterChunkZ() {
+            return (int) (sumZ / size);
+        }
+
+        private void add(String world, long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                worlds = Arrays.copyOf(worlds, size * 2);
+            }
+            keys[size] = key;
+            worlds[size] = world;
+            include((int) (key >> 32), (int) key, size == 0);
+            size++;
+        }
+
+        private void remove(String world, long key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] != key || !worlds[i].equals(world)) continue;
+
+                size--;
+                keys[i] = keys[size];
+                worlds[i] = worlds[size];
+                worlds[size] = null;
+                recomputeBounds();
+                return;
+            }
+        }
+
+        private void clear() {
+            Arrays.fill(worlds, 0, size, null);
+            size = 0;
+            recomputeBounds();
+        }
+
+        private void include(int chunkX, int chunkZ, boolean first) {
+            if (first) {
+                minX = maxX = chunkX;
+                minZ = maxZ = chunkZ;
+            } else {
+                minX = Math.min(minX, chunkX);
+                maxX = Math.max(maxX, chunkX);
+                minZ = Math.min(minZ, chunkZ);
+                maxZ = Math.max(maxZ, chunkZ);
+            }
+            sumX += chunkX;
+            sumZ += chunkZ;
+        }
+
+        /**
+         * Rebuilds the bounds and sums after a removal, which may have shrunk the bounding box.
+         */
+        private void recomputeBounds() {
+            sumX = 0;
+            sumZ = 0;
+            for (int i = 0; i < size; i++) {
+                include((int) (keys[i] >> 32), (int) keys[i], i == 0);
+            }
+        }
+    }
+
+    /**
+     * The claims of a single world, as owners by chunk key and an occupancy bitmap of the same chunks.
+     */
+    private static final class WorldClaims {
+        private final LongIntHashMap owners;
+        private final RegionOccupancy occupancy = new RegionOccupancy();
+
+        private WorldClaims() {
+            this(new LongIntHashMap(NO_TOWN));
+        }
+
+        private WorldClaims(LongIntHashMap owners) {
+            this.owners = owners;
+        }
+    }
+
+    /**
+     * Receives the claims of a {@link ClaimIndex}.
+     */
+    @FunctionalInterface
+    public interface ClaimConsumer {
+        void accept(String world, int chunkX, int chunkZ, String townUuid);
+    }
+}
@@ -0,0 +1,179 @@
+package com.blothera.claim;
+
+import com.blothera.util.LongIntHashMap;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot of a {@link ClaimIndex} in a memory-mapped file, so the claim cache can be restored
+ * at startup without reading {@code town_claims} row by row.
+ * <p>
+ * The file holds a fixed-size header followed by the town id table and, for every world,
+ * the open-addressing table of chunk keys to town ids exactly as {@link LongIntHashMap} lays
+ * it out in memory. Restoring is a bulk copy of those tables, they are never rehashed.
+ * <p>
+ * The header records the claim generation the snapshot was taken at. The generation is
+ * bumped by triggers on {@code town_claims}, so a snapshot is only used while it matches
+ * the database exactly. A CRC32 of the payload guards against torn or corrupt files.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header:  int magic, int format version, long generation, int claim count,
+ *          int payload length, long payload CRC32
+ * payload: int town id count, then per id: long most, long least significant UUID bits (0, 0 if unused)
+ *          int world count, then per world: short name length, UTF-8 name, owner table
+ * </pre>
+ */
+public class ClaimIndexFile {
+
+    private static final int MAGIC = 0x424E4349; // "BNCI"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private final Path path;
+
+    public ClaimIndexFile(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Restores the index from the file, if the file was written at the given generation.
+     * The index is left in an undefined state if this returns false, and must then be rebuilt.
+     *
+     * @param index      The index to restore into.
+     * @param generation The current claim generation of the database.
+     * @return true if the index was restored, false if the file is missing, stale or corrupt.
+     * @throws IOException if the file exists but cannot be read.
+     */
+    public boolean load(ClaimIndex index, long generation) throws IOException {
+        if (!Files.isRegularFile(path)) return false;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) return false;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) return false;
+            if (buffer.getLong() != generation) return false;
+            int claimCount = buffer.getInt();
+            int payloadLength = buffer.getInt();
+            long checksum = buffer.getLong();
+            if (payloadLength != length - HEADER_SIZE) return false;
+
+            ByteBuffer payload = buffer.slice(HEADER_SIZE, payloadLength);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != checksum) return false;
+
+            try {
+                readPayload(index, payload);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                return false;
+            }
+            return index.size() == claimCount;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the index, replacing the file atomically.
+     *
+     * @param index      The index to write.
+     * @param generation The claim generation of the database the index matches.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if a town UUID is not a valid UUID.
+     */
+    public void save(ClaimIndex index, long generation) throws IOException {
+        int idLimit = index.getIdLimit();
+        Map<String, LongIntHashMap> owners = index.getOwnersByWorld();
+        Map<String, byte[]> names = new HashMap<>();
+
+        long payloadLength = 4 + 16L * idLimit + 4;
+        for (Map.Entry<String, LongIntHashMap> entry : owners.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            names.put(entry.getKey(), name);
+            payloadLength += 2 + name.length + entry.getValue().getSerializedSize();
+        }
+        if (HEADER_SIZE + payloadLength > Integer.MAX_VALUE) {
+            throw new IOException("Claim index is too large for a single file");
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + payloadLength);
+
+            ByteBuffer payload = buffer.slice(HEADER_SIZE, (int) payloadLength);
+            payload.putInt(idLimit);
+            for (int id = 0; id < idLimit; id++) {
+                String town = index.getTownById(id);
+                UUID uuid = town == null ? null : UUID.fromString(town);
+                if (uuid != null && !uuid.toString().equals(town)) {
+                    throw new IllegalArgumentException("Town id " + town + " is not in canonical UUID form");
+                }
+                payload.putLong(uuid == null ? 0 : uuid.getMostSignificantBits());
+                payload.putLong(uuid == null ? 0 : uuid.getLeastSignificantBits());
+            }
+            payload.putInt(owners.size());
+            for (Map.Entry<String, LongIntHashMap> entry : owners.entrySet()) {
+                byte[] name = names.get(entry.getKey());
+                payload.putShort((short) name.length);
+                payload.put(name);
+                entry.getValue().writeTo(payload);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(payload.flip());
+
+            buffer.putInt(MAGIC);
+            buffer.putInt(FORMAT_VERSION);
+            buffer.putLong(generation);
+            buffer.putInt(index.size());
+            buffer.putInt((int) payloadLength);
+            buffer.putLong(crc.getValue());
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes the file, so a snapshot which is known to be out of date is never read.
+     *
+     * @throws IOException if the file exists but cannot be deleted.
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private static void readPayload(ClaimIndex index, ByteBuffer payload) {
+        int idLimit = payload.getInt();
+        if (idLimit < 0 || idLimit > payload.remaining() / 16) throw new IllegalArgumentException("Invalid town id count " + idLimit);
+        String[] towns = new String[idLimit];
+        for (int id = 0; id < idLimit; id++) {
+            long most = payload.getLong();
+            long least = payload.getLong();
+            if (most != 0 || least != 0) towns[id] = new UUID(most, least).toString();
+        }
+
+        int worldCount = payload.getInt();
+        Map<String, LongIntHashMap> owners = new HashMap<>();
+        for (int i = 0; i < worldCount; i++) {
+            byte[] name = new byte[payload.getShort() & 0xffff];
+            payload.get(name);
+            owners.put(new String(name, StandardCharsets.UTF_8), LongIntHashMap.readFrom(payload, ClaimIndex.NO_TOWN));
+        }
+        index.restore(towns, owners);
+    }
+}
@@ -0,0 +1,156 @@
+package com.blothera.claim;
+
+import com.blothera.NationPlugin;
+import com.blothera.database.TownDAOs.TownMetadataCache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether a player may build in a town's claims without touching the database.
+ * <p>
+ * The member set of every town is held in memory, dormancy comes from the {@link TownMetadataCache},
+ * and each (player, town) decision is cached until a membership, dormancy or removal change
+ * invalidates the town it belongs to.
+ */
+public class ClaimPermissionEngine {
+
+    private final Connection connection;
+    private final NationPlugin plugin;
+    private final Map<String, Set<String>> townMembers = new ConcurrentHashMap<>();
+    private final Map<String, Map<UUID, Boolean>> decisions = new ConcurrentHashMap<>();
+
+    public ClaimPermissionEngine(NationPlugin plugin, Connection connection) {
+        this.plugin = plugin;
+        this.connection = connection;
+    }
+
+    /**
+     * Reloads the members of every town from the main connection.
+     *
+     * @return The number of memberships loaded, or -1 if loading failed.
+     */
+    public int load() {
+        return load(connection);
+    }
+
+    /**
+     * Loads the members of every town into memory.
+     * This method is called by the {@link com.blothera.database.CacheWarmup} during plugin initialization.
+     *
+     * @param source The connection to load from, which may be a read-only connection of its own.
+     * @return The number of memberships loaded, or -1 if loading failed.
+     */
+    public int load(Connection source) {
+        townMembers.clear();
+        decisions.clear();
+        int count = 0;
+        try (PreparedStatement stmt = source.prepareStatement("SELECT player_uuid, town_uuid FROM town_members");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                townMembers.computeIfAbsent(rs.getString("town_uuid"), k -> ConcurrentHashMap.newKeySet())
+                        .add(rs.getString("player_uuid"));
+                count++;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load town members into cache: " + e.getMessage());
+            return -1;
+        }
+        return count;
+    }
+
+    /**
+     * Checks if a player may break, place or interact with blocks in a town's claims.
+     * Members always may, and non-members may only if the town is dormant, as dormant towns lose protection.
+     *
+     * @param playerUuid The UUID of the player.
+     * @param townUuid   The UUID of the town owning the claim.
+     * @return true if the player is permitted, false otherwise.
+     */
+    public boolean isPermitted(UUID playerUuid, String townUuid) {
+        Map<UUID, Boolean> townDecisions = decisions.computeIfAbsent(townUuid, k -> new ConcurrentHashMap<>());
+        Boolean decision = townDecisions.get(playerUuid);
+        if (decision != null) return decision;
+
+        decision = decide(playerUuid.toString(), townUuid);
+        townDecisions.put(playerUuid, decision);
+        return decision;
+    }
+
+    private boolean decide(String playerUuid, String townUuid) {
+        TownMetadataCache.TownMetadata town = plugin.getDatabase().getTownMetadataCache().get(townUuid);
+        if (town != null && town.dormant()) return true;
+        return isMember(playerUuid, townUuid);
+    }
+
+    /**
+     * Checks the in-memory member set of a town.
+     *
+     * @param playerUuid The UUID of the player.
+     * @param townUuid   The UUID of the town.
+     * @return true if the player is a member of the town, false otherwise.
+     */
+    public boolean isMember(String playerUuid, String townUuid) {
+        Set<String> members = townMembers.get(townUuid);
+        return members != null && members.contains(playerUuid);
+    }
+
+    /**
+     * Records a new member of a town.
+     *
+     * @param playerUuid The UUID of the player who joined.
+     * @param townUuid   The UUID of the town.
+     */
+    public void onMemberAdded(String playerUuid, String townUuid) {
+        townMembers.computeIfAbsent(townUuid, k -> ConcurrentHashMap.newKeySet()).add(playerUuid);
+        invalidatePlayer(playerUuid, townUuid);
+    }
+
+    /**
+     * Records that a player is no longer a member of a town, whether they left or were exiled.
+     *
+     * @param playerUuid The UUID of the player who left.
+     * @param townUuid   The UUID of the town.
+     */
+    public void onMemberRemoved(String playerUuid, String townUuid) {
+        Set<String> members = townMembers.get(townUuid);
+        if (members != null) members.remove(playerUuid);
+        invalidatePlayer(playerUuid, townUuid);
+    }
+
+    /**
+     * Forgets every member and decision of a town, used when all members are removed or the town is removed.
+     *
+     * @param townUuid The UUID of the town.
+     */
+    public void onTownRemoved(String townUuid) {
+        townMembers.remove(townUuid);
+        decisions.remove(townUuid);
+    }
+
+    /**
+     * Drops every cached decision for a town, used when its dormancy changes.
+     *
+     * @param townUuid The UUID of the town.
+     */
+    public void invalidateTown(String townUuid) {
+        if (townUuid == null) return;
+        decisions.remove(townUuid);
+    }
+
+    private void invalidatePlayer(String playerUuid, String townUuid) {
+        Map<UUID, Boolean> townDecisions = decisions.get(townUuid);
+        if (townDecisions == null) return;
+        try {
+            townDecisions.remove(UUID.fromString(playerUuid));
+        } catch (IllegalArgumentException e) {
+            decisions.remove(townUuid);
+        }
+    }
+}
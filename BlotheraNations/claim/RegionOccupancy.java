@@ -0,0 +1,129 @@
+package com.blothera.claim;
+
+import com.blothera.util.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Two-level bitmap of the claimed chunks in one world.
+ * <p>
+ * The world is split into regions of 32x32 chunks. Only regions holding at least one claim
+ * are stored, each as a 1024-bit set with one bit per chunk. Checking a chunk is one probe
+ * into a small map of regions followed by a single bit test, and the region map stays
+ * small enough to sit in cache, unlike the map of every claim. Most events on a server
+ * happen in the wilderness, where the region probe alone already answers the question.
+ * <p>
+ * Region bitsets are released once their last chunk is cleared and reused by later regions.
+ * The bitmap is not thread-safe.
+ */
+public class RegionOccupancy {
+
+    private static final int REGION_SHIFT = 5;
+    private static final int REGION_MASK = (1 << REGION_SHIFT) - 1;
+    private static final int WORDS_PER_REGION = (1 << (2 * REGION_SHIFT)) / 64;
+    private static final int NO_REGION = -1;
+
+    private final LongIntHashMap regions = new LongIntHashMap(NO_REGION);
+    private long[] bits = new long[WORDS_PER_REGION * 4];
+    private int[] counts = new int[4];
+    private int[] freeSlots = new int[4];
+    private int freeSlotCount;
+    private int nextSlot;
+
+    /**
+     * Checks if a chunk is claimed. Does not allocate.
+     *
+     * @param chunkX The X coordinate of the chunk.
+     * @param chunkZ The Z coordinate of the chunk.
+     * @return true if the chunk is claimed, false otherwise.
+     */
+    public boolean isClaimed(int chunkX, int chunkZ) {
+        int slot = regions.get(regionKey(chunkX, chunkZ));
+        if (slot == NO_REGION) return false;
+        int bit = bitIndex(chunkX, chunkZ);
+        return (bits[slot * WORDS_PER_REGION + (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Checks if any chunk in the 32x32-chunk region containing a chunk is claimed.
+     *
+     * @param chunkX The X coordinate of a chunk in the region.
+     * @param chunkZ The Z coordinate of a chunk in the region.
+     * @return true if the region holds at least one claim, false otherwise.
+     */
+    public boolean isRegionOccupied(int chunkX, int chunkZ) {
+        return regions.containsKey(regionKey(chunkX, chunkZ));
+    }
+
+    /**
+     * Marks a chunk as claimed.
+     *
+     * @param chunkX The X coordinate of the chunk.
+     * @param chunkZ The Z coordinate of the chunk.
+     */
+    public void set(int chunkX, int chunkZ) {
+        long key = regionKey(chunkX, chunkZ);
+        int slot = regions.get(key);
+        if (slot == NO_REGION) {
+            slot = allocate();
+            regions.put(key, slot);
+        }
+
+        int bit = bitIndex(chunkX, chunkZ);
+        int word = slot * WORDS_PER_REGION + (bit >>> 6);
+        if ((bits[word] & (1L << bit)) != 0) return;
+        bits[word] |= 1L << bit;
+        counts[slot]++;
+    }
+
+    /**
+     * Marks a chunk as unclaimed, releasing its region if it was the region's last claim.
+     *
+     * @param chunkX The X coordinate of the chunk.
+     * @param chunkZ The Z coordinate of the chunk.
+     */
+    public void clear(int chunkX, int chunkZ) {
+        long key = regionKey(chunkX, chunkZ);
+        int slot = regions.get(key);
+        if (slot == NO_REGION) return;
+
+        int bit = bitIndex(chunkX, chunkZ);
+        int word = slot * WORDS_PER_REGION + (bit >>> 6);
+        if ((bits[word] & (1L << bit)) == 0) return;
+        bits[word] &= ~(1L << bit);
+
+        if (--counts[slot] == 0) {
+            regions.remove(key);
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+        }
+    }
+
+    /**
+     * @return The number of regions holding at least one claim.
+     */
+    public int getRegionCount() {
+        return regions.size();
+    }
+
+    private int allocate() {
+        if (freeSlotCount > 0) return freeSlots[--freeSlotCount];
+
+        int slot = nextSlot++;
+        if (slot == counts.length) {
+            counts = Arrays.copyOf(counts, counts.length * 2);
+            bits = Arrays.copyOf(bits, bits.length * 2);
+        }
+        return slot;
+    }
+
+    private static long regionKey(int chunkX, int chunkZ) {
+        return (((long) (chunkX >> REGION_SHIFT)) << 32) | ((chunkZ >> REGION_SHIFT) & 0xffffffffL);
+    }
+
+    private static int bitIndex(int chunkX, int chunkZ) {
+        return ((chunkZ & REGION_MASK) << REGION_SHIFT) | (chunkX & REGION_MASK);
+    }
+}
@@ -0,0 +1,223 @@
+package com.blothera.claim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Uniform grid of town centres, one per world, used for the distance rules of town formation.
+ * <p>
+ * Each town sits in the cell containing its centre. A radius query only visits the cells
+ * overlapping the circle's bounding square, and a nearest-town query searches outwards
+ * ring by ring, so neither has to look at every town on the server.
+ * <p>
+ * The {@link ClaimIndex} keeps this index up to date whenever a town's claims change,
+ * which covers formation, expansion and removal. It is not thread-safe.
+ */
+public class TownSpatialIndex {
+
+    /**
+     * Width of a grid cell in blocks. Formation rules look a few hundred blocks out,
+     * so a cell usually holds a handful of towns and a query touches a handful of cells.
+     */
+    private static final int CELL_SIZE = 512;
+
+    private final Map<String, Map<Long, List<TownPosition>>> worlds = new HashMap<>();
+    private final Map<String, TownPosition> positions = new HashMap<>();
+
+    /**
+     * Places a town at its current centre, moving it if it was already indexed.
+     *
+     * @param townUuid The UUID of the town.
+     * @param world    The name of the world the town is in.
+     * @param x        The block X coordinate of the town centre.
+     * @param z        The block Z coordinate of the town centre.
+     */
+    public void update(String townUuid, String world, int x, int z) {
+        TownPosition current = positions.get(townUuid);
+        if (current != null && current.world().equals(world) && current.x() == x && current.z() == z) return;
+
+        remove(townUuid);
+        TownPosition position = new TownPosition(townUuid, world, x, z);
+        positions.put(townUuid, position);
+        worlds.computeIfAbsent(world, k -> new HashMap<>())
+                .computeIfAbsent(cellKey(cell(x), cell(z)), k -> new ArrayList<>(4))
+                .add(position);
+    }
+
+    /**
+     * Removes a town from the index.
+     *
+     * @param townUuid The UUID of the town.
+     */
+    public void remove(String townUuid) {
+        TownPosition position = positions.remove(townUuid);
+        if (position == null) return;
+
+        Map<Long, List<TownPosition>> cells = worlds.get(position.world());
+        long key = cellKey(cell(position.x()), cell(position.z()));
+        List<TownPosition> cell = cells.get(key);
+        cell.remove(position);
+        if (cell.isEmpty()) cells.remove(key);
+        if (cells.isEmpty()) worlds.remove(position.world());
+    }
+
+    /**
+     * Removes every town from the index.
+     */
+    public void clear() {
+        worlds.clear();
+        positions.clear();
+    }
+
+    /**
+     * @return The number of indexed towns.
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * @param townUuid The UUID of the town.
+     * @return The indexed centre of the town, or null if the town has no claims.
+     */
+    public TownPosition get(String townUuid) {
+        return positions.get(townUuid);
+    }
+
+    /**
+     * Finds every town whose centre lies within a radius of a point.
+     *
+     * @param world  The name of the world.
+     * @param x      The block X coordinate of the point.
+     * @param z      The block Z coordinate of the point.
+     * @param radius The radius in blocks, inclusive.
+     * @param filter Which towns to consider, for example only those of one nation.
+     * @return The matching towns, nearest first.
+     */
+    public List<TownPosition> getTownsWithin(String world, double x, double z, double radius, Predicate<String> filter) {
+        List<TownPosition> result = new ArrayList<>();
+        Map<Long, List<TownPosition>> cells = worlds.get(world);
+        if (cells == null || radius < 0) return result;
+
+        double radiusSquared = radius * radius;
+        int minCellX = cell(Math.floor(x - radius)), maxCellX = cell(Math.ceil(x + radius));
+        int minCellZ = cell(Math.floor(z - radius)), maxCellZ = cell(Math.ceil(z + radius));
+
+        // A huge radius would visit more empty cells than there are occupied ones
+        if ((long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) > cells.size()) {
+            for (List<TownPosition> cell : cells.values()) {
+                collect(cell, x, z, radiusSquared, filter, result);
+            }
+        } else {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    List<TownPosition> cell = cells.get(cellKey(cellX, cellZ));
+                    if (cell != null) collect(cell, x, z, radiusSquared, filter, result);
+                }
+            }
+        }
+
+        result.sort(Comparator.comparingDouble(p -> p.distanceSquared(x, z)));
+        return result;
+    }
+
+    /**
+     * Checks if any town matching a filter has its centre within a radius of a point.
+     *
+     * @param world  The name of the world.
+     * @param x      The block X coordinate of the point.
+     * @param z      The block Z coordinate of the point.
+     * @param radius The radius in blocks, inclusive.
+     * @param filter Which towns to consider.
+     * @return The nearest matching town within the radius, or null if there is none.
+     */
+    public TownPosition getAnyTownWithin(String world, double x, double z, double radius, Predicate<String> filter) {
+        List<TownPosition> towns = getTownsWithin(world, x, z, radius, filter);
+        return towns.isEmpty() ? null : towns.getFirst();
+    }
+
+    /**
+     * Finds the town whose centre is nearest to a point, searching outwards one ring of cells at a time.
+     *
+     * @param world  The name of the world.
+     * @param x      The block X coordinate of the point.
+     * @param z      The block Z coordinate of the point.
+     * @param filter Which towns to consider.
+     * @return The nearest matching town, or null if the world has none.
+     */
+    public TownPosition getNearest(String world, double x, double z, Predicate<String> filter) {
+        Map<Long, List<TownPosition>> cells = worlds.get(world);
+        if (cells == null) return null;
+
+        int centerX = cell(Math.floor(x)), centerZ = cell(Math.floor(z));
+        int cellsVisited = 0;
+        TownPosition best = null;
+        double bestSquared = Double.MAX_VALUE;
+
+        for (int ring = 0; cellsVisited < cells.size(); ring++) {
+            for (int cellX = centerX - ring; cellX <= centerX + ring; cellX++) {
+                for (int cellZ = centerZ - ring; cellZ <= centerZ + ring; cellZ++) {
+                    // Only the border of the square is new in this ring
+                    if (Math.abs(cellX - centerX) != ring && Math.abs(cellZ - centerZ) != ring) continue;
+
+                    List<TownPosition> cell = cells.get(cellKey(cellX, cellZ));
+                    if (cell == null) continue;
+                    cellsVisited++;
+                    for (TownPosition position : cell) {
+                        double distanceSquared = position.distanceSquared(x, z);
+                        if (distanceSquared < bestSquared && filter.test(position.townUuid())) {
+                            best = position;
+                            bestSquared = distanceSquared;
+                        }
+                    }
+                }
+            }
+
+            // Every cell of the next ring is at least this far away
+            double nextRingDistance = (double) ring * CELL_SIZE;
+            if (best != null && bestSquared <= nextRingDistance * nextRingDistance) break;
+        }
+        return best;
+    }
+
+    private static void collect(List<TownPosition> cell, double x, double z, double radiusSquared,
+                                Predicate<String> filter, List<TownPosition> result) {
+        for (TownPosition position : cell) {
+            if (position.distanceSquared(x, z) <= radiusSquared && filter.test(position.townUuid())) {
+                result.add(position);
+            }
+        }
+    }
+
+    private static int cell(double blockCoordinate) {
+        return (int) Math.floor(blockCoordinate / CELL_SIZE);
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return (((long) cellX) << 32) | (cellZ & 0xffffffffL);
+    }
+
+    /**
+     * The indexed centre of a town.
+     *
+     * @param townUuid The UUID of the town.
+     * @param world    The name of the world the town is in.
+     * @param x        The block X coordinate of the town centre.
+     * @param z        The block Z coordinate of the town centre.
+     */
+    public record TownPosition(String townUuid, String world, int x, int z) {
+
+        /**
+         * @return The squared horizontal distance from this centre to a point.
+         */
+        public double distanceSquared(double pointX, double pointZ) {
+            double dx = x - pointX;
+            double dz = z - pointZ;
+            return dx * dx + dz * dz;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.blothera.database;
+
+import com.blothera.NationPlugin;
+import org.bukkit.Bukkit;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Asynchronous facade over the DAOs of a {@link Database}.
+ * <p>
+ * All writes are serialized through a single writer thread which owns a write connection of its own,
+ * so mutations keep the order they were queued in and never share a connection, or a transaction,
+ * with the synchronous DAOs on the server thread. SQLite serializes the two connections through its write lock.
+ * Mutations must only use the DAOs of the Database they are given and leave the in-memory caches
+ * to the server thread. Reads run on a small pool of reader threads, each with its own read-only connection.
+ * <p>
+ * Callbacks that touch the world (players, blocks, inventories, events) must be handed back
+ * to the server thread using {@link #mainThread()} or {@link #onMainThread(CompletableFuture, Consumer)}.
+ * The synchronous DAOs remain available, so handlers and listeners can be moved over one at a time.
+ */
+public class AsyncDatabase {
+
+    private static final int READER_THREADS = 2;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final NationPlugin plugin;
+    private final Database database;
+    private final Database writeView;
+    private final ExecutorService writer;
+    private final ExecutorService readers;
+    private final Executor mainThread;
+    private final List<Database> readViews = new ArrayList<>();
+    private final ThreadLocal<Database> readView;
+
+    public AsyncDatabase(NationPlugin plugin, Database database) {
+        this.plugin = plugin;
+        this.database = database;
+        this.writeView = database.openWriteView();
+        this.writer = Executors.newSingleThreadExecutor(threadFactory("Blothera-DB-Writer"));
+        this.readers = Executors.newFixedThreadPool(READER_THREADS, threadFactory("Blothera-DB-Reader"));
+        this.readView = ThreadLocal.withInitial(this::openReadView);
+        this.mainThread = task -> {
+            if (Bukkit.isPrimaryThread()) {
+                task.run();
+            } else if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, task);
+            }
+        };
+    }
+
+    /**
+     * Runs a query on a reader thread against a read-only view of the database.
+     * <p>
+     * Reads may not observe writes which are still queued on the writer thread.
+     * Chain the read onto the write's future if it must see that write.
+     *
+     * @param query The query to run, given a read-only Database.
+     * @param <T>   The result type.
+     * @return A future completed with the query result on a reader thread.
+     */
+    public <T> CompletableFuture<T> read(Function<Database, T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            Database view = readView.get();
+            // Fall back to the writer if the read connection could not be opened
+            return query.apply(view != null ? view : database);
+        }, readers);
+    }
+
+    /**
+     * Queues a mutation on the single writer thread.
+     * Mutations are applied in the order they were queued.
+     *
+     * @param mutation The mutation to apply, given the writer's Database.
+     * @param <T>      The result type.
+     * @return A future completed with the mutation's result on the writer thread.
+     */
+    public <T> CompletableFuture<T> write(Function<Database, T> mutation) {
+        if (writeView == null) {
+            // Without a write connection of its own, the mutation runs on the server thread like the synchronous DAOs
+            return CompletableFuture.supplyAsync(() -> mutation.apply(database), mainThread);
+        }
+        return CompletableFuture.supplyAsync(() -> mutation.apply(writeView), writer);
+    }
+
+    /**
+     * Queues a mutation with no result on the single writer thread.
+     *
+     * @param mutation The mutation to apply, given the writer's Database.
+     * @return A future completed once the mutation has been applied.
+     */
+    public CompletableFuture<Void> execute(Consumer<Database> mutation) {
+        return write(db -> {
+            mutation.accept(db);
+            return null;
+        });
+    }
+
+    /**
+     * @return An executor which runs tasks on the server thread.
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Hands the result of a future back to the server thread.
+     * Failures are logged instead of being passed to the callback.
+     *
+     * @param future   The future to wait for.
+     * @param callback The callback to run on the server thread with the result.
+     * @param <T>      The result type.
+     * @return A future completed once the callback has run.
+     */
+    public <T> CompletableFuture<Void> onMainThread(CompletableFuture<T> future, Consumer<T> callback) {
+        return future.whenComplete((result, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                plugin.getLogger().warning("Async database task failed: " + cause);
+            }
+        }).thenAcceptAsync(callback, mainThread);
+    }
+
+    /**
+     * Stops accepting new work, waits for queued writes to finish and closes the write and read connections.
+     * Must be called before the main connection is closed.
+     */
+    void shutdown() {
+        writer.shutdown();
+        readers.shutdown();
+        try {
+            if (!writer.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                plugin.getLogger().severe("Timed out waiting for queued database writes, some changes may be lost.");
+                writer.shutdownNow();
+            }
+            if (!readers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                readers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            readers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        if (writeView != null) close(writeView, "write");
+        synchronized (readViews) {
+            for (Database view : readViews) {
+                close(view, "read");
+            }
+            readViews.clear();
+        }
+    }
+
+    private void close(Database view, String kind) {
+        try {
+            Connection connection = view.getConnection();
+            if (connection != null && !connection.isClosed()) connection.close();
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Error closing " + kind + " connection: " + e.getMessage());
+        }
+    }
+
+    private Database openReadView() {
+        Database view = database.openReadView();
+        if (view != null) {
+            synchronized (readViews) {
+                readViews.add(view);
+            }
+        }
+        return view;
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
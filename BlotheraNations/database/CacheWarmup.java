@@ -0,0 +1,216 @@
+package com.blothera.database;
+
+import com.blothera.NationPlugin;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the in-memory caches at startup, each on its own thread and read-only connection.
+ * <p>
+ * The caches do not depend on each other while loading, so the warm-up takes as long as the
+ * slowest cache rather than the sum of all of them. Work which needs several caches at once,
+ * such as counting the lecterns inside each town's claims, is registered with
+ * {@link #onLoaded(Runnable)} and runs once every cache has loaded.
+ * <p>
+ * Every cache has a ready flag which is only set once it has loaded successfully.
+ * Listeners check it with {@link #isReady(Cache)}, so a cache which failed to load
+ * is never mistaken for an empty one.
+ */
+public class CacheWarmup {
+
+    private final NationPlugin plugin;
+    private final Connection connection;
+    private final ConnectionFactory readConnections;
+    private final Map<Cache, Loader> loaders = new EnumMap<>(Cache.class);
+    private final List<Runnable> finishers = new ArrayList<>();
+    private volatile int readyMask;
+
+    /**
+     * @param plugin          The plugin instance.
+     * @param connection      The main connection, used when a single cache is reloaded.
+     * @param readConnections Opens a new read-only connection for each cache loaded in parallel.
+     */
+    public CacheWarmup(NationPlugin plugin, Connection connection, ConnectionFactory readConnections) {
+        this.plugin = plugin;
+        this.connection = connection;
+        this.readConnections = readConnections;
+    }
+
+    /**
+     * Registers a cache to be loaded by the warm-up.
+     *
+     * @param cache  The cache.
+     * @param loader Loads the cache from a connection.
+     */
+    public void register(Cache cache, Loader loader) {
+        loaders.put(cache, loader);
+    }
+
+    /**
+     * Registers work to run on the calling thread once every cache has been loaded.
+     *
+     * @param finisher The work to run.
+     */
+    public void onLoaded(Runnable finisher) {
+        finishers.add(finisher);
+    }
+
+    /**
+     * Loads every registered cache in parallel and waits for all of them.
+     * This method should be called during plugin initialization.
+     */
+    public void run() {
+        long startNanos = System.nanoTime();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(loaders.size(), task -> {
+            Thread thread = new Thread(task, "Blothera-Warmup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Map<Cache, Future<Result>> futures = new EnumMap<>(Cache.class);
+        loaders.forEach((cache, loader) -> futures.put(cache, executor.submit(() -> loadOnOwnConnection(cache, loader))));
+
+        long totalLoadNanos = 0;
+        for (Map.Entry<Cache, Future<Result>> entry : futures.entrySet()) {
+            Result result;
+            try {
+                result = entry.getValue().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result = new Result(-1, 0);
+            } catch (ExecutionException e) {
+                plugin.getLogger().severe("Failed to warm up " + entry.getKey().getDisplayName() + ": " + e.getCause());
+                result = new Result(-1, 0);
+            }
+            totalLoadNanos += result.nanos();
+            report(entry.getKey(), result);
+        }
+        executor.shutdown();
+
+        finish();
+        plugin.getLogger().info("Warmed up " + loaders.size() + " caches in " + (System.nanoTime() - startNanos) / 1_000_000
+                + "ms (" + totalLoadNanos / 1_000_000 + "ms if loaded one after another).");
+    }
+
+    /**
+     * Loads a single cache again on the main connection, for example after it failed to load at startup.
+     *
+     * @param cache The cache to reload.
+     */
+    public void reload(Cache cache) {
+        Loader loader = loaders.get(cache);
+        if (loader == null) return;
+
+        clearReady(cache);
+        report(cache, load(loader, connection));
+        finish();
+    }
+
+    /**
+     * @param cache The cache.
+     * @return true if the cache has been loaded successfully.
+     */
+    public boolean isReady(Cache cache) {
+        return (readyMask & cache.getBit()) != 0;
+    }
+
+    private Result loadOnOwnConnection(Cache cache, Loader loader) {
+        try (Connection readConnection = readConnections.open()) {
+            return load(loader, readConnection);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Could not open warm-up connection for " + cache.getDisplayName() + ": " + e.getMessage());
+            return new Result(-1, 0);
+        }
+    }
+
+    private static Result load(Loader loader, Connection source) {
+        long startNanos = System.nanoTime();
+        int rows = loader.load(source);
+        return new Result(rows, System.nanoTime() - startNanos);
+    }
+
+    private void report(Cache cache, Result result) {
+        if (result.rows() < 0) {
+            plugin.getLogger().severe("Cache " + cache.getDisplayName() + " failed to load, dependent features stay disabled "
+                    + "or fall back to slower database queries until it is reloaded.");
+            return;
+        }
+        setReady(cache);
+        plugin.getLogger().info("Loaded " + cache.getDisplayName() + ": " + result.rows() + " rows in "
+                + result.nanos() / 1_000_000 + "ms.");
+    }
+
+    private void finish() {
+        for (Runnable finisher : finishers) {
+            finisher.run();
+        }
+    }
+
+    private synchronized void setReady(Cache cache) {
+        readyMask |= cache.getBit();
+    }
+
+    private synchronized void clearReady(Cache cache) {
+        readyMask &= ~cache.getBit();
+    }
+
+    private record Result(int rows, long nanos) {
+    }
+
+    /**
+     * The in-memory caches loaded at startup.
+     */
+    public enum Cache {
+        TOWN_METADATA("town metadata"),
+        CLAIM_PERMISSIONS("town memberships"),
+        LECTERNS("lecterns"),
+        TAX_DEADLINES("tax deadlines"),
+        CLAIMS("claims"),
+        PLAYER_NAMES("player names");
+
+        private final String displayName;
+
+        Cache(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        private int getBit() {
+            return 1 << ordinal();
+        }
+    }
+
+    /**
+     * Loads a cache from a connection.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * @param source The connection to load from.
+         * @return The number of rows loaded, or -1 if loading failed.
+         */
+        int load(Connection source);
+    }
+
+    /**
+     * Opens a new database connection.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+}
@@ -1,6 +1,7 @@
 package com.blothera.database;
 
 import com.blothera.NationPlugin;
+import com.blothera.claim.ClaimPermissionEngine;
 import com.blothera.database.DiplomacyDAOs.DiplomacyDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
 import com.blothera.database.DiplomacyDAOs.DiplomacyRequestsDAO;
@@ -11,17 +12,29 @@ import com.blothera.database.TownDAOs.*;
 import com.blothera.database.WarDAOs.WarAlliesDAO;
 import com.blothera.database.WarDAOs.WarBattleDAO;
 import com.blothera.database.WarDAOs.WarDAO;
+import com.blothera.database.journal.MutationJournal;
+import com.blothera.database.metrics.QueryMetrics;
+import com.blothera.listener.player.PlayerNameListener;
+import com.blothera.tax.TaxDeadlineQueue;
 
 import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Properties;
 
 public class Database {
 
+    private static final String JOURNAL_OPTION = "database.journal";
+    private static final String METRICS_OPTION = "database.metrics";
+
     private final NationPlugin plugin;
     private Connection connection;
+    private AsyncDatabase asyncDatabase;
+    private MutationJournal journal;
+    private QueryMetrics queryMetrics;
 
     private NationDAO nationDAO;
     private NationLecternDAO nationLecternDAO;
@@ -31,6 +44,12 @@ public class Database {
     private TownDAO townDAO;
     private TownJoinRequestDAO townJoinRequestDAO;
     private TownMemberDAO townMemberDAO;
+    private TownMetadataCache townMetadataCache;
+    private ClaimPermissionEngine claimPermissionEngine;
+    private LecternRegistry lecternRegistry;
+    private TaxDeadlineQueue taxDeadlines;
+    private PlayerNameDirectory playerNames;
+    private CacheWarmup cacheWarmup;
     private DiplomacyLecternDAO diplomacyLecternDAO;
     private DiplomacyDAO diplomacyDAO;
     private DiplomacyRequestsDAO diplomacyRequestsDAO;
@@ -46,45 +65,233 @@ public class Database {
     /**
      * Connects to the SQLite database and initializes the DAOs.
      * This method creates the database file if it doesn't exist and sets up the necessary tables.
+     *
+     * @throws IllegalStateException if the schema could not be migrated, which stops the plugin from enabling.
      */
     public void connect() {
         try {
-            File dbFile = new File(plugin.getDataFolder(), "blothera.db");
             if (!plugin.getDataFolder().exists()) plugin.getDataFolder().mkdirs();
 
-            connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
+            connection = openWriteConnection();
             try (Statement pragma = connection.createStatement()) {
-                pragma.execute("PRAGMA foreign_keys = ON;");
+                // WAL lets the async read connections run alongside the writer thread
+                pragma.execute("PRAGMA journal_mode = WAL;");
             }
             plugin.getLogger().info("Connected to SQLite database.");
 
             setupTables();
-            this.townJoinRequestDAO = new TownJoinRequestDAO(plugin, connection);
-            this.nationLecternDAO = new NationLecternDAO(plugin, connection);
-            this.nationMemberDAO = new NationMemberDAO(plugin, connection);
-            this.townLecternDAO = new TownLecternDAO(plugin, connection);
-            this.nationDAO = new NationDAO(plugin, connection);
-            this.townClaimDAO = new TownClaimDAO(plugin, connection);
-            this.townDAO = new TownDAO(plugin, connection);
-            this.townMemberDAO = new TownMemberDAO(plugin, connection);
-            this.diplomacyLecternDAO = new DiplomacyLecternDAO(plugin, connection);
-            this.diplomacyDAO = new DiplomacyDAO(plugin, connection);
-            this.diplomacyRequestsDAO = new DiplomacyRequestsDAO(plugin, connection);
-            this.warDAO = new WarDAO(plugin, connection);
-            this.warBattleDAO = new WarBattleDAO(plugin, connection);
-            this.warAlliesDAO = new WarAlliesDAO(plugin, connection);
-
+            if (!new SchemaMigrator(plugin, connection).migrate()) {
+                connection.close();
+                throw new IllegalStateException("The database schema could not be migrated, see the errors above. "
+                        + "Refusing to start on a partially migrated database.");
+            }
+            if (plugin.getConfig().getBoolean(JOURNAL_OPTION, false)) startJournal();
+            if (plugin.getConfig().getBoolean(METRICS_OPTION, true)) {
+                this.queryMetrics = new QueryMetrics(plugin);
+                queryMetrics.start();
+                this.connection = queryMetrics.wrap(connection);
+            }
+            initDAOs();
+            this.townMetadataCache = new TownMetadataCache(plugin, connection);
+            this.claimPermissionEngine = new ClaimPermissionEngine(plugin, connection);
+            this.lecternRegistry = new LecternRegistry(plugin, connection);
+            this.taxDeadlines = new TaxDeadlineQueue(plugin, connection);
+            this.playerNames = new PlayerNameDirectory(plugin, connection);
+            warmUpCaches();
+            this.asyncDatabase = new AsyncDatabase(plugin, this);
+            plugin.getServer().getPluginManager().registerEvents(new PlayerNameListener(playerNames), plugin);
 
         } catch (SQLException e) {
             plugin.getLogger().severe("Could not connect to database: " + e.getMessage());
         }
     }
 
+    /**
+     * Replays the mutation journal and wraps the main connection so every commit is journaled.
+     * The writer thread's connection is wrapped by {@link #openWriteView()} in the same way.
+     * SQLite then stops syncing on each commit and leaves checkpoints to the journal's compactor.
+     * If the journal cannot be started the database keeps running without it.
+     */
+    private void startJournal() throws SQLException {
+        MutationJournal mutationJournal = new MutationJournal(plugin, new File(plugin.getDataFolder(), "journal").toPath());
+        try {
+            mutationJournal.recover(connection);
+            mutationJournal.start(openConnection());
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not start mutation journal, continuing without it: " + e.getMessage());
+            return;
+        }
+
+        try (Statement pragma = connection.createStatement()) {
+            pragma.execute("PRAGMA synchronous = NORMAL;");
+            pragma.execute("PRAGMA wal_autocheckpoint = 0;");
+        }
+        this.journal = mutationJournal;
+        this.connection = mutationJournal.wrap(connection);
+        plugin.getLogger().info("Mutation journal enabled.");
+    }
+
+    /**
+     * Loads every in-memory cache in parallel, each from its own read-only connection.
+     * The lectern counts per town need both the lecterns and the claims, so they are rebuilt afterwards.
+     */
+    private void warmUpCaches() {
+        this.cacheWarmup = new CacheWarmup(plugin, connection, this::openReadConnection);
+        cacheWarmup.register(CacheWarmup.Cache.TOWN_METADATA, townMetadataCache::load);
+        cacheWarmup.register(CacheWarmup.Cache.CLAIM_PERMISSIONS, claimPermissionEngine::load);
+        cacheWarmup.register(CacheWarmup.Cache.LECTERNS, lecternRegistry::load);
+        cacheWarmup.register(CacheWarmup.Cache.TAX_DEADLINES, taxDeadlines::load);
+        cacheWarmup.register(CacheWarmup.Cache.CLAIMS, townClaimDAO::cacheClaims);
+        cacheWarmup.register(CacheWarmup.Cache.PLAYER_NAMES, playerNames::load);
+        cacheWarmup.onLoaded(() -> lecternRegistry.rebuildTownIndex(townClaimDAO));
+        cacheWarmup.run();
+    }
+
+    /**
+     * Opens a read-only connection on the database file.
+     *
+     * @return The new connection.
+     * @throws SQLException if the connection cannot be opened.
+     */
+    private Connection openReadConnection() throws SQLException {
+        Connection readConnection = openConnection();
+        try (Statement pragma = readConnection.createStatement()) {
+            pragma.execute("PRAGMA query_only = ON;");
+        }
+        return readConnection;
+    }
+
+    /**
+     * Opens a connection which writes to the database, used by the server thread and the writer thread.
+     * <p>
+     * Transactions begin IMMEDIATE, so a transaction takes the write lock before its first read. Two write
+     * connections then wait on each other through the busy timeout, instead of one of them failing when
+     * it reads first and tries to write after the other has committed.
+     *
+     * @return The new connection.
+     * @throws SQLException if the connection cannot be opened.
+     */
+    private Connection openWriteConnection() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("transaction_mode", "IMMEDIATE");
+        Connection writeConnection = openConnection(properties);
+        try (Statement pragma = writeConnection.createStatement()) {
+            pragma.execute("PRAGMA foreign_keys = ON;");
+        }
+        return writeConnection;
+    }
+
+    /**
+     * Opens an additional connection on the database file.
+     *
+     * @return The new connection.
+     * @throws SQLException if the connection cannot be opened.
+     */
+    private Connection openConnection() throws SQLException {
+        return openConnection(new Properties());
+    }
+
+    private Connection openConnection(Properties properties) throws SQLException {
+        File dbFile = new File(plugin.getDataFolder(), "blothera.db");
+        Connection extraConnection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath(), properties);
+        try (Statement pragma = extraConnection.createStatement()) {
+            pragma.execute("PRAGMA busy_timeout = 5000;");
+        }
+        return extraConnection;
+    }
+
+    /**
+     * Opens a second, read-only handle on the same database file with its own set of DAOs.
+     * Used by {@link AsyncDatabase} so that off-thread reads never share the writer's connection.
+     * <p>
+     * In-memory caches (such as the claim cache) are not loaded on a read view,
+     * those should still be queried through the main {@link Database}.
+     *
+     * @return A new read-only Database, or null if the connection could not be opened.
+     */
+    Database openReadView() {
+        Database view = new Database(plugin);
+        try {
+            view.connection = openReadConnection();
+            if (queryMetrics != null) view.connection = queryMetrics.wrap(view.connection);
+            view.initDAOs();
+            return view;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Could not open read connection: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Opens a second handle on the database file with its own set of DAOs, which the writer thread
+     * of the {@link AsyncDatabase} owns. The server thread keeps the main connection, so transactions
+     * on the two threads never share a connection, and SQLite serializes them through its write lock.
+     * <p>
+     * Like the main connection it is journaled and instrumented when those are enabled. In-memory caches
+     * are not loaded on a write view, mutations leave cache updates to the server thread.
+     *
+     * @return A new Database for the writer thread, or null if the connection could not be opened.
+     */
+    Database openWriteView() {
+        Database view = new Database(plugin);
+        try {
+            view.connection = openWriteConnection();
+            if (journal != null) {
+                try (Statement pragma = view.connection.createStatement()) {
+                    pragma.execute("PRAGMA synchronous = NORMAL;");
+                    pragma.execute("PRAGMA wal_autocheckpoint = 0;");
+                }
+                view.connection = journal.wrap(view.connection);
+            }
+            if (queryMetrics != null) view.connection = queryMetrics.wrap(view.connection);
+            view.initDAOs();
+            return view;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Could not open write connection: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Creates the DAOs on top of this database's connection.
+     */
+    private void initDAOs() {
+        this.townJoinRequestDAO = new TownJoinRequestDAO(plugin, connection);
+        this.nationLecternDAO = new NationLecternDAO(plugin, connection);
+        this.nationMemberDAO = new NationMemberDAO(plugin, connection);
+        this.townLecternDAO = new TownLecternDAO(plugin, connection);
+        this.nationDAO = new NationDAO(plugin, connection);
+        this.townClaimDAO = new TownClaimDAO(plugin, connection);
+        this.townDAO = new TownDAO(plugin, connection);
+        this.townMemberDAO = new TownMemberDAO(plugin, connection);
+        this.diplomacyLecternDAO = new DiplomacyLecternDAO(plugin, connection);
+        this.diplomacyDAO = new DiplomacyDAO(plugin, connection);
+        this.diplomacyRequestsDAO = new DiplomacyRequestsDAO(plugin, connection);
+        this.warDAO = new WarDAO(plugin, connection);
+        this.warBattleDAO = new WarBattleDAO(plugin, connection);
+        this.warAlliesDAO = new WarAlliesDAO(plugin, connection);
+    }
+
     /**
      * Sets up the necessary tables in the SQLite database.
      * This method is called during the initial connection to ensure all required tables are created.
      */
     private void setupTables() {
+        try {
+            createTables(connection);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Could not create tables: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates every table which does not exist yet on a connection.
+     * The benchmarks use this to build a synthetic database with the real schema.
+     *
+     * @param connection The connection to create the tables on.
+     * @throws SQLException if a table cannot be created.
+     */
+    public static void createTables(Connection connection) throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             setupDiplomacyLecternTable(stmt);
             setupNationLecternTable(stmt);
@@ -100,8 +307,6 @@ public class Database {
             setupWarTable(stmt);
             setupWarBattlesTable(stmt);
             setupWarAlliesTable(stmt);
-        } catch (SQLException e) {
-            plugin.getLogger().severe("Could not create tables: " + e.getMessage());
         }
     }
 
@@ -303,10 +508,59 @@ public class Database {
         return connection;
     }
 
+    /**
+     * @return The asynchronous facade over this database's DAOs.
+     */
+    public AsyncDatabase getAsync() {
+        return asyncDatabase;
+    }
+
     public NationDAO getNationDAO() {
         return nationDAO;
     }
 
+    public LecternRegistry getLecternRegistry() {
+        return lecternRegistry;
+    }
+
+    /**
+     * Checks if an in-memory cache has been loaded successfully.
+     *
+     * @param cache The cache.
+     * @return true if the cache is ready to be used.
+     */
+    public boolean isCacheReady(CacheWarmup.Cache cache) {
+        return cacheWarmup != null && cacheWarmup.isReady(cache);
+    }
+
+    /**
+     * @return The warm-up which loaded the in-memory caches, used to reload a single cache.
+     */
+    public CacheWarmup getCacheWarmup() {
+        return cacheWarmup;
+    }
+
+    /**
+     * @return The per-statement SQL metrics, or null if they are turned off in the config.
+     */
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    /**
+     * @return The queue of upcoming tax deadlines of every town.
+     */
+    public TaxDeadlineQueue getTaxDeadlines() {
+        return taxDeadlines;
+    }
+
+    /**
+     * @return The last known name of every player who joined the server.
+     */
+    public PlayerNameDirectory getPlayerNameDirectory() {
+        return playerNames;
+    }
+
     public NationLecternDAO getNationLecternDAO() {
         return nationLecternDAO;
     }
@@ -327,6 +581,14 @@ public class Database {
         return townDAO;
     }
 
+    public TownMetadataCache getTownMetadataCache() {
+        return townMetadataCache;
+    }
+
+    public ClaimPermissionEngine getClaimPermissionEngine() {
+        return claimPermissionEngine;
+    }
+
     public TownJoinRequestDAO getJoinRequestDAO() {
         return townJoinRequestDAO;
     }
@@ -360,6 +622,15 @@ public class Database {
     }
 
     public void disconnect() {
+        if (asyncDatabase != null) {
+            asyncDatabase.shutdown();
+        }
+        if (townClaimDAO != null) {
+            townClaimDAO.saveClaimIndex();
+        }
+        if (journal != null) {
+            journal.close();
+        }
         try {
             if (connection != null && !connection.isClosed()) {
                 connection.close();
@@ -149,6 +149,36 @@ public class DiplomacyDAO {
     public void createRelation(String nationA, String nationB, String relationType) {
         plugin.getDatabase().getDiplomacyRequestsDAO().deletePendingRequest(nationA, nationB, relationType);
         plugin.getDatabase().getDiplomacyRequestsDAO().deletePendingRequest(nationB, nationA, relationType);
+        try {
+            insertRelation(nationA, nationB, relationType);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to create diplomatic relation: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a diplomatic relation between two nations as part of the caller's transaction.
+     * Like {@link #createRelation}, pending requests for the relation type in either direction are deleted first,
+     * but every statement runs on this DAO's connection and failures are thrown instead of logged.
+     *
+     * @param nationA      The UUID of the first nation.
+     * @param nationB      The UUID of the second nation.
+     * @param relationType The type of relation to create (e.g., "alliance", "war").
+     * @throws SQLException if the relation could not be created.
+     */
+    public void insertRelation(String nationA, String nationB, String relationType) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "DELETE FROM diplomacy_requests WHERE relation_type = ? AND (" +
+                        "(from_nation_uuid = ? AND to_nation_uuid = ?) OR " +
+                        "(from_nation_uuid = ? AND to_nation_uuid = ?))"
+        )) {
+            stmt.setString(1, relationType);
+            stmt.setString(2, nationA);
+            stmt.setString(3, nationB);
+            stmt.setString(4, nationB);
+            stmt.setString(5, nationA);
+            stmt.executeUpdate();
+        }
         try (PreparedStatement stmt = connection.prepareStatement(
                 "INSERT OR REPLACE INTO diplomatic_relations (nation_a, nation_b, relation_type) VALUES (?, ?, ?)"
         )) {
@@ -156,8 +186,6 @@ public class DiplomacyDAO {
             stmt.setString(2, nationB);
             stmt.setString(3, relationType);
             stmt.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to create diplomatic relation: " + e.getMessage());
         }
     }
 
@@ -1,13 +1,18 @@
 package com.blothera.database.DiplomacyDAOs;
 
 import com.blothera.NationPlugin;
+import com.blothera.database.LecternRegistry;
+import com.blothera.database.LecternType;
+import com.blothera.database.TownDAOs.TownClaimDAO;
 import org.bukkit.block.Block;
-import org.bukkit.block.Lectern;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public class DiplomacyLecternDAO {
 
@@ -19,6 +24,10 @@ public class DiplomacyLecternDAO {
         this.plugin = plugin;
     }
 
+    private LecternRegistry registry() {
+        return plugin.getDatabase().getLecternRegistry();
+    }
+
     /**
      * Saves the location of a diplomacy lectern to the database.
      * If the lectern already exists, it will not be saved again.
@@ -37,6 +46,7 @@ public class DiplomacyLecternDAO {
             stmt.setInt(3, y);
             stmt.setInt(4, z);
             stmt.executeUpdate();
+            registry().add(LecternType.DIPLOMACY, world, x, y, z);
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to save diplomacy lectern: " + e.getMessage());
         }
@@ -52,20 +62,7 @@ public class DiplomacyLecternDAO {
      * @return true if the lectern exists and is a diplomacy lectern, false otherwise.
      */
     public boolean isDiplomacyLecternXYZ(String world, int x, int y, int z) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT 1 FROM diplomacy_lecterns WHERE world = ? AND x = ? AND y = ? AND z = ?"
-        )) {
-            stmt.setString(1, world);
-            stmt.setInt(2, x);
-            stmt.setInt(3, y);
-            stmt.setInt(4, z);
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next();
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to check diplomacy lectern: " + e.getMessage());
-            return false;
-        }
+        return registry().is(LecternType.DIPLOMACY, world, x, y, z);
     }
 
     /**
@@ -75,10 +72,7 @@ public class DiplomacyLecternDAO {
      * @return true if the block is a diplomacy lectern, false otherwise.
      */
     public boolean isDiplomacyLectern(Block lectern) {
-        if (lectern == null || !(lectern.getState() instanceof Lectern)) {
-            return false;
-        }
-        return isDiplomacyLecternXYZ(lectern.getWorld().getName(), lectern.getX(), lectern.getY(), lectern.getZ());
+        return LecternType.DIPLOMACY.in(registry().getTypes(lectern));
     }
 
     /**
@@ -98,6 +92,7 @@ public class DiplomacyLecternDAO {
             stmt.setInt(3, y);
             stmt.setInt(4, z);
             stmt.executeUpdate();
+            registry().remove(LecternType.DIPLOMACY, world, x, y, z);
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to delete diplomacy lectern: " + e.getMessage());
         }
@@ -105,29 +100,13 @@ public class DiplomacyLecternDAO {
 
     /**
      * Determine if a town currently has at least one diplomacy lectern within its claimed chunks.
+     * Answered in constant time from the per-town index of the {@link LecternRegistry}.
      *
      * @param townUuid the town to check
-     * @param claimDAO DAO providing claim lookups
      * @return true if a lectern exists in any of the town's claims
      */
-    public boolean townHasLectern(String townUuid, com.blothera.database.TownDAOs.TownClaimDAO claimDAO) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT world, x, z FROM diplomacy_lecterns"
-        )) {
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    String world = rs.getString("world");
-                    int chunkX = rs.getInt("x") >> 4;
-                    int chunkZ = rs.getInt("z") >> 4;
-                    if (claimDAO.isChunkClaimedByTown(townUuid, world, chunkX, chunkZ)) {
-                        return true;
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to check diplomacy lecterns for town: " + e.getMessage());
-        }
-        return false;
+    public boolean townHasLectern(String townUuid) {
+        return registry().townHasLectern(LecternType.DIPLOMACY, townUuid);
     }
 
     /**
@@ -165,7 +144,7 @@ public class DiplomacyLecternDAO {
      */
     public boolean hasLecternInChunk(String world, int chunkX, int chunkZ) {
         try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT 1 FROM diplomacy_lecterns WHERE world = ? AND (x >> 4) = ? AND (z >> 4) = ?"
+                "SELECT 1 FROM diplomacy_lecterns WHERE world = ? AND chunk_x = ? AND chunk_z = ? LIMIT 1"
         )) {
             stmt.setString(1, world);
             stmt.setInt(2, chunkX);
@@ -179,4 +158,16 @@ public class DiplomacyLecternDAO {
             return false;
         }
     }
+
+    /**
+     * Finds which of the given chunks contain at least one diplomacy lectern.
+     * See {@link LecternRegistry#queryChunksWithLecterns}.
+     *
+     * @param world  The name of the world where the chunks are located.
+     * @param chunks The chunks to check, each as {chunkX, chunkZ}.
+     * @return The keys, as given by {@link TownClaimDAO#getChunkKey(int, int)}, of the chunks containing a lectern.
+     */
+    public Set<Long> getChunksWithLecterns(String world, Collection<int[]> chunks) {
+        return LecternRegistry.queryChunksWithLecterns(plugin, connection, LecternType.DIPLOMACY, world, chunks);
+    }
 }
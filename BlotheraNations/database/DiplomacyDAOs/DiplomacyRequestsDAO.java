@@ -24,6 +24,22 @@ public class DiplomacyRequestsDAO {
      * @param type           The type of relation requested (e.g., ALLIANCE, WAR).
      */
     public void createRequest(String fromNationUuid, String toNationUuid, String type) {
+        try {
+            insertRequest(fromNationUuid, toNationUuid, type);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to create diplomacy request: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a diplomacy request as part of the caller's transaction, throwing failures instead of logging them.
+     *
+     * @param fromNationUuid The UUID of the nation sending the request.
+     * @param toNationUuid   The UUID of the nation receiving the request.
+     * @param type           The type of relation requested (e.g., ALLIANCE, WAR).
+     * @throws SQLException if the request could not be created.
+     */
+    public void insertRequest(String fromNationUuid, String toNationUuid, String type) throws SQLException {
         try (PreparedStatement stmt = connection.prepareStatement(
                 "INSERT INTO diplomacy_requests (from_nation_uuid, to_nation_uuid, relation_type) VALUES (?, ?, ?)"
         )) {
@@ -31,8 +47,6 @@ public class DiplomacyRequestsDAO {
             stmt.setString(2, toNationUuid);
             stmt.setString(3, type);
             stmt.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to create diplomacy request: " + e.getMessage());
         }
     }
 
@@ -71,6 +85,22 @@ public class DiplomacyRequestsDAO {
      * @param nationB The UUID of the second nation.
      */
     public void deleteAllRequests(String nationA, String nationB) {
+        try {
+            deleteRequestsBetween(nationA, nationB);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to delete all diplomacy requests: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes every diplomacy request between two nations as part of the caller's transaction,
+     * throwing failures instead of logging them.
+     *
+     * @param nationA The UUID of the first nation.
+     * @param nationB The UUID of the second nation.
+     * @throws SQLException if the requests could not be deleted.
+     */
+    public void deleteRequestsBetween(String nationA, String nationB) throws SQLException {
         try (PreparedStatement stmt = connection.prepareStatement(
                 "DELETE FROM diplomacy_requests " +
                         "WHERE (from_nation_uuid = ? AND to_nation_uuid = ?) OR " +
@@ -81,8 +111,6 @@ public class DiplomacyRequestsDAO {
             stmt.setString(3, nationB);
             stmt.setString(4, nationA);
             stmt.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to delete all diplomacy requests: " + e.getMessage());
         }
     }
 
@@ -0,0 +1,326 @@
+package com.blothera.database;
+
+import com.blothera.NationPlugin;
+import com.blothera.database.TownDAOs.TownClaimDAO;
+import com.blothera.util.LongIntHashMap;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory registry of every nation, town and diplomacy lectern.
+ * <p>
+ * All three lectern tables are loaded at startup into one primitive map per world,
+ * keyed by the packed block position and holding a {@link LecternType} bit mask.
+ * The lectern DAOs write through to it in {@code saveLectern} and {@code deleteLectern},
+ * so every lectern check is a single memory lookup.
+ * <p>
+ * It also counts the lecterns of each type in every chunk and in every town.
+ * The town counts are kept up to date as lecterns are placed and broken and as the
+ * {@link TownClaimDAO} adds and removes claims, so "does this town have a lectern" is constant time.
+ */
+public class LecternRegistry {
+
+    private static final int MAX_CHUNKS_PER_QUERY = 400;
+
+    private final Connection connection;
+    private final NationPlugin plugin;
+    private final Map<String, LongIntHashMap> lecterns = new HashMap<>();
+    private final Map<String, Map<Long, int[]>> chunkCounts = new HashMap<>();
+    private final Map<String, int[]> townCounts = new HashMap<>();
+
+    public LecternRegistry(NationPlugin plugin, Connection connection) {
+        this.plugin = plugin;
+        this.connection = connection;
+    }
+
+    /**
+     * Packs block coordinates into a single long.
+     * X and Z use 26 bits each and Y uses 12 bits, which covers the whole world border and build height.
+     *
+     * @param x The x-coordinate of the block.
+     * @param y The y-coordinate of the block.
+     * @param z The z-coordinate of the block.
+     * @return A long value uniquely representing the block position.
+     */
+    public static long packPosition(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * Finds which of the given chunks contain at least one lectern of a type, straight from the database,
+     * for callers off the server thread where the registry must not be read.
+     * Each chunk is looked up through the (world, chunk_x, chunk_z) index of the type's table,
+     * with up to {@value #MAX_CHUNKS_PER_QUERY} chunks per query.
+     *
+     * @param plugin     The plugin instance, for logging.
+     * @param connection The connection to query, usually a read-only one of the caller's DAO.
+     * @param type       The lectern type to look for.
+     * @param world      The name of the world where the chunks are located.
+     * @param chunks     The chunks to check, each as {chunkX, chunkZ}.
+     * @return The keys, as given by {@link TownClaimDAO#getChunkKey(int, int)}, of the chunks containing a lectern.
+     */
+    public static Set<Long> queryChunksWithLecterns(NationPlugin plugin, Connection connection, LecternType type,
+                                                    String world, Collection<int[]> chunks) {
+        Set<Long> found = new HashSet<>();
+        List<int[]> pending = List.copyOf(chunks);
+        for (int start = 0; start < pending.size(); start += MAX_CHUNKS_PER_QUERY) {
+            List<int[]> batch = pending.subList(start, Math.min(start + MAX_CHUNKS_PER_QUERY, pending.size()));
+            String values = String.join(", ", Collections.nCopies(batch.size(), "(?, ?)"));
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "WITH wanted (cx, cz) AS (VALUES " + values + ") " +
+                            "SELECT DISTINCT l.chunk_x, l.chunk_z FROM wanted " +
+                            "JOIN " + type.getTable() + " l ON l.world = ? AND l.chunk_x = wanted.cx AND l.chunk_z = wanted.cz"
+            )) {
+                int index = 1;
+                for (int[] chunk : batch) {
+                    stmt.setInt(index++, chunk[0]);
+                    stmt.setInt(index++, chunk[1]);
+                }
+                stmt.setString(index, world);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        found.add(TownClaimDAO.getChunkKey(rs.getInt("chunk_x"), rs.getInt("chunk_z")));
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to check for " + type.getTable() + " in chunks: " + e.getMessage());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reloads every lectern from the main connection.
+     * {@link #rebuildTownIndex(TownClaimDAO)} must be called afterwards.
+     *
+     * @return The number of lecterns loaded, or -1 if loading failed.
+     */
+    public int load() {
+        return load(connection);
+    }
+
+    /**
+     * Loads every lectern from the three lectern tables into memory.
+     * This method is called by the {@link CacheWarmup} during plugin initialization.
+     * <p>
+     * The claim cache may still be loading on another thread, so the per-town counts are left empty
+     * here and filled in by {@link #rebuildTownIndex(TownClaimDAO)} once both caches are loaded.
+     *
+     * @param source The connection to load from, which may be a read-only connection of its own.
+     * @return The number of lecterns loaded, or -1 if loading failed.
+     */
+    public synchronized int load(Connection source) {
+        lecterns.clear();
+        chunkCounts.clear();
+        townCounts.clear();
+        int count = 0;
+        for (LecternType type : LecternType.values()) {
+            try (PreparedStatement stmt = source.prepareStatement("SELECT world, x, y, z FROM " + type.getTable());
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String world = rs.getString("world");
+                    int x = rs.getInt("x");
+                    int z = rs.getInt("z");
+                    LongIntHashMap worldLecterns = lecterns.computeIfAbsent(world, k -> new LongIntHashMap(0));
+                    long key = packPosition(x, rs.getInt("y"), z);
+                    int types = worldLecterns.get(key);
+                    if (type.in(types)) continue;
+
+                    worldLecterns.put(key, types | type.getBit());
+                    adjustChunkCounts(type, world, x >> 4, z >> 4, 1);
+                    count++;
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Failed to load " + type.getTable() + " into cache: " + e.getMessage());
+                return -1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the types of lectern registered at a position.
+     *
+     * @param world The name of the world.
+     * @param x     The x-coordinate of the lectern.
+     * @param y     The y-coordinate of the lectern.
+     * @param z     The z-coordinate of the lectern.
+     * @return A {@link LecternType} bit mask, 0 if no lectern is registered there.
+     */
+    public synchronized int getTypes(String world, int x, int y, int z) {
+        LongIntHashMap worldLecterns = lecterns.get(world);
+        if (worldLecterns == null) return 0;
+        return worldLecterns.get(packPosition(x, y, z));
+    }
+
+    /**
+     * Retrieves the types of lectern a block is registered as.
+     * Blocks which are no longer lecterns are never reported.
+     *
+     * @param block The block to check.
+     * @return A {@link LecternType} bit mask, 0 if the block is not a registered lectern.
+     */
+    public int getTypes(Block block) {
+        if (block == null || block.getType() != Material.LECTERN) return 0;
+        return getTypes(block.getWorld().getName(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Checks if a position holds a lectern of a specific type.
+     *
+     * @param type  The type of lectern.
+     * @param world The name of the world.
+     * @param x     The x-coordinate of the lectern.
+     * @param y     The y-coordinate of the lectern.
+     * @param z     The z-coordinate of the lectern.
+     * @return true if a lectern of that type is registered at the position.
+     */
+    public boolean is(LecternType type, String world, int x, int y, int z) {
+        return type.in(getTypes(world, x, y, z));
+    }
+
+    /**
+     * Checks if a block is a nation, town or diplomacy lectern.
+     *
+     * @param block The block to check.
+     * @return true if the block is any registered lectern.
+     */
+    public boolean isProtectedLectern(Block block) {
+        return getTypes(block) != 0;
+    }
+
+    /**
+     * Checks if a town has at least one lectern of a type within its claimed chunks.
+     *
+     * @param type     The type of lectern.
+     * @param townUuid The UUID of the town.
+     * @return true if a lectern of that type exists in any of the town's claims.
+     */
+    public synchronized boolean townHasLectern(LecternType type, String townUuid) {
+        int[] counts = townCounts.get(townUuid);
+        return counts != null && counts[type.ordinal()] > 0;
+    }
+
+    /**
+     * Registers a lectern. Called by the lectern DAOs once the row has been saved.
+     */
+    public synchronized void add(LecternType type, String world, int x, int y, int z) {
+        LongIntHashMap worldLecterns = lecterns.computeIfAbsent(world, k -> new LongIntHashMap(0));
+        long key = packPosition(x, y, z);
+        int types = worldLecterns.get(key);
+        if (type.in(types)) return;
+
+        worldLecterns.put(key, types | type.getBit());
+        adjustCounts(type, world, x >> 4, z >> 4, 1);
+    }
+
+    /**
+     * Unregisters a lectern. Called by the lectern DAOs once the row has been deleted.
+     */
+    public synchronized void remove(LecternType type, String world, int x, int y, int z) {
+        LongIntHashMap worldLecterns = lecterns.get(world);
+        if (worldLecterns == null) return;
+        long key = packPosition(x, y, z);
+        int types = worldLecterns.get(key);
+        if (!type.in(types)) return;
+
+        int remaining = types & ~type.getBit();
+        if (remaining == 0) {
+            worldLecterns.remove(key);
+        } else {
+            worldLecterns.put(key, remaining);
+        }
+        adjustCounts(type, world, x >> 4, z >> 4, -1);
+    }
+
+    /**
+     * Adds the lecterns of a newly claimed chunk to its town's counts.
+     * Called by the {@link TownClaimDAO} once the claim has been saved.
+     */
+    public synchronized void onChunkClaimed(String townUuid, String world, int chunkX, int chunkZ) {
+        int[] chunk = getChunkCounts(world, chunkX, chunkZ);
+        if (chunk == null) return;
+        int[] town = townCounts.computeIfAbsent(townUuid, k -> new int[LecternType.values().length]);
+        for (int i = 0; i < town.length; i++) {
+            town[i] += chunk[i];
+        }
+    }
+
+    /**
+     * Forgets the lectern counts of a town, used when all of its claims are removed.
+     * Called by the {@link TownClaimDAO}.
+     */
+    public synchronized void onTownUnclaimed(String townUuid) {
+        townCounts.remove(townUuid);
+    }
+
+    /**
+     * Recomputes the lectern counts of every town from the claim cache.
+     * Must be called once the claims have been loaded.
+     *
+     * @param claimDAO DAO providing claim lookups
+     */
+    public synchronized void rebuildTownIndex(TownClaimDAO claimDAO) {
+        townCounts.clear();
+        for (Map.Entry<String, Map<Long, int[]>> worldEntry : chunkCounts.entrySet()) {
+            String world = worldEntry.getKey();
+            for (Map.Entry<Long, int[]> chunkEntry : worldEntry.getValue().entrySet()) {
+                long chunkKey = chunkEntry.getKey();
+                String townUuid = claimDAO.getTownIdAt(world, (int) (chunkKey >> 32), (int) chunkKey);
+                if (townUuid == null) continue;
+
+                int[] town = townCounts.computeIfAbsent(townUuid, k -> new int[LecternType.values().length]);
+                int[] chunk = chunkEntry.getValue();
+                for (int i = 0; i < town.length; i++) {
+                    town[i] += chunk[i];
+                }
+            }
+        }
+    }
+
+    private int[] getChunkCounts(String world, int chunkX, int chunkZ) {
+        Map<Long, int[]> worldCounts = chunkCounts.get(world);
+        if (worldCounts == null) return null;
+        return worldCounts.get(TownClaimDAO.getChunkKey(chunkX, chunkZ));
+    }
+
+    private void adjustCounts(LecternType type, String world, int chunkX, int chunkZ, int delta) {
+        adjustChunkCounts(type, world, chunkX, chunkZ, delta);
+
+        TownClaimDAO claimDAO = plugin.getDatabase().getTownClaimDAO();
+        String townUuid = claimDAO == null ? null : claimDAO.getTownIdAt(world, chunkX, chunkZ);
+        if (townUuid == null) return;
+        int[] town = townCounts.computeIfAbsent(townUuid, k -> new int[LecternType.values().length]);
+        town[type.ordinal()] += delta;
+    }
+
+    private void adjustChunkCounts(LecternType type, String world, int chunkX, int chunkZ, int delta) {
+        long chunkKey = TownClaimDAO.getChunkKey(chunkX, chunkZ);
+        Map<Long, int[]> worldCounts = chunkCounts.computeIfAbsent(world, k -> new HashMap<>());
+        int[] chunk = worldCounts.computeIfAbsent(chunkKey, k -> new int[LecternType.values().length]);
+        chunk[type.ordinal()] += delta;
+        if (isEmpty(chunk)) {
+            worldCounts.remove(chunkKey);
+        }
+    }
+
+    private static boolean isEmpty(int[] counts) {
+        for (int count : counts) {
+            if (count != 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,43 @@
+package com.blothera.database;
+
+/**
+ * The kinds of lecterns which carry nation, town or diplomacy books.
+ * Each type has its own table and its own bit in the {@link LecternRegistry}.
+ */
+public enum LecternType {
+    TOWN("town_lecterns"),
+    NATION("nation_lecterns"),
+    DIPLOMACY("diplomacy_lecterns");
+
+    private final String table;
+    private final int bit;
+
+    LecternType(String table) {
+        this.table = table;
+        this.bit = 1 << ordinal();
+    }
+
+    /**
+     * @return The name of the table this lectern type is stored in.
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * @return The bit representing this type in a lectern type mask.
+     */
+    public int getBit() {
+        return bit;
+    }
+
+    /**
+     * Checks if this type is part of a lectern type mask.
+     *
+     * @param mask The mask returned by {@link LecternRegistry#getTypes}.
+     * @return true if the mask contains this type.
+     */
+    public boolean in(int mask) {
+        return (mask & bit) != 0;
+    }
+}
@@ -0,0 +1,43 @@
+package com.blothera.database;
+
+import com.blothera.NationPlugin;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * A single, numbered change to the database schema.
+ * <p>
+ * Migrations are applied once, in ascending version order, by the {@link SchemaMigrator}.
+ * A migration must never be edited once released; later changes need a new version.
+ *
+ * @param version     The schema version this migration upgrades to. Must be unique and greater than zero.
+ * @param description A short description, stored alongside the version.
+ * @param preparation Work which cannot be expressed as plain SQL, run before the statements, or null.
+ * @param statements  The SQL statements to execute, in order, within a single transaction.
+ */
+public record Migration(int version, String description, Preparation preparation, List<String> statements) {
+
+    public Migration(int version, String description, String... statements) {
+        this(version, description, null, List.of(statements));
+    }
+
+    public Migration(int version, String description, Preparation preparation, String... statements) {
+        this(version, description, preparation, List.of(statements));
+    }
+
+    /**
+     * Prepares the data for a migration, in the same transaction as its statements.
+     */
+    @FunctionalInterface
+    public interface Preparation {
+
+        /**
+         * @param plugin     The plugin instance, for logging what was changed.
+         * @param connection The connection with the migration's transaction open.
+         * @throws SQLException if the data cannot be prepared, which fails the migration.
+         */
+        void run(NationPlugin plugin, Connection connection) throws SQLException;
+    }
+}
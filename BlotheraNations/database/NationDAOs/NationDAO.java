@@ -142,6 +142,7 @@ public class NationDAO {
             stmt.setString(1, newName);
             stmt.setString(2, nationUuid);
             stmt.executeUpdate();
+            plugin.getDatabase().getTownMetadataCache().setNationName(nationUuid, newName);
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to rename nation: " + e.getMessage());
         }
@@ -155,7 +156,7 @@ public class NationDAO {
      */
     public String getCanonicalName(String nationName) {
         try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT name FROM nations WHERE LOWER(name) = LOWER(?)"
+                "SELECT name FROM nations WHERE name = ? COLLATE NOCASE"
         )) {
             stmt.setString(1, nationName);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -203,6 +204,7 @@ public class NationDAO {
             }
 
             connection.commit();
+            plugin.getDatabase().getTownMetadataCache().removeNation(nationUuid);
             return true;
 
         } catch (SQLException e) {
@@ -231,7 +233,7 @@ public class NationDAO {
      */
     public boolean nationExists(String nationName) {
         try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT 1 FROM nations WHERE LOWER(name) = LOWER(?)"
+                "SELECT 1 FROM nations WHERE name = ? COLLATE NOCASE"
         )) {
             stmt.setString(1, nationName);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -273,7 +275,7 @@ public class NationDAO {
      */
     public String getNationUUIDByName(String nationName) {
         try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT uuid FROM nations WHERE LOWER(name) = LOWER(?)"
+                "SELECT uuid FROM nations WHERE name = ? COLLATE NOCASE"
         )) {
             stmt.setString(1, nationName);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -317,7 +319,7 @@ public class NationDAO {
      */
     public boolean nationNameExists(String name) {
         try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT 1 FROM nations WHERE LOWER(name) = LOWER(?)"
+                "SELECT 1 FROM nations WHERE name = ? COLLATE NOCASE"
         )) {
             stmt.setString(1, name.toLowerCase());
             try (ResultSet rs = stmt.executeQuery()) {
@@ -382,6 +384,7 @@ public class NationDAO {
             stmt.setString(3, leaderUuid);
             stmt.setInt(4, crownUsed);
             stmt.executeUpdate();
+            plugin.getDatabase().getTownMetadataCache().setNationName(nationUuid, name);
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to create nation: " + e.getMessage());
         }
@@ -1,13 +1,18 @@
 package com.blothera.database.NationDAOs;
 
 import com.blothera.NationPlugin;
+import com.blothera.database.LecternRegistry;
+import com.blothera.database.LecternType;
+import com.blothera.database.TownDAOs.TownClaimDAO;
 import org.bukkit.block.Block;
-import org.bukkit.block.Lectern;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public class NationLecternDAO {
 
@@ -19,6 +24,10 @@ public class NationLecternDAO {
         this.plugin = plugin;
     }
 
+    private LecternRegistry registry() {
+        return plugin.getDatabase().getLecternRegistry();
+    }
+
     /**
      * Saves a lectern's location to the database.
      * If the lectern already exists, it will not be saved again.
@@ -37,6 +46,7 @@ public class NationLecternDAO {
             stmt.setInt(3, y);
             stmt.setInt(4, z);
             stmt.executeUpdate();
+            registry().add(LecternType.NATION, world, x, y, z);
         } catch (SQLException e) {
             plugin.getLogger().info("Failed to save nation lectern: " + e.getMessage());
         }
@@ -52,22 +62,7 @@ public class NationLecternDAO {
      * @return true if the lectern is a nation lectern, false otherwise.
      */
     public boolean isNationLecternXYZ(String world, int x, int y, int z) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT 1 FROM nation_lecterns WHERE world = ? AND x = ? AND y = ? AND z = ?"
-        )) {
-            stmt.setString(1, world);
-            stmt.setInt(2, x);
-            stmt.setInt(3, y);
-            stmt.setInt(4, z);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next();
-            }
-
-        } catch (SQLException e) {
-            plugin.getLogger().info("Failed to check if lectern is a nation lectern: " + e.getMessage());
-            return false;
-        }
+        return registry().is(LecternType.NATION, world, x, y, z);
     }
 
     /**
@@ -77,10 +72,7 @@ public class NationLecternDAO {
      * @return true if the block is a nation lectern, false otherwise.
      */
     public boolean isNationLectern(Block lectern) {
-        if (lectern == null || !(lectern.getState() instanceof Lectern)) {
-            return false;
-        }
-        return isNationLecternXYZ(lectern.getWorld().getName(), lectern.getX(), lectern.getY(), lectern.getZ());
+        return LecternType.NATION.in(registry().getTypes(lectern));
     }
 
     /**
@@ -100,6 +92,7 @@ public class NationLecternDAO {
             stmt.setInt(3, y);
             stmt.setInt(4, z);
             stmt.executeUpdate();
+            registry().remove(LecternType.NATION, world, x, y, z);
         } catch (SQLException e) {
             plugin.getLogger().info("Failed to delete nation lectern: " + e.getMessage());
         }
@@ -115,7 +108,7 @@ public class NationLecternDAO {
      */
     public boolean hasLecternInChunk(String world, int chunkX, int chunkZ) {
         try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT 1 FROM nation_lecterns WHERE world = ? AND (x >> 4) = ? AND (z >> 4) = ?"
+                "SELECT 1 FROM nation_lecterns WHERE world = ? AND chunk_x = ? AND chunk_z = ? LIMIT 1"
         )) {
             stmt.setString(1, world);
             stmt.setInt(2, chunkX);
@@ -132,29 +125,13 @@ public class NationLecternDAO {
 
     /**
      * Determine if a town currently has at least one nation lectern within its claimed chunks.
+     * Answered in constant time from the per-town index of the {@link LecternRegistry}.
      *
      * @param townUuid the town to check
-     * @param claimDAO DAO providing claim lookups
      * @return true if a lectern exists in any of the town's claims
      */
-    public boolean townHasLectern(String townUuid, com.blothera.database.TownDAOs.TownClaimDAO claimDAO) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT world, x, z FROM nation_lecterns"
-        )) {
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    String world = rs.getString("world");
-                    int chunkX = rs.getInt("x") >> 4;
-                    int chunkZ = rs.getInt("z") >> 4;
-                    if (claimDAO.isChunkClaimedByTown(townUuid, world, chunkX, chunkZ)) {
-                        return true;
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().info("Failed to check nation lecterns for town: " + e.getMessage());
-        }
-        return false;
+    public boolean townHasLectern(String townUuid) {
+        return registry().townHasLectern(LecternType.NATION, townUuid);
     }
 
     /**
@@ -182,6 +159,15 @@ public class NationLecternDAO {
     public record LecternRecord(String world, int x, int y, int z) {
     }
 
+    /**
+     * Finds which of the given chunks contain at least one nation lectern.
+     * See {@link LecternRegistry#queryChunksWithLecterns}.
+     *
+     * @param world  The name of the world where the chunks are located.
+     * @param chunks The chunks to check, each as {chunkX, chunkZ}.
+     * @return The keys, as given by {@link TownClaimDAO#getChunkKey(int, int)}, of the chunks containing a lectern.
+     */
+    public Set<Long> getChunksWithLecterns(String world, Collection<int[]> chunks) {
+        return LecternRegistry.queryChunksWithLecterns(plugin, connection, LecternType.NATION, world, chunks);
+    }
 }
-
-
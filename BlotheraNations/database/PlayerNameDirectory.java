@@ -0,0 +1,254 @@
+package com.blothera.database;
+
+import com.blothera.NationPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The names of every player who joined the server, stored in the {@code player_names} table
+ * so that books and broadcasts never have to ask the server for an offline player's name.
+ * <p>
+ * Names are recorded when a player joins, which also picks up name changes. The most recently
+ * used {@value #MAX_ENTRIES} names are kept in memory, and {@link #resolveNames(Collection)} looks up
+ * every name of a member list with a single query. Players who are not in the table yet, such as
+ * members who have not joined since the table was added, fall back to the server's own player cache
+ * once, after which their name is stored.
+ * <p>
+ * The methods without a connection query the main connection and must only be called on the server thread.
+ * Code running on the reader threads of the {@link AsyncDatabase} passes the connection of its own view
+ * instead, and shares the names in memory with every other caller.
+ */
+public class PlayerNameDirectory {
+
+    private static final int MAX_ENTRIES = 4096;
+    private static final int MAX_UUIDS_PER_QUERY = 500;
+
+    private final NationPlugin plugin;
+    private final Connection connection;
+    private final Map<String, String> names = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public PlayerNameDirectory(NationPlugin plugin, Connection connection) {
+        this.plugin = plugin;
+        this.connection = connection;
+    }
+
+    /**
+     * Loads the names of every town member into memory, up to the size of the directory.
+     * This method is called by the {@link CacheWarmup} during plugin initialization.
+     *
+     * @param source The connection to load from, which may be a read-only connection of its own.
+     * @return The number of names loaded, or -1 if loading failed.
+     */
+    public int load(Connection source) {
+        Map<String, String> loaded = new HashMap<>();
+        try (PreparedStatement stmt = source.prepareStatement(
+                "SELECT p.uuid, p.name FROM player_names p JOIN town_members m ON m.player_uuid = p.uuid LIMIT ?")) {
+            stmt.setInt(1, MAX_ENTRIES);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    loaded.put(rs.getString("uuid"), rs.getString("name"));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load player names into cache: " + e.getMessage());
+            return -1;
+        }
+
+        synchronized (names) {
+            names.putAll(loaded);
+        }
+        return loaded.size();
+    }
+
+    /**
+     * Records the current name of a player, called when the player joins.
+     * The table is only written to if the name is new or has changed.
+     *
+     * @param playerUuid The UUID of the player.
+     * @param name       The player's current name.
+     */
+    public void record(String playerUuid, String name) {
+        String previous;
+        synchronized (names) {
+            previous = names.put(playerUuid, name);
+        }
+        if (!name.equals(previous)) {
+            plugin.getDatabase().getAsync().execute(db -> store(db.getConnection(), playerUuid, name));
+        }
+    }
+
+    /**
+     * Looks up the name of a player.
+     *
+     * @param playerUuid The UUID of the player.
+     * @return The player's last known name, or null if the player never joined the server.
+     */
+    public String getName(String playerUuid) {
+        return getName(connection, playerUuid);
+    }
+
+    /**
+     * Looks up the name of a player through the given connection.
+     *
+     * @param source     The connection of the calling thread.
+     * @param playerUuid The UUID of the player.
+     * @return The player's last known name, or null if the player never joined the server.
+     */
+    public String getName(Connection source, String playerUuid) {
+        if (playerUuid == null) return null;
+        return resolveNames(source, List.of(playerUuid)).get(playerUuid);
+    }
+
+    /**
+     * Looks up the names of several players at once. Names missing from memory are read
+     * with up to {@value #MAX_UUIDS_PER_QUERY} players per query.
+     *
+     * @param playerUuids The UUIDs of the players.
+     * @return The last known name of each player, players who never joined the server are left out.
+     */
+    public Map<String, String> resolveNames(Collection<String> playerUuids) {
+        return resolveNames(connection, playerUuids);
+    }
+
+    /**
+     * Looks up the names of several players at once through the given connection.
+     *
+     * @param source      The connection of the calling thread.
+     * @param playerUuids The UUIDs of the players.
+     * @return The last known name of each player, players who never joined the server are left out.
+     */
+    public Map<String, String> resolveNames(Connection source, Collection<String> playerUuids) {
+        Map<String, String> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        synchronized (names) {
+            for (String uuid : playerUuids) {
+                String name = names.get(uuid);
+                if (name != null) {
+                    resolved.put(uuid, name);
+                } else if (!resolved.containsKey(uuid) && !missing.contains(uuid)) {
+                    missing.add(uuid);
+                }
+            }
+        }
+        if (missing.isEmpty()) return resolved;
+
+        Map<String, String> loaded = query(source, missing);
+        for (String uuid : missing) {
+            if (loaded.containsKey(uuid)) continue;
+            String name = lookUpOnServer(uuid);
+            if (name != null) {
+                loaded.put(uuid, name);
+                plugin.getDatabase().getAsync().execute(db -> store(db.getConnection(), uuid, name));
+            }
+        }
+
+        synchronized (names) {
+            names.putAll(loaded);
+        }
+        resolved.putAll(loaded);
+        return resolved;
+    }
+
+    /**
+     * Looks up a player by name, for books which name a player.
+     *
+     * @param name The name of the player, in any case.
+     * @return The UUID of the player who last used the name, or null if no such player joined the server.
+     */
+    public String getUuid(String name) {
+        return getUuid(connection, name);
+    }
+
+    /**
+     * Looks up a player by name through the given connection.
+     *
+     * @param source The connection of the calling thread.
+     * @param name   The name of the player, in any case.
+     * @return The UUID of the player who last used the name, or null if no such player joined the server.
+     */
+    public String getUuid(Connection source, String name) {
+        if (name == null || name.isBlank()) return null;
+        try (PreparedStatement stmt = source.prepareStatement(
+                "SELECT uuid FROM player_names WHERE name = ? COLLATE NOCASE ORDER BY updated_at DESC LIMIT 1")) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) return rs.getString("uuid");
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to look up player by name: " + e.getMessage());
+        }
+
+        OfflinePlayer cached = Bukkit.getOfflinePlayerIfCached(name);
+        return cached != null ? cached.getUniqueId().toString() : null;
+    }
+
+    /**
+     * Writes a name to the table, only touching the row if the name changed.
+     * Runs on the writer thread of the {@link AsyncDatabase}, against its own connection.
+     *
+     * @param target     The connection of the writer thread.
+     * @param playerUuid The UUID of the player.
+     * @param name       The player's name.
+     */
+    private void store(Connection target, String playerUuid, String name) {
+        try (PreparedStatement stmt = target.prepareStatement(
+                "INSERT INTO player_names (uuid, name) VALUES (?, ?) " +
+                        "ON CONFLICT(uuid) DO UPDATE SET name = excluded.name, updated_at = CURRENT_TIMESTAMP " +
+                        "WHERE name <> excluded.name")) {
+            stmt.setString(1, playerUuid);
+            stmt.setString(2, name);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to store player name: " + e.getMessage());
+        }
+    }
+
+    private Map<String, String> query(Connection source, List<String> playerUuids) {
+        Map<String, String> found = new HashMap<>();
+        for (int start = 0; start < playerUuids.size(); start += MAX_UUIDS_PER_QUERY) {
+            List<String> batch = playerUuids.subList(start, Math.min(start + MAX_UUIDS_PER_QUERY, playerUuids.size()));
+            String params = String.join(", ", Collections.nCopies(batch.size(), "?"));
+            try (PreparedStatement stmt = source.prepareStatement(
+                    "SELECT uuid, name FROM player_names WHERE uuid IN (" + params + ")")) {
+                int index = 1;
+                for (String uuid : batch) {
+                    stmt.setString(index++, uuid);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        found.put(rs.getString("uuid"), rs.getString("name"));
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to look up player names: " + e.getMessage());
+            }
+        }
+        return found;
+    }
+
+    private static String lookUpOnServer(String playerUuid) {
+        try {
+            return Bukkit.getOfflinePlayer(UUID.fromString(playerUuid)).getName();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.blothera.database;
+
+import com.blothera.NationPlugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Brings the database schema up to date at startup.
+ * <p>
+ * The tables themselves are still created by {@link Database}. Everything which changes them
+ * afterwards (indexes, new columns) is a {@link Migration}. The highest applied version is
+ * recorded in the {@code schema_version} table, and each pending migration runs in its own
+ * transaction together with its version row, so a failed migration leaves no trace.
+ * Migrations after a failed one are not attempted, and the plugin refuses to start on the
+ * partially migrated database.
+ */
+public class SchemaMigrator {
+
+    /**
+     * Every migration, in the order they must be applied.
+     * Append new migrations to the end of this list.
+     */
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Add indexes for foreign key lookups",
+                    "CREATE INDEX IF NOT EXISTS idx_towns_nation ON towns (nation_uuid)",
+                    "CREATE INDEX IF NOT EXISTS idx_towns_leader ON towns (leader_uuid)",
+                    "CREATE INDEX IF NOT EXISTS idx_town_members_town ON town_members (town_uuid)",
+                    "CREATE INDEX IF NOT EXISTS idx_war_battles_war ON war_battles (war_id, is_completed)",
+                    "CREATE INDEX IF NOT EXISTS idx_diplomacy_requests_to ON diplomacy_requests (to_nation_uuid)",
+                    "CREATE INDEX IF NOT EXISTS idx_war_allies_ally ON war_allies (ally_nation_uuid)",
+                    // (nation_a, nation_b) is already covered by the table's UNIQUE constraint
+                    "CREATE INDEX IF NOT EXISTS idx_diplomatic_relations_b ON diplomatic_relations (nation_b, nation_a)"
+            ),
+            // Older versions compared names case-sensitively, so duplicates which differ only in case may exist
+            new Migration(2, "Add case-insensitive unique indexes on town and nation names",
+                    SchemaMigrator::renameDuplicateNames,
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_towns_name ON towns (name COLLATE NOCASE)",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_nations_name ON nations (name COLLATE NOCASE)"
+            ),
+            // SQLite can only add VIRTUAL generated columns to an existing table, the index stores their values
+            new Migration(3, "Add indexed chunk columns to lectern tables",
+                    "ALTER TABLE town_lecterns ADD COLUMN chunk_x INTEGER GENERATED ALWAYS AS (x >> 4) VIRTUAL",
+                    "ALTER TABLE town_lecterns ADD COLUMN chunk_z INTEGER GENERATED ALWAYS AS (z >> 4) VIRTUAL",
+                    "CREATE INDEX IF NOT EXISTS idx_town_lecterns_chunk ON town_lecterns (world, chunk_x, chunk_z)",
+                    "ALTER TABLE nation_lecterns ADD COLUMN chunk_x INTEGER GENERATED ALWAYS AS (x >> 4) VIRTUAL",
+                    "ALTER TABLE nation_lecterns ADD COLUMN chunk_z INTEGER GENERATED ALWAYS AS (z >> 4) VIRTUAL",
+                    "CREATE INDEX IF NOT EXISTS idx_nation_lecterns_chunk ON nation_lecterns (world, chunk_x, chunk_z)",
+                    "ALTER TABLE diplomacy_lecterns ADD COLUMN chunk_x INTEGER GENERATED ALWAYS AS (x >> 4) VIRTUAL",
+                    "ALTER TABLE diplomacy_lecterns ADD COLUMN chunk_z INTEGER GENERATED ALWAYS AS (z >> 4) VIRTUAL",
+                    "CREATE INDEX IF NOT EXISTS idx_diplomacy_lecterns_chunk ON diplomacy_lecterns (world, chunk_x, chunk_z)"
+            ),
+            new Migration(4, "Add indexes for the tax sweep",
+                    "CREATE INDEX IF NOT EXISTS idx_town_claims_town ON town_claims (town_uuid)",
+                    "CREATE INDEX IF NOT EXISTS idx_towns_tax_paid_until ON towns (tax_paid_until)"
+            ),
+            new Migration(5, "Add indexed epoch day of tax_paid_until",
+                    "ALTER TABLE towns ADD COLUMN tax_paid_until_day INTEGER " +
+                            "GENERATED ALWAYS AS (CAST(julianday(tax_paid_until) - 2440587.5 AS INTEGER)) VIRTUAL",
+                    "CREATE INDEX IF NOT EXISTS idx_towns_tax_paid_until_day ON towns (tax_paid_until_day)"
+            ),
+            // Any change to town_claims, including cascaded deletes, invalidates the claim index file
+            new Migration(6, "Add a claim generation counter maintained by triggers",
+                    "CREATE TABLE IF NOT EXISTS claim_index_state (id INTEGER PRIMARY KEY CHECK (id = 1), generation INTEGER NOT NULL)",
+                    "INSERT OR IGNORE INTO claim_index_state (id, generation) VALUES (1, 0)",
+                    "CREATE TRIGGER IF NOT EXISTS trg_town_claims_insert AFTER INSERT ON town_claims " +
+                            "BEGIN UPDATE claim_index_state SET generation = generation + 1 WHERE id = 1; END",
+                    "CREATE TRIGGER IF NOT EXISTS trg_town_claims_update AFTER UPDATE ON town_claims " +
+                            "BEGIN UPDATE claim_index_state SET generation = generation + 1 WHERE id = 1; END",
+                    "CREATE TRIGGER IF NOT EXISTS trg_town_claims_delete AFTER DELETE ON town_claims " +
+                            "BEGIN UPDATE claim_index_state SET generation = generation + 1 WHERE id = 1; END"
+            ),
+            // Sequence number of the last journaled transaction, committed together with it
+            new Migration(7, "Add the mutation journal state",
+                    "CREATE TABLE IF NOT EXISTS journal_state (id INTEGER PRIMARY KEY CHECK (id = 1), applied_seq INTEGER NOT NULL)",
+                    "INSERT OR IGNORE INTO journal_state (id, applied_seq) VALUES (1, 0)"
+            ),
+            new Migration(8, "Add the player name directory",
+                    "CREATE TABLE IF NOT EXISTS player_names (uuid TEXT PRIMARY KEY, name TEXT NOT NULL, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+                    "CREATE INDEX IF NOT EXISTS idx_player_names_name ON player_names (name COLLATE NOCASE)"
+            )
+    );
+
+    private static final int MAX_NAME_LENGTH = 24;
+    private static final String[] NUMERALS = {"M", "CM", "D", "CD", "C", "XC", "L", "XL", "X", "IX", "V", "IV", "I"};
+    private static final int[] NUMERAL_VALUES = {1000, 900, 500, 400, 100, 90, 50, 40, 10, 9, 5, 4, 1};
+
+    private final Connection connection;
+    private final NationPlugin plugin;
+
+    public SchemaMigrator(NationPlugin plugin, Connection connection) {
+        this.plugin = plugin;
+        this.connection = connection;
+    }
+
+    /**
+     * Applies every migration newer than the current schema version.
+     * This method should be called during plugin initialization, after the tables have been created.
+     *
+     * @return true if the schema is up to date, false if a migration failed and the schema is behind.
+     */
+    public boolean migrate() {
+        int current;
+        try {
+            createVersionTable();
+            current = getCurrentVersion();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to read schema version: " + e.getMessage());
+            return false;
+        }
+
+        List<Migration> pending = MIGRATIONS.stream()
+                .filter(m -> m.version() > current)
+                .sorted(Comparator.comparingInt(Migration::version))
+                .toList();
+        for (Migration migration : pending) {
+            if (!apply(migration)) return false;
+        }
+
+        if (!pending.isEmpty()) {
+            plugin.getLogger().info("Migrated database schema from version " + current + " to " + pending.getLast().version() + ".");
+        }
+        return true;
+    }
+
+    /**
+     * @return The highest migration version applied to this database, or 0 if none have been.
+     * @throws SQLException if the version table cannot be read.
+     */
+    public int getCurrentVersion() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT MAX(version) FROM schema_version");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void createVersionTable() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS schema_version (
+                            version INTEGER PRIMARY KEY,
+                            description TEXT NOT NULL,
+                            applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        );
+                    """);
+        }
+    }
+
+    private boolean apply(Migration migration) {
+        try {
+            connection.setAutoCommit(false);
+
+            if (migration.preparation() != null) {
+                migration.preparation().run(plugin, connection);
+            }
+
+            try (Statement stmt = connection.createStatement()) {
+                for (String sql : migration.statements()) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)"
+            )) {
+                stmt.setInt(1, migration.version());
+                stmt.setString(2, migration.description());
+                stmt.executeUpdate();
+            }
+
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException ex) {
+                plugin.getLogger().severe("Failed to rollback migration " + migration.version() + ": " + ex.getMessage());
+            }
+            plugin.getLogger().severe("Failed to apply migration " + migration.version()
+                    + " (" + migration.description() + "): " + e.getMessage());
+            return false;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Failed to reset auto-commit: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Renames every town and nation whose name differs from an older one only in case, so the unique
+     * name indexes can be created. The oldest keeps its name, the others get a numeral appended,
+     * shortened to fit the name length limit and using only characters which are allowed in names.
+     * Every rename is logged, so the players can be told what their town or nation is now called.
+     */
+    private static void renameDuplicateNames(NationPlugin plugin, Connection connection) throws SQLException {
+        renameDuplicateNames(plugin, connection, "towns", "town");
+        renameDuplicateNames(plugin, connection, "nations", "nation");
+    }
+
+    private static void renameDuplicateNames(NationPlugin plugin, Connection connection, String table, String kind) throws SQLException {
+        Set<String> taken = new HashSet<>();
+        Map<Long, String> duplicates = new LinkedHashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT rowid, name FROM " + table + " ORDER BY rowid")) {
+            while (rs.next()) {
+                String name = rs.getString("name");
+                if (!taken.add(foldCase(name))) {
+                    duplicates.put(rs.getLong("rowid"), name);
+                }
+            }
+        }
+        if (duplicates.isEmpty()) return;
+
+        try (PreparedStatement stmt = connection.prepareStatement("UPDATE " + table + " SET name = ? WHERE rowid = ?")) {
+            for (Map.Entry<Long, String> duplicate : duplicates.entrySet()) {
+                String oldName = duplicate.getValue();
+                String newName = uniqueName(oldName, taken);
+                stmt.setString(1, newName);
+                stmt.setLong(2, duplicate.getKey());
+                stmt.executeUpdate();
+
+                String message = "Renamed " + kind + " '" + oldName + "' to '" + newName
+                        + "', as another " + kind + " already had the same name in a different case.";
+                plugin.getLogger().warning(message);
+                plugin.getNationLogger().log(message);
+            }
+        }
+    }
+
+    /**
+     * Finds a name for a duplicate, the name followed by the first free numeral from II onwards.
+     * The name is cut short where needed so the result stays within {@value #MAX_NAME_LENGTH} characters.
+     *
+     * @param name  The duplicate name.
+     * @param taken The names in use, case folded. The returned name is added to it.
+     * @return The new name.
+     */
+    private static String uniqueName(String name, Set<String> taken) {
+        for (int number = 2; ; number++) {
+            String suffix = " " + toNumeral(number);
+            String base = name.strip();
+            if (base.length() + suffix.length() > MAX_NAME_LENGTH) {
+                base = base.substring(0, Math.max(0, MAX_NAME_LENGTH - suffix.length()));
+            }
+            // Names may not end in a space, hyphen or apostrophe, which a cut can leave behind
+            while (!base.isEmpty() && " -'".indexOf(base.charAt(base.length() - 1)) >= 0) {
+                base = base.substring(0, base.length() - 1);
+            }
+            String candidate = base + suffix;
+            if (taken.add(foldCase(candidate))) return candidate;
+        }
+    }
+
+    /**
+     * Folds only ASCII letters, like SQLite's NOCASE collation, so exactly the names the index rejects are renamed.
+     */
+    private static String foldCase(String name) {
+        StringBuilder folded = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            folded.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return folded.toString();
+    }
+
+    private static String toNumeral(int number) {
+        StringBuilder numeral = new StringBuilder();
+        for (int i = 0; i < NUMERALS.length; i++) {
+            while (number >= NUMERAL_VALUES[i]) {
+                numeral.append(NUMERALS[i]);
+                number -= NUMERAL_VALUES[i];
+            }
+        }
+        return numeral.toString();
+    }
+}
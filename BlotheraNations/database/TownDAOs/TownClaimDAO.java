@@ -1,28 +1,43 @@
 package com.blothera.database.TownDAOs;
 
 import com.blothera.NationPlugin;
+import com.blothera.claim.ClaimIndex;
+import com.blothera.claim.ClaimIndexFile;
+import com.blothera.claim.TownSpatialIndex;
+import com.blothera.database.CacheWarmup;
+import com.blothera.database.LecternRegistry;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Predicate;
 
 public class TownClaimDAO {
+    /**
+     * The config option enabling the claim index file, off by default.
+     */
+    private static final String INDEX_FILE_OPTION = "claims.index-file";
+    private static final String INDEX_FILE_NAME = "claims.idx";
+
     private final Connection connection;
     private final NationPlugin plugin;
-    private final Map<String, Map<Long, String>> claimCache = new HashMap<>();
+    private final ClaimIndex claimCache = new ClaimIndex();
+    private final ClaimIndexFile indexFile;
 
     public TownClaimDAO(NationPlugin plugin, Connection connection) {
         this.plugin = plugin;
         this.connection = connection;
+        this.indexFile = new ClaimIndexFile(new File(plugin.getDataFolder(), INDEX_FILE_NAME).toPath());
     }
 
     /**
@@ -33,7 +48,7 @@ public class TownClaimDAO {
      * @param chunkZ The Z coordinate of the chunk.
      * @return A long value representing the unique key for the chunk.
      */
-    private long getChunkKey(int chunkX, int chunkZ) {
+    public static long getChunkKey(int chunkX, int chunkZ) {
         return (((long) chunkX) << 32) | (chunkZ & 0xffffffffL);
     }
 
@@ -46,13 +61,37 @@ public class TownClaimDAO {
      * @return The town ID if the chunk is claimed, null otherwise.
      */
     public String getTownIdAt(String world, int chunkX, int chunkZ) {
-        Map<Long, String> worldMap = claimCache.get(world);
-        if (worldMap == null) return null;
-        return worldMap.get(getChunkKey(chunkX, chunkZ));
+        return claimCache.getTownAt(world, chunkX, chunkZ);
+    }
+
+    /**
+     * Looks up the town owning a chunk in the database, like {@link #getTownIdAt} does from the cache.
+     * Used when the claim cache failed to load.
+     *
+     * @param world  The name of the world.
+     * @param chunkX The X coordinate of the chunk.
+     * @param chunkZ The Z coordinate of the chunk.
+     * @return The town ID if the chunk is claimed, null otherwise.
+     */
+    public String queryTownIdAt(String world, int chunkX, int chunkZ) {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT town_uuid FROM town_claims WHERE world = ? AND chunk_x = ? AND chunk_z = ?"
+        )) {
+            stmt.setString(1, world);
+            stmt.setInt(2, chunkX);
+            stmt.setInt(3, chunkZ);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) return rs.getString("town_uuid");
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to look up claim: " + e.getMessage());
+        }
+        return null;
     }
 
     /**
      * Checks if a specific chunk in a given world is claimed by any town.
+     * Only the occupancy bitmap is consulted, which makes this the cheapest check for unclaimed land.
      *
      * @param world  The name of the world.
      * @param chunkX The X coordinate of the chunk.
@@ -60,7 +99,7 @@ public class TownClaimDAO {
      * @return true if the chunk is claimed, false otherwise.
      */
     public boolean isChunkClaimed(String world, int chunkX, int chunkZ) {
-        return getTownIdAt(world, chunkX, chunkZ) != null;
+        return claimCache.isClaimed(world, chunkX, chunkZ);
     }
 
     /**
@@ -78,11 +117,37 @@ public class TownClaimDAO {
     }
 
     /**
-     * Caches all town claims from the database into memory for quick access.
-     * This method should be called during plugin initialization to preload claims.
+     * Loads the claims if the startup warm-up could not, for example because the claims table was locked.
+     * Claims are normally loaded by the {@link CacheWarmup} in {@code Database.connect}, in which case this does nothing.
      */
     public void cacheClaims() {
-        try (PreparedStatement stmt = connection.prepareStatement("SELECT town_uuid, world, chunk_x, chunk_z FROM town_claims");
+        if (plugin.getDatabase().isCacheReady(CacheWarmup.Cache.CLAIMS)) return;
+        plugin.getDatabase().getCacheWarmup().reload(CacheWarmup.Cache.CLAIMS);
+    }
+
+    /**
+     * Caches all town claims from the database into memory for quick access.
+     * This method is called by the {@link CacheWarmup} during plugin initialization.
+     * <p>
+     * If the claim index file is enabled, the cache is restored from that file instead, as long as it
+     * was written at the current claim generation. Otherwise the claims are read from the database
+     * and a fresh file is written for the next startup.
+     * <p>
+     * The lectern counts per town are not rebuilt here, the warm-up does that once the lecterns have loaded too.
+     *
+     * @param source The connection to load from, which may be a read-only connection of its own.
+     * @return The number of claims loaded, or -1 if loading failed.
+     */
+    public int cacheClaims(Connection source) {
+        long generation = isIndexFileEnabled() ? getClaimGeneration(source) : -1;
+        if (generation >= 0 && loadIndexFile(generation)) {
+            plugin.getLogger().info("Restored " + claimCache.size() + " claims of " + claimCache.getTownCount()
+                    + " towns from " + INDEX_FILE_NAME + ".");
+            return claimCache.size();
+        }
+
+        claimCache.clear();
+        try (PreparedStatement stmt = source.prepareStatement("SELECT town_uuid, world, chunk_x, chunk_z FROM town_claims");
              ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
@@ -90,15 +155,99 @@ public class TownClaimDAO {
                 String world = rs.getString("world");
                 int chunkX = rs.getInt("chunk_x");
                 int chunkZ = rs.getInt("chunk_z");
-                long key = getChunkKey(chunkX, chunkZ);
 
-                claimCache.computeIfAbsent(world, k -> new HashMap<>()).put(key, townUuid);
+                claimCache.put(world, chunkX, chunkZ, townUuid);
             }
 
-            plugin.getLogger().info("Loaded " + claimCache.values().stream().mapToInt(Map::size).sum() + " town claims into cache.");
+            plugin.getLogger().info("Loaded " + claimCache.size() + " claims of " + claimCache.getTownCount() + " towns into cache.");
 
         } catch (SQLException e) {
             plugin.getLogger().severe("Failed to load claims into cache: " + e.getMessage());
+            return -1;
+        }
+
+        if (generation >= 0) saveIndexFile(generation);
+        return claimCache.size();
+    }
+
+    /**
+     * Writes the claim cache to the claim index file, if it is enabled, so the next startup can skip reading
+     * the claims table. The file is only written when the cache holds exactly the claims of the database,
+     * every claim with the same owner, and is deleted otherwise so the next startup reads the table.
+     * This method should be called during plugin shutdown, once pending writes have finished.
+     */
+    public void saveClaimIndex() {
+        if (!isIndexFileEnabled()) return;
+
+        long generation = getClaimGeneration(connection);
+        if (generation < 0) return;
+        if (cacheMatchesDatabase()) {
+            saveIndexFile(generation);
+            return;
+        }
+
+        plugin.getLogger().warning("Claim cache does not match the database, discarding " + INDEX_FILE_NAME + ".");
+        try {
+            indexFile.delete();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to delete " + INDEX_FILE_NAME + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compares the claim cache with the claims table row by row. A chunk holds a single claim,
+     * so with equal sizes and every row cached with its owner, the cache holds nothing else.
+     *
+     * @return true if the cache holds exactly the claims of the database.
+     */
+    private boolean cacheMatchesDatabase() {
+        int rows = 0;
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT town_uuid, world, chunk_x, chunk_z FROM town_claims");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                String cachedOwner = claimCache.getTownAt(rs.getString("world"), rs.getInt("chunk_x"), rs.getInt("chunk_z"));
+                if (!rs.getString("town_uuid").equals(cachedOwner)) return false;
+                rows++;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to compare claims: " + e.getMessage());
+            return false;
+        }
+        return rows == claimCache.size();
+    }
+
+    private boolean isIndexFileEnabled() {
+        return plugin.getConfig().getBoolean(INDEX_FILE_OPTION, false);
+    }
+
+    /**
+     * @return The claim generation, bumped by triggers on every change to the claims table, or -1 if it cannot be read.
+     */
+    private long getClaimGeneration(Connection source) {
+        try (PreparedStatement stmt = source.prepareStatement("SELECT generation FROM claim_index_state WHERE id = 1");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : -1;
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to read claim generation: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private boolean loadIndexFile(long generation) {
+        try {
+            if (indexFile.load(claimCache, generation)) return true;
+            plugin.getLogger().info(INDEX_FILE_NAME + " is missing or out of date, loading claims from the database.");
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to read " + INDEX_FILE_NAME + ": " + e.getMessage());
+        }
+        return false;
+    }
+
+    private void saveIndexFile(long generation) {
+        try {
+            indexFile.save(claimCache, generation);
+        } catch (IOException | IllegalArgumentException e) {
+            plugin.getLogger().warning("Failed to write " + INDEX_FILE_NAME + ": " + e.getMessage());
         }
     }
 
@@ -130,21 +279,82 @@ public class TownClaimDAO {
      * @return A list of int arrays, each containing the chunkX and chunkZ of a claimed chunk.
      */
     public List<int[]> getClaims(String townUuid) {
-        List<int[]> claims = new ArrayList<>();
-
-        for (Map.Entry<String, Map<Long, String>> worldEntry : claimCache.entrySet()) {
-            Map<Long, String> chunkMap = worldEntry.getValue();
-            for (Map.Entry<Long, String> chunkEntry : chunkMap.entrySet()) {
-                if (townUuid.equals(chunkEntry.getValue())) {
-                    long chunkKey = chunkEntry.getKey();
-                    int chunkX = (int) (chunkKey >> 32);
-                    int chunkZ = (int) chunkKey;
-                    claims.add(new int[]{chunkX, chunkZ});
-                }
-            }
-        }
+        return claimCache.getClaims(townUuid);
+    }
 
-        return claims;
+    /**
+     * Retrieves the claims of a town together with their bounding box and centroid.
+     * The result is live, so read what is needed from it straight away.
+     *
+     * @param townUuid The UUID of the town.
+     * @return The town's claims, or null if the town has no claims.
+     */
+    public ClaimIndex.TownClaims getTownClaims(String townUuid) {
+        return claimCache.getTownClaims(townUuid);
+    }
+
+    /**
+     * Retrieves the centre of a town, the middle block of the chunk at the average of its claims.
+     *
+     * @param townUuid The UUID of the town.
+     * @return The town's centre, or null if the town has no claims.
+     */
+    public TownSpatialIndex.TownPosition getTownCenter(String townUuid) {
+        return claimCache.getSpatialIndex().get(townUuid);
+    }
+
+    /**
+     * Finds the town whose centre is nearest to a point.
+     *
+     * @param world The name of the world.
+     * @param x     The block X coordinate of the point.
+     * @param z     The block Z coordinate of the point.
+     * @return The nearest town, or null if the world has no towns.
+     */
+    public TownSpatialIndex.TownPosition getNearestTown(String world, double x, double z) {
+        return claimCache.getSpatialIndex().getNearest(world, x, z, townUuid -> true);
+    }
+
+    /**
+     * Finds every town whose centre lies within a radius of a point, optionally restricted by a filter.
+     *
+     * @param world  The name of the world.
+     * @param x      The block X coordinate of the point.
+     * @param z      The block Z coordinate of the point.
+     * @param radius The radius in blocks, inclusive.
+     * @param filter Which town UUIDs to consider.
+     * @return The matching towns, nearest first.
+     */
+    public List<TownSpatialIndex.TownPosition> getTownsWithin(String world, double x, double z, double radius,
+                                                              Predicate<String> filter) {
+        return claimCache.getSpatialIndex().getTownsWithin(world, x, z, radius, filter);
+    }
+
+    /**
+     * Finds every town of a nation whose centre lies within a radius of a point.
+     *
+     * @param nationUuid The UUID of the nation.
+     * @param world      The name of the world.
+     * @param x          The block X coordinate of the point.
+     * @param z          The block Z coordinate of the point.
+     * @param radius     The radius in blocks, inclusive.
+     * @return The nation's towns within the radius, nearest first.
+     */
+    public List<TownSpatialIndex.TownPosition> getNationTownsWithin(String nationUuid, String world,
+                                                                    double x, double z, double radius) {
+        return getTownsWithin(world, x, z, radius, townUuid -> isTownOfNation(townUuid, nationUuid));
+    }
+
+    /**
+     * Checks a town's nation against the town metadata cache.
+     *
+     * @param townUuid   The UUID of the town.
+     * @param nationUuid The UUID of the nation.
+     * @return true if the town belongs to the nation, false otherwise.
+     */
+    public boolean isTownOfNation(String townUuid, String nationUuid) {
+        TownMetadataCache.TownMetadata town = plugin.getDatabase().getTownMetadataCache().get(townUuid);
+        return town != null && nationUuid.equals(town.nationUuid());
     }
 
     /**
@@ -154,15 +364,7 @@ public class TownClaimDAO {
      * @return The number of claims made by the town.
      */
     public int getNumberOfClaims(String townUuid) {
-        int count = 0;
-        for (Map<Long, String> worldClaims : claimCache.values()) {
-            for (String claimOwner : worldClaims.values()) {
-                if (townUuid.equals(claimOwner)) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        return claimCache.getClaimCount(townUuid);
     }
 
     /**
@@ -194,9 +396,8 @@ public class TownClaimDAO {
      * @param townUuid The UUID of the town whose claims are to be removed from the cache.
      */
     void removeClaimsFromCache(String townUuid) {
-        for (Map.Entry<String, Map<Long, String>> entry : claimCache.entrySet()) {
-            entry.getValue().entrySet().removeIf(e -> townUuid.equals(e.getValue()));
-        }
+        claimCache.removeTown(townUuid);
+        plugin.getDatabase().getLecternRegistry().onTownUnclaimed(townUuid);
     }
 
 
@@ -221,7 +422,8 @@ public class TownClaimDAO {
             stmt.executeUpdate();
 
             // update cache
-            claimCache.computeIfAbsent(world, k -> new HashMap<>()).put(getChunkKey(chunkX, chunkZ), townUuid);
+            claimCache.put(world, chunkX, chunkZ, townUuid);
+            plugin.getDatabase().getLecternRegistry().onChunkClaimed(townUuid, world, chunkX, chunkZ);
 
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to claim chunk: " + e.getMessage());
@@ -229,6 +431,143 @@ public class TownClaimDAO {
     }
 
 
+    /**
+     * Claims several chunks for a specific town in a single transaction.
+     * Chunks which are already claimed are skipped.
+     * The cache is only updated once the whole batch has been committed,
+     * so a failure leaves both the database and the cache untouched.
+     *
+     * @param townUuid The UUID of the town claiming the chunks.
+     * @param world    The name of the world where the chunks are located.
+     * @param chunks   The chunks to claim, each an int array of chunkX and chunkZ.
+     * @return The number of chunks claimed.
+     */
+    public int claimChunks(String townUuid, String world, Collection<int[]> chunks) {
+        List<int[]> toClaim = new ArrayList<>(chunks.size());
+        for (int[] chunk : chunks) {
+            if (!isChunkClaimed(world, chunk[0], chunk[1])) {
+                toClaim.add(chunk);
+            }
+        }
+        if (toClaim.isEmpty()) return 0;
+
+        List<int[]> claimed = insertClaims(townUuid, world, toClaim);
+        addClaimsToCache(townUuid, world, claimed);
+        return claimed.size();
+    }
+
+    /**
+     * Inserts claims for a specific town in a single transaction, without touching the cache.
+     * Chunks which are already claimed in the database are skipped.
+     *
+     * @param townUuid The UUID of the town claiming the chunks.
+     * @param world    The name of the world where the chunks are located.
+     * @param chunks   The chunks to claim, each an int array of chunkX and chunkZ.
+     * @return The chunks which were claimed, empty if the transaction failed.
+     */
+    public List<int[]> insertClaims(String townUuid, String world, Collection<int[]> chunks) {
+        if (chunks.isEmpty()) return new ArrayList<>();
+
+        try {
+            connection.setAutoCommit(false);
+            List<int[]> claimed = insertClaimBatch(townUuid, world, chunks);
+            connection.commit();
+            return claimed;
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to claim chunks: " + e.getMessage());
+            try {
+                connection.rollback();
+            } catch (SQLException ex) {
+                plugin.getLogger().severe("Rollback failed: " + ex.getMessage());
+            }
+            return new ArrayList<>();
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Failed to reset auto-commit: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Inserts claims for a specific town as part of the caller's transaction, without touching the cache.
+     * Chunks which are already claimed in the database are skipped.
+     * Used off the server thread, the caller adds the result to the cache with
+     * {@link #addClaimsToCache} once it is back on the server thread.
+     *
+     * @param townUuid The UUID of the town claiming the chunks.
+     * @param world    The name of the world where the chunks are located.
+     * @param chunks   The chunks to claim, each an int array of chunkX and chunkZ.
+     * @return The chunks which were claimed.
+     * @throws SQLException if the claims could not be inserted.
+     */
+    public List<int[]> insertClaimBatch(String townUuid, String world, Collection<int[]> chunks) throws SQLException {
+        List<int[]> claimed = new ArrayList<>(chunks.size());
+        if (chunks.isEmpty()) return claimed;
+
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT OR IGNORE INTO town_claims (town_uuid, world, chunk_x, chunk_z) VALUES (?, ?, ?, ?)"
+        )) {
+            for (int[] chunk : chunks) {
+                stmt.setString(1, townUuid);
+                stmt.setString(2, world);
+                stmt.setInt(3, chunk[0]);
+                stmt.setInt(4, chunk[1]);
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            int i = 0;
+            for (int[] chunk : chunks) {
+                if (counts[i++] > 0) {
+                    claimed.add(chunk);
+                }
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Adds claims which are already in the database to the cache and the lectern registry.
+     * Must be called on the server thread.
+     *
+     * @param townUuid The UUID of the town owning the chunks.
+     * @param world    The name of the world where the chunks are located.
+     * @param chunks   The claimed chunks, each an int array of chunkX and chunkZ.
+     */
+    public void addClaimsToCache(String townUuid, String world, Collection<int[]> chunks) {
+        LecternRegistry lecternRegistry = plugin.getDatabase().getLecternRegistry();
+        for (int[] chunk : chunks) {
+            claimCache.put(world, chunk[0], chunk[1], townUuid);
+            lecternRegistry.onChunkClaimed(townUuid, world, chunk[0], chunk[1]);
+        }
+    }
+
+    /**
+     * Computes the centre of a town from the database, like {@link #getTownCenter} does from the cache.
+     * Used off the server thread, where the claim cache must not be read.
+     *
+     * @param townUuid The UUID of the town.
+     * @return The town's centre, or null if the town has no claims.
+     */
+    public TownSpatialIndex.TownPosition queryTownCenter(String townUuid) {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT MIN(world), SUM(chunk_x), SUM(chunk_z), COUNT(*) FROM town_claims WHERE town_uuid = ?"
+        )) {
+            stmt.setString(1, townUuid);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(4) == 0) return null;
+                long count = rs.getLong(4);
+                int chunkX = (int) (rs.getLong(2) / count);
+                int chunkZ = (int) (rs.getLong(3) / count);
+                return new TownSpatialIndex.TownPosition(townUuid, rs.getString(1), chunkX * 16 + 8, chunkZ * 16 + 8);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to query town centre: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Checks if a lectern is located within a town's claimed chunk.
      *
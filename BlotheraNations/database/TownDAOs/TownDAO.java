@@ -8,11 +8,16 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.blothera.util.NationConstants.*;
 
 public class TownDAO {
+    private static final int MAX_TOWNS_PER_QUERY = 500;
+
     private final Connection connection;
     private final NationPlugin plugin;
 
@@ -21,6 +26,10 @@ public class TownDAO {
         this.connection = connection;
     }
 
+    private TownMetadataCache metadataCache() {
+        return plugin.getDatabase().getTownMetadataCache();
+    }
+
     /**
      * Checks if a player is the leader of a specific town.
      *
@@ -29,6 +38,9 @@ public class TownDAO {
      * @return true if the player is the leader of the town, false otherwise.
      */
     public boolean isTownLeader(String playerUuid, String townUuid) {
+        TownMetadataCache.TownMetadata cached = metadataCache().get(townUuid);
+        if (cached != null) return cached.leaderUuid() != null && cached.leaderUuid().equals(playerUuid);
+
         try (PreparedStatement stmt = connection.prepareStatement(
                 "SELECT 1 FROM towns WHERE leader_uuid = ? AND uuid = ?"
         )) {
@@ -78,6 +90,7 @@ public class TownDAO {
             }
 
             connection.commit();
+            metadataCache().refreshTownsOfNation(nationUuid);
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to set capital: " + e.getMessage());
             try {
@@ -107,6 +120,7 @@ public class TownDAO {
             stmt.setString(1, newLeaderUuid);
             stmt.setString(2, townUuid);
             stmt.executeUpdate();
+            metadataCache().setLeader(townUuid, newLeaderUuid);
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to change town leader: " + e.getMessage());
         }
@@ -120,7 +134,7 @@ public class TownDAO {
      */
     public String getCanonicalTownName(String townName) {
         try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT name FROM towns WHERE LOWER(name) = LOWER(?)"
+                "SELECT name FROM towns WHERE name = ? COLLATE NOCASE"
         )) {
             stmt.setString(1, townName.toLowerCase());
             try (ResultSet rs = stmt.executeQuery()) {
@@ -141,6 +155,9 @@ public class TownDAO {
      * @return The name of the town, or a placeholder if not found.
      */
     public String getTownName(String townUuid) {
+        TownMetadataCache.TownMetadata cached = metadataCache().get(townUuid);
+        if (cached != null) return cached.name();
+
         try (PreparedStatement stmt = connection.prepareStatement(
                 "SELECT name FROM towns WHERE uuid = ?"
         )) {
@@ -162,7 +179,7 @@ public class TownDAO {
      */
     public boolean townExists(String townName) {
         try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT 1 FROM towns WHERE LOWER(name) = LOWER(?)"
+                "SELECT 1 FROM towns WHERE name = ? COLLATE NOCASE"
         )) {
             stmt.setString(1, townName.toLowerCase());
             try (ResultSet rs = stmt.executeQuery()) {
@@ -187,6 +204,7 @@ public class TownDAO {
             stmt.setString(1, newName);
             stmt.setString(2, townUuid);
             stmt.executeUpdate();
+            metadataCache().setName(townUuid, newName);
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to rename town: " + e.getMessage());
         }
@@ -239,6 +257,9 @@ public class TownDAO {
      * @return true if the town is a capital, false otherwise.
      */
     public boolean isCapital(String townUuid) {
+        TownMetadataCache.TownMetadata cached = metadataCache().get(townUuid);
+        if (cached != null) return cached.capital();
+
         try (PreparedStatement stmt = connection.prepareStatement(
                 "SELECT is_capital FROM towns WHERE uuid = ?"
         )) {
@@ -264,6 +285,26 @@ public class TownDAO {
      * @param leaderUuid The UUID of the town leader.
      */
     public void createTown(String uuid, String nationUuid, String name, boolean isCapital, String leaderUuid) {
+        try {
+            insertTown(uuid, nationUuid, name, isCapital, leaderUuid);
+            metadataCache().refresh(uuid);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to register town: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts a new town without touching the caches, so it can be part of the caller's transaction
+     * off the server thread. The caller refreshes the town's metadata once it is back on the server thread.
+     *
+     * @param uuid       The UUID of the town.
+     * @param nationUuid The UUID of the nation to which the town belongs.
+     * @param name       The name of the town.
+     * @param isCapital  Whether the town is a capital.
+     * @param leaderUuid The UUID of the town leader.
+     * @throws SQLException if the town could not be inserted, for instance because the name was taken meanwhile.
+     */
+    public void insertTown(String uuid, String nationUuid, String name, boolean isCapital, String leaderUuid) throws SQLException {
         try (PreparedStatement stmt = connection.prepareStatement(
                 "INSERT INTO towns (uuid, nation_uuid, name, is_capital, leader_uuid, tax_paid_until, is_dormant) " +
                         "VALUES (?, ?, ?, ?, ?, DATE('now', '+7 day'), 0)"
@@ -274,8 +315,6 @@ public class TownDAO {
             stmt.setInt(4, isCapital ? 1 : 0);
             stmt.setString(5, leaderUuid);
             stmt.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to register town: " + e.getMessage());
         }
     }
 
@@ -307,6 +346,9 @@ public class TownDAO {
      * @return The UUID of the nation, or null if not found.
      */
     public String getNationUuidFromTownUuid(String townUuid) {
+        TownMetadataCache.TownMetadata cached = metadataCache().get(townUuid);
+        if (cached != null) return cached.nationUuid();
+
         try (PreparedStatement stmt = connection.prepareStatement(
                 "SELECT nation_uuid FROM towns WHERE uuid = ?"
         )) {
@@ -327,6 +369,9 @@ public class TownDAO {
      * @return The name of the nation, or a placeholder if not found.
      */
     public String getNationNameForTown(String townUuid) {
+        String cached = metadataCache().getNationNameForTown(townUuid);
+        if (cached != null) return cached;
+
         try (PreparedStatement stmt = connection.prepareStatement(
                 "SELECT n.name FROM towns t JOIN nations n ON t.nation_uuid = n.uuid WHERE t.uuid = ?"
         )) {
@@ -378,6 +423,8 @@ public class TownDAO {
             try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM towns WHERE uuid = ?")) {
                 stmt.setString(1, townUuid);
                 int affected = stmt.executeUpdate();
+                metadataCache().remove(townUuid);
+                plugin.getDatabase().getClaimPermissionEngine().onTownRemoved(townUuid);
                 return affected > 0;
             }
 
@@ -396,7 +443,7 @@ public class TownDAO {
      */
     public String getTownUuidByName(String townName) {
         try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT uuid FROM towns WHERE LOWER(name) = LOWER(?)"
+                "SELECT uuid FROM towns WHERE name = ? COLLATE NOCASE"
         )) {
             stmt.setString(1, townName.toLowerCase());
             try (ResultSet rs = stmt.executeQuery()) {
@@ -438,6 +485,9 @@ public class TownDAO {
      * @return The UUID of the town leader, or null if not found.
      */
     public String getLeaderUuid(String townUuid) {
+        TownMetadataCache.TownMetadata cached = metadataCache().get(townUuid);
+        if (cached != null) return cached.leaderUuid();
+
         try (PreparedStatement stmt = connection.prepareStatement(
                 "SELECT leader_uuid FROM towns WHERE uuid = ?"
         )) {
@@ -460,6 +510,9 @@ public class TownDAO {
      * @return The date until which taxes have been paid, or null if not found.
      */
     public String getTaxPaidUntil(String townUuid) {
+        TownMetadataCache.TownMetadata cached = metadataCache().get(townUuid);
+        if (cached != null) return cached.taxPaidUntil();
+
         try (PreparedStatement stmt = connection.prepareStatement(
                 "SELECT tax_paid_until FROM towns WHERE uuid = ?"
         )) {
@@ -486,6 +539,7 @@ public class TownDAO {
             stmt.setString(1, date);
             stmt.setString(2, townUuid);
             stmt.executeUpdate();
+            metadataCache().setTaxPaidUntil(townUuid, date);
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to update tax date: " + e.getMessage());
         }
@@ -498,6 +552,9 @@ public class TownDAO {
      * @return true if the town is dormant, false otherwise.
      */
     public boolean isDormant(String townUuid) {
+        TownMetadataCache.TownMetadata cached = metadataCache().get(townUuid);
+        if (cached != null) return cached.dormant();
+
         try (PreparedStatement stmt = connection.prepareStatement(
                 "SELECT is_dormant FROM towns WHERE uuid = ?"
         )) {
@@ -524,6 +581,8 @@ public class TownDAO {
             stmt.setInt(1, dormant ? 1 : 0);
             stmt.setString(2, townUuid);
             stmt.executeUpdate();
+            metadataCache().setDormant(townUuid, dormant);
+            plugin.getDatabase().getClaimPermissionEngine().invalidateTown(townUuid);
         } catch (SQLException e) {
             plugin.getLogger().warning("Failed to set dormancy: " + e.getMessage());
         }
@@ -549,19 +608,18 @@ public class TownDAO {
             }
         }
 
-        var claimDAO = plugin.getDatabase().getTownClaimDAO();
         var townLecternDAO = plugin.getDatabase().getTownLecternDAO();
         var nationLecternDAO = plugin.getDatabase().getNationLecternDAO();
         var diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
 
-        boolean hasTownLectern = townLecternDAO.townHasLectern(townUuid, claimDAO);
+        boolean hasTownLectern = townLecternDAO.townHasLectern(townUuid);
         boolean isCapital = isCapital(townUuid);
         boolean hasNationLectern = true;
         boolean hasDiplomacyLectern = true;
 
         if (isCapital) {
-            hasNationLectern = nationLecternDAO.townHasLectern(townUuid, claimDAO);
-            hasDiplomacyLectern = diplomacyLecternDAO.townHasLectern(townUuid, claimDAO);
+            hasNationLectern = nationLecternDAO.townHasLectern(townUuid);
+            hasDiplomacyLectern = diplomacyLecternDAO.townHasLectern(townUuid);
         }
 
         boolean hasRequiredLecterns = isCapital ?
@@ -571,6 +629,216 @@ public class TownDAO {
         setDormant(townUuid, !(taxesPaid && hasRequiredLecterns));
     }
 
+    /**
+     * Finds which of the given towns were last paid before a date, and should therefore be removed.
+     * Towns with a malformed tax date are never returned.
+     *
+     * @param townUuids The UUIDs of the towns to check.
+     * @param cutoff    The date in YYYY-MM-DD format, towns paid until before it are returned.
+     * @return The towns to remove.
+     */
+    public List<OverdueTown> getTownsPaidBefore(List<String> townUuids, String cutoff) {
+        List<OverdueTown> towns = new ArrayList<>();
+        for (int start = 0; start < townUuids.size(); start += MAX_TOWNS_PER_QUERY) {
+            List<String> batch = townUuids.subList(start, Math.min(start + MAX_TOWNS_PER_QUERY, townUuids.size()));
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT uuid, name, nation_uuid, is_capital FROM towns " +
+                            "WHERE uuid IN (" + placeholders(batch.size()) + ") " +
+                            "AND tax_paid_until < ? AND DATE(tax_paid_until) IS NOT NULL"
+            )) {
+                int index = 1;
+                for (String townUuid : batch) {
+                    stmt.setString(index++, townUuid);
+                }
+                stmt.setString(index, cutoff);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        towns.add(new OverdueTown(
+                                rs.getString("uuid"),
+                                rs.getString("name"),
+                                rs.getString("nation_uuid"),
+                                rs.getInt("is_capital") == 1
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to fetch overdue towns: " + e.getMessage());
+            }
+        }
+        return towns;
+    }
+
+    /**
+     * Evaluates the dormancy of the given towns, using the same rules as {@link #refreshDormancy(String)}.
+     * Towns paid until before the removal cutoff are skipped, as they are about to be removed.
+     *
+     * @param townUuids The UUIDs of the towns to evaluate.
+     * @param today     Today's date in YYYY-MM-DD format.
+     * @param cutoff    The removal cutoff date in YYYY-MM-DD format.
+     * @return The towns whose dormancy must change, mapped to whether they should now be dormant.
+     */
+    private Map<String, Boolean> getDormancyChanges(List<String> townUuids, String today, String cutoff) throws SQLException {
+        Map<String, Boolean> changes = new LinkedHashMap<>();
+        for (int start = 0; start < townUuids.size(); start += MAX_TOWNS_PER_QUERY) {
+            List<String> batch = townUuids.subList(start, Math.min(start + MAX_TOWNS_PER_QUERY, townUuids.size()));
+            getDormancyChanges(batch, today, cutoff, changes);
+        }
+        return changes;
+    }
+
+    private void getDormancyChanges(List<String> townUuids, String today, String cutoff, Map<String, Boolean> changes) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("""
+                WITH evaluated AS MATERIALIZED (
+                    SELECT t.uuid, COALESCE(t.is_dormant, 0) AS is_dormant,
+                           CASE WHEN DATE(t.tax_paid_until) IS NOT NULL AND t.tax_paid_until >= ?
+                                     AND EXISTS (SELECT 1 FROM town_claims c JOIN town_lecterns l
+                                                 ON l.world = c.world AND l.chunk_x = c.chunk_x AND l.chunk_z = c.chunk_z
+                                                 WHERE c.town_uuid = t.uuid)
+                                     AND (t.is_capital = 0 OR (
+                                         EXISTS (SELECT 1 FROM town_claims c JOIN nation_lecterns l
+                                                 ON l.world = c.world AND l.chunk_x = c.chunk_x AND l.chunk_z = c.chunk_z
+                                                 WHERE c.town_uuid = t.uuid)
+                                         AND EXISTS (SELECT 1 FROM town_claims c JOIN diplomacy_lecterns l
+                                                     ON l.world = c.world AND l.chunk_x = c.chunk_x AND l.chunk_z = c.chunk_z
+                                                     WHERE c.town_uuid = t.uuid)))
+                                THEN 0 ELSE 1 END AS should_be_dormant
+                    FROM towns t
+                    WHERE t.uuid IN (%s)
+                      AND NOT (t.tax_paid_until < ? AND DATE(t.tax_paid_until) IS NOT NULL)
+                )
+                SELECT uuid, should_be_dormant FROM evaluated WHERE is_dormant != should_be_dormant
+                """.formatted(placeholders(townUuids.size())))) {
+            int index = 1;
+            stmt.setString(index++, today);
+            for (String townUuid : townUuids) {
+                stmt.setString(index++, townUuid);
+            }
+            stmt.setString(index, cutoff);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    changes.put(rs.getString("uuid"), rs.getInt("should_be_dormant") == 1);
+                }
+            }
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Applies the result of a tax sweep in a single transaction.
+     * A town is only removed if it is still paid until before the cutoff, so a payment made
+     * since the sweep started is never lost. Claims and members are removed by cascade.
+     * <p>
+     * Dormancy is evaluated inside the same transaction, after the removals, so a payment or a lectern
+     * placed since the sweep started is taken into account and a town is never marked dormant on stale data.
+     * <p>
+     * The in-memory caches are not touched, call {@link #evictRemovedTown(String)} and
+     * {@link #cacheDormancy(String, boolean)} on the main thread once this returns.
+     *
+     * @param townUuids The UUIDs of the towns swept.
+     * @param removals  The UUIDs of the towns to remove.
+     * @param today     Today's date in YYYY-MM-DD format.
+     * @param cutoff    The removal cutoff date in YYYY-MM-DD format.
+     * @return The towns which were removed and the dormancy changes written, or null if the transaction failed.
+     */
+    public TaxSweepResult applyTaxSweep(List<String> townUuids, List<String> removals, String today, String cutoff) {
+        List<String> removed = new ArrayList<>();
+        try {
+            connection.setAutoCommit(false);
+
+            if (!removals.isEmpty()) {
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "DELETE FROM towns WHERE uuid = ? AND tax_paid_until < ?"
+                )) {
+                    for (String townUuid : removals) {
+                        stmt.setString(1, townUuid);
+                        stmt.setString(2, cutoff);
+                        stmt.addBatch();
+                    }
+                    int[] results = stmt.executeBatch();
+                    for (int i = 0; i < results.length; i++) {
+                        if (results[i] > 0) removed.add(removals.get(i));
+                    }
+                }
+            }
+
+            Map<String, Boolean> dormancy = getDormancyChanges(townUuids, today, cutoff);
+            if (!dormancy.isEmpty()) {
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "UPDATE towns SET is_dormant = ? WHERE uuid = ?"
+                )) {
+                    for (Map.Entry<String, Boolean> entry : dormancy.entrySet()) {
+                        stmt.setInt(1, entry.getValue() ? 1 : 0);
+                        stmt.setString(2, entry.getKey());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+
+            connection.commit();
+            return new TaxSweepResult(removed, dormancy);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to apply tax sweep: " + e.getMessage());
+            try {
+                connection.rollback();
+            } catch (SQLException ex) {
+                plugin.getLogger().severe("Rollback failed: " + ex.getMessage());
+            }
+            return null;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Failed to reset auto-commit: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drops a town which has already been deleted from the database from every in-memory cache.
+     *
+     * @param townUuid The UUID of the removed town.
+     */
+    public void evictRemovedTown(String townUuid) {
+        plugin.getDatabase().getTownClaimDAO().removeClaimsFromCache(townUuid);
+        metadataCache().remove(townUuid);
+        plugin.getDatabase().getClaimPermissionEngine().onTownRemoved(townUuid);
+    }
+
+    /**
+     * Updates the in-memory dormancy of a town which has already been written to the database.
+     *
+     * @param townUuid The UUID of the town.
+     * @param dormant  Whether the town is dormant.
+     */
+    public void cacheDormancy(String townUuid, boolean dormant) {
+        metadataCache().setDormant(townUuid, dormant);
+        plugin.getDatabase().getClaimPermissionEngine().invalidateTown(townUuid);
+    }
+
+    /**
+     * A town found to be overdue for removal by the tax sweep.
+     *
+     * @param uuid       The UUID of the town.
+     * @param name       The name of the town.
+     * @param nationUuid The UUID of the nation the town belonged to.
+     * @param capital    Whether the town was the capital of its nation.
+     */
+    public record OverdueTown(String uuid, String name, String nationUuid, boolean capital) {
+    }
+
+    /**
+     * What a tax sweep wrote to the database.
+     *
+     * @param removed  The UUIDs of the towns which were removed.
+     * @param dormancy The towns whose dormancy changed, mapped to whether they are now dormant.
+     */
+    public record TaxSweepResult(List<String> removed, Map<String, Boolean> dormancy) {
+    }
+
 }
 
 
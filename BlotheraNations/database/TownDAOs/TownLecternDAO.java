@@ -1,8 +1,9 @@
 package com.blothera.database.TownDAOs;
 
 import com.blothera.NationPlugin;
+import com.blothera.database.LecternRegistry;
+import com.blothera.database.LecternType;
 import org.bukkit.block.Block;
-import org.bukkit.block.Lectern;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -21,6 +22,10 @@ public class TownLecternDAO {
         this.plugin = plugin;
     }
 
+    private LecternRegistry registry() {
+        return plugin.getDatabase().getLecternRegistry();
+    }
+
     /**
      * Saves the location of a town lectern to the database.
      * If the lectern already exists, it will not be added again.
@@ -39,6 +44,7 @@ public class TownLecternDAO {
             stmt.setInt(3, y);
             stmt.setInt(4, z);
             stmt.executeUpdate();
+            registry().add(LecternType.TOWN, world, x, y, z);
         } catch (SQLException e) {
             plugin.getLogger().info("Failed to save town lectern: " + e.getMessage());
         }
@@ -54,20 +60,7 @@ public class TownLecternDAO {
      * @return true if a town lectern exists at the specified coordinates, false otherwise.
      */
     public boolean isTownLecternXYZ(String world, int x, int y, int z) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT 1 FROM town_lecterns WHERE world = ? AND x = ? AND y = ? AND z = ?"
-        )) {
-            stmt.setString(1, world);
-            stmt.setInt(2, x);
-            stmt.setInt(3, y);
-            stmt.setInt(4, z);
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next();
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().info("Failed to check town lectern: " + e.getMessage());
-            return false;
-        }
+        return registry().is(LecternType.TOWN, world, x, y, z);
     }
 
     /**
@@ -77,10 +70,7 @@ public class TownLecternDAO {
      * @return true if the block is a town lectern, false otherwise.
      */
     public boolean isTownLectern(Block lectern) {
-        if (lectern == null || !(lectern.getState() instanceof Lectern)) {
-            return false;
-        }
-        return isTownLecternXYZ(lectern.getWorld().getName(), lectern.getX(), lectern.getY(), lectern.getZ());
+        return LecternType.TOWN.in(registry().getTypes(lectern));
     }
 
     /**
@@ -100,6 +90,7 @@ public class TownLecternDAO {
             stmt.setInt(3, y);
             stmt.setInt(4, z);
             stmt.executeUpdate();
+            registry().remove(LecternType.TOWN, world, x, y, z);
         } catch (SQLException e) {
             plugin.getLogger().info("Failed to delete town lectern: " + e.getMessage());
         }
@@ -107,29 +98,13 @@ public class TownLecternDAO {
 
     /**
      * Determine if a town currently has at least one town lectern within its claimed chunks.
+     * Answered in constant time from the per-town index of the {@link LecternRegistry}.
      *
      * @param townUuid the town to check
-     * @param claimDAO DAO providing claim lookups
      * @return true if a lectern exists in any of the town's claims
      */
-    public boolean townHasLectern(String townUuid, TownClaimDAO claimDAO) {
-        try (PreparedStatement stmt = connection.prepareStatement(
-                "SELECT world, x, z FROM town_lecterns"
-        )) {
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    String world = rs.getString("world");
-                    int chunkX = rs.getInt("x") >> 4;
-                    int chunkZ = rs.getInt("z") >> 4;
-                    if (claimDAO.isChunkClaimedByTown(townUuid, world, chunkX, chunkZ)) {
-                        return true;
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().info("Failed to check lecterns for town: " + e.getMessage());
-        }
-        return false;
+    public boolean townHasLectern(String townUuid) {
+        return registry().townHasLectern(LecternType.TOWN, townUuid);
     }
     
     /**
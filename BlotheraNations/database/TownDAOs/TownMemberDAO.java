@@ -99,14 +99,29 @@ public class TownMemberDAO {
      * @param townUuid   The UUID of the town to add the player to.
      */
     public void addMember(String playerUuid, String townUuid) {
+        try {
+            insertMember(playerUuid, townUuid);
+            plugin.getDatabase().getClaimPermissionEngine().onMemberAdded(playerUuid, townUuid);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to add town member: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts a town member without touching the claim permissions, so it can be part of the caller's
+     * transaction off the server thread. The caller updates the permissions once it is back on the server thread.
+     *
+     * @param playerUuid The UUID of the player to add.
+     * @param townUuid   The UUID of the town to add the player to.
+     * @throws SQLException if the member could not be inserted.
+     */
+    public void insertMember(String playerUuid, String townUuid) throws SQLException {
         try (PreparedStatement stmt = connection.prepareStatement(
                 "INSERT INTO town_members (player_uuid, town_uuid) VALUES (?, ?)"
         )) {
             stmt.setString(1, playerUuid);
             stmt.setString(2, townUuid);
             stmt.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to add town member: " + e.getMessage());
         }
     }
 
@@ -174,6 +189,7 @@ public class TownMemberDAO {
                 int affected = stmt.executeUpdate();
                 if (affected == 0) return false;
             }
+            plugin.getDatabase().getClaimPermissionEngine().onMemberRemoved(playerUuid, townUuid);
 
             // Get the nation of the town
             String nationUuid = plugin.getDatabase().getTownDAO().getNationUuidFromTownUuid(townUuid);
@@ -210,6 +226,7 @@ public class TownMemberDAO {
         )) {
             stmt.setString(1, townUuid);
             int affected = stmt.executeUpdate();
+            plugin.getDatabase().getClaimPermissionEngine().onTownRemoved(townUuid);
             if (affected > 0) {
                 plugin.getLogger().info("Removed " + affected + " memberships for town: " + townUuid);
             } else {
@@ -0,0 +1,247 @@
+package com.blothera.database.TownDAOs;
+
+import com.blothera.NationPlugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the rarely changing metadata of every town,
+ * so hot paths such as player movement never have to query SQLite.
+ * <p>
+ * The cache is loaded once at startup. {@link TownDAO} writes through to it whenever it
+ * changes a town, and the town and nation listeners refresh it from the database
+ * when the corresponding events fire.
+ */
+public class TownMetadataCache {
+
+    private final Connection connection;
+    private final NationPlugin plugin;
+    private final Map<String, TownMetadata> towns = new ConcurrentHashMap<>();
+    private final Map<String, String> nationNames = new ConcurrentHashMap<>();
+
+    public TownMetadataCache(NationPlugin plugin, Connection connection) {
+        this.plugin = plugin;
+        this.connection = connection;
+    }
+
+    /**
+     * Reloads the metadata of every town and the name of every nation from the main connection.
+     *
+     * @return The number of towns and nations loaded, or -1 if loading failed.
+     */
+    public int load() {
+        return load(connection);
+    }
+
+    /**
+     * Loads the metadata of every town and the name of every nation into memory.
+     * This method is called by the {@link com.blothera.database.CacheWarmup} during plugin initialization.
+     *
+     * @param source The connection to load from, which may be a read-only connection of its own.
+     * @return The number of towns and nations loaded, or -1 if loading failed.
+     */
+    public int load(Connection source) {
+        towns.clear();
+        nationNames.clear();
+        try (PreparedStatement stmt = source.prepareStatement(
+                "SELECT uuid, name, nation_uuid, is_capital, is_dormant, leader_uuid, tax_paid_until FROM towns");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                towns.put(rs.getString("uuid"), readTown(rs));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load town metadata into cache: " + e.getMessage());
+            return -1;
+        }
+
+        try (PreparedStatement stmt = source.prepareStatement("SELECT uuid, name FROM nations");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                nationNames.put(rs.getString("uuid"), rs.getString("name"));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load nation names into cache: " + e.getMessage());
+            return -1;
+        }
+
+        return towns.size() + nationNames.size();
+    }
+
+    /**
+     * Retrieves the cached metadata of a town.
+     *
+     * @param townUuid The UUID of the town.
+     * @return The town's metadata, or null if the town is not known.
+     */
+    public TownMetadata get(String townUuid) {
+        if (townUuid == null) return null;
+        return towns.get(townUuid);
+    }
+
+    /**
+     * Retrieves the cached name of a nation.
+     *
+     * @param nationUuid The UUID of the nation.
+     * @return The name of the nation, or null if the nation is not known.
+     */
+    public String getNationName(String nationUuid) {
+        if (nationUuid == null) return null;
+        return nationNames.get(nationUuid);
+    }
+
+    /**
+     * Retrieves the cached name of the nation a town belongs to.
+     *
+     * @param townUuid The UUID of the town.
+     * @return The name of the nation, or null if the town or nation is not known.
+     */
+    public String getNationNameForTown(String townUuid) {
+        TownMetadata town = get(townUuid);
+        return town == null ? null : getNationName(town.nationUuid());
+    }
+
+    /**
+     * Re-reads a single town from the database, removing it from the cache if it no longer exists.
+     *
+     * @param townUuid The UUID of the town to refresh.
+     */
+    public void refresh(String townUuid) {
+        if (townUuid == null) return;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT uuid, name, nation_uuid, is_capital, is_dormant, leader_uuid, tax_paid_until FROM towns WHERE uuid = ?"
+        )) {
+            stmt.setString(1, townUuid);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    towns.put(townUuid, readTown(rs));
+                } else {
+                    towns.remove(townUuid);
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to refresh town metadata: " + e.getMessage());
+            towns.remove(townUuid);
+        }
+    }
+
+    /**
+     * Re-reads every town of a nation from the database.
+     * Used when a change affects several towns at once, such as a capital transfer.
+     *
+     * @param nationUuid The UUID of the nation whose towns should be refreshed.
+     */
+    public void refreshTownsOfNation(String nationUuid) {
+        if (nationUuid == null) return;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT uuid, name, nation_uuid, is_capital, is_dormant, leader_uuid, tax_paid_until FROM towns WHERE nation_uuid = ?"
+        )) {
+            stmt.setString(1, nationUuid);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    towns.put(rs.getString("uuid"), readTown(rs));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to refresh towns of nation: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-reads the name of a nation from the database, removing it from the cache if it no longer exists.
+     *
+     * @param nationUuid The UUID of the nation to refresh.
+     */
+    public void refreshNation(String nationUuid) {
+        if (nationUuid == null) return;
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT name FROM nations WHERE uuid = ?")) {
+            stmt.setString(1, nationUuid);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    nationNames.put(nationUuid, rs.getString("name"));
+                } else {
+                    nationNames.remove(nationUuid);
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to refresh nation name: " + e.getMessage());
+            nationNames.remove(nationUuid);
+        }
+    }
+
+    /**
+     * Removes a town from the cache.
+     *
+     * @param townUuid The UUID of the town to remove.
+     */
+    public void remove(String townUuid) {
+        if (townUuid == null) return;
+        towns.remove(townUuid);
+    }
+
+    /**
+     * Removes a nation from the cache.
+     *
+     * @param nationUuid The UUID of the nation to remove.
+     */
+    public void removeNation(String nationUuid) {
+        if (nationUuid == null) return;
+        nationNames.remove(nationUuid);
+    }
+
+    void setName(String townUuid, String name) {
+        towns.computeIfPresent(townUuid, (k, t) -> new TownMetadata(name, t.nationUuid(), t.capital(), t.dormant(), t.leaderUuid(), t.taxPaidUntil()));
+    }
+
+    void setLeader(String townUuid, String leaderUuid) {
+        towns.computeIfPresent(townUuid, (k, t) -> new TownMetadata(t.name(), t.nationUuid(), t.capital(), t.dormant(), leaderUuid, t.taxPaidUntil()));
+    }
+
+    void setDormant(String townUuid, boolean dormant) {
+        towns.computeIfPresent(townUuid, (k, t) -> new TownMetadata(t.name(), t.nationUuid(), t.capital(), dormant, t.leaderUuid(), t.taxPaidUntil()));
+    }
+
+    void setTaxPaidUntil(String townUuid, String taxPaidUntil) {
+        towns.computeIfPresent(townUuid, (k, t) -> new TownMetadata(t.name(), t.nationUuid(), t.capital(), t.dormant(), t.leaderUuid(), taxPaidUntil));
+    }
+
+    /**
+     * Updates the cached name of a nation.
+     *
+     * @param nationUuid The UUID of the nation.
+     * @param name       The new name of the nation.
+     */
+    public void setNationName(String nationUuid, String name) {
+        if (nationUuid == null || name == null) return;
+        nationNames.put(nationUuid, name);
+    }
+
+    private static TownMetadata readTown(ResultSet rs) throws SQLException {
+        return new TownMetadata(
+                rs.getString("name"),
+                rs.getString("nation_uuid"),
+                rs.getInt("is_capital") == 1,
+                rs.getInt("is_dormant") == 1,
+                rs.getString("leader_uuid"),
+                rs.getString("tax_paid_until")
+        );
+    }
+
+    /**
+     * A snapshot of a town's metadata.
+     *
+     * @param name         The name of the town.
+     * @param nationUuid   The UUID of the nation the town belongs to.
+     * @param capital      Whether the town is the capital of its nation.
+     * @param dormant      Whether the town is dormant.
+     * @param leaderUuid   The UUID of the town leader.
+     * @param taxPaidUntil The date until which taxes have been paid, in YYYY-MM-DD format.
+     */
+    public record TownMetadata(String name, String nationUuid, boolean capital, boolean dormant,
+                               String leaderUuid, String taxPaidUntil) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.blothera.database.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One committed transaction in the {@link MutationJournal}: its sequence number and the
+ * mutating statements it ran, with their bound parameters, in execution order.
+ * <p>
+ * Statement text is written through a per-segment dictionary, so a statement a DAO runs
+ * over and over is spelled out once per segment and afterwards costs a single varint.
+ * Parameters are written with a one-byte type tag followed by the raw value.
+ *
+ * @param seq        The sequence number of the transaction, strictly increasing.
+ * @param statements The statements of the transaction.
+ */
+record JournalEntry(long seq, List<Statement> statements) {
+
+    private static final byte SQL_REFERENCE = 0;
+    private static final byte SQL_DEFINITION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_DOUBLE = 3;
+    private static final byte TYPE_STRING = 4;
+    private static final byte TYPE_BYTES = 5;
+    private static final byte TYPE_TRUE = 6;
+    private static final byte TYPE_FALSE = 7;
+
+    /**
+     * A statement as it was executed.
+     *
+     * @param sql    The SQL text.
+     * @param params The bound parameters, index 0 holds parameter 1.
+     */
+    record Statement(String sql, Object[] params) {
+    }
+
+    /**
+     * Writes the entry.
+     *
+     * @param out        The output to write to.
+     * @param dictionary The statements already defined in the current segment, updated with new definitions.
+     * @throws IOException if writing fails.
+     */
+    void encode(DataOutput out, Map<String, Integer> dictionary) throws IOException {
+        out.writeLong(seq);
+        writeVarInt(out, statements.size());
+        for (Statement statement : statements) {
+            Integer id = dictionary.get(statement.sql());
+            if (id != null) {
+                out.writeByte(SQL_REFERENCE);
+                writeVarInt(out, id);
+            } else {
+                id = dictionary.size();
+                dictionary.put(statement.sql(), id);
+                out.writeByte(SQL_DEFINITION);
+                writeVarInt(out, id);
+                writeString(out, statement.sql());
+            }
+
+            writeVarInt(out, statement.params().length);
+            for (Object param : statement.params()) {
+                writeParam(out, param);
+            }
+        }
+    }
+
+    /**
+     * Reads an entry written by {@link #encode(DataOutput, Map)}.
+     *
+     * @param in         The input to read from.
+     * @param dictionary The statements defined so far in the current segment, by id.
+     * @return The entry.
+     * @throws IOException if the entry is malformed.
+     */
+    static JournalEntry decode(DataInput in, List<String> dictionary) throws IOException {
+        long seq = in.readLong();
+        int count = readVarInt(in);
+        List<Statement> statements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte kind = in.readByte();
+            int id = readVarInt(in);
+            String sql;
+            if (kind == SQL_DEFINITION) {
+                if (id != dictionary.size()) throw new IOException("Out of order statement definition " + id);
+                sql = readString(in);
+                dictionary.add(sql);
+            } else if (kind == SQL_REFERENCE && id < dictionary.size()) {
+                sql = dictionary.get(id);
+            } else {
+                throw new IOException("Unknown statement reference " + id);
+            }
+
+            Object[] params = new Object[readVarInt(in)];
+            for (int p = 0; p < params.length; p++) {
+                params[p] = readParam(in);
+            }
+            statements.add(new Statement(sql, params));
+        }
+        return new JournalEntry(seq, statements);
+    }
+
+    private static void writeParam(DataOutput out, Object param) throws IOException {
+        if (param == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (param instanceof Integer || param instanceof Short || param instanceof Byte) {
+            out.writeByte(TYPE_INT);
+            out.writeInt(((Number) param).intValue());
+        } else if (param instanceof Long value) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong(value);
+        } else if (param instanceof Double || param instanceof Float) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble(((Number) param).doubleValue());
+        } else if (param instanceof Boolean value) {
+            out.writeByte(value ? TYPE_TRUE : TYPE_FALSE);
+        } else if (param instanceof byte[] value) {
+            out.writeByte(TYPE_BYTES);
+            writeVarInt(out, value.length);
+            out.write(value);
+        } else {
+            // SQLite stores anything else (timestamps, decimals) by its text form anyway
+            out.writeByte(TYPE_STRING);
+            writeString(out, param.toString());
+        }
+    }
+
+    private static Object readParam(DataInput in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_INT -> in.readInt();
+            case TYPE_LONG -> in.readLong();
+            case TYPE_DOUBLE -> in.readDouble();
+            case TYPE_STRING -> readString(in);
+            case TYPE_BYTES -> {
+                byte[] value = new byte[readVarInt(in)];
+                in.readFully(value);
+                yield value;
+            }
+            case TYPE_TRUE -> Boolean.TRUE;
+            case TYPE_FALSE -> Boolean.FALSE;
+            default -> throw new IOException("Unknown parameter type " + type);
+        };
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) throw new IOException("Negative length " + value);
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
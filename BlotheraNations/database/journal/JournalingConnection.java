@@ -0,0 +1,207 @@
+package com.blothera.database.journal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Connection proxy which journals every transaction committed through it.
+ * <p>
+ * The DAOs are unchanged: statements still execute on SQLite straight away, so they read their
+ * own writes as before. The proxy records each mutating statement with its bound parameters and,
+ * when the transaction commits, stamps it with a journal sequence number in {@code journal_state}
+ * and hands it to the {@link MutationJournal}. A statement run in auto-commit mode is wrapped in
+ * a transaction of its own so the stamp commits atomically with it.
+ * <p>
+ * Each write connection has a proxy of its own, so the open transaction tracked here only ever holds
+ * statements of the thread which owns the connection. The proxies of the server thread's and the writer
+ * thread's connections share one journal, which orders their commits.
+ * <p>
+ * Savepoints are not tracked, none of the DAOs use them.
+ */
+final class JournalingConnection implements InvocationHandler {
+
+    private static final Object[] NO_PARAMS = new Object[0];
+
+    private final Connection connection;
+    private final MutationJournal journal;
+    private final List<JournalEntry.Statement> transaction = new ArrayList<>();
+    private boolean autoCommit;
+    private Connection proxy;
+
+    private JournalingConnection(Connection connection, MutationJournal journal) throws SQLException {
+        this.connection = connection;
+        this.journal = journal;
+        this.autoCommit = connection.getAutoCommit();
+    }
+
+    static Connection wrap(Connection connection, MutationJournal journal) throws SQLException {
+        JournalingConnection handler = new JournalingConnection(connection, journal);
+        handler.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+        return handler.proxy;
+    }
+
+    @Override
+    public synchronized Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "prepareStatement" -> {
+                Statement statement = (Statement) invokeOn(connection, method, args);
+                return wrapStatement(PreparedStatement.class, statement, (String) args[0]);
+            }
+            case "createStatement" -> {
+                Statement statement = (Statement) invokeOn(connection, method, args);
+                return wrapStatement(Statement.class, statement, null);
+            }
+            case "setAutoCommit" -> {
+                boolean enable = (Boolean) args[0];
+                // Switching auto-commit back on commits the open transaction
+                if (enable && !autoCommit) commitTransaction();
+                connection.setAutoCommit(enable);
+                autoCommit = enable;
+                return null;
+            }
+            case "getAutoCommit" -> {
+                return autoCommit;
+            }
+            case "commit" -> {
+                commitTransaction();
+                return null;
+            }
+            case "rollback" -> {
+                invokeOn(connection, method, args);
+                if (args == null) transaction.clear();
+                return null;
+            }
+            default -> {
+                return invokeOn(connection, method, args);
+            }
+        }
+    }
+
+    private void commitTransaction() throws SQLException {
+        if (transaction.isEmpty()) {
+            connection.commit();
+            return;
+        }
+        journal.commit(connection, List.copyOf(transaction));
+        transaction.clear();
+    }
+
+    /**
+     * Runs a mutation, journaling it once its transaction commits.
+     */
+    private synchronized Object execute(Statement statement, Method method, Object[] args,
+                                        List<JournalEntry.Statement> statements) throws Throwable {
+        if (!autoCommit) {
+            Object result = invokeOn(statement, method, args);
+            transaction.addAll(statements);
+            return result;
+        }
+
+        connection.setAutoCommit(false);
+        try {
+            Object result = invokeOn(statement, method, args);
+            journal.commit(connection, statements);
+            return result;
+        } catch (Throwable e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private Object wrapStatement(Class<? extends Statement> type, Statement statement, String sql) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new StatementHandler(statement, sql));
+    }
+
+    /**
+     * Anything but a query is journaled, the DAOs only run plain inserts, updates and deletes.
+     */
+    private static boolean isMutation(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) end++;
+        String keyword = trimmed.substring(0, end).toUpperCase(Locale.ROOT);
+        return !keyword.equals("SELECT") && !keyword.equals("VALUES")
+                && !keyword.equals("PRAGMA") && !keyword.equals("EXPLAIN");
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Captures the bound parameters and batches of a statement.
+     * For a plain {@link Statement} the SQL is null and comes with each execute call instead.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String sql;
+        private Object[] params = NO_PARAMS;
+        private List<JournalEntry.Statement> batch = new ArrayList<>();
+
+        private StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (sql != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                Object result = invokeOn(statement, method, args);
+                bind(index, name.equals("setNull") ? null : args[1]);
+                return result;
+            }
+
+            switch (name) {
+                case "clearParameters" -> params = NO_PARAMS;
+                case "addBatch" -> batch.add(args == null ? snapshot() : new JournalEntry.Statement((String) args[0], NO_PARAMS));
+                case "clearBatch" -> batch.clear();
+                case "executeBatch", "executeLargeBatch" -> {
+                    List<JournalEntry.Statement> statements = batch;
+                    batch = new ArrayList<>();
+                    return execute(statement, method, args, statements);
+                }
+                case "executeUpdate", "executeLargeUpdate", "execute" -> {
+                    String text = args == null ? sql : (String) args[0];
+                    if (isMutation(text)) {
+                        JournalEntry.Statement executed = args == null ? snapshot() : new JournalEntry.Statement(text, NO_PARAMS);
+                        return execute(statement, method, args, List.of(executed));
+                    }
+                }
+                case "getConnection" -> {
+                    return proxy;
+                }
+                default -> {
+                }
+            }
+            return invokeOn(statement, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index > params.length) params = Arrays.copyOf(params, index);
+            params[index - 1] = value instanceof byte[] bytes ? bytes.clone() : value;
+        }
+
+        private JournalEntry.Statement snapshot() {
+            return new JournalEntry.Statement(sql, params.clone());
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.blothera.database.journal;
+
+import com.blothera.NationPlugin;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Sequential redo journal of every transaction committed on the main connection.
+ * <p>
+ * With the journal enabled SQLite runs with {@code synchronous = NORMAL} and automatic
+ * checkpoints turned off, so a commit on the main thread never waits for the disk. Instead each
+ * committed transaction is handed to the journal as a compact binary entry, and a background
+ * thread appends the entries to a segment file and syncs it once per group, at most
+ * {@value #GROUP_COMMIT_MILLIS}ms after the commit.
+ * <p>
+ * The same thread periodically compacts the journal: it checkpoints the write-ahead log into
+ * {@code blothera.db} in one pass and deletes the segments whose entries are now part of the
+ * database file. Every transaction records its sequence number in {@code journal_state}, so
+ * the database always knows exactly which entries it already holds.
+ * <p>
+ * On startup {@link #recover(Connection)} replays the entries the database is missing, which
+ * are the transactions SQLite lost from its unsynced log after a power failure.
+ * <p>
+ * Segment layout, big-endian:
+ * <pre>
+ * header: int magic, int format version, long first sequence number
+ * entry:  int body length, int body CRC32, body (see {@link JournalEntry})
+ * </pre>
+ */
+public class MutationJournal {
+
+    private static final int MAGIC = 0x424E4A4C; // "BNJL"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int MAX_ENTRY_SIZE = 64 * 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final long GROUP_COMMIT_MILLIS = 50;
+    private static final int GROUP_COMMIT_MAX_ENTRIES = 256;
+    private static final long COMPACT_INTERVAL_MILLIS = 60_000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static final String APPLIED_SEQ_QUERY = "SELECT applied_seq FROM journal_state WHERE id = 1";
+    private static final String MARK_APPLIED = "UPDATE journal_state SET applied_seq = ? WHERE id = 1";
+
+    private final NationPlugin plugin;
+    private final Path directory;
+
+    private final Object lock = new Object();
+    private final Object commitLock = new Object();
+    private final List<JournalEntry> pending = new ArrayList<>();
+    private long nextSeq;
+    private boolean running;
+    private Thread writer;
+
+    // Only touched by the writer thread, or after it has stopped
+    private Connection compactorConnection;
+    private final List<Segment> closedSegments = new ArrayList<>();
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final ByteArrayOutputStream entryBuffer = new ByteArrayOutputStream(4096);
+    private FileChannel channel;
+    private Path segmentPath;
+    private long segmentFirstSeq;
+    private long segmentLastSeq;
+
+    /**
+     * @param plugin    The plugin instance.
+     * @param directory The directory holding the journal segments.
+     */
+    public MutationJournal(NationPlugin plugin, Path directory) {
+        this.plugin = plugin;
+        this.directory = directory;
+    }
+
+    /**
+     * Replays the journal entries the database does not hold yet, then checkpoints the database
+     * and clears the journal. Must be called on the unwrapped main connection before {@link #start(Connection)}.
+     * <p>
+     * Replay stops at the first damaged entry, which after a crash is the entry that was being
+     * written. If an entry cannot be applied, or a damaged entry is followed by further segments,
+     * the segments which were not replayed are moved aside rather than deleted, so they can be inspected.
+     *
+     * @param connection The main connection.
+     * @return The number of replayed transactions.
+     * @throws SQLException if the journal state cannot be read.
+     * @throws IOException  if the journal directory cannot be read.
+     */
+    public int recover(Connection connection) throws SQLException, IOException {
+        Files.createDirectories(directory);
+        long applied = readAppliedSeq(connection);
+        int replayed = 0;
+
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            ReplayResult result;
+            try {
+                result = replay(connection, segment, applied);
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Failed to replay journal segment " + segment.getFileName() + ": " + e.getMessage());
+                quarantine(segments.subList(i, segments.size()));
+                break;
+            }
+            applied = result.applied();
+            replayed += result.replayed();
+            if (!result.complete()) {
+                plugin.getLogger().warning("Journal segment " + segment.getFileName()
+                        + " ends in a damaged entry, later entries were not replayed.");
+                if (i + 1 < segments.size()) quarantine(segments.subList(i + 1, segments.size()));
+                break;
+            }
+        }
+
+        if (replayed > 0) {
+            plugin.getLogger().info("Replayed " + replayed + " journaled transactions up to #" + applied + ".");
+        }
+        checkpoint(connection);
+        for (Path segment : listSegments()) {
+            Files.delete(segment);
+        }
+        nextSeq = applied + 1;
+        return replayed;
+    }
+
+    /**
+     * Opens a new segment and starts the writer thread.
+     *
+     * @param compactorConnection A connection of its own for checkpoints, closed by {@link #close()}.
+     * @throws IOException if the segment cannot be created.
+     */
+    public void start(Connection compactorConnection) throws IOException {
+        this.compactorConnection = compactorConnection;
+        openSegment(nextSeq);
+        synchronized (lock) {
+            running = true;
+        }
+        writer = new Thread(this::run, "Blothera-Journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Wraps a write connection so every transaction committed through it is journaled.
+     * Both the main connection and the writer thread's connection are wrapped.
+     *
+     * @param connection The write connection.
+     * @return The journaling connection.
+     * @throws SQLException if the auto-commit state cannot be read.
+     */
+    public Connection wrap(Connection connection) throws SQLException {
+        return JournalingConnection.wrap(connection, this);
+    }
+
+    /**
+     * Writes the remaining entries, checkpoints the database one last time and deletes the
+     * segments it covers. Must be called after the last write and before the main connection is closed.
+     */
+    public void close() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        try {
+            if (writer != null) writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer != null && writer.isAlive()) {
+            plugin.getLogger().severe("Timed out waiting for the journal writer, the journal is left for replay.");
+            return;
+        }
+
+        compact(true);
+        try {
+            if (compactorConnection != null && !compactorConnection.isClosed()) compactorConnection.close();
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Error closing journal connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stamps an open transaction with the next sequence number, commits it and queues it for the next group write.
+     * <p>
+     * Every journaled connection commits through here, so transactions are queued in the order they committed
+     * and replay, which skips entries numbered at or below the last one applied, never passes over one.
+     * Numbers of transactions which fail to commit are simply skipped.
+     *
+     * @param connection The unwrapped connection with an open transaction.
+     * @param statements The mutations of the transaction.
+     * @throws SQLException if the stamp or the commit fails, in which case the caller rolls back.
+     */
+    void commit(Connection connection, List<JournalEntry.Statement> statements) throws SQLException {
+        synchronized (commitLock) {
+            long seq;
+            synchronized (lock) {
+                seq = nextSeq++;
+            }
+            markApplied(connection, seq);
+            connection.commit();
+            append(new JournalEntry(seq, statements));
+        }
+    }
+
+    /**
+     * Queues a committed transaction for the next group write.
+     *
+     * @param entry The committed transaction.
+     */
+    private void append(JournalEntry entry) {
+        synchronized (lock) {
+            pending.add(entry);
+            if (pending.size() >= GROUP_COMMIT_MAX_ENTRIES) lock.notifyAll();
+        }
+    }
+
+    /**
+     * Records inside the current transaction that it is the given journal entry.
+     *
+     * @param connection The connection with an open transaction.
+     * @param seq        The sequence number of the transaction.
+     * @throws SQLException if the update fails.
+     */
+    private static void markApplied(Connection connection, long seq) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(MARK_APPLIED)) {
+            stmt.setLong(1, seq);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void run() {
+        long nextCompaction = System.currentTimeMillis() + COMPACT_INTERVAL_MILLIS;
+        while (true) {
+            List<JournalEntry> batch;
+            boolean stopping;
+            synchronized (lock) {
+                if (running && pending.size() < GROUP_COMMIT_MAX_ENTRIES) {
+                    try {
+                        lock.wait(GROUP_COMMIT_MILLIS);
+                    } catch (InterruptedException e) {
+                        running = false;
+                    }
+                }
+                batch = new ArrayList<>(pending);
+                pending.clear();
+                stopping = !running;
+            }
+
+            write(batch);
+            if (stopping) return;
+            if (System.currentTimeMillis() >= nextCompaction) {
+                compact(false);
+                nextCompaction = System.currentTimeMillis() + COMPACT_INTERVAL_MILLIS;
+            }
+        }
+    }
+
+    private void write(List<JournalEntry> batch) {
+        if (batch.isEmpty() || channel == null) return;
+        try {
+            ByteArrayOutputStream group = new ByteArrayOutputStream(batch.size() * 128);
+            DataOutputStream out = new DataOutputStream(group);
+            DataOutputStream entryOut = new DataOutputStream(entryBuffer);
+            CRC32 crc = new CRC32();
+            for (JournalEntry entry : batch) {
+                entryBuffer.reset();
+                entry.encode(entryOut, dictionary);
+                byte[] body = entryBuffer.toByteArray();
+                crc.reset();
+                crc.update(body);
+                out.writeInt(body.length);
+                out.writeInt((int) crc.getValue());
+                out.write(body);
+                segmentLastSeq = entry.seq();
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(group.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to write mutation journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checkpoints the write-ahead log into the database file and deletes the segments it covers.
+     * The sequence number is read before the checkpoint, so it never claims more than was checkpointed.
+     */
+    private void compact(boolean closing) {
+        if (compactorConnection == null) return;
+        long applied;
+        try {
+            applied = readAppliedSeq(compactorConnection);
+            if (!checkpoint(compactorConnection)) return;
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Failed to compact mutation journal: " + e.getMessage());
+            return;
+        }
+
+        try {
+            if (closing) {
+                closeSegment();
+            } else if (segmentLastSeq >= segmentFirstSeq) {
+                closeSegment();
+                openSegment(segmentLastSeq + 1);
+            }
+            closedSegments.removeIf(segment -> {
+                if (segment.lastSeq() > applied) return false;
+                try {
+                    Files.deleteIfExists(segment.path());
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Failed to delete journal segment " + segment.path().getFileName() + ": " + e.getMessage());
+                    return false;
+                }
+                return true;
+            });
+        } catch (IOException e) {
+            plugin.getLogger().severe("Failed to roll mutation journal: " + e.getMessage());
+        }
+    }
+
+    private void openSegment(long firstSeq) throws IOException {
+        segmentPath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION).putLong(firstSeq).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+        segmentFirstSeq = firstSeq;
+        segmentLastSeq = firstSeq - 1;
+        dictionary.clear();
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) return;
+        channel.close();
+        channel = null;
+        closedSegments.add(new Segment(segmentPath, segmentLastSeq));
+    }
+
+    private ReplayResult replay(Connection connection, Path segment, long applied) throws SQLException, IOException {
+        List<String> segmentDictionary = new ArrayList<>();
+        int replayed = 0;
+        try (InputStream file = Files.newInputStream(segment);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return new ReplayResult(applied, 0, false);
+            }
+            in.readLong();
+
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return new ReplayResult(applied, replayed, true);
+                }
+                if (length <= 0 || length > MAX_ENTRY_SIZE) return new ReplayResult(applied, replayed, false);
+                int checksum = in.readInt();
+                byte[] body = new byte[length];
+                in.readFully(body);
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) return new ReplayResult(applied, replayed, false);
+
+                JournalEntry entry = JournalEntry.decode(new DataInputStream(new ByteArrayInputStream(body)), segmentDictionary);
+                if (entry.seq() <= applied) continue;
+                apply(connection, entry);
+                applied = entry.seq();
+                replayed++;
+            }
+        } catch (EOFException e) {
+            // Torn write of the last entry
+            return new ReplayResult(applied, replayed, false);
+        }
+    }
+
+    private static void apply(Connection connection, JournalEntry entry) throws SQLException {
+        try {
+            connection.setAutoCommit(false);
+            for (JournalEntry.Statement statement : entry.statements()) {
+                try (PreparedStatement stmt = connection.prepareStatement(statement.sql())) {
+                    Object[] params = statement.params();
+                    for (int i = 0; i < params.length; i++) {
+                        stmt.setObject(i + 1, params[i]);
+                    }
+                    stmt.execute();
+                }
+            }
+            markApplied(connection, entry.seq());
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Transaction #" + entry.seq() + ": " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void quarantine(List<Path> segments) throws IOException {
+        Path failed = directory.resolve("failed-" + System.currentTimeMillis());
+        Files.createDirectories(failed);
+        for (Path segment : segments) {
+            Files.move(segment, failed.resolve(segment.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        }
+        plugin.getLogger().severe("Moved " + segments.size() + " unreplayed journal segments to " + failed + ".");
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            // Zero-padded first sequence numbers sort by name
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static long readAppliedSeq(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(APPLIED_SEQ_QUERY)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * @return true if the whole write-ahead log was checkpointed, false if a reader kept part of it busy.
+     */
+    private static boolean checkpoint(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(TRUNCATE);")) {
+            return rs.next() && rs.getInt(1) == 0;
+        }
+    }
+
+    private record Segment(Path path, long lastSeq) {
+    }
+
+    private record ReplayResult(long applied, int replayed, boolean complete) {
+    }
+}
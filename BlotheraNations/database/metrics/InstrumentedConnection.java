@@ -0,0 +1,118 @@
+package com.blothera.database.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Connection proxy which times every statement executed through it for {@link QueryMetrics}.
+ * <p>
+ * Result sets are wrapped as well, so the rows a query returns are counted as they are read.
+ */
+final class InstrumentedConnection implements InvocationHandler {
+
+    private final Connection connection;
+    private final QueryMetrics metrics;
+    private Connection proxy;
+
+    private InstrumentedConnection(Connection connection, QueryMetrics metrics) {
+        this.connection = connection;
+        this.metrics = metrics;
+    }
+
+    static Connection wrap(Connection connection, QueryMetrics metrics) {
+        InstrumentedConnection handler = new InstrumentedConnection(connection, metrics);
+        handler.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+        return handler.proxy;
+    }
+
+    @Override
+    public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        Object result = invokeOn(connection, method, args);
+        return switch (method.getName()) {
+            case "prepareStatement" -> wrapStatement(PreparedStatement.class, (Statement) result, (String) args[0]);
+            case "createStatement" -> wrapStatement(Statement.class, (Statement) result, null);
+            default -> result;
+        };
+    }
+
+    private Object wrapStatement(Class<? extends Statement> type, Statement statement, String sql) {
+        StatementStats stats = sql != null ? metrics.getStats(sql) : null;
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new StatementHandler(statement, stats));
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Times the execute calls of a statement. For a plain {@link Statement} the counters are
+     * looked up by the SQL passed to each call.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final StatementStats preparedStats;
+        private StatementStats lastStats;
+
+        private StatementHandler(Statement statement, StatementStats preparedStats) {
+            this.statement = statement;
+            this.preparedStats = preparedStats;
+        }
+
+        @Override
+        public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.equals("getConnection")) return proxy;
+                Object result = invokeOn(statement, method, args);
+                if (name.equals("getResultSet") && result != null && lastStats != null) {
+                    return wrapResultSet((ResultSet) result, lastStats);
+                }
+                return result;
+            }
+
+            StatementStats stats = args != null && args.length > 0 && args[0] instanceof String sql
+                    ? metrics.getStats(sql) : preparedStats;
+            if (stats == null) return invokeOn(statement, method, args);
+            lastStats = stats;
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeOn(statement, method, args);
+            } finally {
+                metrics.record(stats, System.nanoTime() - start);
+            }
+
+            if (result instanceof ResultSet resultSet) return wrapResultSet(resultSet, stats);
+            if (result instanceof Integer count) stats.addRows(Math.max(0, count));
+            else if (result instanceof Long count) stats.addRows(Math.max(0, count));
+            else if (result instanceof int[] counts) {
+                for (int count : counts) stats.addRows(Math.max(0, count));
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) stats.addRows(Math.max(0, count));
+            }
+            return result;
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet, StatementStats stats) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (rsProxy, method, args) -> {
+                        Object result = invokeOn(resultSet, method, args);
+                        if (method.getName().equals("next") && Boolean.TRUE.equals(result)) stats.addRows(1);
+                        return result;
+                    });
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.blothera.database.metrics;
+
+import com.blothera.NationPlugin;
+import org.bukkit.Bukkit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Call counts, latency histograms and rows touched for every SQL statement run by the DAOs.
+ * <p>
+ * Connections wrapped with {@link #wrap(Connection)} time every execute call and count the rows
+ * it returned or changed, keyed by the statement text. A call slower than the configured
+ * threshold is logged together with the book handler, listener or task that made it.
+ * <p>
+ * The number of statements run on the server thread is also counted per tick, over the last
+ * {@value #TICK_HISTORY} ticks, since that is the SQL time which delays the game.
+ */
+public class QueryMetrics {
+
+    private static final String SLOW_QUERY_OPTION = "database.slow-query-ms";
+    private static final int DEFAULT_SLOW_QUERY_MS = 20;
+    private static final int TICK_HISTORY = 1200;
+    private static final int MAX_SQL_LENGTH = 160;
+    private static final String PACKAGE_PREFIX = "com.blothera.";
+    private static final String DATABASE_PACKAGE_PREFIX = "com.blothera.database.";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final NationPlugin plugin;
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final long slowQueryNanos;
+
+    // Only touched on the server thread
+    private final int[] tickCalls = new int[TICK_HISTORY];
+    private int tickIndex;
+    private int currentTickCalls;
+    private long ticks;
+
+    public QueryMetrics(NationPlugin plugin) {
+        this.plugin = plugin;
+        this.slowQueryNanos = plugin.getConfig().getInt(SLOW_QUERY_OPTION, DEFAULT_SLOW_QUERY_MS) * 1_000_000L;
+    }
+
+    /**
+     * Starts closing off the per-tick counter at the end of every tick.
+     */
+    public void start() {
+        Bukkit.getScheduler().runTaskTimer(plugin, this::endTick, 1L, 1L);
+    }
+
+    /**
+     * Wraps a connection so every statement run through it is measured.
+     *
+     * @param connection The connection to measure.
+     * @return The measured connection.
+     */
+    public Connection wrap(Connection connection) {
+        return InstrumentedConnection.wrap(connection, this);
+    }
+
+    /**
+     * @param sql The statement text.
+     * @return The counters of the statement, created on first use.
+     */
+    StatementStats getStats(String sql) {
+        return statements.computeIfAbsent(sql, StatementStats::new);
+    }
+
+    /**
+     * Records one execution of a statement.
+     *
+     * @param stats The counters of the statement.
+     * @param nanos How long the call took.
+     */
+    void record(StatementStats stats, long nanos) {
+        boolean mainThread = Bukkit.isPrimaryThread();
+        stats.record(nanos, mainThread);
+        if (mainThread) currentTickCalls++;
+        if (nanos >= slowQueryNanos) logSlowQuery(stats.getSql(), nanos, mainThread);
+    }
+
+    private void logSlowQuery(String sql, long nanos, boolean mainThread) {
+        String caller = STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(PACKAGE_PREFIX)
+                        && !frame.getClassName().startsWith(DATABASE_PACKAGE_PREFIX))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unknown caller"));
+        plugin.getLogger().warning("Slow query (" + nanos / 1_000_000 + "ms" + (mainThread ? ", server thread" : "")
+                + ") from " + caller + ": " + abbreviate(sql));
+    }
+
+    private void endTick() {
+        tickCalls[tickIndex] = currentTickCalls;
+        tickIndex = (tickIndex + 1) % TICK_HISTORY;
+        currentTickCalls = 0;
+        ticks++;
+    }
+
+    /**
+     * @return The number of statements run on the server thread during the last completed tick.
+     */
+    public int getLastTickCalls() {
+        return ticks == 0 ? 0 : tickCalls[(tickIndex + TICK_HISTORY - 1) % TICK_HISTORY];
+    }
+
+    /**
+     * @return The most statements run on the server thread in a single tick, over the tick history.
+     */
+    public int getMaxTickCalls() {
+        int max = 0;
+        for (int calls : tickCalls) {
+            max = Math.max(max, calls);
+        }
+        return max;
+    }
+
+    /**
+     * @return The average number of statements run on the server thread per tick, over the tick history.
+     */
+    public double getAverageTickCalls() {
+        int recorded = (int) Math.min(ticks, TICK_HISTORY);
+        if (recorded == 0) return 0;
+        long total = 0;
+        for (int calls : tickCalls) {
+            total += calls;
+        }
+        return (double) total / recorded;
+    }
+
+    /**
+     * @return The counters of every statement seen so far, most total time first.
+     */
+    public List<StatementStats> getStatements() {
+        List<StatementStats> sorted = new ArrayList<>(statements.values());
+        sorted.sort(Comparator.comparingLong(StatementStats::getTotalNanos).reversed());
+        return sorted;
+    }
+
+    /**
+     * Forgets every counter collected so far.
+     */
+    public void reset() {
+        statements.clear();
+    }
+
+    /**
+     * Builds a plain-text report of every statement, most total time first.
+     *
+     * @return The report lines.
+     */
+    public List<String> buildReport() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "Server thread SQL calls per tick: last %d, average %.2f, max %d (last %d ticks)",
+                getLastTickCalls(), getAverageTickCalls(), getMaxTickCalls(), TICK_HISTORY));
+        lines.add(String.format(Locale.ROOT, "%10s %10s %10s %8s %8s %8s %10s %10s  %s",
+                "calls", "main", "total ms", "mean us", "p50 us", "p99 us", "max us", "rows", "statement"));
+        for (StatementStats stats : getStatements()) {
+            long calls = stats.getCalls();
+            lines.add(String.format(Locale.ROOT, "%10d %10d %10d %8d %8d %8d %10d %10d  %s",
+                    calls, stats.getMainThreadCalls(), stats.getTotalNanos() / 1_000_000,
+                    calls == 0 ? 0 : stats.getTotalNanos() / calls / 1000,
+                    stats.getPercentileMicros(0.5), stats.getPercentileMicros(0.99),
+                    stats.getMaxNanos() / 1000, stats.getRows(), abbreviate(stats.getSql())));
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the report to the console and to a timestamped file in the plugin folder.
+     *
+     * @return The file the report is written to.
+     */
+    public Path dump() {
+        List<String> report = buildReport();
+        for (String line : report) {
+            plugin.getLogger().info(line);
+        }
+
+        Path file = plugin.getDataFolder().toPath().resolve("sql-metrics-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".txt");
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Files.write(file, report, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to write SQL metrics: " + e.getMessage());
+            }
+        });
+        return file;
+    }
+
+    /**
+     * Collapses whitespace and shortens a statement for display.
+     *
+     * @param sql The statement text.
+     * @return The statement on a single line.
+     */
+    public static String abbreviate(String sql) {
+        String line = sql.strip().replaceAll("\\s+", " ");
+        return line.length() <= MAX_SQL_LENGTH ? line : line.substring(0, MAX_SQL_LENGTH - 3) + "...";
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,88 @@
+package com.blothera.database.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for a single SQL statement, safe to update from any thread.
+ * <p>
+ * Latencies go into a histogram with power-of-two microsecond buckets: bucket {@code b}
+ * holds calls which took less than {@code 2^b} microseconds and at least half that.
+ * Percentiles are reported as the upper bound of their bucket.
+ */
+public class StatementStats {
+
+    private static final int BUCKETS = 32;
+
+    private final String sql;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder mainThreadCalls = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    StatementStats(String sql) {
+        this.sql = sql;
+    }
+
+    void record(long nanos, boolean mainThread) {
+        calls.increment();
+        if (mainThread) mainThreadCalls.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        long micros = nanos / 1000;
+        histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+    }
+
+    void addRows(long count) {
+        rows.add(count);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getMainThreadCalls() {
+        return mainThreadCalls.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 1.
+     * @return An upper bound of the latency at the percentile in microseconds, or 0 if there were no calls.
+     */
+    public long getPercentileMicros(double percentile) {
+        long total = 0;
+        long[] counts = new long[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++) {
+            counts[b] = histogram.get(b);
+            total += counts[b];
+        }
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank) return 1L << b;
+        }
+        return 1L << (BUCKETS - 1);
+    }
+}
@@ -0,0 +1,147 @@
+package com.blothera.listener.book;
+
+import com.blothera.book.handler.infobook.InfoBookCache;
+import com.blothera.event.diplomacy.AllianceBrokenEvent;
+import com.blothera.event.diplomacy.AllianceFormedEvent;
+import com.blothera.event.diplomacy.PeaceEstablishedEvent;
+import com.blothera.event.diplomacy.WarDeclaredEvent;
+import com.blothera.event.nation.NationCapitalTransferEvent;
+import com.blothera.event.nation.NationLeaderChangedEvent;
+import com.blothera.event.nation.NationLeaderExiledEvent;
+import com.blothera.event.nation.NationMemberExileEvent;
+import com.blothera.event.nation.NationMemberLeaveEvent;
+import com.blothera.event.nation.NationRemovedEvent;
+import com.blothera.event.nation.NationRenamedEvent;
+import com.blothera.event.town.TownExpandedEvent;
+import com.blothera.event.town.TownFormationEvent;
+import com.blothera.event.town.TownJoinRequestAcceptedEvent;
+import com.blothera.event.town.TownLeaderChangedEvent;
+import com.blothera.event.town.TownMemberExileEvent;
+import com.blothera.event.town.TownMemberLeaveEvent;
+import com.blothera.event.town.TownRemovedEvent;
+import com.blothera.event.town.TownRenamedEvent;
+import com.blothera.event.town.TownTaxPaidEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Bumps the versions in the {@link InfoBookCache} for every event which changes what an info book shows.
+ */
+public class InfoBookCacheListener implements Listener {
+
+    private final InfoBookCache cache;
+
+    public InfoBookCacheListener(InfoBookCache cache) {
+        this.cache = cache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownFormation(TownFormationEvent event) {
+        cache.bumpTown(event.getTownUuid(), event.getNationUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownRemoved(TownRemovedEvent event) {
+        cache.bumpTown(event.getTownUuid(), event.getNationUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownRenamed(TownRenamedEvent event) {
+        cache.bumpTown(event.getTownUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownExpanded(TownExpandedEvent event) {
+        cache.bumpTown(event.getTownUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownLeaderChanged(TownLeaderChangedEvent event) {
+        cache.bumpTown(event.getTownUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownMemberExile(TownMemberExileEvent event) {
+        cache.bumpTown(event.getTownUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownMemberLeave(TownMemberLeaveEvent event) {
+        cache.bumpTown(event.getTownUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownJoinRequestAccepted(TownJoinRequestAcceptedEvent event) {
+        cache.bumpTown(event.getTownUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownTaxPaid(TownTaxPaidEvent event) {
+        cache.bumpTown(event.getTownUuid());
+    }
+
+    /**
+     * Diplomacy and war books of other nations show the name, so every book is rebuilt.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationRenamed(NationRenamedEvent event) {
+        cache.bump(event.getNationUuid());
+        cache.bump(InfoBookCache.ALL_NATIONS);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationRemoved(NationRemovedEvent event) {
+        cache.bump(event.getNationUuid());
+        cache.bump(InfoBookCache.ALL_NATIONS);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationCapitalTransfer(NationCapitalTransferEvent event) {
+        cache.bump(event.getNationUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationLeaderChanged(NationLeaderChangedEvent event) {
+        cache.bump(event.getNationUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationLeaderExiled(NationLeaderExiledEvent event) {
+        cache.bump(event.getNationUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationMemberExile(NationMemberExileEvent event) {
+        cache.bump(event.getNationUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationMemberLeave(NationMemberLeaveEvent event) {
+        cache.bump(event.getNationUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWarDeclared(WarDeclaredEvent event) {
+        cache.bump(event.getSourceNationUuid());
+        cache.bump(event.getTargetNationUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPeaceEstablished(PeaceEstablishedEvent event) {
+        cache.bump(event.getSourceNationUuid());
+        cache.bump(event.getTargetNationUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAllianceFormed(AllianceFormedEvent event) {
+        cache.bump(event.getSourceNationUuid());
+        cache.bump(event.getTargetNationUuid());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAllianceBroken(AllianceBrokenEvent event) {
+        cache.bump(event.getSourceNationUuid());
+        cache.bump(event.getTargetNationUuid());
+    }
+}
@@ -1,6 +1,8 @@
 package com.blothera.listener.lectern;
 
 import com.blothera.NationPlugin;
+import com.blothera.database.LecternRegistry;
+import com.blothera.database.LecternType;
 import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
 import com.blothera.database.NationDAOs.NationLecternDAO;
 import com.blothera.database.TownDAOs.TownLecternDAO;
@@ -24,6 +26,7 @@ public class LecternBreakListener implements Listener {
     private final DiplomacyLecternDAO diplomacyLecternDAO;
     private final TownDAO townDAO;
     private final TownClaimDAO claimDAO;
+    private final LecternRegistry lecternRegistry;
 
     public LecternBreakListener(NationPlugin plugin) {
         this.nationLecternDAO = plugin.getDatabase().getNationLecternDAO();
@@ -31,6 +34,7 @@ public class LecternBreakListener implements Listener {
         this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
         this.townDAO = plugin.getDatabase().getTownDAO();
         this.claimDAO = plugin.getDatabase().getTownClaimDAO();
+        this.lecternRegistry = plugin.getDatabase().getLecternRegistry();
     }
 
     /**
@@ -55,20 +59,25 @@ public class LecternBreakListener implements Listener {
         int y = loc.getBlockY();
         int z = loc.getBlockZ();
 
+        int types = lecternRegistry.getTypes(world, x, y, z);
+        if (types == 0) {
+            return;
+        }
+
         boolean modified = false;
-        if (nationLecternDAO.isNationLectern(block)) {
+        if (LecternType.NATION.in(types)) {
             handleLecternBreak(event, loc, NationLecternItem.create());
             nationLecternDAO.deleteLectern(world, x, y, z);
             modified = true;
         }
 
-        if (townLecternDAO.isTownLectern(block)) {
+        if (LecternType.TOWN.in(types)) {
             handleLecternBreak(event, loc, TownLecternItem.create());
             townLecternDAO.deleteLectern(world, x, y, z);
             modified = true;
         }
 
-        if (diplomacyLecternDAO.isDiplomacyLectern(block)) {
+        if (LecternType.DIPLOMACY.in(types)) {
             handleLecternBreak(event, loc, DiplomacyLecternItem.create());
             diplomacyLecternDAO.deleteLectern(world, x, y, z);
             modified = true;
@@ -3,14 +3,9 @@ package com.blothera.listener.lectern;
 import com.blothera.NationPlugin;
 import com.blothera.book.BookRegistry;
 import com.blothera.book.BookResult;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
-import com.blothera.database.NationDAOs.NationLecternDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
+import com.blothera.database.LecternRegistry;
 import io.papermc.paper.event.player.PlayerInsertLecternBookEvent;
-import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.Sound;
-import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -20,14 +15,10 @@ import org.bukkit.inventory.meta.BookMeta;
 
 public class LecternInsertListener implements Listener {
 
-    private final NationLecternDAO nationLecternDAO;
-    private final TownLecternDAO townLecternDAO;
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
+    private final LecternRegistry lecternRegistry;
 
     public LecternInsertListener(NationPlugin plugin) {
-        this.nationLecternDAO = plugin.getDatabase().getNationLecternDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
+        this.lecternRegistry = plugin.getDatabase().getLecternRegistry();
     }
 
     /**
@@ -47,28 +38,11 @@ public class LecternInsertListener implements Listener {
         Block lecternBlock = event.getBlock();
         Player player = event.getPlayer();
 
-        boolean isNationLectern = nationLecternDAO.isNationLectern(lecternBlock);
-        boolean isTownLectern = townLecternDAO.isTownLectern(lecternBlock);
-        boolean isDiplomatLectern = diplomacyLecternDAO.isDiplomacyLectern(lecternBlock);
-
-        if (!isNationLectern && !isTownLectern && !isDiplomatLectern) {
+        if (!lecternRegistry.isProtectedLectern(lecternBlock)) {
             return;
         }
 
         BookResult result = BookRegistry.handle(player, lecternBlock, meta);
-        
-        if (result == BookResult.HANDLED_BOOK) {
-            World world = lecternBlock.getWorld();
-            Location location = lecternBlock.getLocation();
-            Sound writeBookSound = Sound.ENTITY_VILLAGER_WORK_CARTOGRAPHER;
-            world.playSound(location, writeBookSound, 1.0f, 1.0f);
-        }
-
-        if (result == BookResult.ERROR_BOOK) {
-            World world = lecternBlock.getWorld();
-            Location location = lecternBlock.getLocation();
-            Sound errorSound = Sound.ENTITY_VILLAGER_NO;
-            world.playSound(location, errorSound, 1.0f, 1.0f);
-        }
+        result.playSound(lecternBlock);
     }
 }
@@ -50,11 +50,7 @@ public class LecternOpenListener implements Listener {
         ItemStack lecternBook = ((LecternInventory) lectern.getInventory()).getBook();
         Player player = event.getPlayer();
 
-        boolean isNationLectern = plugin.getDatabase().getNationLecternDAO().isNationLectern(block);
-        boolean isTownLectern = plugin.getDatabase().getTownLecternDAO().isTownLectern(block);
-        boolean isDiplomatLectern = plugin.getDatabase().getDiplomacyLecternDAO().isDiplomacyLectern(block);
-
-        if (!isNationLectern && !isTownLectern && !isDiplomatLectern) {
+        if (!plugin.getDatabase().getLecternRegistry().isProtectedLectern(block)) {
             return;
         }
 
@@ -1,10 +1,7 @@
 package com.blothera.listener.lectern;
 
 import com.blothera.NationPlugin;
-import com.blothera.database.DiplomacyDAOs.DiplomacyLecternDAO;
-import com.blothera.database.NationDAOs.NationLecternDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
-import org.bukkit.Material;
+import com.blothera.database.LecternRegistry;
 import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -13,14 +10,10 @@ import org.bukkit.event.block.BlockPistonRetractEvent;
 
 public class LecternPistonListener implements Listener {
 
-    private final NationLecternDAO nationLecternDAO;
-    private final TownLecternDAO townLecternDAO;
-    private final DiplomacyLecternDAO diplomacyLecternDAO;
+    private final LecternRegistry lecternRegistry;
 
     public LecternPistonListener(NationPlugin plugin) {
-        this.nationLecternDAO = plugin.getDatabase().getNationLecternDAO();
-        this.townLecternDAO = plugin.getDatabase().getTownLecternDAO();
-        this.diplomacyLecternDAO = plugin.getDatabase().getDiplomacyLecternDAO();
+        this.lecternRegistry = plugin.getDatabase().getLecternRegistry();
     }
 
     /**
@@ -31,10 +24,7 @@ public class LecternPistonListener implements Listener {
      * @return true if the block is a protected lectern, false otherwise.
      */
     private boolean isProtectedLectern(Block block) {
-        if (block.getType() != Material.LECTERN) return false;
-        return nationLecternDAO.isNationLectern(block) ||
-                townLecternDAO.isTownLectern(block) ||
-                diplomacyLecternDAO.isDiplomacyLectern(block);
+        return lecternRegistry.isProtectedLectern(block);
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.blothera.listener.nation;
 
 import com.blothera.NationPlugin;
+import com.blothera.database.TownDAOs.TownDAO;
 import com.blothera.event.nation.NationCapitalTransferEvent;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -15,11 +16,17 @@ public class NationCapitalTransferListener implements Listener {
 
     /**
      * Handles the NationCapitalChangedEvent to log the change of nation capital and broadcast a message.
+     * The dormancy of the nation's towns is re-checked, as a capital also needs a nation and a diplomacy lectern.
      *
      * @param event The NationCapitalChangedEvent containing details about the capital change.
      */
     @EventHandler
     public void onNationCapitalTransfer(NationCapitalTransferEvent event) {
+        plugin.getDatabase().getTownMetadataCache().refreshTownsOfNation(event.getNationUuid());
+        TownDAO townDAO = plugin.getDatabase().getTownDAO();
+        for (String townUuid : townDAO.getTownsByNationUuid(event.getNationUuid())) {
+            townDAO.refreshDormancy(townUuid);
+        }
         String nationName = plugin.getDatabase().getNationDAO().getNationName(event.getNationUuid());
         String oldCapitalName = event.getOldCapitalName();
         String newCapitalName = event.getNewCapitalName();
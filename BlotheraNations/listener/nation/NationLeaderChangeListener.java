@@ -3,12 +3,9 @@ package com.blothera.listener.nation;
 import com.blothera.NationPlugin;
 import com.blothera.event.nation.NationLeaderChangedEvent;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 
-import java.util.UUID;
-
 public class NationLeaderChangeListener implements Listener {
 
     NationPlugin plugin;
@@ -25,9 +22,9 @@ public class NationLeaderChangeListener implements Listener {
     @EventHandler
     public void onNationLeaderChanged(NationLeaderChangedEvent event) {
         String nationName = plugin.getDatabase().getNationDAO().getNationName(event.getNationUuid());
-        OfflinePlayer newLeader = Bukkit.getOfflinePlayer(UUID.fromString(event.getNewLeaderUuid()));
-        plugin.getNationLogger().log(nationName + " Nation " + event.getNationUuid() + " leadership transferred to " + newLeader.getName());
-        plugin.getLogger().info(nationName + " Nation " + event.getNationUuid() + " leadership transferred to " + newLeader.getName());
-        Bukkit.broadcastMessage("§7§o" + nationName + " now recognizes " + newLeader.getName() + " as its new leader.");
+        String newLeaderName = plugin.getDatabase().getPlayerNameDirectory().getName(event.getNewLeaderUuid());
+        plugin.getNationLogger().log(nationName + " Nation " + event.getNationUuid() + " leadership transferred to " + newLeaderName);
+        plugin.getLogger().info(nationName + " Nation " + event.getNationUuid() + " leadership transferred to " + newLeaderName);
+        Bukkit.broadcastMessage("§7§o" + nationName + " now recognizes " + newLeaderName + " as its new leader.");
     }
 }
@@ -23,6 +23,7 @@ public class NationRemoveListener implements Listener {
     @EventHandler
     public void onNationRemoved(NationRemovedEvent event) {
         String nationName = event.getNationName();
+        plugin.getDatabase().getTownMetadataCache().removeNation(event.getNationUuid());
         plugin.getNationLogger().log("Deleted nation " + event.getNationUuid());
         plugin.getLogger().info("Deleted nation " + event.getNationUuid());
         if (event.getLastTownName() != null) {
@@ -15,6 +15,7 @@ public class NationRenameListener implements Listener {
 
     @EventHandler
     public void onNationRenamed(NationRenamedEvent event) {
+        plugin.getDatabase().getTownMetadataCache().refreshNation(event.getNationUuid());
         plugin.getNationLogger().log("Nation " + event.getOldName() + " renamed to " + event.getNewName());
         plugin.getLogger().info("Nation " + event.getOldName() + " renamed to " + event.getNewName());
     }
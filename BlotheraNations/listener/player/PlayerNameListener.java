@@ -0,0 +1,26 @@
+package com.blothera.listener.player;
+
+import com.blothera.database.PlayerNameDirectory;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+/**
+ * Records the name of every player who joins in the {@link PlayerNameDirectory}, which also picks up name changes.
+ */
+public class PlayerNameListener implements Listener {
+
+    private final PlayerNameDirectory playerNames;
+
+    public PlayerNameListener(PlayerNameDirectory playerNames) {
+        this.playerNames = playerNames;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        playerNames.record(player.getUniqueId().toString(), player.getName());
+    }
+}
@@ -1,6 +1,8 @@
 package com.blothera.listener.town.claim;
 
 import com.blothera.NationPlugin;
+import com.blothera.database.CacheWarmup;
+import com.blothera.database.Database;
 import org.bukkit.*;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
@@ -27,29 +29,35 @@ public class TownClaimProtectionListener implements Listener {
      * If the player is not a member of the town that owns the claim, they are denied permission.
      * <p>
      * If a town is dormant, it loses its protection, and players can interact with blocks in that town's claims.
+     * The decision is made by the {@link com.blothera.claim.ClaimPermissionEngine} without querying the database.
+     * Blocks in unclaimed land are settled by the claim occupancy bitmap alone.
+     * If the claims or memberships failed to load, the claim, dormancy and membership are queried from the
+     * database instead, so claimed land stays protected without locking up the wilderness.
      *
      * @param player The player attempting to interact with the block.
      * @param block  The block being interacted with.
      * @return true if the player has no permission, false otherwise.
      */
     private boolean noPermission(Player player, Block block) {
-        Chunk chunk = block.getChunk();
+        Database database = plugin.getDatabase();
         String world = block.getWorld().getName();
-        int chunkX = chunk.getX();
-        int chunkZ = chunk.getZ();
+        int chunkX = block.getX() >> 4;
+        int chunkZ = block.getZ() >> 4;
+
+        var claimDAO = database.getTownClaimDAO();
+        if (!database.isCacheReady(CacheWarmup.Cache.CLAIMS) || !database.isCacheReady(CacheWarmup.Cache.CLAIM_PERMISSIONS)) {
+            String townId = claimDAO.queryTownIdAt(world, chunkX, chunkZ);
+            if (townId == null || database.getTownDAO().isDormant(townId)) return false;
+            return !database.getTownMemberDAO().isMemberOfTown(player.getUniqueId().toString(), townId);
+        }
 
-        var claimDAO = plugin.getDatabase().getTownClaimDAO();
-        var townDAO = plugin.getDatabase().getTownDAO();
-        var memberDAO = plugin.getDatabase().getTownMemberDAO();
+        if (!claimDAO.isChunkClaimed(world, chunkX, chunkZ)) return false;
 
         String townId = claimDAO.getTownIdAt(world, chunkX, chunkZ);
         if (townId == null) return false;
 
-        // Check if town is dormant — dormant towns lose protection
-        if (townDAO.isDormant(townId)) return false;
-
-        // If the player is not a member, deny access
-        return !memberDAO.isMemberOfTown(player.getUniqueId().toString(), townId);
+        // Dormant towns lose protection, otherwise only members are permitted
+        return !database.getClaimPermissionEngine().isPermitted(player.getUniqueId(), townId);
     }
 
     /**
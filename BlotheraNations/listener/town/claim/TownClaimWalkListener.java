@@ -1,10 +1,13 @@
 package com.blothera.listener.town.claim;
 
 import com.blothera.NationPlugin;
+import com.blothera.database.CacheWarmup;
+import com.blothera.database.Database;
 import com.blothera.database.TownDAOs.TownClaimDAO;
-import com.blothera.database.TownDAOs.TownDAO;
+import com.blothera.database.TownDAOs.TownMetadataCache;
+import com.blothera.database.TownDAOs.TownMetadataCache.TownMetadata;
 import org.bukkit.ChatColor;
-import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -12,7 +15,6 @@ import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.util.HashMap;
-import java.util.Objects;
 import java.util.UUID;
 
 import static com.blothera.util.NationConstants.*;
@@ -22,39 +24,50 @@ public class TownClaimWalkListener implements Listener {
     private final HashMap<UUID, String> lastKnownTown = new HashMap<>();
     private final HashMap<UUID, Long> lastMessageTime = new HashMap<>();
 
+    private final Database database;
     private final TownClaimDAO townClaimDAO;
-    private final TownDAO townDAO;
+    private final TownMetadataCache townMetadataCache;
 
     public TownClaimWalkListener(NationPlugin plugin) {
+        this.database = plugin.getDatabase();
         this.townClaimDAO = plugin.getDatabase().getTownClaimDAO();
-        this.townDAO = plugin.getDatabase().getTownDAO();
+        this.townMetadataCache = plugin.getDatabase().getTownMetadataCache();
     }
 
     /**
      * Listens for player movement events to check if the player has entered a new town or wilderness area.
-     * If the player moves into a new chunk, it checks the town claim database
-     * to determine the town or wilderness status of that chunk.
+     * If the player moves into a new chunk, it checks the claim and town metadata caches
+     * to determine the town or wilderness status of that chunk. This path never queries the database.
+     * Chunk coordinates are taken from the block coordinates rather than by looking the chunks up,
+     * and unclaimed land is settled by the claim occupancy bitmap alone.
      * If the player enters a new town or wilderness area,
      * it sends an action bar message to the player with the town or wilderness name.
+     * Nothing is shown until the claim and town metadata caches have loaded.
      */
     @EventHandler
     public void onPlayerMove(PlayerMoveEvent event) {
+        if (!database.isCacheReady(CacheWarmup.Cache.CLAIMS) || !database.isCacheReady(CacheWarmup.Cache.TOWN_METADATA)) return;
+
         Player player = event.getPlayer();
         UUID playerId = player.getUniqueId();
-        if (event.getFrom().getChunk().equals(event.getTo().getChunk()) && lastKnownTown.containsKey(playerId)) return;
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        int chunkX = to.getBlockX() >> 4;
+        int chunkZ = to.getBlockZ() >> 4;
+        if (chunkX == from.getBlockX() >> 4 && chunkZ == from.getBlockZ() >> 4
+                && from.getWorld() == to.getWorld() && lastKnownTown.containsKey(playerId)) return;
 
         long now = System.currentTimeMillis();
 
         if (now - lastMessageTime.getOrDefault(playerId, 0L) < TERRITORY_MESSAGE_COOLDOWN_MS) return;
 
-        Chunk toChunk = event.getTo().getChunk();
-        String world = toChunk.getWorld().getName();
-        int chunkX = toChunk.getX();
-        int chunkZ = toChunk.getZ();
-
-        String newTownId = townClaimDAO.getTownIdAt(world, chunkX, chunkZ);
+        String world = to.getWorld().getName();
+        String newTownId = townClaimDAO.isChunkClaimed(world, chunkX, chunkZ)
+                ? townClaimDAO.getTownIdAt(world, chunkX, chunkZ)
+                : null;
+        TownMetadata town = townMetadataCache.get(newTownId);
 
-        if (newTownId == null || Objects.equals(townDAO.getTownName(newTownId), UNKNOWN_TOWN)) {
+        if (newTownId == null || town == null) {
             newTownId = WILDERNESS_STRING;
         }
 
@@ -69,15 +82,15 @@ public class TownClaimWalkListener implements Listener {
                 message = ChatColor.GRAY + WILDERNESS_STRING;
             } else {
 
-                String townName = townDAO.getTownName(newTownId);
-                String nationName = townDAO.getNationNameForTown(newTownId);
+                String townName = town.name();
+                String nationName = townMetadataCache.getNationName(town.nationUuid());
 
                 // EDGE CASE: This happens when a town or nation is disbanded or deleted
-                if ((townName.equals(UNKNOWN_TOWN)) || (nationName.equals(UNKNOWN_NATION))) {
+                if (townName == null || nationName == null) {
                     message = WILDERNESS_STRING;
                 } else {
-                    boolean isDormant = townDAO.isDormant(newTownId);
-                    boolean isCapital = townDAO.isCapital(newTownId);
+                    boolean isDormant = town.dormant();
+                    boolean isCapital = town.capital();
                     if (isDormant) {
                         message = ChatColor.GRAY + townName + ChatColor.RED + " (Dormant)";
                     } else if (isCapital) {
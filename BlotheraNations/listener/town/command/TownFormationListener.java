@@ -18,6 +18,8 @@ public class TownFormationListener implements Listener {
 
     @EventHandler
     public void onTownFormation(TownFormationEvent event) {
+        plugin.getDatabase().getTownMetadataCache().refresh(event.getTownUuid());
+        plugin.getDatabase().getTaxDeadlines().schedule(event.getTownUuid(), plugin.getDatabase().getTownDAO().getTaxPaidUntil(event.getTownUuid()));
 
         World world = event.getLocation().getWorld();
         Location location = event.getLocation();
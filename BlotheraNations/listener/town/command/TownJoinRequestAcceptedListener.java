@@ -18,6 +18,7 @@ public class TownJoinRequestAcceptedListener implements Listener {
 
     @EventHandler
     public void onJoinAccepted(TownJoinRequestAcceptedEvent event) {
+        plugin.getDatabase().getClaimPermissionEngine().onMemberAdded(event.getPlayerUuid(), event.getTownUuid());
         String townName = plugin.getDatabase().getTownDAO().getTownName(event.getTownUuid());
         plugin.getNationLogger().log("Player " + event.getPlayerUuid() + " accepted into town " + townName);
         plugin.getLogger().info("Player " + event.getPlayerUuid() + " accepted into town " + townName);
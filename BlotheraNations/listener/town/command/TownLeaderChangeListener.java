@@ -3,12 +3,9 @@ package com.blothera.listener.town.command;
 import com.blothera.NationPlugin;
 import com.blothera.event.town.TownLeaderChangedEvent;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 
-import java.util.UUID;
-
 public class TownLeaderChangeListener implements Listener {
 
     private final NationPlugin plugin;
@@ -19,9 +16,10 @@ public class TownLeaderChangeListener implements Listener {
 
     @EventHandler
     public void onTownLeaderChanged(TownLeaderChangedEvent event) {
-        OfflinePlayer newLeader = Bukkit.getOfflinePlayer(UUID.fromString(event.getNewLeaderUuid()));
+        plugin.getDatabase().getTownMetadataCache().refresh(event.getTownUuid());
+        String newLeaderName = plugin.getDatabase().getPlayerNameDirectory().getName(event.getNewLeaderUuid());
         String townName = plugin.getDatabase().getTownDAO().getTownName(event.getTownUuid());
-        plugin.getNationLogger().log("Town " + townName + " leadership transferred to " + newLeader.getName());
-        plugin.getLogger().info("Town " + townName + " leadership transferred to " + newLeader.getName());
+        plugin.getNationLogger().log("Town " + townName + " leadership transferred to " + newLeaderName);
+        plugin.getLogger().info("Town " + townName + " leadership transferred to " + newLeaderName);
     }
 }
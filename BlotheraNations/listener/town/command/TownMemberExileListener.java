@@ -21,6 +21,7 @@ public class TownMemberExileListener implements Listener {
     public void onMemberExile(TownMemberExileEvent event) {
         String playerUuid = event.getPlayerUuid();
         String townUuid = event.getTownUuid();
+        plugin.getDatabase().getClaimPermissionEngine().onMemberRemoved(playerUuid, townUuid);
 
         String townName = plugin.getDatabase().getTownDAO().getTownName(townUuid);
         plugin.getNationLogger().log("Player " + playerUuid + " exiled from town " + townName);
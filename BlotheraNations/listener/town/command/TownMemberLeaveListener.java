@@ -15,8 +15,11 @@ public class TownMemberLeaveListener implements Listener {
 
     @EventHandler
     public void onMemberLeave(TownMemberLeaveEvent event) {
-        String townName = plugin.getDatabase().getTownDAO().getTownName(event.getTownUuid());
-        plugin.getNationLogger().log("Player " + event.getPlayerUuid() + " left town " + townName);
-        plugin.getLogger().info("Player " + event.getPlayerUuid() + " left town " + townName);
+        plugin.getDatabase().getClaimPermissionEngine().onMemberRemoved(event.getPlayerUuid(), event.getTownUuid());
+        var async = plugin.getDatabase().getAsync();
+        async.onMainThread(async.read(db -> db.getTownDAO().getTownName(event.getTownUuid())), townName -> {
+            plugin.getNationLogger().log("Player " + event.getPlayerUuid() + " left town " + townName);
+            plugin.getLogger().info("Player " + event.getPlayerUuid() + " left town " + townName);
+        });
     }
 }
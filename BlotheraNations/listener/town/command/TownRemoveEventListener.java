@@ -41,6 +41,9 @@ public class TownRemoveEventListener implements Listener {
         String nationUuid = event.getNationUuid();
         boolean wasCapital = event.wasCapital();
 
+        database.getTownMetadataCache().remove(townUuid);
+        database.getClaimPermissionEngine().onTownRemoved(townUuid);
+        database.getTaxDeadlines().remove(townUuid);
         database.getTownClaimDAO().removeClaimsForTown(townUuid);
         database.getTownMemberDAO().removeAllTownMembers(townUuid);
 
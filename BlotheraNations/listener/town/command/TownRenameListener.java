@@ -15,6 +15,7 @@ public class TownRenameListener implements Listener {
 
     @EventHandler
     public void onTownRenamed(TownRenamedEvent event) {
+        plugin.getDatabase().getTownMetadataCache().refresh(event.getTownUuid());
         plugin.getNationLogger().log("Town " + event.getOldName() + " renamed to " + event.getNewName());
         plugin.getLogger().info("Town " + event.getOldName() + " renamed to " + event.getNewName());
     }
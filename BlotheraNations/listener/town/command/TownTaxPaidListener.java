@@ -17,10 +17,14 @@ public class TownTaxPaidListener implements Listener {
 
     @EventHandler
     public void onTaxPaid(TownTaxPaidEvent event) {
-        String townName = plugin.getDatabase().getTownDAO().getTownName(event.getTownUuid());
+        String townUuid = event.getTownUuid();
+        plugin.getDatabase().getTaxDeadlines().schedule(townUuid, plugin.getDatabase().getTownDAO().getTaxPaidUntil(townUuid));
 
-        plugin.getNationLogger().log("Town " + townName + " paid tax of " + event.getAmount() + " emeralds");
-        plugin.getLogger().info("Town " + townName + " paid tax of " + event.getAmount() + " emeralds");
+        var async = plugin.getDatabase().getAsync();
+        async.onMainThread(async.read(db -> db.getTownDAO().getTownName(event.getTownUuid())), townName -> {
+            plugin.getNationLogger().log("Town " + townName + " paid tax of " + event.getAmount() + " emeralds");
+            plugin.getLogger().info("Town " + townName + " paid tax of " + event.getAmount() + " emeralds");
+        });
 
         Sound sound = Sound.BLOCK_AMETHYST_BLOCK_RESONATE;
         World world = event.getLocation().getWorld();
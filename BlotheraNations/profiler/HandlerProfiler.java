@@ -0,0 +1,271 @@
+package com.blothera.profiler;
+
+import com.blothera.NationPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.RegisteredListener;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tick-time profiler for the plugin's event handlers and book handlers.
+ * <p>
+ * Every {@code @EventHandler} of a listener in {@code com.blothera.listener} is wrapped in a
+ * {@link ProfiledRegisteredListener}, and {@code BookRegistry} times each {@code handleBook}
+ * call. Each handler gets a {@link Probe} which counts calls and collects a latency histogram.
+ * Every {@value #WINDOW_TICKS} ticks the probes are closed off into a {@link Window}, which
+ * names the handler that used the most time, and the last {@value #WINDOW_HISTORY} windows are kept.
+ * <p>
+ * While the profiler is disabled a handler call costs one read of a volatile flag.
+ * Only calls on the server thread are recorded, since those are the ones that cost tick time.
+ */
+public final class HandlerProfiler {
+
+    public static final int WINDOW_TICKS = 100;
+    private static final int WINDOW_HISTORY = 12;
+    private static final String ENABLED_OPTION = "profiler.enabled";
+    private static final String LISTENER_PACKAGE = "com.blothera.listener.";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static volatile boolean enabled;
+
+    // Only touched on the server thread
+    private static final Map<String, Probe> probes = new HashMap<>();
+    private static final ArrayDeque<Window> windows = new ArrayDeque<>();
+
+    private HandlerProfiler() {
+    }
+
+    /**
+     * Starts closing off windows and, on the next tick once every listener has been registered,
+     * wraps the plugin's event handlers.
+     *
+     * @param plugin The plugin instance.
+     */
+    public static void install(NationPlugin plugin) {
+        enabled = plugin.getConfig().getBoolean(ENABLED_OPTION, false);
+        Bukkit.getScheduler().runTask(plugin, () -> wrapListeners(plugin));
+        Bukkit.getScheduler().runTaskTimer(plugin, HandlerProfiler::closeWindow, WINDOW_TICKS, WINDOW_TICKS);
+    }
+
+    /**
+     * @return true if handler calls are being recorded.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops recording. Starting clears the windows recorded before.
+     *
+     * @param enable true to start recording.
+     */
+    public static void setEnabled(boolean enable) {
+        if (enable && !enabled) {
+            probes.values().forEach(Probe::resetWindow);
+            windows.clear();
+        }
+        enabled = enable;
+    }
+
+    /**
+     * @param name The display name of the handler.
+     * @return The probe of the handler, created on first use. Must be called on the server thread.
+     */
+    public static Probe probe(String name) {
+        return probes.computeIfAbsent(name, Probe::new);
+    }
+
+    /**
+     * @return The recorded windows, oldest first.
+     */
+    public static List<Window> getWindows() {
+        return List.copyOf(windows);
+    }
+
+    /**
+     * Writes one row per handler and window to a CSV file in the plugin folder, off the server thread.
+     *
+     * @param plugin The plugin instance.
+     * @return The file the rows are written to.
+     */
+    public static Path exportCsv(NationPlugin plugin) {
+        List<String> rows = new ArrayList<>();
+        rows.add("window_end,handler,calls,total_ns,p50_ns,p99_ns,max_ns,worst");
+        for (Window window : windows) {
+            for (HandlerWindow handler : window.handlers()) {
+                rows.add(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%d,%b", window.end(), handler.name(),
+                        handler.calls(), handler.totalNanos(), handler.p50Nanos(), handler.p99Nanos(), handler.maxNanos(),
+                        handler.name().equals(window.worst())));
+            }
+        }
+
+        Path file = plugin.getDataFolder().toPath().resolve("handler-profile-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".csv");
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Files.write(file, rows, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to write handler profile: " + e.getMessage());
+            }
+        });
+        return file;
+    }
+
+    private static void closeWindow() {
+        if (!enabled) return;
+
+        List<HandlerWindow> handlers = new ArrayList<>();
+        for (Probe probe : probes.values()) {
+            if (probe.calls == 0) continue;
+            handlers.add(new HandlerWindow(probe.name, probe.calls, probe.totalNanos,
+                    probe.percentile(0.5), probe.percentile(0.99), probe.maxNanos));
+            probe.resetWindow();
+        }
+        handlers.sort(Comparator.comparingLong(HandlerWindow::totalNanos).reversed());
+
+        String worst = handlers.isEmpty() ? null : handlers.getFirst().name();
+        windows.addLast(new Window(LocalDateTime.now().withNano(0), List.copyOf(handlers), worst));
+        if (windows.size() > WINDOW_HISTORY) windows.removeFirst();
+    }
+
+    /**
+     * Replaces the registrations of every event handler of the plugin's listeners with a timed one,
+     * named after the listener class and method.
+     */
+    private static void wrapListeners(NationPlugin plugin) {
+        Set<Listener> listeners = new LinkedHashSet<>();
+        for (HandlerList handlerList : HandlerList.getHandlerLists()) {
+            for (RegisteredListener registered : handlerList.getRegisteredListeners()) {
+                if (registered.getPlugin() == plugin
+                        && registered.getListener().getClass().getName().startsWith(LISTENER_PACKAGE)) {
+                    listeners.add(registered.getListener());
+                }
+            }
+        }
+
+        int wrapped = 0;
+        for (Listener listener : listeners) {
+            for (Method method : listener.getClass().getDeclaredMethods()) {
+                EventHandler annotation = method.getAnnotation(EventHandler.class);
+                if (annotation == null || method.getParameterCount() != 1) continue;
+                HandlerList handlerList = getHandlerList(method.getParameterTypes()[0]);
+                if (handlerList == null) continue;
+
+                String name = listener.getClass().getSimpleName() + "." + method.getName();
+                for (RegisteredListener registered : handlerList.getRegisteredListeners()) {
+                    if (registered.getListener() != listener || registered instanceof ProfiledRegisteredListener
+                            || registered.getPriority() != annotation.priority()
+                            || registered.isIgnoringCancelled() != annotation.ignoreCancelled()) continue;
+                    handlerList.unregister(registered);
+                    handlerList.register(new ProfiledRegisteredListener(registered, probe(name)));
+                    wrapped++;
+                    break;
+                }
+            }
+        }
+        plugin.getLogger().info("Profiler attached to " + wrapped + " event handlers.");
+    }
+
+    /**
+     * Finds the handler list an event is registered on, the same way Bukkit does:
+     * from the first class up the hierarchy which declares {@code getHandlerList()}.
+     */
+    private static HandlerList getHandlerList(Class<?> eventClass) {
+        for (Class<?> type = eventClass; type != null && Event.class.isAssignableFrom(type); type = type.getSuperclass()) {
+            try {
+                Method getter = type.getDeclaredMethod("getHandlerList");
+                getter.setAccessible(true);
+                return (HandlerList) getter.invoke(null);
+            } catch (NoSuchMethodException ignored) {
+                // Declared further up
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Call counts and a latency histogram of one handler over the current window.
+     * The histogram has power-of-two nanosecond buckets, and percentiles are reported as a bucket's upper bound.
+     */
+    public static final class Probe {
+
+        private static final int BUCKETS = 40;
+
+        private final String name;
+        private final long[] histogram = new long[BUCKETS];
+        private long calls;
+        private long totalNanos;
+        private long maxNanos;
+
+        private Probe(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Records one call. Calls off the server thread are ignored.
+         *
+         * @param nanos How long the call took.
+         */
+        public void record(long nanos) {
+            if (!Bukkit.isPrimaryThread()) return;
+            calls++;
+            totalNanos += nanos;
+            if (nanos > maxNanos) maxNanos = nanos;
+            histogram[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))]++;
+        }
+
+        private long percentile(double percentile) {
+            long rank = (long) Math.ceil(percentile * calls);
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += histogram[b];
+                if (seen >= rank) return 1L << b;
+            }
+            return 1L << (BUCKETS - 1);
+        }
+
+        private void resetWindow() {
+            calls = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+            Arrays.fill(histogram, 0);
+        }
+    }
+
+    /**
+     * One handler's share of a window.
+     */
+    public record HandlerWindow(String name, long calls, long totalNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+    }
+
+    /**
+     * The handlers called during one window, most total time first.
+     *
+     * @param end      When the window was closed.
+     * @param handlers The handlers which were called.
+     * @param worst    The name of the handler which used the most time, or null if none were called.
+     */
+    public record Window(LocalDateTime end, List<HandlerWindow> handlers, String worst) {
+    }
+}
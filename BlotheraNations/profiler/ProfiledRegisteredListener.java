@@ -0,0 +1,37 @@
+package com.blothera.profiler;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.plugin.RegisteredListener;
+
+/**
+ * Registration of an event handler which times the handler while the {@link HandlerProfiler} is enabled.
+ * Takes the place of the original registration, which still runs the handler and applies its
+ * {@code ignoreCancelled} setting.
+ */
+public class ProfiledRegisteredListener extends RegisteredListener {
+
+    private final RegisteredListener delegate;
+    private final HandlerProfiler.Probe probe;
+
+    public ProfiledRegisteredListener(RegisteredListener delegate, HandlerProfiler.Probe probe) {
+        super(delegate.getListener(), (listener, event) -> delegate.callEvent(event), delegate.getPriority(),
+                delegate.getPlugin(), delegate.isIgnoringCancelled());
+        this.delegate = delegate;
+        this.probe = probe;
+    }
+
+    @Override
+    public void callEvent(Event event) throws EventException {
+        if (!HandlerProfiler.isEnabled()) {
+            delegate.callEvent(event);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.callEvent(event);
+        } finally {
+            probe.record(System.nanoTime() - start);
+        }
+    }
+}
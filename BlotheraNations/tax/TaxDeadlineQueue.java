@@ -0,0 +1,202 @@
+package com.blothera.tax;
+
+import com.blothera.NationPlugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static com.blothera.util.NationConstants.DORMANT_DAYS_TO_DELETE_TOWN;
+
+/**
+ * Orders every town by the next day on which its tax state can change.
+ * <p>
+ * A town paid until day {@code P} becomes overdue, and so dormant, on day {@code P + 1}.
+ * It becomes removable on day {@code P + DORMANT_DAYS_TO_DELETE_TOWN + 1}. Nothing can change
+ * between those days unless the town pays, so {@link TownTaxTask} only has to wake up when
+ * the earliest deadline in this queue is reached.
+ * <p>
+ * The queue is loaded at startup from the indexed {@code tax_paid_until_day} column and kept
+ * up to date by the tax paid, town formation and town removal listeners.
+ * Deadlines are counted in epoch days. All methods are thread-safe.
+ */
+public class TaxDeadlineQueue {
+
+    private final Connection connection;
+    private final NationPlugin plugin;
+    private final PriorityQueue<Deadline> queue = new PriorityQueue<>();
+    private final Map<String, Long> paidUntilDays = new HashMap<>();
+    private final Map<String, Long> deadlines = new HashMap<>();
+    private Runnable onEarlierDeadline = () -> {
+    };
+
+    public TaxDeadlineQueue(NationPlugin plugin, Connection connection) {
+        this.plugin = plugin;
+        this.connection = connection;
+    }
+
+    /**
+     * Reloads the tax date of every town from the main connection.
+     *
+     * @return The number of towns scheduled, or -1 if loading failed.
+     */
+    public int load() {
+        return load(connection);
+    }
+
+    /**
+     * Loads the tax date of every town into the queue.
+     * Towns with a malformed tax date are left out, as they are already dormant and can never be removed.
+     * This method is called by the {@link com.blothera.database.CacheWarmup} during plugin initialization.
+     *
+     * @param source The connection to load from, which may be a read-only connection of its own.
+     * @return The number of towns scheduled, or -1 if loading failed.
+     */
+    public synchronized int load(Connection source) {
+        queue.clear();
+        paidUntilDays.clear();
+        deadlines.clear();
+        long today = LocalDate.now().toEpochDay();
+        try (PreparedStatement stmt = source.prepareStatement(
+                "SELECT uuid, tax_paid_until_day FROM towns WHERE tax_paid_until_day IS NOT NULL ORDER BY tax_paid_until_day");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                put(rs.getString("uuid"), rs.getLong("tax_paid_until_day"), today);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Failed to load tax deadlines: " + e.getMessage());
+            return -1;
+        }
+        return deadlines.size();
+    }
+
+    /**
+     * Sets the callback run whenever a new deadline is earlier than every existing one,
+     * so the tax task can wake up sooner than it planned to.
+     *
+     * @param onEarlierDeadline The callback, run on the thread which scheduled the deadline.
+     */
+    public void setOnEarlierDeadline(Runnable onEarlierDeadline) {
+        this.onEarlierDeadline = onEarlierDeadline;
+    }
+
+    /**
+     * Schedules, or reschedules, a town from the date its taxes are paid until.
+     * Used when a town is founded or pays its tax.
+     *
+     * @param townUuid     The UUID of the town.
+     * @param taxPaidUntil The date until which taxes have been paid, in YYYY-MM-DD format.
+     */
+    public void schedule(String townUuid, String taxPaidUntil) {
+        if (townUuid == null || taxPaidUntil == null) return;
+        long paidUntilDay;
+        try {
+            paidUntilDay = LocalDate.parse(taxPaidUntil).toEpochDay();
+        } catch (DateTimeParseException e) {
+            plugin.getLogger().warning("Failed to parse tax date for town " + townUuid + ": " + taxPaidUntil);
+            remove(townUuid);
+            return;
+        }
+
+        boolean earlier;
+        synchronized (this) {
+            long previousEarliest = getNextDeadline();
+            put(townUuid, paidUntilDay, LocalDate.now().toEpochDay());
+            earlier = deadlines.get(townUuid) < previousEarliest;
+        }
+        if (earlier) onEarlierDeadline.run();
+    }
+
+    /**
+     * Removes a town from the queue, used when the town is removed.
+     *
+     * @param townUuid The UUID of the town.
+     */
+    public synchronized void remove(String townUuid) {
+        if (townUuid == null) return;
+        paidUntilDays.remove(townUuid);
+        deadlines.remove(townUuid);
+    }
+
+    /**
+     * @return The epoch day of the earliest deadline, or {@link Long#MAX_VALUE} if the queue is empty.
+     */
+    public synchronized long getNextDeadline() {
+        discardStale();
+        Deadline head = queue.peek();
+        return head == null ? Long.MAX_VALUE : head.epochDay();
+    }
+
+    /**
+     * Takes every town whose deadline has been reached.
+     * Each one is rescheduled for its next deadline, if it has one.
+     *
+     * @param today Today's epoch day.
+     * @return The UUIDs of the towns which are due.
+     */
+    public synchronized List<String> pollDue(long today) {
+        List<String> due = new ArrayList<>();
+        discardStale();
+        while (!queue.isEmpty() && queue.peek().epochDay() <= today) {
+            String townUuid = queue.poll().townUuid();
+            due.add(townUuid);
+            deadlines.remove(townUuid);
+            discardStale();
+        }
+        for (String townUuid : due) {
+            put(townUuid, paidUntilDays.get(townUuid), today);
+        }
+        return due;
+    }
+
+    /**
+     * @return The number of towns in the queue.
+     */
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Computes the next day on which a town's tax state changes.
+     * Once a town is removable, it is retried every day until it is removed or pays.
+     */
+    private static long nextDeadline(long paidUntilDay, long today) {
+        if (today <= paidUntilDay) return paidUntilDay + 1;
+        long removableDay = paidUntilDay + DORMANT_DAYS_TO_DELETE_TOWN + 1;
+        return today < removableDay ? removableDay : today + 1;
+    }
+
+    private void put(String townUuid, long paidUntilDay, long today) {
+        long deadline = nextDeadline(paidUntilDay, today);
+        paidUntilDays.put(townUuid, paidUntilDay);
+        deadlines.put(townUuid, deadline);
+        queue.add(new Deadline(deadline, townUuid));
+    }
+
+    /**
+     * Drops queue entries which were superseded by a reschedule or removal.
+     */
+    private void discardStale() {
+        while (!queue.isEmpty()) {
+            Deadline head = queue.peek();
+            Long current = deadlines.get(head.townUuid());
+            if (current != null && current == head.epochDay()) return;
+            queue.poll();
+        }
+    }
+
+    private record Deadline(long epochDay, String townUuid) implements Comparable<Deadline> {
+        @Override
+        public int compareTo(Deadline other) {
+            return Long.compare(epochDay, other.epochDay);
+        }
+    }
+}
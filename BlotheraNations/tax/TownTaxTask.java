@@ -1,66 +1,178 @@
 package com.blothera.tax;
 
 import com.blothera.NationPlugin;
-import com.blothera.database.TownDAOs.TownClaimDAO;
+import com.blothera.database.AsyncDatabase;
 import com.blothera.database.TownDAOs.TownDAO;
-import com.blothera.database.TownDAOs.TownLecternDAO;
 import com.blothera.event.town.TownRemovedEvent;
 import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.blothera.util.NationConstants.*;
 
 public class TownTaxTask {
+    /**
+     * The longest the task sleeps before re-checking the clock, as server ticks drift from real time under load.
+     */
+    private static final long MAX_SLEEP_TICKS = 20L * 60 * 60;
+    private static final long RETRY_DELAY_TICKS = 20L * 60 * 5;
+
     private final NationPlugin plugin;
-    private final TownDAO townDAO;
-    private final TownClaimDAO claimDAO;
-    private final TownLecternDAO lecternDAO;
+    private final TaxDeadlineQueue deadlines;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Set<String> retry = new HashSet<>();
+    private BukkitTask wakeTask;
 
 
     public TownTaxTask(NationPlugin plugin) {
         this.plugin = plugin;
-        this.townDAO = plugin.getDatabase().getTownDAO();
-        this.claimDAO = plugin.getDatabase().getTownClaimDAO();
-        this.lecternDAO = plugin.getDatabase().getTownLecternDAO();
-        scheduleTaxCheck();
+        this.deadlines = plugin.getDatabase().getTaxDeadlines();
+        deadlines.setOnEarlierDeadline(() -> plugin.getDatabase().getAsync().mainThread().execute(this::scheduleWake));
+        wakeTask = Bukkit.getScheduler().runTaskLater(plugin, this::wake, TASK_INIT_DELAY_TICKS);
     }
 
     /**
-     * Schedules a repeating task to check towns for tax payments and dormancy.
+     * Schedules the task to wake up at the start of the day of the earliest tax deadline.
      * If a town has not paid taxes and does not have a lectern, it is marked as dormant.
      * If a town has been dormant for a specified number of days, it is removed.
+     * <p>
+     * Nothing is scheduled while no town has a deadline, so an idle server does no tax work.
      */
-    private void scheduleTaxCheck() {
-        Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            plugin.getLogger().info("Checking towns for tax payments and dormancy...");
-            List<String> towns = townDAO.getAllTownUuids();
-            java.time.LocalDate today = java.time.LocalDate.now();
-            for (String townUuid : towns) {
-                String paidUntil = townDAO.getTaxPaidUntil(townUuid);
-                if (paidUntil != null) {
-                    try {
-                        java.time.LocalDate date = java.time.LocalDate.parse(paidUntil);
-
-                        if (date.plusDays(DORMANT_DAYS_TO_DELETE_TOWN).isBefore(today)) {
-                            String name = townDAO.getTownName(townUuid);
-                            String nationId = townDAO.getNationUuidFromTownUuid(townUuid);
-                            boolean wasCapital = townDAO.isCapital(townUuid);
-                            boolean didRemoveTown = townDAO.removeTown(townUuid);
-                            if (didRemoveTown) {
-                                Bukkit.getPluginManager().callEvent(new TownRemovedEvent(townUuid, name, nationId, wasCapital));
-                                plugin.getLogger().info("Removed dormant town " + name + " after " + DORMANT_DAYS_TO_DELETE_TOWN + " days of inactivity.");
-                                plugin.getNationLogger().log("Removed dormant town " + name + " after " + DORMANT_DAYS_TO_DELETE_TOWN + " days of inactivity.");
-                            }
-                            continue;
-                        }
-                    } catch (Exception ignored) {
-                        plugin.getLogger().warning("Failed to parse tax paid date for town " + townUuid + ": " + paidUntil);
-                    }
-                }
+    private void scheduleWake() {
+        if (wakeTask != null) wakeTask.cancel();
+        wakeTask = null;
+        if (running.get()) return; // rescheduled once the running check completes
+
+        if (!retry.isEmpty()) {
+            wakeTask = Bukkit.getScheduler().runTaskLater(plugin, this::wake, RETRY_DELAY_TICKS);
+            return;
+        }
+
+        long nextDeadline = deadlines.getNextDeadline();
+        if (nextDeadline == Long.MAX_VALUE) return;
+
+        ZonedDateTime wakeAt = LocalDate.ofEpochDay(nextDeadline).atStartOfDay(ZoneId.systemDefault());
+        long delayTicks = Duration.between(ZonedDateTime.now(), wakeAt).toMillis() / 50;
+        wakeTask = Bukkit.getScheduler().runTaskLater(plugin, this::wake, Math.clamp(delayTicks, 1, MAX_SLEEP_TICKS));
+    }
+
+    private void wake() {
+        wakeTask = null;
+        if (!running.compareAndSet(false, true)) return;
+
+        Set<String> dueSet = new HashSet<>(retry);
+        dueSet.addAll(deadlines.pollDue(LocalDate.now().toEpochDay()));
+        retry.clear();
+        List<String> due = List.copyOf(dueSet);
+        if (due.isEmpty()) {
+            running.set(false);
+            scheduleWake();
+            return;
+        }
 
-                townDAO.refreshDormancy(townUuid);
+        plugin.getLogger().info("Checking " + due.size() + " towns for tax payments and dormancy...");
+        runSweep(due);
+    }
+
+    /**
+     * Checks the given towns for removal and dormancy.
+     * <p>
+     * The check itself runs off the main thread. Overdue towns are found with a set-based query on a
+     * read connection, then removed in a single transaction on the writer thread, which also evaluates
+     * and writes the dormancy changes so they are based on the data it commits against.
+     * Only the cache updates and the {@link TownRemovedEvent}s run on the main thread.
+     */
+    private void runSweep(List<String> townUuids) {
+        AsyncDatabase async = plugin.getDatabase().getAsync();
+        LocalDate today = LocalDate.now();
+        String todayDate = today.toString();
+        String cutoff = today.minusDays(DORMANT_DAYS_TO_DELETE_TOWN).toString();
+        long startNanos = System.nanoTime();
+
+        async.read(db -> {
+            TownDAO townDAO = db.getTownDAO();
+            List<TownDAO.OverdueTown> overdue = townDAO.getTownsPaidBefore(townUuids, cutoff);
+            return new SweepPlan(overdue, System.nanoTime());
+        }).thenCompose(plan -> async.write(db -> {
+            List<String> removals = plan.overdue().stream().map(TownDAO.OverdueTown::uuid).toList();
+            TownDAO.TaxSweepResult applied = db.getTownDAO().applyTaxSweep(townUuids, removals, todayDate, cutoff);
+            return new SweepResult(plan, applied, System.nanoTime());
+        })).whenComplete((result, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Tax check failed: " + error);
+                async.mainThread().execute(() -> {
+                    retry.addAll(townUuids);
+                    finishSweep();
+                });
             }
-        }, TASK_INIT_DELAY_TICKS, TAX_TASK_INTERVAL_TICKS);
+        }).thenAcceptAsync(result -> {
+            try {
+                if (result.applied() == null) {
+                    plugin.getLogger().warning("Tax check could not be applied, retrying in " + RETRY_DELAY_TICKS / 20 + " seconds.");
+                    retry.addAll(townUuids);
+                    return;
+                }
+                applyResult(result, startNanos);
+            } finally {
+                finishSweep();
+            }
+        }, async.mainThread());
+    }
+
+    private void finishSweep() {
+        running.set(false);
+        scheduleWake();
+    }
+
+    /**
+     * Updates the in-memory caches and fires a {@link TownRemovedEvent} for every removed town.
+     * Runs on the main thread once the sweep has been committed.
+     */
+    private void applyResult(SweepResult result, long startNanos) {
+        TownDAO townDAO = plugin.getDatabase().getTownDAO();
+        long applyStart = System.nanoTime();
+
+        Set<String> removed = new HashSet<>(result.applied().removed());
+        for (TownDAO.OverdueTown town : result.plan().overdue()) {
+            if (!removed.contains(town.uuid())) continue;
+
+            townDAO.evictRemovedTown(town.uuid());
+            Bukkit.getPluginManager().callEvent(new TownRemovedEvent(town.uuid(), town.name(), town.nationUuid(), town.capital()));
+            plugin.getLogger().info("Removed dormant town " + town.name() + " after " + DORMANT_DAYS_TO_DELETE_TOWN + " days of inactivity.");
+            plugin.getNationLogger().log("Removed dormant town " + town.name() + " after " + DORMANT_DAYS_TO_DELETE_TOWN + " days of inactivity.");
+        }
+
+        result.applied().dormancy().forEach(townDAO::cacheDormancy);
+
+        long doneNanos = System.nanoTime();
+        plugin.getLogger().info("Tax check finished in " + millis(startNanos, doneNanos) + "ms"
+                + " (query " + millis(startNanos, result.plan().queriedNanos()) + "ms"
+                + ", write " + millis(result.plan().queriedNanos(), result.writtenNanos()) + "ms"
+                + ", main thread " + millis(applyStart, doneNanos) + "ms): "
+                + removed.size() + " towns removed, " + result.applied().dormancy().size() + " dormancy changes.");
+    }
+
+    private static long millis(long fromNanos, long toNanos) {
+        return (toNanos - fromNanos) / 1_000_000;
+    }
+
+    /**
+     * The changes found by the read phase of a sweep.
+     */
+    private record SweepPlan(List<TownDAO.OverdueTown> overdue, long queriedNanos) {
+    }
+
+    /**
+     * The outcome of the write phase of a sweep.
+     */
+    private record SweepResult(SweepPlan plan, TownDAO.TaxSweepResult applied, long writtenNanos) {
     }
 }
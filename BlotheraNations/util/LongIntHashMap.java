@@ -0,0 +1,278 @@
+package com.blothera.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from primitive {@code long} keys to primitive {@code int} values.
+ * <p>
+ * Lookups never allocate, which makes it suitable for hot paths such as block events and
+ * player movement. Collisions are resolved with linear probing and removals use backward
+ * shifting, so there are no tombstones. The map is not thread-safe.
+ */
+public class LongIntHashMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int missingValue;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    /**
+     * Creates a map which returns {@code missingValue} for absent keys.
+     *
+     * @param missingValue The value returned by {@link #get(long)} when a key is absent.
+     */
+    public LongIntHashMap(int missingValue) {
+        this(DEFAULT_CAPACITY, missingValue);
+    }
+
+    /**
+     * Creates a map sized to hold {@code expectedSize} entries without resizing.
+     *
+     * @param expectedSize The number of entries expected.
+     * @param missingValue The value returned by {@link #get(long)} when a key is absent.
+     */
+    public LongIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return The value mapped to the key, or the missing value if absent.
+     */
+    public int get(long key) {
+        int slot = mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return true if the key is present.
+     */
+    public boolean containsKey(long key) {
+        int slot = mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The previous value, or the missing value if the key was absent.
+     */
+    public int put(long key, int value) {
+        int slot = mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return missingValue;
+    }
+
+    /**
+     * Removes a key from the map.
+     *
+     * @param key The key to remove.
+     * @return The removed value, or the missing value if the key was absent.
+     */
+    public int remove(long key) {
+        int slot = mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * @return The number of entries in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the map has no entries.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every entry, keeping the current capacity.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Calls the consumer for every entry in the map, in no particular order.
+     * The map must not be modified while iterating.
+     *
+     * @param consumer The consumer receiving each key and value.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) consumer.accept(keys[slot], values[slot]);
+        }
+    }
+
+    /**
+     * @return The number of bytes {@link #writeTo(ByteBuffer)} writes for this map.
+     */
+    public int getSerializedSize() {
+        return 8 + keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Writes the table as it is laid out in memory: the capacity and size, every key slot,
+     * then every value slot with the missing value in unused slots.
+     * The layout only depends on the hash function, so {@link #readFrom(ByteBuffer, int)}
+     * can copy it back without rehashing.
+     * Values equal to the missing value cannot be written, as they would read back as unused slots.
+     *
+     * @param buffer The buffer to write to, with at least {@link #getSerializedSize()} bytes remaining.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(keys.length);
+        buffer.putInt(size);
+        buffer.asLongBuffer().put(keys);
+        buffer.position(buffer.position() + keys.length * Long.BYTES);
+        for (int slot = 0; slot < values.length; slot++) {
+            buffer.putInt(used[slot] ? values[slot] : missingValue);
+        }
+    }
+
+    /**
+     * Reads a table written by {@link #writeTo(ByteBuffer)}.
+     *
+     * @param buffer       The buffer to read from.
+     * @param missingValue The missing value the table was written with.
+     * @return The map.
+     * @throws IllegalArgumentException if the table is malformed.
+     */
+    public static LongIntHashMap readFrom(ByteBuffer buffer, int missingValue) {
+        int capacity = buffer.getInt();
+        int size = buffer.getInt();
+        if (capacity < DEFAULT_CAPACITY || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Invalid table capacity " + capacity);
+        }
+
+        LongIntHashMap map = new LongIntHashMap(0, missingValue);
+        map.allocate(capacity);
+        if (size > map.resizeAt) {
+            throw new IllegalArgumentException("Table of capacity " + capacity + " cannot hold " + size + " entries");
+        }
+        buffer.asLongBuffer().get(map.keys);
+        buffer.position(buffer.position() + capacity * Long.BYTES);
+        buffer.asIntBuffer().get(map.values);
+        buffer.position(buffer.position() + capacity * Integer.BYTES);
+
+        for (int slot = 0; slot < capacity; slot++) {
+            if (map.values[slot] != missingValue) {
+                map.used[slot] = true;
+                map.size++;
+            }
+        }
+        if (map.size != size) {
+            throw new IllegalArgumentException("Table holds " + map.size + " entries, expected " + size);
+        }
+        return map;
+    }
+
+    /**
+     * Closes the gap left by a removed slot by moving later entries of the same probe chain back.
+     */
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (!used[slot]) break;
+            int home = mix(keys[slot]) & mask;
+            // Only move the entry if its home slot is not between the gap and its current slot
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        used[gap] = false;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i]) continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while (used[slot]) slot = (slot + 1) & mask;
+            used[slot] = true;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    /**
+     * Spreads the bits of a key so that packed coordinates do not cluster in the table.
+     */
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Receives the entries of a {@link LongIntHashMap}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+}